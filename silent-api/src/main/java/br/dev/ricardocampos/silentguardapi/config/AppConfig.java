@@ -1,5 +1,6 @@
 package br.dev.ricardocampos.silentguardapi.config;
 
+import java.util.Objects;
 import lombok.Getter;
 import lombok.ToString;
 import org.springframework.beans.factory.annotation.Value;
@@ -16,9 +17,23 @@ import org.springframework.stereotype.Component;
 @ConfigurationProperties(prefix = "br.dev.ricardocampos.silentguardapi")
 public class AppConfig {
 
+  public static final String IDENTITY_SOURCE_CLAIMS = "claims";
+
   @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}")
   private String authZeroAuthDomain;
 
+  @Value("${br.dev.ricardocampos.silentguardapi.auth.identity-source:userinfo}")
+  private String authIdentitySource;
+
+  @Value("${br.dev.ricardocampos.silentguardapi.auth.email-claim:}")
+  private String authEmailClaim;
+
+  @Value("${br.dev.ricardocampos.silentguardapi.auth.connect-timeout-millis:2000}")
+  private long authConnectTimeoutMillis;
+
+  @Value("${br.dev.ricardocampos.silentguardapi.auth.read-timeout-millis:5000}")
+  private long authReadTimeoutMillis;
+
   @Value("${br.dev.ricardocampos.silentguardapi.target-env}")
   private String targetEnv;
 
@@ -30,4 +45,116 @@ public class AppConfig {
 
   @Value("${br.dev.ricardocampos.silentguardapi.mailgun.sender-email}")
   private String mailgunSender;
+
+  @Value("${br.dev.ricardocampos.silentguardapi.mailgun.base-url:https://api.mailgun.net/v3}")
+  private String mailgunBaseUrl;
+
+  @Value("${br.dev.ricardocampos.silentguardapi.mailgun.connect-timeout-millis:5000}")
+  private long mailgunConnectTimeoutMillis;
+
+  @Value("${br.dev.ricardocampos.silentguardapi.mailgun.read-timeout-millis:10000}")
+  private long mailgunReadTimeoutMillis;
+
+  @Value("${br.dev.ricardocampos.silentguardapi.mailgun.max-in-flight:64}")
+  private int mailgunMaxInFlight;
+
+  @Value("${br.dev.ricardocampos.silentguardapi.mailgun.rate-per-second:10}")
+  private double mailgunRatePerSecond;
+
+  @Value("${br.dev.ricardocampos.silentguardapi.mailgun.burst:20}")
+  private int mailgunBurst;
+
+  @Value("${br.dev.ricardocampos.silentguardapi.mailgun.max-retries:3}")
+  private int mailgunMaxRetries;
+
+  @Value("${br.dev.ricardocampos.silentguardapi.mailgun.retry-base-millis:500}")
+  private long mailgunRetryBaseMillis;
+
+  @Value("${br.dev.ricardocampos.silentguardapi.mailgun.retry-max-millis:30000}")
+  private long mailgunRetryMaxMillis;
+
+  @Value("${br.dev.ricardocampos.silentguardapi.mailgun.fake.latency-millis:50}")
+  private long fakeMailgunLatencyMillis;
+
+  @Value("${br.dev.ricardocampos.silentguardapi.mailgun.fake.error-rate:0}")
+  private double fakeMailgunErrorRate;
+
+  @Value("${br.dev.ricardocampos.silentguardapi.mailgun.fake.throttle-rate:0}")
+  private double fakeMailgunThrottleRate;
+
+  @Value("${br.dev.ricardocampos.silentguardapi.mail.transport:mailgun}")
+  private String mailTransport;
+
+  @Value("${br.dev.ricardocampos.silentguardapi.smtp.host:localhost}")
+  private String smtpHost;
+
+  @Value("${br.dev.ricardocampos.silentguardapi.smtp.port:25}")
+  private int smtpPort;
+
+  @Value("${br.dev.ricardocampos.silentguardapi.smtp.username:}")
+  private String smtpUsername;
+
+  @Value("${br.dev.ricardocampos.silentguardapi.smtp.password:}")
+  private String smtpPassword;
+
+  @Value("${br.dev.ricardocampos.silentguardapi.smtp.tls:none}")
+  private String smtpTls;
+
+  @Value("${br.dev.ricardocampos.silentguardapi.smtp.connections:4}")
+  private int smtpConnections;
+
+  @Value("${br.dev.ricardocampos.silentguardapi.smtp.timeout-millis:10000}")
+  private int smtpTimeoutMillis;
+
+  @Value("${br.dev.ricardocampos.silentguardapi.mail.bulkhead.max-concurrent:64}")
+  private int mailBulkheadMaxConcurrent;
+
+  @Value("${br.dev.ricardocampos.silentguardapi.mail.circuit.window-size:20}")
+  private int mailCircuitWindowSize;
+
+  @Value("${br.dev.ricardocampos.silentguardapi.mail.circuit.minimum-calls:10}")
+  private int mailCircuitMinimumCalls;
+
+  @Value("${br.dev.ricardocampos.silentguardapi.mail.circuit.failure-rate-threshold:50}")
+  private int mailCircuitFailureRateThreshold;
+
+  @Value("${br.dev.ricardocampos.silentguardapi.mail.circuit.open-millis:30000}")
+  private long mailCircuitOpenMillis;
+
+  @Value("${br.dev.ricardocampos.silentguardapi.mail.circuit.half-open-probes:3}")
+  private int mailCircuitHalfOpenProbes;
+
+  /**
+   * Whether the user email is read from a claim of the validated access token, with Auth0's
+   * {@code /userinfo} only as a fallback for tokens without it.
+   *
+   * @return true when the identity source is {@code claims} and the email claim is set
+   */
+  public boolean isIdentityFromClaims() {
+    return IDENTITY_SOURCE_CLAIMS.equalsIgnoreCase(authIdentitySource)
+        && Objects.nonNull(authEmailClaim)
+        && !authEmailClaim.isBlank();
+  }
+
+  /**
+   * The sender of every email, with the display name.
+   *
+   * @return the from address
+   */
+  public String getMailFrom() {
+    return "Silent Guard <" + mailgunSender + ">";
+  }
+
+  /**
+   * The check-in link without the confirmation id, pointing at the frontend of the target
+   * environment.
+   *
+   * @return the link prefix the confirmation id is appended to
+   */
+  public String getCheckInLinkPrefix() {
+    if ("development".equals(targetEnv) || Objects.isNull(targetEnv)) {
+      return "https://silentguard-local.ricardocampos.dev.br:5173?confirmation=";
+    }
+    return String.format("https://%s%s", "silentguard.", mailgunDomain + "/?confirmation=");
+  }
 }
@@ -1,57 +1,77 @@
 package br.dev.ricardocampos.silentguardapi.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
-import java.util.concurrent.TimeUnit;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.CacheManager;
-import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 /**
- * Configuration class for caching using Caffeine. This class sets up a cache manager with specified
- * time-to-live and maximum size for the cache.
+ * Configuration class for caching using Caffeine. This class sets up the size, time-to-live and
+ * refresh settings of the user info cache built by {@code AuthService}, and the cache of
+ * decompressed message contents. The user info entries expire at their own time, bounded by the
+ * expiry of the token they were fetched with, so the time settings are applied by {@code
+ * AuthService} rather than by the builder.
  */
 @Slf4j
 @Configuration
-@EnableCaching
 public class CacheConfig {
 
+  @Getter
   @Value("${cache.auth0.ttl-minutes}")
   private int ttlMinutes;
 
   @Value("${cache.auth0.max-size:1000}")
   private int maxSize;
 
+  @Getter
   @Value("${cache.auth0.access-ttl-minutes:10}")
   private int accessTtlMinutes;
 
+  @Getter
+  @Value("${cache.auth0.refresh-minutes:120}")
+  private int refreshMinutes;
+
+  @Value("${cache.message-content.max-bytes:16777216}")
+  private long messageContentMaxBytes;
+
   /**
-   * Configures a Caffeine cache manager with specified settings.
+   * Builds a Caffeine cache configuration for the user info cache with a size-based eviction
+   * policy. The time-based one is added per entry by the cache user, from {@link
+   * #getTtlMinutes()}, {@link #getAccessTtlMinutes()} and {@link #getRefreshMinutes()}, since
+   * Caffeine doesn't combine a per-entry expiry with fixed ones. Not a bean: a Caffeine builder can
+   * be configured only once, so every call returns a new one.
    *
-   * @return a configured CacheManager instance.
+   * @return a new Caffeine cache builder instance.
    */
-  @Bean
-  public CacheManager cacheManager() {
-    CaffeineCacheManager cacheManager = new CaffeineCacheManager("userInfoDto");
-    cacheManager.setCaffeine(caffeineCacheBuilder());
-    return cacheManager;
+  public Caffeine<Object, Object> userInfoCacheBuilder() {
+    return Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .recordStats()
+        .removalListener((key, value, cause) -> log.info("Cache entry removed: {}", cause));
   }
 
   /**
-   * Builds a Caffeine cache configuration with size and time-based eviction policies.
+   * Builds the cache of decompressed message contents by content id. Contents are shared by the
+   * messages that have the same one, so each is cached once. The cache is bounded by the size of
+   * the contents, counted as two bytes per character, and reported as the {@code messageContent}
+   * cache meters.
    *
-   * @return a Caffeine cache builder instance.
+   * @param meterRegistry the registry for the cache meters
+   * @return the message content cache
    */
   @Bean
-  public Caffeine<Object, Object> caffeineCacheBuilder() {
-    return Caffeine.newBuilder()
-        .maximumSize(maxSize)
-        .expireAfterWrite(ttlMinutes, TimeUnit.MINUTES)
-        .expireAfterAccess(accessTtlMinutes, TimeUnit.MINUTES)
-        .recordStats()
-        .removalListener((key, value, cause) -> log.info("Cache entry removed: {}", cause));
+  public Cache<Long, String> messageContentCache(MeterRegistry meterRegistry) {
+    Cache<Long, String> cache =
+        Caffeine.newBuilder()
+            .maximumWeight(messageContentMaxBytes)
+            .weigher((Long id, String content) -> content.length() * 2)
+            .recordStats()
+            .build();
+    return CaffeineCacheMetrics.monitor(meterRegistry, cache, "messageContent");
   }
 }
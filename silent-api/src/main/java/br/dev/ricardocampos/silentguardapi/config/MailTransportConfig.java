@@ -0,0 +1,162 @@
+package br.dev.ricardocampos.silentguardapi.config;
+
+import br.dev.ricardocampos.silentguardapi.mail.FakeMailgunServer;
+import br.dev.ricardocampos.silentguardapi.mail.MailTransport;
+import br.dev.ricardocampos.silentguardapi.mail.ResilientMailTransport;
+import br.dev.ricardocampos.silentguardapi.mail.SmtpMailTransport;
+import br.dev.ricardocampos.silentguardapi.service.MailgunEmailService;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Properties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+@Slf4j
+@Configuration
+public class MailTransportConfig {
+
+  public static final String TRANSPORT_MAILGUN = "mailgun";
+
+  public static final String TRANSPORT_SMTP = "smtp";
+
+  public static final String TRANSPORT_FAKE_MAILGUN = "fake-mailgun";
+
+  public static final String SMTP_TLS_NONE = "none";
+
+  public static final String SMTP_TLS_STARTTLS = "starttls";
+
+  public static final String SMTP_TLS_IMPLICIT = "implicit";
+
+  /**
+   * The client every Mailgun request is sent with. It keeps connections alive between sends and
+   * negotiates HTTP/2 when Mailgun offers it, so concurrent sends share one connection.
+   *
+   * @param appConfig the application configuration containing Mailgun settings
+   * @return the shared Mailgun HTTP client
+   */
+  @Bean
+  public HttpClient mailgunHttpClient(AppConfig appConfig) {
+    return HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_2)
+        .connectTimeout(Duration.ofMillis(appConfig.getMailgunConnectTimeoutMillis()))
+        .build();
+  }
+
+  /**
+   * The embedded fake Mailgun server, started only for the {@code fake-mailgun} transport.
+   *
+   * @param appConfig the application configuration containing the fake server settings
+   * @return the started server
+   * @throws IOException if the server can't bind a port
+   */
+  @Bean(destroyMethod = "close")
+  @ConditionalOnProperty(
+      name = "br.dev.ricardocampos.silentguardapi.mail.transport",
+      havingValue = TRANSPORT_FAKE_MAILGUN)
+  public FakeMailgunServer fakeMailgunServer(AppConfig appConfig) throws IOException {
+    return new FakeMailgunServer(
+            Duration.ofMillis(appConfig.getFakeMailgunLatencyMillis()),
+            appConfig.getFakeMailgunErrorRate(),
+            appConfig.getFakeMailgunThrottleRate())
+        .start();
+  }
+
+  /**
+   * The transport every email is sent with, chosen by {@code mail.transport}: {@code mailgun}
+   * (default), {@code smtp} or {@code fake-mailgun}, behind a circuit breaker and a bulkhead.
+   *
+   * @param appConfig the application configuration containing the transport settings
+   * @param mailgunHttpClient the shared Mailgun HTTP client
+   * @param meterRegistry the registry for the transport meters
+   * @param clock the application clock
+   * @param fakeMailgunServer the fake Mailgun server, present for {@code fake-mailgun} only
+   * @return the guarded mail transport
+   */
+  @Bean
+  public ResilientMailTransport mailTransport(
+      AppConfig appConfig,
+      @Qualifier("mailgunHttpClient") HttpClient mailgunHttpClient,
+      MeterRegistry meterRegistry,
+      Clock clock,
+      ObjectProvider<FakeMailgunServer> fakeMailgunServer) {
+    String transport = appConfig.getMailTransport();
+    log.info("Sending emails with the {} transport", transport);
+    MailTransport delegate =
+        switch (transport) {
+          case TRANSPORT_SMTP ->
+              new SmtpMailTransport(smtpMailSender(appConfig), appConfig, clock);
+          case TRANSPORT_FAKE_MAILGUN ->
+              new MailgunEmailService(
+                  mailgunHttpClient,
+                  appConfig,
+                  meterRegistry,
+                  fakeMailgunServer.getObject().getBaseUrl());
+          case TRANSPORT_MAILGUN ->
+              new MailgunEmailService(
+                  mailgunHttpClient, appConfig, meterRegistry, appConfig.getMailgunBaseUrl());
+          default -> throw new IllegalStateException("Unknown mail transport: " + transport);
+        };
+    return new ResilientMailTransport(delegate, appConfig, meterRegistry);
+  }
+
+  /**
+   * The sender of the {@code smtp} transport. {@code smtp.tls} is {@code none}, {@code starttls}
+   * or {@code implicit}; with TLS the server certificate must match {@code smtp.host}, and
+   * credentials are only accepted with TLS so they never cross the network in clear.
+   *
+   * @param appConfig the application configuration containing the SMTP settings
+   * @return the configured sender
+   * @throws IllegalStateException if the TLS mode is unknown or credentials are set without TLS
+   */
+  JavaMailSenderImpl smtpMailSender(AppConfig appConfig) {
+    JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+    mailSender.setHost(appConfig.getSmtpHost());
+    mailSender.setPort(appConfig.getSmtpPort());
+    mailSender.setDefaultEncoding(StandardCharsets.UTF_8.name());
+
+    Properties properties = mailSender.getJavaMailProperties();
+    String timeout = String.valueOf(appConfig.getSmtpTimeoutMillis());
+    properties.setProperty("mail.smtp.connectiontimeout", timeout);
+    properties.setProperty("mail.smtp.timeout", timeout);
+    properties.setProperty("mail.smtp.writetimeout", timeout);
+    properties.setProperty("mail.smtp.from", appConfig.getMailgunSender());
+    properties.setProperty("mail.smtp.sendpartial", "true");
+
+    String tls = appConfig.getSmtpTls().toLowerCase(Locale.ROOT);
+    switch (tls) {
+      case SMTP_TLS_NONE -> {
+        if (!appConfig.getSmtpUsername().isEmpty()) {
+          throw new IllegalStateException(
+              "SMTP credentials are set but smtp.tls is none; use starttls or implicit");
+        }
+      }
+      case SMTP_TLS_STARTTLS -> {
+        properties.setProperty("mail.smtp.starttls.enable", "true");
+        properties.setProperty("mail.smtp.starttls.required", "true");
+        properties.setProperty("mail.smtp.ssl.checkserveridentity", "true");
+      }
+      case SMTP_TLS_IMPLICIT -> {
+        properties.setProperty("mail.smtp.ssl.enable", "true");
+        properties.setProperty("mail.smtp.ssl.checkserveridentity", "true");
+      }
+      default -> throw new IllegalStateException("Unknown SMTP TLS mode: " + tls);
+    }
+
+    if (!appConfig.getSmtpUsername().isEmpty()) {
+      properties.setProperty("mail.smtp.auth", "true");
+      mailSender.setUsername(appConfig.getSmtpUsername());
+      mailSender.setPassword(appConfig.getSmtpPassword());
+    }
+    return mailSender;
+  }
+}
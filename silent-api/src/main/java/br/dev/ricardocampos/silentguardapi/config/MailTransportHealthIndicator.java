@@ -0,0 +1,43 @@
+package br.dev.ricardocampos.silentguardapi.config;
+
+import br.dev.ricardocampos.silentguardapi.mail.ResilientMailTransport;
+import br.dev.ricardocampos.silentguardapi.util.CircuitBreaker;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+/**
+ * Shows the mail transport circuit breaker in actuator health, as the {@code mailTransport}
+ * component. An open breaker reports {@code CIRCUIT_OPEN}: emails are deferred to the outbox, not
+ * lost, so the status is left out of the aggregate and doesn't take the application down.
+ */
+@Component
+@AllArgsConstructor
+public class MailTransportHealthIndicator implements HealthIndicator {
+
+  public static final Status CIRCUIT_OPEN =
+      new Status("CIRCUIT_OPEN", "Mail provider failing, sends are deferred to the outbox");
+
+  private final ResilientMailTransport mailTransport;
+
+  /**
+   * Returns the circuit breaker state, failure rate and free send slots.
+   *
+   * @return the mail transport health
+   */
+  @Override
+  public Health health() {
+    CircuitBreaker circuitBreaker = mailTransport.getCircuitBreaker();
+    CircuitBreaker.State state = circuitBreaker.getState();
+    Health.Builder health =
+        state == CircuitBreaker.State.OPEN ? Health.status(CIRCUIT_OPEN) : Health.up();
+    return health
+        .withDetail("circuitBreaker", state)
+        .withDetail("failureRate", circuitBreaker.getFailureRate())
+        .withDetail("recordedCalls", circuitBreaker.getRecordedCalls())
+        .withDetail("bulkheadAvailable", mailTransport.getBulkheadAvailable())
+        .build();
+  }
+}
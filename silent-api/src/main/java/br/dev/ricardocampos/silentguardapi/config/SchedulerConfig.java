@@ -0,0 +1,153 @@
+package br.dev.ricardocampos.silentguardapi.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reminder scheduler configuration. The mode decides who fires reminders: {@code memory} keeps a
+ * timer per active message in this JVM, {@code horizon} keeps timers only for reminders due within
+ * the configured horizon and {@code polling} lets every node claim due rows from the database so
+ * several API instances can run side by side.
+ */
+@Getter
+@ToString
+@Component
+public class SchedulerConfig {
+
+  public static final String MODE_MEMORY = "memory";
+
+  public static final String MODE_POLLING = "polling";
+
+  public static final String MODE_HORIZON = "horizon";
+
+  public static final String DISPATCH_VIRTUAL = "virtual";
+
+  @Value("${scheduler.mode:memory}")
+  private String mode;
+
+  @Value("${scheduler.polling.batch-size:100}")
+  private int pollingBatchSize;
+
+  @Value("${scheduler.polling.retry-delay-seconds:60}")
+  private int pollingRetryDelaySeconds;
+
+  @Value("${scheduler.horizon.minutes:15}")
+  private int horizonMinutes;
+
+  @Value("${scheduler.dispatch.type:platform}")
+  private String dispatchType;
+
+  @Value("${scheduler.dispatch.concurrency:4}")
+  private int dispatchConcurrency;
+
+  @Value("${scheduler.dispatch.queue-capacity:10000}")
+  private int dispatchQueueCapacity;
+
+  @Value("${scheduler.catch-up.enabled:true}")
+  private boolean catchUpEnabled;
+
+  @Value("${scheduler.catch-up.rate-per-second:10}")
+  private int catchUpRatePerSecond;
+
+  @Value("${scheduler.outbox.enabled:true}")
+  private boolean outboxEnabled;
+
+  @Value("${scheduler.outbox.batch-size:50}")
+  private int outboxBatchSize;
+
+  @Value("${scheduler.outbox.check-in-batch-size:1000}")
+  private int outboxCheckInBatchSize;
+
+  @Value("${scheduler.outbox.max-attempts:8}")
+  private int outboxMaxAttempts;
+
+  @Value("${scheduler.outbox.retry-base-seconds:30}")
+  private long outboxRetryBaseSeconds;
+
+  @Value("${scheduler.outbox.lease-seconds:300}")
+  private long outboxLeaseSeconds;
+
+  @Value("${scheduler.outbox.retention-hours:168}")
+  private long outboxRetentionHours;
+
+  @Value("${scheduler.outbox.retention-batch-size:1000}")
+  private int outboxRetentionBatchSize;
+
+  @Value("${scheduler.restore.page-size:1000}")
+  private int restorePageSize;
+
+  @Value("${scheduler.restore.parallelism:4}")
+  private int restoreParallelism;
+
+  @Value("${scheduler.sharding.enabled:false}")
+  private boolean shardingEnabled;
+
+  @Value("${scheduler.sharding.node-id:}")
+  private String shardingNodeId;
+
+  @Value("${scheduler.sharding.heartbeat-interval-millis:10000}")
+  private long shardingHeartbeatIntervalMillis;
+
+  @Value("${scheduler.sharding.node-ttl-seconds:30}")
+  private int shardingNodeTtlSeconds;
+
+  @Value("${scheduler.sharding.virtual-nodes:128}")
+  private int shardingVirtualNodes;
+
+  @Value("${scheduler.sharding.slot-count:1024}")
+  private int shardingSlotCount;
+
+  @Value("${scheduler.digest.enabled:false}")
+  private boolean digestEnabled;
+
+  @Value("${scheduler.digest.window-minutes:60}")
+  private int digestWindowMinutes;
+
+  /**
+   * Whether reminders are claimed from the database instead of kept in memory.
+   *
+   * @return true for the polling mode
+   */
+  public boolean isPollingMode() {
+    return MODE_POLLING.equalsIgnoreCase(mode);
+  }
+
+  /**
+   * Whether only reminders due within the horizon are kept in memory.
+   *
+   * @return true for the horizon mode
+   */
+  public boolean isHorizonMode() {
+    return MODE_HORIZON.equalsIgnoreCase(mode);
+  }
+
+  /**
+   * Whether due reminders run on one virtual thread each instead of a platform thread pool.
+   *
+   * @return true for virtual thread dispatch
+   */
+  public boolean isVirtualDispatch() {
+    return DISPATCH_VIRTUAL.equalsIgnoreCase(dispatchType);
+  }
+
+  /**
+   * How far ahead reminders are armed in horizon mode.
+   *
+   * @return the horizon duration
+   */
+  public Duration getHorizon() {
+    return Duration.ofMinutes(horizonMinutes);
+  }
+
+  /**
+   * How far ahead the check-ins of a user are pulled into a digest in digest mode.
+   *
+   * @return the digest window duration
+   */
+  public Duration getDigestWindow() {
+    return Duration.ofMinutes(digestWindowMinutes);
+  }
+}
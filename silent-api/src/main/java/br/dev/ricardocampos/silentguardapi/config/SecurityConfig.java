@@ -1,5 +1,7 @@
 package br.dev.ricardocampos.silentguardapi.config;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -56,6 +58,21 @@ public class SecurityConfig {
     return http.build();
   }
 
+  /**
+   * The client every Auth0 {@code /userinfo} request is sent with. It keeps connections alive
+   * between requests, so only the first call after a quiet period pays for the TLS handshake.
+   *
+   * @param appConfig the application configuration containing the Auth0 timeouts
+   * @return the shared Auth0 HTTP client
+   */
+  @Bean
+  public HttpClient auth0HttpClient(AppConfig appConfig) {
+    return HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_2)
+        .connectTimeout(Duration.ofMillis(appConfig.getAuthConnectTimeoutMillis()))
+        .build();
+  }
+
   private Converter<Jwt, AbstractAuthenticationToken> converter() {
     return new JwtAuthenticationConverter();
   }
@@ -1,7 +1,10 @@
 package br.dev.ricardocampos.silentguardapi.config;
 
 import jakarta.annotation.PostConstruct;
+import java.time.Clock;
+import java.time.ZoneId;
 import java.util.TimeZone;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
@@ -13,4 +16,15 @@ public class TimeZoneConfig {
   public void init() {
     TimeZone.setDefault(TimeZone.getTimeZone(DEFAULT_TIMEZONE));
   }
+
+  /**
+   * The clock every reminder time is read from. Tests and simulations replace it to run at
+   * accelerated or fixed time.
+   *
+   * @return the system clock in the default time zone
+   */
+  @Bean
+  public Clock clock() {
+    return Clock.system(ZoneId.of(DEFAULT_TIMEZONE));
+  }
 }
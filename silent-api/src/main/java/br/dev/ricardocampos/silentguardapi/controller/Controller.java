@@ -32,7 +32,7 @@ public class Controller {
   private final MessageService messageService;
 
   /**
-   * Retrieves a list of all messages.
+   * Retrieves a list of all messages, without their content.
    *
    * @return a ResponseEntity containing a list of MessageDto objects
    */
@@ -41,6 +41,17 @@ public class Controller {
     return ResponseEntity.ok(messageService.getMessages());
   }
 
+  /**
+   * Retrieves a specific message by its ID, with its content.
+   *
+   * @param id the ID of the message to retrieve
+   * @return a ResponseEntity containing the MessageDto object
+   */
+  @GetMapping("/{id}")
+  public ResponseEntity<MessageDto> getMessage(@PathVariable("id") Long id) {
+    return ResponseEntity.ok(messageService.getMessage(id));
+  }
+
   /**
    * Retrieves a specific message by its ID.
    *
@@ -0,0 +1,27 @@
+package br.dev.ricardocampos.silentguardapi.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Data Transfer Object (DTO) with the few columns needed to arm an active reminder. It is read with
+ * a single join of messages and users, without the message content.
+ *
+ * @param id the message id
+ * @param userId the owner id
+ * @param userEmail the owner email, where check-in requests are sent
+ * @param reminderUuid the confirmation id used in the check-in link
+ * @param nextReminderDue when the next check-in request is due
+ * @param numberToTrigger the number of time units between check-ins
+ * @param typeToTrigger the time unit between check-ins
+ * @param contentDue when the content is due if the user doesn't check in, or null
+ */
+public record ActiveReminderDto(
+    Long id,
+    Long userId,
+    String userEmail,
+    UUID reminderUuid,
+    LocalDateTime nextReminderDue,
+    Integer numberToTrigger,
+    String typeToTrigger,
+    LocalDateTime contentDue) {}
@@ -0,0 +1,13 @@
+package br.dev.ricardocampos.silentguardapi.dto;
+
+import java.time.Duration;
+
+/**
+ * Data Transfer Object (DTO) for one message of a digest check-in email. A digest lists every
+ * message of a user due in the same window, each with its own check-in link and time to respond.
+ *
+ * @param subject the subject of the message, shown to the user
+ * @param confirmationId the confirmation id used in the check-in link of the message
+ * @param timeToRespond how long the user has to check in for the message
+ */
+public record CheckInDigestItemDto(String subject, String confirmationId, Duration timeToRespond) {}
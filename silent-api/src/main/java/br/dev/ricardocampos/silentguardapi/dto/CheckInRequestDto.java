@@ -0,0 +1,13 @@
+package br.dev.ricardocampos.silentguardapi.dto;
+
+import java.time.Duration;
+
+/**
+ * Data Transfer Object (DTO) for one check-in request of a batch send. Each request becomes one
+ * recipient of the batch, with its own check-in link and time to respond.
+ *
+ * @param recipient the email address the check-in request is sent to
+ * @param confirmationId the confirmation id used in the check-in link
+ * @param timeToRespond how long the user has to check in
+ */
+public record CheckInRequestDto(String recipient, String confirmationId, Duration timeToRespond) {}
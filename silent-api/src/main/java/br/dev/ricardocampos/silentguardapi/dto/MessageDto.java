@@ -8,6 +8,7 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import java.time.Clock;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -21,7 +22,8 @@ import java.util.Objects;
  * @param id the unique identifier of the message
  * @param subject the subject of the message
  * @param recipients the list of email addresses of the message recipients
- * @param content the content of the message
+ * @param content the content of the message, left out (null) of message lists; on update, null
+ *     keeps the stored content
  * @param daysToTrigger the number of days after which the message should be triggered
  * @param active indicates whether the message is active or not
  * @param lastCheckIn the last time the message was checked in a human-readable format
@@ -39,24 +41,37 @@ public record MessageDto(
     String nextReminder) {
 
   /**
-   * Converts a MessageEntity to a MessageDto.
+   * Converts a MessageEntity to a MessageDto, without its content.
    *
    * @param e the MessageEntity to convert
+   * @param clock the clock the time to the next reminder is measured from
    * @return a MessageDto representing the given MessageEntity
    */
-  public static MessageDto fromEntity(MessageEntity e) {
+  public static MessageDto fromEntity(MessageEntity e, Clock clock) {
+    return fromEntity(e, null, clock);
+  }
+
+  /**
+   * Converts a MessageEntity and its content to a MessageDto.
+   *
+   * @param e the MessageEntity to convert
+   * @param content the content of the message
+   * @param clock the clock the time to the next reminder is measured from
+   * @return a MessageDto representing the given MessageEntity
+   */
+  public static MessageDto fromEntity(MessageEntity e, String content, Clock clock) {
     Boolean active = Objects.isNull(e.getDisabledAt());
     List<String> emails = Arrays.asList(e.getTargets().split(";"));
-    Duration durationNext = Duration.between(LocalDateTime.now(), e.getNextReminderDue());
+    Duration durationNext = Duration.between(LocalDateTime.now(clock), e.getNextReminderDue());
     return new MessageDto(
         e.getId(),
         e.getSubject(),
         emails,
-        e.getContent(),
+        content,
         e.getNumberToTrigger(),
         TypeToTriggerEnum.fromString(e.getTypeToTrigger()),
         active,
-        FormatUtil.formatTimeAgo(e.getLastCheckIn()),
+        FormatUtil.formatTimeAgo(e.getLastCheckIn(), clock),
         FormatUtil.formatDuration(durationNext));
   }
 }
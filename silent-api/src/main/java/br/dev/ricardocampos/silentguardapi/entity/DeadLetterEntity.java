@@ -0,0 +1,55 @@
+package br.dev.ricardocampos.silentguardapi.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import lombok.Data;
+
+/**
+ * Entity representing an outbox email that ran out of attempts. It keeps everything needed to send
+ * the email again, so an operator can inspect the error and replay it once Mailgun is back.
+ */
+@Data
+@Entity
+@Table(name = "sg_dead_letters")
+public class DeadLetterEntity {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "outbox_id", nullable = false)
+  private Long outboxId;
+
+  @Column(name = "message_id", nullable = false)
+  private Long messageId;
+
+  @Column(nullable = false, length = 20)
+  private String kind;
+
+  @Column(nullable = false, length = 3000)
+  private String recipients;
+
+  @Column(name = "confirmation_id", columnDefinition = "uuid")
+  private UUID confirmationId;
+
+  @Column(name = "time_to_respond_seconds")
+  private Long timeToRespondSeconds;
+
+  @Column(nullable = false)
+  private Integer attempts;
+
+  @Column(name = "last_error", length = 1000)
+  private String lastError;
+
+  @Column(name = "created_at", nullable = false)
+  private LocalDateTime createdAt;
+
+  @Column(name = "dead_at", nullable = false)
+  private LocalDateTime deadAt;
+}
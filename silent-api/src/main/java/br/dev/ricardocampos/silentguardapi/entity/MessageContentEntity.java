@@ -0,0 +1,40 @@
+package br.dev.ricardocampos.silentguardapi.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * Entity representing the content of a message, kept apart from {@link MessageEntity} so that
+ * loading a message for a reminder, a check-in or the dashboard doesn't read it. The content is
+ * stored Deflate compressed, with the size of its UTF-8 bytes before compression.
+ *
+ * <p>Contents are addressed by the SHA-256 digest of those bytes: messages with the same content
+ * share one row, which counts the messages pointing at it and is deleted with the last of them.
+ * A row is never changed once written; a message whose content changes points at another row.
+ */
+@Data
+@Entity
+@Table(name = "sg_message_contents")
+public class MessageContentEntity {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false, unique = true, columnDefinition = "BYTEA")
+  private byte[] digest;
+
+  @Column(nullable = false, columnDefinition = "BYTEA")
+  private byte[] data;
+
+  @Column(name = "original_size", nullable = false)
+  private Integer originalSize;
+
+  @Column(name = "ref_count", nullable = false)
+  private Integer refCount;
+}
@@ -12,8 +12,9 @@ import lombok.Data;
 
 /**
  * Entity representing a message in the Silent Guard application. This entity stores information
- * about messages sent to users, including the user ID, subject, targets, content, and various
- * timestamps for reminders and checks.
+ * about messages sent to users, including the user ID, subject, targets, and various timestamps for
+ * reminders and checks. The content lives in {@link MessageContentEntity} and is only read by
+ * {@link br.dev.ricardocampos.silentguardapi.service.MessageContentService} when it is needed.
  */
 @Data
 @Entity
@@ -39,8 +40,8 @@ public class MessageEntity {
   @Column(nullable = false, length = 3000)
   private String targets;
 
-  @Column(columnDefinition = "TEXT")
-  private String content;
+  @Column(name = "content_id", nullable = false)
+  private Long contentId;
 
   @Column(name = "last_reminder_sent")
   private LocalDateTime lastReminderSent;
@@ -51,6 +52,9 @@ public class MessageEntity {
   @Column(name = "last_check_in")
   private LocalDateTime lastCheckIn;
 
+  @Column(name = "content_due")
+  private LocalDateTime contentDue;
+
   @Column(name = "reminder_uuid", columnDefinition = "uuid", nullable = false, unique = true)
   private UUID reminderUuid;
 
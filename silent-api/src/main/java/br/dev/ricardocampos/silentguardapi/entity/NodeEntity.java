@@ -0,0 +1,29 @@
+package br.dev.ricardocampos.silentguardapi.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import lombok.Data;
+
+/**
+ * Entity representing an API node taking part in reminder sharding. Each node refreshes its
+ * heartbeat periodically; nodes whose heartbeat is older than the configured time to live are
+ * considered gone and their shards move to the remaining nodes.
+ */
+@Data
+@Entity
+@Table(name = "sg_nodes")
+public class NodeEntity {
+
+  @Id
+  @Column(name = "node_id", length = 100)
+  private String nodeId;
+
+  @Column(name = "started_at", nullable = false)
+  private LocalDateTime startedAt;
+
+  @Column(name = "heartbeat_at", nullable = false)
+  private LocalDateTime heartbeatAt;
+}
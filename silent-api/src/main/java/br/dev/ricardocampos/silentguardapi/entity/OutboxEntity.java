@@ -0,0 +1,57 @@
+package br.dev.ricardocampos.silentguardapi.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import lombok.Data;
+
+/**
+ * Entity representing an email waiting in the outbox. Rows are written in the same transaction as
+ * the reminder state change that produced them and are sent later by the outbox worker, so an email
+ * is never lost nor duplicated by a crash between sending and updating the database. Emails that
+ * run out of attempts move to {@link DeadLetterEntity}.
+ */
+@Data
+@Entity
+@Table(name = "sg_outbox")
+public class OutboxEntity {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "message_id", nullable = false)
+  private Long messageId;
+
+  @Column(nullable = false, length = 20)
+  private String kind;
+
+  @Column(nullable = false, length = 3000)
+  private String recipients;
+
+  @Column(name = "confirmation_id", columnDefinition = "uuid")
+  private UUID confirmationId;
+
+  @Column(name = "time_to_respond_seconds")
+  private Long timeToRespondSeconds;
+
+  @Column(nullable = false)
+  private Integer attempts;
+
+  @Column(name = "next_attempt_at", nullable = false)
+  private LocalDateTime nextAttemptAt;
+
+  @Column(name = "last_error", length = 1000)
+  private String lastError;
+
+  @Column(name = "created_at", nullable = false)
+  private LocalDateTime createdAt;
+
+  @Column(name = "sent_at")
+  private LocalDateTime sentAt;
+}
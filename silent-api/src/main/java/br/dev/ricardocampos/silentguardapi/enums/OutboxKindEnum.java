@@ -0,0 +1,7 @@
+package br.dev.ricardocampos.silentguardapi.enums;
+
+/** Enum representing the kinds of emails queued in the outbox. */
+public enum OutboxKindEnum {
+  CHECK_IN,
+  CONTENT
+}
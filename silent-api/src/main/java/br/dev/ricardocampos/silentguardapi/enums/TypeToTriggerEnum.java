@@ -1,5 +1,7 @@
 package br.dev.ricardocampos.silentguardapi.enums;
 
+import java.time.Duration;
+
 /**
  * Enum representing the types of time units that can be used to trigger actions.
  */
@@ -16,4 +18,18 @@ public enum TypeToTriggerEnum {
     }
     throw new IllegalArgumentException("Invalid type: " + value);
   }
+
+  /**
+   * Converts an amount of this time unit to a duration.
+   *
+   * @param amount the number of units
+   * @return the matching duration
+   */
+  public Duration toDuration(int amount) {
+    return switch (this) {
+      case DAYS -> Duration.ofDays(amount);
+      case HOURS -> Duration.ofHours(amount);
+      case MINUTES -> Duration.ofMinutes(amount);
+    };
+  }
 }
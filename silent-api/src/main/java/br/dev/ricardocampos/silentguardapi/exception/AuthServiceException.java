@@ -0,0 +1,23 @@
+package br.dev.ricardocampos.silentguardapi.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Exception thrown when the user info can't be fetched from Auth0, such as when Auth0 is
+ * unavailable, throttles the requests or doesn't answer in time. This exception is used to
+ * indicate that the user can't be identified at the moment, not that the user is invalid.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class AuthServiceException extends ResponseStatusException {
+
+  /**
+   * Constructs a new AuthServiceException with the given error message.
+   *
+   * @param error the reason the user info couldn't be fetched
+   */
+  public AuthServiceException(String error) {
+    super(HttpStatus.SERVICE_UNAVAILABLE, error);
+  }
+}
@@ -0,0 +1,18 @@
+package br.dev.ricardocampos.silentguardapi.exception;
+
+/**
+ * Exception thrown when the mail transport refuses a send without trying it, because its circuit
+ * breaker is open or all of its concurrent send slots are taken. Nothing was sent, so the caller
+ * should keep the email for later instead of counting it as a failed attempt.
+ */
+public class MailDeferredException extends MailServiceException {
+
+  /**
+   * Constructs a new MailDeferredException.
+   *
+   * @param error why the send was refused
+   */
+  public MailDeferredException(String error) {
+    super(error);
+  }
+}
@@ -0,0 +1,204 @@
+package br.dev.ricardocampos.silentguardapi.mail;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Embedded stand-in for the Mailgun messages endpoint, for load tests and benchmarks without
+ * network access. It listens on the loopback interface, answers {@code POST
+ * /v3/{domain}/messages} after a fixed latency and accepts the email, unless error injection
+ * answers 500 ({@code errorRate}) or 429 with {@code Retry-After: 1} ({@code throttleRate})
+ * instead. Requests without an {@code Authorization} header get 401. Each request runs on its own
+ * virtual thread, so the latency costs no platform thread.
+ */
+@Slf4j
+public class FakeMailgunServer implements AutoCloseable {
+
+  static {
+    // the JDK server writes headers and body apart; with Nagle on, each answer waits for a
+    // delayed ACK of about 40 ms, which would hide the configured latency
+    if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+      System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+  }
+
+  private final Duration latency;
+
+  private final double errorRate;
+
+  private final double throttleRate;
+
+  private final LongAdder accepted = new LongAdder();
+
+  private final LongAdder recipients = new LongAdder();
+
+  private final LongAdder failed = new LongAdder();
+
+  private HttpServer server;
+
+  private ExecutorService executor;
+
+  /**
+   * Constructs the server, not started yet.
+   *
+   * @param latency how long each answer takes
+   * @param errorRate the share of requests answered with 500, from 0 to 1
+   * @param throttleRate the share of requests answered with 429, from 0 to 1
+   */
+  public FakeMailgunServer(Duration latency, double errorRate, double throttleRate) {
+    this.latency = latency;
+    this.errorRate = errorRate;
+    this.throttleRate = throttleRate;
+  }
+
+  /**
+   * Start listening on a free loopback port.
+   *
+   * @return this server
+   * @throws IOException if the port can't be bound
+   */
+  public FakeMailgunServer start() throws IOException {
+    executor = Executors.newVirtualThreadPerTaskExecutor();
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.setExecutor(executor);
+    server.createContext("/v3/", this::handle);
+    server.start();
+    log.info(
+        "Fake Mailgun listening on {} with {} ms latency, error rate {}, throttle rate {}",
+        getBaseUrl(),
+        latency.toMillis(),
+        errorRate,
+        throttleRate);
+    return this;
+  }
+
+  /**
+   * The base URL to give the Mailgun transport.
+   *
+   * @return the base URL, such as {@code http://127.0.0.1:40123/v3}
+   */
+  public String getBaseUrl() {
+    InetSocketAddress address = server.getAddress();
+    return "http://" + address.getHostString() + ":" + address.getPort() + "/v3";
+  }
+
+  /**
+   * How many requests were accepted.
+   *
+   * @return the accepted request count
+   */
+  public long getAccepted() {
+    return accepted.sum();
+  }
+
+  /**
+   * How many recipients the accepted requests had, one per {@code to} field.
+   *
+   * @return the recipient count
+   */
+  public long getRecipients() {
+    return recipients.sum();
+  }
+
+  /**
+   * How many requests got an injected error or were refused.
+   *
+   * @return the failed request count
+   */
+  public long getFailed() {
+    return failed.sum();
+  }
+
+  @Override
+  public void close() {
+    if (server != null) {
+      server.stop(0);
+      executor.close();
+    }
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    try (exchange) {
+      int toFields = countToFields(new BufferedInputStream(exchange.getRequestBody()));
+      if (latency.isPositive()) {
+        Thread.sleep(latency);
+      }
+
+      if (!"POST".equals(exchange.getRequestMethod())
+          || !exchange.getRequestURI().getPath().endsWith("/messages")) {
+        respond(exchange, 404, "{\"message\":\"Not Found\"}");
+        return;
+      }
+      if (!exchange.getRequestHeaders().containsKey("Authorization")) {
+        respond(exchange, 401, "{\"message\":\"Forbidden\"}");
+        return;
+      }
+
+      double roll = ThreadLocalRandom.current().nextDouble();
+      if (roll < errorRate) {
+        respond(exchange, 500, "{\"message\":\"Injected error\"}");
+        return;
+      }
+      if (roll < errorRate + throttleRate) {
+        exchange.getResponseHeaders().add("Retry-After", "1");
+        respond(exchange, 429, "{\"message\":\"Injected throttling\"}");
+        return;
+      }
+
+      accepted.increment();
+      recipients.add(toFields);
+      String id = "<" + UUID.randomUUID() + "@fake.mailgun>";
+      respond(exchange, 200, "{\"id\":\"" + id + "\",\"message\":\"Queued. Thank you.\"}");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void respond(HttpExchange exchange, int status, String body) throws IOException {
+    if (status != 200) {
+      failed.increment();
+    }
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().add("Content-Type", "application/json");
+    exchange.sendResponseHeaders(status, bytes.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+
+  /** Count the {@code to} fields of a form body while draining it. */
+  private static int countToFields(InputStream body) throws IOException {
+    int count = 0;
+    // state: 0 at a field start, 1 after 't', 2 after "to", 3 inside any other field
+    int state = 0;
+    for (int b = body.read(); b != -1; b = body.read()) {
+      if (b == '&') {
+        state = 0;
+      } else if (state == 0) {
+        state = b == 't' ? 1 : 3;
+      } else if (state == 1) {
+        state = b == 'o' ? 2 : 3;
+      } else if (state == 2) {
+        if (b == '=') {
+          count++;
+        }
+        state = 3;
+      }
+    }
+    return count;
+  }
+}
@@ -0,0 +1,146 @@
+package br.dev.ricardocampos.silentguardapi.mail;
+
+import br.dev.ricardocampos.silentguardapi.dto.CheckInDigestItemDto;
+import br.dev.ricardocampos.silentguardapi.dto.CheckInRequestDto;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Transport the check-in and content emails are sent through. The transport is picked with {@code
+ * mail.transport}: {@code mailgun} (default) posts to the Mailgun HTTP API, {@code smtp} relays
+ * through an SMTP server and {@code fake-mailgun} posts to an embedded {@link FakeMailgunServer}.
+ *
+ * <p>Every send completes with true when the email was accepted, false when it was rejected for
+ * good, and completes exceptionally on a transient failure, so the caller can retry later.
+ */
+public interface MailTransport {
+
+  String CHECK_IN_SUBJECT = "Silent Guard hasn't heard from you in a while!";
+
+  /**
+   * Sends a check-in request email to the first recipient in the list and CCs the others.
+   *
+   * @param recipients the list of email addresses to send the check-in request to
+   * @param confirmationId the confirmation ID to include in the check-in link
+   * @param hoursToRespond how long the user has to check in
+   * @return true if the email was accepted
+   */
+  default boolean sendCheckInRequest(
+      List<String> recipients, String confirmationId, Duration hoursToRespond) {
+    return await(sendCheckInRequestAsync(recipients, confirmationId, hoursToRespond));
+  }
+
+  /**
+   * Sends a check-in request email without blocking the caller.
+   *
+   * @param recipients the list of email addresses to send the check-in request to
+   * @param confirmationId the confirmation ID to include in the check-in link
+   * @param hoursToRespond how long the user has to check in
+   * @return a future completed with true if the email was accepted
+   */
+  CompletableFuture<Boolean> sendCheckInRequestAsync(
+      List<String> recipients, String confirmationId, Duration hoursToRespond);
+
+  /**
+   * Sends check-in requests, in batches where the transport supports them.
+   *
+   * @param requests the check-in requests, one recipient each
+   * @return the requests that were accepted
+   */
+  default List<CheckInRequestDto> sendCheckInBatch(List<CheckInRequestDto> requests) {
+    return await(sendCheckInBatchAsync(requests));
+  }
+
+  /**
+   * Sends check-in requests without blocking the caller. A request that fails is left out of the
+   * result.
+   *
+   * @param requests the check-in requests, one recipient each
+   * @return a future completed with the requests that were accepted
+   */
+  CompletableFuture<List<CheckInRequestDto>> sendCheckInBatchAsync(
+      List<CheckInRequestDto> requests);
+
+  /**
+   * Sends one check-in request email for several messages of the same user, each with its own
+   * check-in link.
+   *
+   * @param recipient the email address of the user
+   * @param items the messages to check in for
+   * @return true if the email was accepted
+   */
+  default boolean sendCheckInDigest(String recipient, List<CheckInDigestItemDto> items) {
+    return await(sendCheckInDigestAsync(recipient, items));
+  }
+
+  /**
+   * Sends a digest check-in request email without blocking the caller.
+   *
+   * @param recipient the email address of the user
+   * @param items the messages to check in for
+   * @return a future completed with true if the email was accepted
+   */
+  CompletableFuture<Boolean> sendCheckInDigestAsync(
+      String recipient, List<CheckInDigestItemDto> items);
+
+  /**
+   * Sends an HTML content message to the first recipient in the list and CCs the others.
+   *
+   * @param recipients the list of email addresses to send the HTML content message to
+   * @param subject the subject of the email
+   * @param htmlContent the HTML content to be included in the email body
+   * @return true if the email was accepted
+   */
+  default boolean sendHtmlContentMessage(
+      List<String> recipients, String subject, String htmlContent) {
+    return await(sendHtmlContentMessageAsync(recipients, subject, htmlContent));
+  }
+
+  /**
+   * Sends an HTML content message without blocking the caller.
+   *
+   * @param recipients the list of email addresses to send the HTML content message to
+   * @param subject the subject of the email
+   * @param htmlContent the HTML content to be included in the email body
+   * @return a future completed with true if the email was accepted
+   */
+  CompletableFuture<Boolean> sendHtmlContentMessageAsync(
+      List<String> recipients, String subject, String htmlContent);
+
+  /**
+   * Most check-in requests worth handing over in one {@link #sendCheckInBatchAsync} call.
+   *
+   * @return the batch size limit
+   */
+  int maxBatchSize();
+
+  /**
+   * Whether sends are worth trying now. False while the transport knows its provider is down, so
+   * callers can keep their emails for later instead of having them refused.
+   *
+   * @return true if sends may be tried
+   */
+  default boolean isAvailable() {
+    return true;
+  }
+
+  /**
+   * Wait for a send, rethrowing its failure unwrapped when it is unchecked.
+   *
+   * @param future the send
+   * @param <T> the send result type
+   * @return the send result
+   */
+  static <T> T await(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,196 @@
+package br.dev.ricardocampos.silentguardapi.mail;
+
+import br.dev.ricardocampos.silentguardapi.config.AppConfig;
+import br.dev.ricardocampos.silentguardapi.dto.CheckInDigestItemDto;
+import br.dev.ricardocampos.silentguardapi.dto.CheckInRequestDto;
+import br.dev.ricardocampos.silentguardapi.exception.MailDeferredException;
+import br.dev.ricardocampos.silentguardapi.util.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link MailTransport} guarding another one with a bulkhead and a {@link CircuitBreaker}, so an
+ * outage of the mail provider costs the callers nothing but a refused send. At most {@code
+ * mail.bulkhead.max-concurrent} sends run at once; the breaker opens when {@code
+ * mail.circuit.failure-rate-threshold} percent of the last {@code mail.circuit.window-size} sends
+ * failed, stays open for {@code mail.circuit.open-millis}, then lets {@code
+ * mail.circuit.half-open-probes} sends through to decide whether to close again. A send rejected
+ * for good still counts as a success: the provider answered.
+ *
+ * <p>A refused send completes with a {@link MailDeferredException} right away, without calling
+ * the provider, and the caller keeps the email in the outbox. {@link #isAvailable()} is false while
+ * the breaker is open, so the outbox worker doesn't claim emails it can't send.
+ *
+ * <p>Meters: {@code mail.circuit.state} (1 for the current {@code state}, 0 for the others),
+ * {@code mail.circuit.transitions} tagged by {@code from} and {@code to}, {@code
+ * mail.calls.rejected} tagged by {@code reason} ({@code circuit-open} or {@code bulkhead-full})
+ * and {@code mail.bulkhead.available}.
+ */
+@Slf4j
+public class ResilientMailTransport implements MailTransport, AutoCloseable {
+
+  private final MailTransport delegate;
+
+  private final Semaphore bulkhead;
+
+  private final CircuitBreaker circuitBreaker;
+
+  private final Counter circuitOpenRejections;
+
+  private final Counter bulkheadFullRejections;
+
+  /**
+   * Constructs the guard.
+   *
+   * @param delegate the transport the sends are made with
+   * @param appConfig the application configuration containing the breaker and bulkhead settings
+   * @param meterRegistry the registry for the breaker and bulkhead meters
+   */
+  public ResilientMailTransport(
+      MailTransport delegate, AppConfig appConfig, MeterRegistry meterRegistry) {
+    this.delegate = delegate;
+    this.bulkhead = new Semaphore(Math.max(1, appConfig.getMailBulkheadMaxConcurrent()));
+    this.circuitBreaker =
+        new CircuitBreaker(
+            appConfig.getMailCircuitWindowSize(),
+            appConfig.getMailCircuitMinimumCalls(),
+            appConfig.getMailCircuitFailureRateThreshold() / 100d,
+            Duration.ofMillis(appConfig.getMailCircuitOpenMillis()),
+            appConfig.getMailCircuitHalfOpenProbes(),
+            (from, to) -> onTransition(meterRegistry, from, to));
+
+    for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+      Gauge.builder(
+              "mail.circuit.state", circuitBreaker, breaker -> breaker.getState() == state ? 1 : 0)
+          .description("Mail transport circuit breaker state, 1 for the current one")
+          .tag("state", tagOf(state))
+          .register(meterRegistry);
+    }
+    Gauge.builder("mail.bulkhead.available", bulkhead, Semaphore::availablePermits)
+        .description("Free concurrent send slots of the mail transport")
+        .register(meterRegistry);
+    this.circuitOpenRejections = rejections(meterRegistry, "circuit-open");
+    this.bulkheadFullRejections = rejections(meterRegistry, "bulkhead-full");
+  }
+
+  @Override
+  public CompletableFuture<Boolean> sendCheckInRequestAsync(
+      List<String> recipients, String confirmationId, Duration hoursToRespond) {
+    return guard(
+        () -> delegate.sendCheckInRequestAsync(recipients, confirmationId, hoursToRespond));
+  }
+
+  @Override
+  public CompletableFuture<List<CheckInRequestDto>> sendCheckInBatchAsync(
+      List<CheckInRequestDto> requests) {
+    return guard(() -> delegate.sendCheckInBatchAsync(requests));
+  }
+
+  @Override
+  public CompletableFuture<Boolean> sendCheckInDigestAsync(
+      String recipient, List<CheckInDigestItemDto> items) {
+    return guard(() -> delegate.sendCheckInDigestAsync(recipient, items));
+  }
+
+  @Override
+  public CompletableFuture<Boolean> sendHtmlContentMessageAsync(
+      List<String> recipients, String subject, String htmlContent) {
+    return guard(() -> delegate.sendHtmlContentMessageAsync(recipients, subject, htmlContent));
+  }
+
+  @Override
+  public int maxBatchSize() {
+    return delegate.maxBatchSize();
+  }
+
+  @Override
+  public boolean isAvailable() {
+    return !circuitBreaker.isRefusing() && delegate.isAvailable();
+  }
+
+  public CircuitBreaker getCircuitBreaker() {
+    return circuitBreaker;
+  }
+
+  /**
+   * Free concurrent send slots.
+   *
+   * @return the number of sends that may start now
+   */
+  public int getBulkheadAvailable() {
+    return bulkhead.availablePermits();
+  }
+
+  @Override
+  public void close() throws Exception {
+    if (delegate instanceof AutoCloseable closeable) {
+      closeable.close();
+    }
+  }
+
+  private <T> CompletableFuture<T> guard(Supplier<CompletableFuture<T>> send) {
+    if (!bulkhead.tryAcquire()) {
+      bulkheadFullRejections.increment();
+      return CompletableFuture.failedFuture(
+          new MailDeferredException("All mail transport send slots are taken"));
+    }
+    long permit = circuitBreaker.tryAcquire();
+    if (permit < 0) {
+      bulkhead.release();
+      circuitOpenRejections.increment();
+      return CompletableFuture.failedFuture(
+          new MailDeferredException("Mail transport circuit breaker is open"));
+    }
+
+    CompletableFuture<T> future;
+    try {
+      future = send.get();
+    } catch (RuntimeException e) {
+      future = CompletableFuture.failedFuture(e);
+    }
+    return future.whenComplete(
+        (result, error) -> {
+          bulkhead.release();
+          if (Objects.isNull(error)) {
+            circuitBreaker.onSuccess(permit);
+          } else {
+            circuitBreaker.onFailure(permit);
+          }
+        });
+  }
+
+  private static void onTransition(
+      MeterRegistry meterRegistry, CircuitBreaker.State from, CircuitBreaker.State to) {
+    if (to == CircuitBreaker.State.OPEN) {
+      log.warn("Mail transport circuit breaker opened, sends are deferred to the outbox");
+    } else {
+      log.info("Mail transport circuit breaker went from {} to {}", from, to);
+    }
+    Counter.builder("mail.circuit.transitions")
+        .description("Mail transport circuit breaker state transitions")
+        .tag("from", tagOf(from))
+        .tag("to", tagOf(to))
+        .register(meterRegistry)
+        .increment();
+  }
+
+  private static Counter rejections(MeterRegistry meterRegistry, String reason) {
+    return Counter.builder("mail.calls.rejected")
+        .description("Sends refused by the mail transport guard without calling the provider")
+        .tag("reason", reason)
+        .register(meterRegistry);
+  }
+
+  private static String tagOf(CircuitBreaker.State state) {
+    return state.name().toLowerCase(Locale.ROOT).replace('_', '-');
+  }
+}
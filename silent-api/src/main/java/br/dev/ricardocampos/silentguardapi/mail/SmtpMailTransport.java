@@ -0,0 +1,267 @@
+package br.dev.ricardocampos.silentguardapi.mail;
+
+import br.dev.ricardocampos.silentguardapi.config.AppConfig;
+import br.dev.ricardocampos.silentguardapi.dto.CheckInDigestItemDto;
+import br.dev.ricardocampos.silentguardapi.dto.CheckInRequestDto;
+import br.dev.ricardocampos.silentguardapi.exception.MailServiceException;
+import br.dev.ricardocampos.silentguardapi.template.CheckInDigestTemplate;
+import br.dev.ricardocampos.silentguardapi.util.FormatUtil;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.MimeMessage;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.angus.mail.smtp.SMTPAddressFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSendFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSenderFailedException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.web.util.HtmlUtils;
+
+/**
+ * {@link MailTransport} relaying emails through an SMTP server, such as a local relay or a
+ * provider's submission port, with a {@link JavaMailSender}. Up to {@code smtp.connections} sends
+ * run at once, each on its own SMTP session; a batch is split across that many sessions, and each
+ * share of it is sent over one session.
+ *
+ * <p>Check-in requests are rendered here, as Mailgun's stored template isn't available over SMTP.
+ * A 5xx reply rejects the email for good; a 4xx reply or a connection failure completes the send
+ * exceptionally, so the caller retries later. An email accepted for some of its recipients counts
+ * as sent.
+ */
+@Slf4j
+public class SmtpMailTransport implements MailTransport, AutoCloseable {
+
+  private static final String CHECK_IN_HTML =
+      """
+      <p>Hi,</p>
+      <p>Silent Guard hasn't heard from you in a while. Please let us know you're fine within \
+      %s, or your messages will be sent to their recipients.</p>
+      <p><a href="%s">I'm fine, check me in</a></p>
+      """;
+
+  private final JavaMailSender mailSender;
+
+  private final AppConfig appConfig;
+
+  private final Clock clock;
+
+  private final int connections;
+
+  private final ExecutorService executor;
+
+  private final String checkInLinkPrefix;
+
+  /**
+   * Constructs the transport.
+   *
+   * @param mailSender the sender configured with the SMTP settings
+   * @param appConfig the application configuration containing the SMTP settings
+   * @param clock the clock the {@code Date} header is read from
+   */
+  public SmtpMailTransport(JavaMailSender mailSender, AppConfig appConfig, Clock clock) {
+    this.mailSender = mailSender;
+    this.appConfig = appConfig;
+    this.clock = clock;
+    this.connections = Math.max(1, appConfig.getSmtpConnections());
+    this.executor =
+        Executors.newFixedThreadPool(
+            connections, Thread.ofPlatform().name("smtp-", 0).daemon().factory());
+    this.checkInLinkPrefix = appConfig.getCheckInLinkPrefix();
+  }
+
+  @Override
+  public CompletableFuture<Boolean> sendCheckInRequestAsync(
+      List<String> recipients, String confirmationId, Duration hoursToRespond) {
+    return send(recipients, CHECK_IN_SUBJECT, checkInHtml(confirmationId, hoursToRespond));
+  }
+
+  @Override
+  public CompletableFuture<List<CheckInRequestDto>> sendCheckInBatchAsync(
+      List<CheckInRequestDto> requests) {
+    List<CheckInRequestDto> valid = new ArrayList<>();
+    List<MimeMessage> messages = new ArrayList<>();
+    for (CheckInRequestDto request : requests) {
+      MimeMessage message =
+          buildMessage(
+              List.of(request.recipient()),
+              CHECK_IN_SUBJECT,
+              checkInHtml(request.confirmationId(), request.timeToRespond()));
+      if (Objects.nonNull(message)) {
+        valid.add(request);
+        messages.add(message);
+      }
+    }
+
+    // SMTP has no batch send: split the messages across the sessions, one session per share
+    int shareSize = Math.max(1, (messages.size() + connections - 1) / connections);
+    List<CompletableFuture<List<CheckInRequestDto>>> shares = new ArrayList<>();
+    for (int from = 0; from < messages.size(); from += shareSize) {
+      int to = Math.min(from + shareSize, messages.size());
+      List<CheckInRequestDto> shareRequests = valid.subList(from, to);
+      List<MimeMessage> shareMessages = messages.subList(from, to);
+      shares.add(
+          CompletableFuture.supplyAsync(
+              () -> deliverBatch(shareRequests, shareMessages), executor));
+    }
+
+    return CompletableFuture.allOf(shares.toArray(CompletableFuture[]::new))
+        .thenApply(
+            done -> {
+              List<CheckInRequestDto> accepted = new ArrayList<>();
+              shares.forEach(share -> accepted.addAll(share.join()));
+              return accepted;
+            });
+  }
+
+  @Override
+  public CompletableFuture<Boolean> sendCheckInDigestAsync(
+      String recipient, List<CheckInDigestItemDto> items) {
+    String html = CheckInDigestTemplate.render(checkInLinkPrefix, items);
+    return send(List.of(recipient), CHECK_IN_SUBJECT, html);
+  }
+
+  @Override
+  public CompletableFuture<Boolean> sendHtmlContentMessageAsync(
+      List<String> recipients, String subject, String htmlContent) {
+    return send(recipients, subject, htmlContent);
+  }
+
+  @Override
+  public int maxBatchSize() {
+    return Integer.MAX_VALUE;
+  }
+
+  /** Stop the send threads. */
+  @Override
+  public void close() {
+    executor.shutdown();
+  }
+
+  private CompletableFuture<Boolean> send(List<String> recipients, String subject, String html) {
+    MimeMessage message = buildMessage(recipients, subject, html);
+    if (Objects.isNull(message)) {
+      return CompletableFuture.completedFuture(false);
+    }
+    return CompletableFuture.supplyAsync(() -> deliver(message), executor);
+  }
+
+  private boolean deliver(MimeMessage message) {
+    try {
+      mailSender.send(message);
+      log.info("Email message relayed over SMTP.");
+      return true;
+    } catch (MailSendException e) {
+      Exception error = e.getFailedMessages().get(message);
+      if (Objects.nonNull(error) && isSentToSome(error)) {
+        log.warn("SMTP server refused some recipients of a message it accepted");
+        return true;
+      }
+      if (Objects.nonNull(error) && isPermanent(error)) {
+        log.error("SMTP server rejected the email: {}", error.getMessage());
+        return false;
+      }
+      throw new MailServiceException("SMTP server deferred the email: " + e.getMessage());
+    } catch (MailException e) {
+      throw new MailServiceException("Failed to send the email over SMTP: " + e.getMessage());
+    }
+  }
+
+  private List<CheckInRequestDto> deliverBatch(
+      List<CheckInRequestDto> requests, List<MimeMessage> messages) {
+    Map<Object, Exception> failed;
+    try {
+      mailSender.send(messages.toArray(MimeMessage[]::new));
+      failed = Map.of();
+    } catch (MailSendException e) {
+      failed = e.getFailedMessages();
+    } catch (MailException e) {
+      log.error("Failed to send check-in messages over SMTP: {}", e.getMessage());
+      return List.of();
+    }
+
+    List<CheckInRequestDto> accepted = new ArrayList<>();
+    for (int i = 0; i < messages.size(); i++) {
+      Exception error = failed.get(messages.get(i));
+      if (Objects.isNull(error) || isSentToSome(error)) {
+        accepted.add(requests.get(i));
+      } else {
+        log.error("Failed to send check-in message over SMTP: {}", error.getMessage());
+      }
+    }
+    return accepted;
+  }
+
+  private String checkInHtml(String confirmationId, Duration hoursToRespond) {
+    return CHECK_IN_HTML.formatted(
+        HtmlUtils.htmlEscape(FormatUtil.formatDuration(hoursToRespond)),
+        HtmlUtils.htmlEscape(checkInLinkPrefix + confirmationId));
+  }
+
+  /** The message, or null when an address can't be used, so the email is rejected for good. */
+  private MimeMessage buildMessage(List<String> recipients, String subject, String html) {
+    MimeMessage message = mailSender.createMimeMessage();
+    try {
+      MimeMessageHelper helper = new MimeMessageHelper(message, StandardCharsets.UTF_8.name());
+      helper.setValidateAddresses(true);
+      helper.setFrom(appConfig.getMailFrom());
+      helper.setTo(recipients.getFirst());
+      if (recipients.size() > 1) {
+        helper.setCc(recipients.subList(1, recipients.size()).toArray(String[]::new));
+      }
+      helper.setSubject(subject);
+      helper.setSentDate(Date.from(clock.instant()));
+      helper.setText(html, true);
+      return message;
+    } catch (MessagingException e) {
+      log.error("Refusing to send to a malformed address over SMTP: {}", e.getMessage());
+      return null;
+    }
+  }
+
+  /** Whether a partial failure still delivered the email to some of its recipients. */
+  private static boolean isSentToSome(Exception error) {
+    return error instanceof SendFailedException sendFailed
+        && Objects.nonNull(sendFailed.getValidSentAddresses())
+        && sendFailed.getValidSentAddresses().length > 0;
+  }
+
+  /**
+   * Whether the server rejected the email for good: some reply was 5xx and none was 4xx, as a
+   * temporary failure on any recipient is worth a retry. Failures without a reply are transient.
+   */
+  private static boolean isPermanent(Exception error) {
+    boolean permanent = false;
+    for (Throwable cause = error; Objects.nonNull(cause); cause = cause.getCause()) {
+      int code = replyCode(cause);
+      if (code >= 400 && code < 500) {
+        return false;
+      }
+      if (code >= 500) {
+        permanent = true;
+      }
+    }
+    return permanent;
+  }
+
+  private static int replyCode(Throwable error) {
+    return switch (error) {
+      case SMTPSendFailedException e -> e.getReturnCode();
+      case SMTPAddressFailedException e -> e.getReturnCode();
+      case SMTPSenderFailedException e -> e.getReturnCode();
+      default -> -1;
+    };
+  }
+}
@@ -0,0 +1,96 @@
+package br.dev.ricardocampos.silentguardapi.migration;
+
+import br.dev.ricardocampos.silentguardapi.util.CompressionUtil;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Objects;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.MigrationVersion;
+import org.flywaydb.core.api.migration.Context;
+import org.flywaydb.core.api.migration.JavaMigration;
+import org.springframework.stereotype.Component;
+
+/**
+ * Flyway migration 7.1: compresses the content of every existing message into {@code
+ * sg_message_contents} and points the message at it. It runs between {@code V7}, which creates the
+ * table, and {@code V7_2}, which drops the old {@code sg_messages.content} column. Postgres can't
+ * Deflate by itself, so this step is Java. Spring Boot hands the bean to Flyway, which keeps it
+ * working in the native image, where Flyway can't scan the classpath for migration classes.
+ */
+@Slf4j
+@Component
+public class MessageContentBackfillMigration implements JavaMigration {
+
+  private static final int PAGE_SIZE = 500;
+
+  @Override
+  public MigrationVersion getVersion() {
+    return MigrationVersion.fromVersion("7.1");
+  }
+
+  @Override
+  public String getDescription() {
+    return "backfill message contents";
+  }
+
+  @Override
+  public Integer getChecksum() {
+    return null;
+  }
+
+  @Override
+  public boolean canExecuteInTransaction() {
+    return true;
+  }
+
+  /**
+   * Copy the contents page by page, in id order.
+   *
+   * @param context the Flyway context holding the migration connection
+   * @throws Exception if a statement fails
+   */
+  @Override
+  public void migrate(Context context) throws Exception {
+    Connection connection = context.getConnection();
+    long migrated = 0L;
+    try (PreparedStatement select =
+            connection.prepareStatement(
+                "SELECT id, content FROM sg_messages"
+                    + " WHERE id > ? AND content_id IS NULL ORDER BY id LIMIT ?");
+        PreparedStatement insert =
+            connection.prepareStatement(
+                "INSERT INTO sg_message_contents (data, original_size) VALUES (?, ?)"
+                    + " RETURNING id");
+        PreparedStatement update =
+            connection.prepareStatement("UPDATE sg_messages SET content_id = ? WHERE id = ?")) {
+      long afterId = 0L;
+      int rows;
+      do {
+        rows = 0;
+        select.setLong(1, afterId);
+        select.setInt(2, PAGE_SIZE);
+        try (ResultSet page = select.executeQuery()) {
+          while (page.next()) {
+            afterId = page.getLong(1);
+            byte[] bytes =
+                Objects.requireNonNullElse(page.getString(2), "").getBytes(StandardCharsets.UTF_8);
+            insert.setBytes(1, CompressionUtil.deflate(bytes));
+            insert.setInt(2, bytes.length);
+            try (ResultSet key = insert.executeQuery()) {
+              key.next();
+              update.setLong(1, key.getLong(1));
+            }
+            update.setLong(2, afterId);
+            update.addBatch();
+            rows++;
+          }
+        }
+        update.executeBatch();
+        migrated += rows;
+      } while (rows == PAGE_SIZE);
+    }
+    log.info("{} message content(s) compressed into sg_message_contents", migrated);
+  }
+}
@@ -0,0 +1,112 @@
+package br.dev.ricardocampos.silentguardapi.migration;
+
+import br.dev.ricardocampos.silentguardapi.util.CompressionUtil;
+import br.dev.ricardocampos.silentguardapi.util.DigestUtil;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Objects;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.MigrationVersion;
+import org.flywaydb.core.api.migration.Context;
+import org.flywaydb.core.api.migration.JavaMigration;
+import org.springframework.stereotype.Component;
+
+/**
+ * Flyway migration 8.1: computes the SHA-256 digest of every stored message content and merges
+ * contents with the same digest into one row, pointing their messages at it. It runs between
+ * {@code V8}, which adds the digest column, and {@code V8_2}, which counts the references. The
+ * digest is over the decompressed content, which Postgres can't inflate, so this step is Java.
+ */
+@Slf4j
+@Component
+public class MessageContentDigestMigration implements JavaMigration {
+
+  private static final int PAGE_SIZE = 500;
+
+  @Override
+  public MigrationVersion getVersion() {
+    return MigrationVersion.fromVersion("8.1");
+  }
+
+  @Override
+  public String getDescription() {
+    return "digest message contents";
+  }
+
+  @Override
+  public Integer getChecksum() {
+    return null;
+  }
+
+  @Override
+  public boolean canExecuteInTransaction() {
+    return true;
+  }
+
+  /**
+   * Digest the contents page by page, in id order.
+   *
+   * @param context the Flyway context holding the migration connection
+   * @throws Exception if a statement fails
+   */
+  @Override
+  public void migrate(Context context) throws Exception {
+    Connection connection = context.getConnection();
+    long digested = 0L;
+    long merged = 0L;
+    try (PreparedStatement select =
+            connection.prepareStatement(
+                "SELECT id, data, original_size FROM sg_message_contents"
+                    + " WHERE id > ? AND digest IS NULL ORDER BY id LIMIT ?");
+        PreparedStatement findDuplicate =
+            connection.prepareStatement("SELECT id FROM sg_message_contents WHERE digest = ?");
+        PreparedStatement setDigest =
+            connection.prepareStatement("UPDATE sg_message_contents SET digest = ? WHERE id = ?");
+        PreparedStatement repoint =
+            connection.prepareStatement(
+                "UPDATE sg_messages SET content_id = ? WHERE content_id = ?");
+        PreparedStatement delete =
+            connection.prepareStatement("DELETE FROM sg_message_contents WHERE id = ?")) {
+      long afterId = 0L;
+      int rows;
+      do {
+        rows = 0;
+        select.setLong(1, afterId);
+        select.setInt(2, PAGE_SIZE);
+        try (ResultSet page = select.executeQuery()) {
+          while (page.next()) {
+            afterId = page.getLong(1);
+            rows++;
+            byte[] digest =
+                DigestUtil.sha256(CompressionUtil.inflate(page.getBytes(2), page.getInt(3)));
+
+            findDuplicate.setBytes(1, digest);
+            Long keptId = null;
+            try (ResultSet duplicate = findDuplicate.executeQuery()) {
+              if (duplicate.next()) {
+                keptId = duplicate.getLong(1);
+              }
+            }
+
+            if (Objects.isNull(keptId)) {
+              setDigest.setBytes(1, digest);
+              setDigest.setLong(2, afterId);
+              setDigest.executeUpdate();
+              digested++;
+            } else {
+              repoint.setLong(1, keptId);
+              repoint.setLong(2, afterId);
+              repoint.executeUpdate();
+              delete.setLong(1, afterId);
+              delete.executeUpdate();
+              merged++;
+            }
+          }
+        }
+      } while (rows == PAGE_SIZE);
+    }
+    log.info(
+        "{} message content(s) digested, {} duplicate(s) merged into them", digested, merged);
+  }
+}
@@ -0,0 +1,7 @@
+package br.dev.ricardocampos.silentguardapi.repository;
+
+import br.dev.ricardocampos.silentguardapi.entity.DeadLetterEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/** Repository interface for managing DeadLetterEntity objects in the database. */
+public interface DeadLetterRepository extends JpaRepository<DeadLetterEntity, Long> {}
@@ -0,0 +1,94 @@
+package br.dev.ricardocampos.silentguardapi.repository;
+
+import br.dev.ricardocampos.silentguardapi.entity.MessageContentEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Repository interface for managing MessageContentEntity objects in the database. Used through
+ * {@link br.dev.ricardocampos.silentguardapi.service.MessageContentService}, which compresses,
+ * digests and counts the references to the content. The reference count is only changed with
+ * single statements, so concurrent saves of the same content neither lose a reference nor store
+ * it twice.
+ */
+public interface MessageContentRepository extends JpaRepository<MessageContentEntity, Long> {
+
+  /**
+   * Read the digest of a content.
+   *
+   * @param id the content id
+   * @return the digest, or null if the content doesn't exist
+   */
+  @Query("SELECT c.digest FROM MessageContentEntity c WHERE c.id = :id")
+  byte[] findDigestById(@Param("id") Long id);
+
+  /**
+   * Find a content by its digest.
+   *
+   * @param digest the SHA-256 digest of the content
+   * @return the content id, or null if no content has this digest
+   */
+  @Query("SELECT c.id FROM MessageContentEntity c WHERE c.digest = :digest")
+  Long findIdByDigest(@Param("digest") byte[] digest);
+
+  /**
+   * Add a reference to the content with the given digest, if it is stored.
+   *
+   * @param digest the SHA-256 digest of the content
+   * @return 1 if the content is stored, 0 otherwise
+   */
+  @Modifying
+  @Query(
+      value = "UPDATE sg_message_contents SET ref_count = ref_count + 1 WHERE digest = :digest",
+      nativeQuery = true)
+  int incrementRefCount(@Param("digest") byte[] digest);
+
+  /**
+   * Store a content with one reference, or add a reference to it if another transaction stored
+   * the same content in the meantime. Must run inside a transaction.
+   *
+   * @param digest the SHA-256 digest of the content
+   * @param data the compressed content
+   * @param originalSize the size of the content before compression
+   * @return the content id
+   */
+  @Query(
+      value =
+          "INSERT INTO sg_message_contents (digest, data, original_size, ref_count)"
+              + " VALUES (:digest, :data, :originalSize, 1)"
+              + " ON CONFLICT (digest)"
+              + " DO UPDATE SET ref_count = sg_message_contents.ref_count + 1"
+              + " RETURNING id",
+      nativeQuery = true)
+  Long insertOrIncrementRefCount(
+      @Param("digest") byte[] digest,
+      @Param("data") byte[] data,
+      @Param("originalSize") int originalSize);
+
+  /**
+   * Remove a reference to a content. Pending changes are flushed first, so the message that let go
+   * of the content no longer points at it.
+   *
+   * @param id the content id
+   * @return 1 if the content exists, 0 otherwise
+   */
+  @Modifying(flushAutomatically = true)
+  @Query(
+      value = "UPDATE sg_message_contents SET ref_count = ref_count - 1 WHERE id = :id",
+      nativeQuery = true)
+  int decrementRefCount(@Param("id") Long id);
+
+  /**
+   * Delete a content no message points at anymore.
+   *
+   * @param id the content id
+   * @return 1 if the content was deleted, 0 if it is still referenced or doesn't exist
+   */
+  @Modifying(flushAutomatically = true)
+  @Query(
+      value = "DELETE FROM sg_message_contents WHERE id = :id AND ref_count <= 0",
+      nativeQuery = true)
+  int deleteIfUnreferenced(@Param("id") Long id);
+}
@@ -1,10 +1,18 @@
 package br.dev.ricardocampos.silentguardapi.repository;
 
+import br.dev.ricardocampos.silentguardapi.dto.ActiveReminderDto;
 import br.dev.ricardocampos.silentguardapi.entity.MessageEntity;
+import jakarta.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 /**
  * Repository interface for managing MessageEntity objects in the database. Provides methods to
@@ -12,6 +20,13 @@ import org.springframework.data.jpa.repository.JpaRepository;
  */
 public interface MessageRepository extends JpaRepository<MessageEntity, Long> {
 
+  /** The trigger period of a message as a SQL interval. */
+  String TRIGGER_PERIOD =
+      "CASE type_to_trigger"
+          + " WHEN 'MINUTES' THEN make_interval(mins => number_to_trigger)"
+          + " WHEN 'HOURS' THEN make_interval(hours => number_to_trigger)"
+          + " ELSE make_interval(days => number_to_trigger) END";
+
   List<MessageEntity> findAllByUserId(Long userId);
 
   List<MessageEntity> findAllByIdIn(List<Long> idList);
@@ -19,4 +34,341 @@ public interface MessageRepository extends JpaRepository<MessageEntity, Long> {
   List<MessageEntity> findByDisabledAtNull();
 
   Optional<MessageEntity> findByReminderUuid(UUID uuid);
+
+  @Query("SELECT COALESCE(MAX(m.id), 0) FROM MessageEntity m WHERE m.disabledAt IS NULL")
+  Long findMaxActiveId();
+
+  /**
+   * Read one keyset page of active reminders with their owner email, without the message content.
+   *
+   * @param afterId only ids greater than this one are returned
+   * @param upToId only ids up to this one (inclusive) are returned
+   * @param limit the page size
+   * @return the page, ordered by id
+   */
+  @Query(
+      "SELECT new br.dev.ricardocampos.silentguardapi.dto.ActiveReminderDto("
+          + "m.id, m.userId, u.email, m.reminderUuid, m.nextReminderDue, m.numberToTrigger,"
+          + " m.typeToTrigger, m.contentDue)"
+          + " FROM MessageEntity m JOIN UserEntity u ON u.id = m.userId"
+          + " WHERE m.disabledAt IS NULL AND m.id > :afterId AND m.id <= :upToId"
+          + " ORDER BY m.id")
+  List<ActiveReminderDto> findActiveReminderPage(
+      @Param("afterId") Long afterId, @Param("upToId") Long upToId, Limit limit);
+
+  /**
+   * Read one keyset page of active reminders whose id falls into one of the given sharding slots
+   * ({@code id mod slotCount}), without the message content.
+   *
+   * @param afterId only ids greater than this one are returned
+   * @param upToId only ids up to this one (inclusive) are returned
+   * @param slotCount how many slots message ids are grouped into
+   * @param slots the slots to read
+   * @param limit the page size
+   * @return the page, ordered by id
+   */
+  @Query(
+      "SELECT new br.dev.ricardocampos.silentguardapi.dto.ActiveReminderDto("
+          + "m.id, m.userId, u.email, m.reminderUuid, m.nextReminderDue, m.numberToTrigger,"
+          + " m.typeToTrigger, m.contentDue)"
+          + " FROM MessageEntity m JOIN UserEntity u ON u.id = m.userId"
+          + " WHERE m.disabledAt IS NULL AND m.id > :afterId AND m.id <= :upToId"
+          + " AND MOD(m.id, :slotCount) IN :slots"
+          + " ORDER BY m.id")
+  List<ActiveReminderDto> findActiveReminderPageInSlots(
+      @Param("afterId") Long afterId,
+      @Param("upToId") Long upToId,
+      @Param("slotCount") Long slotCount,
+      @Param("slots") Collection<Long> slots,
+      Limit limit);
+
+  /**
+   * Find the active reminders of the given sharding slots created or updated since the given time,
+   * including changes made through another API node.
+   *
+   * @param since the start of the window, inclusive
+   * @param slotCount how many slots message ids are grouped into
+   * @param slots the slots to read
+   * @return the changed reminders, without the message content
+   */
+  @Query(
+      "SELECT new br.dev.ricardocampos.silentguardapi.dto.ActiveReminderDto("
+          + "m.id, m.userId, u.email, m.reminderUuid, m.nextReminderDue, m.numberToTrigger,"
+          + " m.typeToTrigger, m.contentDue)"
+          + " FROM MessageEntity m JOIN UserEntity u ON u.id = m.userId"
+          + " WHERE m.disabledAt IS NULL AND COALESCE(m.updatedAt, m.createdAt) >= :since"
+          + " AND MOD(m.id, :slotCount) IN :slots")
+  List<ActiveReminderDto> findActiveRemindersChangedSince(
+      @Param("since") LocalDateTime since,
+      @Param("slotCount") Long slotCount,
+      @Param("slots") Collection<Long> slots);
+
+  /**
+   * Find the ids of the messages of the given sharding slots disabled since the given time.
+   *
+   * @param since the start of the window, inclusive
+   * @param slotCount how many slots message ids are grouped into
+   * @param slots the slots to read
+   * @return the disabled message ids
+   */
+  @Query(
+      "SELECT m.id FROM MessageEntity m WHERE m.disabledAt >= :since"
+          + " AND MOD(m.id, :slotCount) IN :slots")
+  List<Long> findIdsDisabledSince(
+      @Param("since") LocalDateTime since,
+      @Param("slotCount") Long slotCount,
+      @Param("slots") Collection<Long> slots);
+
+  /**
+   * Read the active reminder of a message with its owner email, without the message content.
+   *
+   * @param id the message id
+   * @return the reminder, or empty if the message was deleted or disabled
+   */
+  @Query(
+      "SELECT new br.dev.ricardocampos.silentguardapi.dto.ActiveReminderDto("
+          + "m.id, m.userId, u.email, m.reminderUuid, m.nextReminderDue, m.numberToTrigger,"
+          + " m.typeToTrigger, m.contentDue)"
+          + " FROM MessageEntity m JOIN UserEntity u ON u.id = m.userId"
+          + " WHERE m.id = :id AND m.disabledAt IS NULL")
+  Optional<ActiveReminderDto> findActiveReminder(@Param("id") Long id);
+
+  /**
+   * Read one keyset page of active reminders whose check-in is due up to the given time, ordered
+   * by next due time and id.
+   *
+   * @param until the end of the window, inclusive
+   * @param afterDue the due time of the last row of the previous page
+   * @param afterId the id of the last row of the previous page
+   * @param limit the page size
+   * @return the page
+   */
+  @Query(
+      "SELECT new br.dev.ricardocampos.silentguardapi.dto.ActiveReminderDto("
+          + "m.id, m.userId, u.email, m.reminderUuid, m.nextReminderDue, m.numberToTrigger,"
+          + " m.typeToTrigger, m.contentDue)"
+          + " FROM MessageEntity m JOIN UserEntity u ON u.id = m.userId"
+          + " WHERE m.disabledAt IS NULL AND m.nextReminderDue <= :until"
+          + " AND (m.nextReminderDue > :afterDue"
+          + " OR (m.nextReminderDue = :afterDue AND m.id > :afterId))"
+          + " ORDER BY m.nextReminderDue, m.id")
+  List<ActiveReminderDto> findCheckInsDueUntil(
+      @Param("until") LocalDateTime until,
+      @Param("afterDue") LocalDateTime afterDue,
+      @Param("afterId") Long afterId,
+      Limit limit);
+
+  /**
+   * Read one keyset page of active reminders whose content is due up to the given time, ordered by
+   * content due time and id.
+   *
+   * @param until the end of the window, inclusive
+   * @param afterDue the content due time of the last row of the previous page
+   * @param afterId the id of the last row of the previous page
+   * @param limit the page size
+   * @return the page
+   */
+  @Query(
+      "SELECT new br.dev.ricardocampos.silentguardapi.dto.ActiveReminderDto("
+          + "m.id, m.userId, u.email, m.reminderUuid, m.nextReminderDue, m.numberToTrigger,"
+          + " m.typeToTrigger, m.contentDue)"
+          + " FROM MessageEntity m JOIN UserEntity u ON u.id = m.userId"
+          + " WHERE m.disabledAt IS NULL AND m.contentDue <= :until"
+          + " AND (m.contentDue > :afterDue"
+          + " OR (m.contentDue = :afterDue AND m.id > :afterId))"
+          + " ORDER BY m.contentDue, m.id")
+  List<ActiveReminderDto> findContentsDueUntil(
+      @Param("until") LocalDateTime until,
+      @Param("afterDue") LocalDateTime afterDue,
+      @Param("afterId") Long afterId,
+      Limit limit);
+
+  /**
+   * Find the active messages of a user whose check-in is due up to the given time, to be sent
+   * together in one digest.
+   *
+   * @param userId the owner of the messages
+   * @param dueBy the end of the digest window, inclusive
+   * @return the messages, oldest due first
+   */
+  @Query(
+      "SELECT m FROM MessageEntity m"
+          + " WHERE m.userId = :userId AND m.disabledAt IS NULL AND m.nextReminderDue <= :dueBy"
+          + " ORDER BY m.nextReminderDue, m.id")
+  List<MessageEntity> findActiveByUserIdDueBy(
+      @Param("userId") Long userId, @Param("dueBy") LocalDateTime dueBy);
+
+  /**
+   * Advance the check-ins of a digest in one statement: each message gets its last reminder sent
+   * at the given time and its next check-in and content due one trigger period later. Messages
+   * disabled or already advanced past the digest window in the meantime are left untouched.
+   *
+   * @param ids the messages of the digest
+   * @param dueBy the end of the digest window, inclusive
+   * @param sentAt when the digest was sent
+   * @return the ids of the advanced messages
+   */
+  @Query(
+      value =
+          "UPDATE sg_messages SET last_reminder_sent = :sentAt, updated_at = :sentAt,"
+              + " next_reminder_due = CAST(:sentAt AS TIMESTAMP) + " + TRIGGER_PERIOD + ","
+              + " content_due = CAST(:sentAt AS TIMESTAMP) + " + TRIGGER_PERIOD
+              + " WHERE id IN (:ids) AND disabled_at IS NULL AND next_reminder_due <= :dueBy"
+              + " RETURNING id",
+      nativeQuery = true)
+  List<Long> advanceReminders(
+      @Param("ids") Collection<Long> ids,
+      @Param("dueBy") LocalDateTime dueBy,
+      @Param("sentAt") LocalDateTime sentAt);
+
+  /**
+   * Claim a due check-in before sending it, by moving its next due time to when the following one
+   * is due, only if it is still due at the expected time. Of two nodes firing the same reminder,
+   * such as during a shard rebalance, only one claims it. A claimed check-in is then completed
+   * once sent, or released if the send failed; if the node dies in between, it fires again at the
+   * claimed due time.
+   *
+   * @param id the message id
+   * @param expectedDue the next due time the reminder was read with
+   * @param claimedDue the due time of the following check-in
+   * @return 1 if claimed, 0 if the message was disabled, checked in or claimed meanwhile
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      value =
+          "UPDATE sg_messages SET next_reminder_due = :claimedDue"
+              + " WHERE id = :id AND disabled_at IS NULL AND next_reminder_due = :expectedDue",
+      nativeQuery = true)
+  int claimCheckIn(
+      @Param("id") Long id,
+      @Param("expectedDue") LocalDateTime expectedDue,
+      @Param("claimedDue") LocalDateTime claimedDue);
+
+  /**
+   * Complete a claimed check-in that was sent: the content is due with the following check-in.
+   * Nothing changes if the user checked in meanwhile.
+   *
+   * @param id the message id
+   * @param claimedDue the due time the check-in was claimed with
+   * @param sentAt when the check-in was sent
+   * @return 1 if completed, 0 if the claim no longer holds
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      value =
+          "UPDATE sg_messages SET last_reminder_sent = :sentAt, updated_at = :sentAt,"
+              + " content_due = :claimedDue"
+              + " WHERE id = :id AND next_reminder_due = :claimedDue",
+      nativeQuery = true)
+  int completeCheckIn(
+      @Param("id") Long id,
+      @Param("claimedDue") LocalDateTime claimedDue,
+      @Param("sentAt") LocalDateTime sentAt);
+
+  /**
+   * Release a claimed check-in that wasn't sent, so it is due again at the given time and its
+   * content deadline doesn't move. Nothing changes if the user checked in meanwhile.
+   *
+   * @param id the message id
+   * @param claimedDue the due time the check-in was claimed with
+   * @param retryDue when the check-in is due again
+   * @param now the current time
+   * @return 1 if released, 0 if the claim no longer holds
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      value =
+          "UPDATE sg_messages SET next_reminder_due = :retryDue, updated_at = :now"
+              + " WHERE id = :id AND next_reminder_due = :claimedDue",
+      nativeQuery = true)
+  int releaseCheckIn(
+      @Param("id") Long id,
+      @Param("claimedDue") LocalDateTime claimedDue,
+      @Param("retryDue") LocalDateTime retryDue,
+      @Param("now") LocalDateTime now);
+
+  /**
+   * Claim a due content message before sending it, by disabling the message, only if its content
+   * is still due at the expected time. Of two nodes firing the same content message, only one
+   * claims it.
+   *
+   * @param id the message id
+   * @param expectedDue the content due time the message was read with
+   * @param claimedAt when the message is disabled
+   * @return 1 if claimed, 0 if the message was disabled or checked in meanwhile
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      value =
+          "UPDATE sg_messages SET disabled_at = :claimedAt, updated_at = :claimedAt,"
+              + " content_due = NULL"
+              + " WHERE id = :id AND disabled_at IS NULL AND content_due = :expectedDue",
+      nativeQuery = true)
+  int claimContent(
+      @Param("id") Long id,
+      @Param("expectedDue") LocalDateTime expectedDue,
+      @Param("claimedAt") LocalDateTime claimedAt);
+
+  /**
+   * Release a claimed content message that wasn't sent: the message is active again with its
+   * content due at the given time.
+   *
+   * @param id the message id
+   * @param claimedAt when the message was disabled by the claim
+   * @param retryDue when the content is due again
+   * @param now the current time
+   * @return 1 if released, 0 if the claim no longer holds
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      value =
+          "UPDATE sg_messages SET disabled_at = NULL, content_due = :retryDue, updated_at = :now"
+              + " WHERE id = :id AND disabled_at = :claimedAt",
+      nativeQuery = true)
+  int releaseContent(
+      @Param("id") Long id,
+      @Param("claimedAt") LocalDateTime claimedAt,
+      @Param("retryDue") LocalDateTime retryDue,
+      @Param("now") LocalDateTime now);
+
+  /**
+   * Lock a batch of messages whose check-in reminder is due. Rows locked by another node are
+   * skipped, so concurrent pollers never claim the same message. Must run inside a transaction.
+   *
+   * @param now the current time
+   * @param limit the maximum number of rows to claim
+   * @return the claimed messages, oldest due first
+   */
+  @Query(
+      value =
+          "SELECT * FROM sg_messages"
+              + " WHERE next_reminder_due <= :now AND disabled_at IS NULL"
+              + " ORDER BY next_reminder_due"
+              + " LIMIT :limit"
+              + " FOR UPDATE SKIP LOCKED",
+      nativeQuery = true)
+  List<MessageEntity> claimDueCheckIns(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+  /**
+   * Lock a batch of messages whose content is due because the user did not check in. Rows locked
+   * by another node are skipped. Must run inside a transaction.
+   *
+   * @param now the current time
+   * @param limit the maximum number of rows to claim
+   * @return the claimed messages, oldest due first
+   */
+  @Query(
+      value =
+          "SELECT * FROM sg_messages"
+              + " WHERE content_due <= :now AND disabled_at IS NULL"
+              + " ORDER BY content_due"
+              + " LIMIT :limit"
+              + " FOR UPDATE SKIP LOCKED",
+      nativeQuery = true)
+  List<MessageEntity> claimDueContents(@Param("now") LocalDateTime now, @Param("limit") int limit);
 }
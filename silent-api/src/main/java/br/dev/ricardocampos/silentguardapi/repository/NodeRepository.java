@@ -0,0 +1,60 @@
+package br.dev.ricardocampos.silentguardapi.repository;
+
+import br.dev.ricardocampos.silentguardapi.entity.NodeEntity;
+import jakarta.transaction.Transactional;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Repository interface for managing NodeEntity objects in the database. Heartbeats and liveness
+ * checks use the database clock, so clock skew between API nodes doesn't affect membership.
+ */
+public interface NodeRepository extends JpaRepository<NodeEntity, String> {
+
+  /**
+   * Register the node, or refresh its heartbeat if it is already registered.
+   *
+   * @param nodeId the node id
+   * @return the number of rows written
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      value =
+          "INSERT INTO sg_nodes (node_id, started_at, heartbeat_at) VALUES (:nodeId, NOW(), NOW())"
+              + " ON CONFLICT (node_id) DO UPDATE SET heartbeat_at = NOW()",
+      nativeQuery = true)
+  int heartbeat(@Param("nodeId") String nodeId);
+
+  /**
+   * Find the nodes whose heartbeat is recent enough to be considered alive.
+   *
+   * @param ttlSeconds the heartbeat time to live
+   * @return the live node ids, sorted
+   */
+  @Query(
+      value =
+          "SELECT node_id FROM sg_nodes"
+              + " WHERE heartbeat_at >= NOW() - make_interval(secs => :ttlSeconds)"
+              + " ORDER BY node_id",
+      nativeQuery = true)
+  List<String> findLiveNodeIds(@Param("ttlSeconds") int ttlSeconds);
+
+  /**
+   * Delete nodes that stopped sending heartbeats a long time ago.
+   *
+   * @param olderThanSeconds how old the last heartbeat must be
+   * @return the number of rows deleted
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      value =
+          "DELETE FROM sg_nodes"
+              + " WHERE heartbeat_at < NOW() - make_interval(secs => :olderThanSeconds)",
+      nativeQuery = true)
+  int deleteStale(@Param("olderThanSeconds") int olderThanSeconds);
+}
@@ -0,0 +1,57 @@
+package br.dev.ricardocampos.silentguardapi.repository;
+
+import br.dev.ricardocampos.silentguardapi.entity.OutboxEntity;
+import jakarta.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Repository interface for managing OutboxEntity objects in the database. Provides the claim query
+ * used by the outbox worker and the retention delete of sent emails.
+ */
+public interface OutboxRepository extends JpaRepository<OutboxEntity, Long> {
+
+  /**
+   * Lock a batch of pending emails of one kind whose next attempt is due. Rows locked by another
+   * worker are skipped. Must run inside a transaction.
+   *
+   * @param kind the {@link br.dev.ricardocampos.silentguardapi.enums.OutboxKindEnum} name
+   * @param now the current time
+   * @param limit the maximum number of rows to claim
+   * @return the claimed emails, oldest first
+   */
+  @Query(
+      value =
+          "SELECT * FROM sg_outbox"
+              + " WHERE sent_at IS NULL AND kind = :kind"
+              + " AND next_attempt_at <= :now"
+              + " ORDER BY next_attempt_at, id"
+              + " LIMIT :limit"
+              + " FOR UPDATE SKIP LOCKED",
+      nativeQuery = true)
+  List<OutboxEntity> claimPending(
+      @Param("kind") String kind, @Param("now") LocalDateTime now, @Param("limit") int limit);
+
+  /**
+   * Delete a batch of emails sent before the given time, oldest first.
+   *
+   * @param sentBefore the retention limit
+   * @param limit the maximum number of rows to delete
+   * @return the number of rows deleted
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      value =
+          "DELETE FROM sg_outbox WHERE id IN ("
+              + "SELECT id FROM sg_outbox"
+              + " WHERE sent_at < :sentBefore"
+              + " ORDER BY sent_at"
+              + " LIMIT :limit)",
+      nativeQuery = true)
+  int deleteSentBefore(@Param("sentBefore") LocalDateTime sentBefore, @Param("limit") int limit);
+}
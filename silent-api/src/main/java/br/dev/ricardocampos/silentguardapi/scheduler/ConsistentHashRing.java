@@ -0,0 +1,99 @@
+package br.dev.ricardocampos.silentguardapi.scheduler;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Consistent hash ring mapping reminder shards to API nodes. Message ids are grouped into a fixed
+ * number of slots ({@code id mod slotCount}, which the database can filter on), and each slot is
+ * owned by the first node point found clockwise from the slot's hash. Every node is placed on the
+ * ring many times, so when a node joins or leaves only the slots next to its points change owner.
+ */
+public final class ConsistentHashRing {
+
+  private final TreeMap<Long, String> ring = new TreeMap<>();
+
+  private final int slotCount;
+
+  /**
+   * Build the ring.
+   *
+   * @param nodeIds the live node ids
+   * @param virtualNodes how many points each node gets on the ring
+   * @param slotCount how many slots message ids are grouped into
+   */
+  public ConsistentHashRing(Collection<String> nodeIds, int virtualNodes, int slotCount) {
+    this.slotCount = slotCount;
+    for (String nodeId : nodeIds) {
+      for (int i = 0; i < virtualNodes; i++) {
+        ring.put(hash(nodeId + "#" + i), nodeId);
+      }
+    }
+  }
+
+  /**
+   * Find the node owning the given slot.
+   *
+   * @param slot the slot
+   * @return the owner node id, or null if the ring is empty
+   */
+  public String ownerOf(long slot) {
+    if (ring.isEmpty()) {
+      return null;
+    }
+    Map.Entry<Long, String> entry = ring.ceilingEntry(mix(slot));
+    return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+  }
+
+  /**
+   * Find every slot owned by the given node.
+   *
+   * @param nodeId the node id
+   * @return the owned slots
+   */
+  public Set<Long> slotsOf(String nodeId) {
+    Set<Long> slots = new HashSet<>();
+    for (long slot = 0; slot < slotCount; slot++) {
+      if (nodeId.equals(ownerOf(slot))) {
+        slots.add(slot);
+      }
+    }
+    return slots;
+  }
+
+  /**
+   * Find the slot a message id belongs to.
+   *
+   * @param messageId the message id
+   * @param slotCount how many slots there are
+   * @return the slot
+   */
+  public static long slotOf(long messageId, int slotCount) {
+    return Math.floorMod(messageId, (long) slotCount);
+  }
+
+  private static long hash(String key) {
+    try {
+      byte[] digest =
+          MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+      return ByteBuffer.wrap(digest).getLong();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("MD5 is not available", e);
+    }
+  }
+
+  // SplitMix64 finalizer, spreads consecutive slots around the ring
+  private static long mix(long value) {
+    long z = value + 0x9E3779B97F4A7C15L;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+}
@@ -0,0 +1,178 @@
+package br.dev.ricardocampos.silentguardapi.scheduler;
+
+import br.dev.ricardocampos.silentguardapi.config.SchedulerConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rate-limited catch-up for reminders that became overdue while the API was down. Instead of
+ * firing every overdue reminder at once on startup, they are released one at a time at the
+ * configured rate: content messages whose deadline passed first, then check-ins, each group
+ * ordered from the most late to the least late.
+ */
+@Slf4j
+@Component
+public class ReminderCatchUpQueue {
+
+  @Getter private final boolean enabled;
+
+  private final PriorityBlockingQueue<CatchUpItem> queue = new PriorityBlockingQueue<>();
+
+  private final Map<String, CatchUpItem> pending = new ConcurrentHashMap<>();
+
+  private final AtomicLong sequence = new AtomicLong();
+
+  private final AtomicInteger pendingContents = new AtomicInteger();
+
+  private final AtomicInteger pendingCheckIns = new AtomicInteger();
+
+  private final Counter releasedContents;
+
+  private final Counter releasedCheckIns;
+
+  private final ScheduledExecutorService releaser;
+
+  /**
+   * Constructs a ReminderCatchUpQueue, registers its meters and starts the release thread.
+   *
+   * @param schedulerConfig the scheduler configuration with the catch-up settings
+   * @param meterRegistry the registry for the catch-up progress meters
+   */
+  public ReminderCatchUpQueue(SchedulerConfig schedulerConfig, MeterRegistry meterRegistry) {
+    this.enabled = schedulerConfig.isCatchUpEnabled();
+
+    Gauge.builder("reminder.catchup.pending", pendingContents, AtomicInteger::get)
+        .tag("kind", "content")
+        .description("Overdue reminders waiting to be released")
+        .register(meterRegistry);
+    Gauge.builder("reminder.catchup.pending", pendingCheckIns, AtomicInteger::get)
+        .tag("kind", "check-in")
+        .description("Overdue reminders waiting to be released")
+        .register(meterRegistry);
+    this.releasedContents =
+        Counter.builder("reminder.catchup.released")
+            .tag("kind", "content")
+            .description("Overdue reminders released by the catch-up")
+            .register(meterRegistry);
+    this.releasedCheckIns =
+        Counter.builder("reminder.catchup.released")
+            .tag("kind", "check-in")
+            .description("Overdue reminders released by the catch-up")
+            .register(meterRegistry);
+
+    long periodMicros = 1_000_000L / Math.max(1, schedulerConfig.getCatchUpRatePerSecond());
+    this.releaser =
+        Executors.newSingleThreadScheduledExecutor(
+            new CustomizableThreadFactory("reminder-catch-up-"));
+    this.releaser.scheduleAtFixedRate(
+        this::releaseNext, periodMicros, periodMicros, TimeUnit.MICROSECONDS);
+  }
+
+  /**
+   * Queue an overdue reminder for release.
+   *
+   * @param key the reminder schedule id
+   * @param content true for a content message, released before any check-in
+   * @param dueAtMillis when the reminder was due, in epoch millis
+   * @param action what to run on release, usually arming the reminder right away
+   * @return false if a reminder with the same key is already queued
+   */
+  public boolean submit(String key, boolean content, long dueAtMillis, Runnable action) {
+    CatchUpItem item =
+        new CatchUpItem(key, content, dueAtMillis, sequence.incrementAndGet(), action);
+    if (pending.putIfAbsent(key, item) != null) {
+      return false;
+    }
+    pendingCounter(content).incrementAndGet();
+    queue.offer(item);
+    return true;
+  }
+
+  /**
+   * Drop a queued reminder, for example when its message is checked in, edited or deleted.
+   *
+   * @param key the reminder schedule id
+   * @return true if a queued reminder was dropped
+   */
+  public boolean cancel(String key) {
+    CatchUpItem item = pending.remove(key);
+    if (item == null) {
+      return false;
+    }
+    pendingCounter(item.content()).decrementAndGet();
+    return true;
+  }
+
+  /**
+   * Whether a reminder is queued for release.
+   *
+   * @param key the reminder schedule id
+   * @return true if queued
+   */
+  public boolean isPending(String key) {
+    return pending.containsKey(key);
+  }
+
+  /** Stop releasing reminders. */
+  @PreDestroy
+  public void shutdown() {
+    releaser.shutdownNow();
+  }
+
+  private void releaseNext() {
+    CatchUpItem item;
+    while ((item = queue.poll()) != null) {
+      // cancelled items are left in the queue and skipped here
+      if (!pending.remove(item.key(), item)) {
+        continue;
+      }
+
+      pendingCounter(item.content()).decrementAndGet();
+      (item.content() ? releasedContents : releasedCheckIns).increment();
+      try {
+        item.action().run();
+      } catch (Exception e) {
+        log.error("Failed to release overdue reminder {}", item.key(), e);
+      }
+
+      if (pending.isEmpty()) {
+        log.info("Catch-up of overdue reminders finished");
+      }
+      return;
+    }
+  }
+
+  private AtomicInteger pendingCounter(boolean content) {
+    return content ? pendingContents : pendingCheckIns;
+  }
+
+  private record CatchUpItem(
+      String key, boolean content, long dueAtMillis, long sequence, Runnable action)
+      implements Comparable<CatchUpItem> {
+
+    @Override
+    public int compareTo(CatchUpItem other) {
+      if (content != other.content) {
+        return content ? -1 : 1;
+      }
+      if (dueAtMillis != other.dueAtMillis) {
+        return Long.compare(dueAtMillis, other.dueAtMillis);
+      }
+      return Long.compare(sequence, other.sequence);
+    }
+  }
+}
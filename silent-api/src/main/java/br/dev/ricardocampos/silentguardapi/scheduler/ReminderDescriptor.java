@@ -0,0 +1,119 @@
+package br.dev.ricardocampos.silentguardapi.scheduler;
+
+import br.dev.ricardocampos.silentguardapi.enums.TypeToTriggerEnum;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Objects;
+
+/**
+ * Compact description of an armed reminder: the ids, both due times packed into one long and the
+ * trigger period packed into one int. Subject, targets and content are not kept; they are loaded
+ * when the email is sent.
+ *
+ * <p>The packed due time holds the next check-in due time in its high 32 bits and the content due
+ * time in its low 32 bits, both as unsigned seconds of the local date time, with zero meaning no
+ * content due. The trigger code holds the number of units shifted left by two and the {@link
+ * TypeToTriggerEnum} ordinal in the two lowest bits.
+ *
+ * @param messageId the message id
+ * @param userId the owner id
+ * @param packedDue the packed check-in and content due times
+ * @param triggerCode the packed trigger period
+ */
+public record ReminderDescriptor(long messageId, long userId, long packedDue, int triggerCode) {
+
+  private static final long LOW_32_BITS = 0xFFFFFFFFL;
+
+  /**
+   * Build a descriptor from its unpacked values.
+   *
+   * @param messageId the message id
+   * @param userId the owner id
+   * @param nextReminderDue when the next check-in is due
+   * @param contentDue when the content is due, or null
+   * @param numberToTrigger the number of time units between check-ins
+   * @param typeToTrigger the time unit between check-ins
+   * @return the descriptor
+   */
+  public static ReminderDescriptor of(
+      long messageId,
+      long userId,
+      LocalDateTime nextReminderDue,
+      LocalDateTime contentDue,
+      int numberToTrigger,
+      String typeToTrigger) {
+    return new ReminderDescriptor(
+        messageId,
+        userId,
+        packDue(nextReminderDue, contentDue),
+        triggerCode(numberToTrigger, TypeToTriggerEnum.fromString(typeToTrigger)));
+  }
+
+  /**
+   * Pack both due times into one long.
+   *
+   * @param nextReminderDue when the next check-in is due
+   * @param contentDue when the content is due, or null
+   * @return the packed due time
+   */
+  public static long packDue(LocalDateTime nextReminderDue, LocalDateTime contentDue) {
+    return (toSeconds(nextReminderDue) << 32) | toSeconds(contentDue);
+  }
+
+  /**
+   * Pack a trigger period into one int.
+   *
+   * @param numberToTrigger the number of time units
+   * @param type the time unit
+   * @return the trigger code
+   */
+  public static int triggerCode(int numberToTrigger, TypeToTriggerEnum type) {
+    return (numberToTrigger << 2) | type.ordinal();
+  }
+
+  /**
+   * Copy this descriptor with new due times.
+   *
+   * @param nextReminderDue when the next check-in is due
+   * @param contentDue when the content is due, or null
+   * @return the updated descriptor
+   */
+  public ReminderDescriptor withDue(LocalDateTime nextReminderDue, LocalDateTime contentDue) {
+    return new ReminderDescriptor(
+        messageId, userId, packDue(nextReminderDue, contentDue), triggerCode);
+  }
+
+  public LocalDateTime nextReminderDue() {
+    return fromSeconds(packedDue >>> 32);
+  }
+
+  public LocalDateTime contentDue() {
+    return fromSeconds(packedDue & LOW_32_BITS);
+  }
+
+  public int numberToTrigger() {
+    return triggerCode >>> 2;
+  }
+
+  public TypeToTriggerEnum typeToTrigger() {
+    return TypeToTriggerEnum.values()[triggerCode & 3];
+  }
+
+  /**
+   * The trigger period, used both between check-ins and as the time to respond.
+   *
+   * @return the period
+   */
+  public Duration period() {
+    return typeToTrigger().toDuration(numberToTrigger());
+  }
+
+  private static long toSeconds(LocalDateTime dateTime) {
+    return Objects.isNull(dateTime) ? 0L : dateTime.toEpochSecond(ZoneOffset.UTC) & LOW_32_BITS;
+  }
+
+  private static LocalDateTime fromSeconds(long seconds) {
+    return seconds == 0L ? null : LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+  }
+}
@@ -0,0 +1,167 @@
+package br.dev.ricardocampos.silentguardapi.scheduler;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Store of the {@link ReminderDescriptor} of every armed reminder, keyed by message id. Entries
+ * live in parallel primitive arrays of an open addressing table with linear probing, so each
+ * reminder costs about 28 bytes per slot instead of a message entity with its email body, and the
+ * footprint of millions of reminders stays small and predictable. Scheduled tasks capture only the
+ * message id and read their descriptor here when they fire.
+ */
+@Component
+public class ReminderDescriptorStore {
+
+  private static final long EMPTY = 0L;
+
+  private static final int INITIAL_CAPACITY = 1024;
+
+  private static final float LOAD_FACTOR = 0.75f;
+
+  private long[] keys;
+
+  private long[] userIds;
+
+  private long[] dues;
+
+  private int[] triggers;
+
+  private int size;
+
+  private int shift;
+
+  /** Constructs an empty store. */
+  public ReminderDescriptorStore() {
+    allocate(INITIAL_CAPACITY);
+  }
+
+  /**
+   * Add or replace the descriptor of a message.
+   *
+   * @param descriptor the descriptor, whose message id must be positive
+   */
+  public synchronized void put(ReminderDescriptor descriptor) {
+    long messageId = descriptor.messageId();
+    if (messageId <= EMPTY) {
+      throw new IllegalArgumentException("Invalid message id: " + messageId);
+    }
+    if (size + 1 > keys.length * LOAD_FACTOR) {
+      resize(keys.length * 2);
+    }
+
+    int index = indexOf(messageId);
+    if (keys[index] == EMPTY) {
+      keys[index] = messageId;
+      size++;
+    }
+    userIds[index] = descriptor.userId();
+    dues[index] = descriptor.packedDue();
+    triggers[index] = descriptor.triggerCode();
+  }
+
+  /**
+   * Find the descriptor of a message.
+   *
+   * @param messageId the message id
+   * @return the descriptor, or null if the message has no armed reminder
+   */
+  public synchronized ReminderDescriptor get(long messageId) {
+    int index = indexOf(messageId);
+    if (keys[index] == EMPTY) {
+      return null;
+    }
+    return new ReminderDescriptor(messageId, userIds[index], dues[index], triggers[index]);
+  }
+
+  /**
+   * Remove the descriptor of a message.
+   *
+   * @param messageId the message id
+   * @return true if there was a descriptor
+   */
+  public synchronized boolean remove(long messageId) {
+    int index = indexOf(messageId);
+    if (keys[index] == EMPTY) {
+      return false;
+    }
+
+    // backward shift deletion: move later entries of the same probe run into the hole
+    int mask = keys.length - 1;
+    int hole = index;
+    int next = index;
+    while (true) {
+      next = (next + 1) & mask;
+      if (keys[next] == EMPTY) {
+        break;
+      }
+      int home = home(keys[next]);
+      boolean stays = hole <= next ? hole < home && home <= next : hole < home || home <= next;
+      if (!stays) {
+        keys[hole] = keys[next];
+        userIds[hole] = userIds[next];
+        dues[hole] = dues[next];
+        triggers[hole] = triggers[next];
+        hole = next;
+      }
+    }
+    keys[hole] = EMPTY;
+    size--;
+    return true;
+  }
+
+  /**
+   * How many descriptors are stored.
+   *
+   * @return the number of descriptors
+   */
+  public synchronized int size() {
+    return size;
+  }
+
+  /** Remove every descriptor and shrink back to the initial capacity. */
+  public synchronized void clear() {
+    allocate(INITIAL_CAPACITY);
+  }
+
+  private int indexOf(long messageId) {
+    int mask = keys.length - 1;
+    int index = home(messageId);
+    while (keys[index] != EMPTY && keys[index] != messageId) {
+      index = (index + 1) & mask;
+    }
+    return index;
+  }
+
+  // Fibonacci hashing, takes the high bits of the product
+  private int home(long messageId) {
+    return (int) ((messageId * 0x9E3779B97F4A7C15L) >>> shift);
+  }
+
+  private void resize(int capacity) {
+    long[] oldKeys = keys;
+    long[] oldUserIds = userIds;
+    long[] oldDues = dues;
+    int[] oldTriggers = triggers;
+    allocate(capacity);
+
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != EMPTY) {
+        int index = indexOf(oldKeys[i]);
+        keys[index] = oldKeys[i];
+        userIds[index] = oldUserIds[i];
+        dues[index] = oldDues[i];
+        triggers[index] = oldTriggers[i];
+        size++;
+      }
+    }
+  }
+
+  private void allocate(int capacity) {
+    keys = new long[capacity];
+    userIds = new long[capacity];
+    dues = new long[capacity];
+    triggers = new int[capacity];
+    size = 0;
+    shift = Long.SIZE - Integer.numberOfTrailingZeros(capacity);
+  }
+}
@@ -0,0 +1,164 @@
+package br.dev.ricardocampos.silentguardapi.scheduler;
+
+import br.dev.ricardocampos.silentguardapi.config.SchedulerConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Executes due reminders away from the timer thread. Timers only hand work over, so a slow Mailgun
+ * call or database round trip never delays other reminders. Runs on a fixed platform thread pool
+ * or on one virtual thread per task, in both cases with a bounded queue. When the queue is full the
+ * caller waits for room instead of dropping the reminder.
+ */
+@Slf4j
+@Component
+public class ReminderDispatcher {
+
+  private final ExecutorService executor;
+
+  private final Semaphore admitted;
+
+  private final Semaphore running;
+
+  private final AtomicInteger queued = new AtomicInteger();
+
+  private final AtomicInteger active = new AtomicInteger();
+
+  private final Timer lagTimer;
+
+  /**
+   * Constructs a ReminderDispatcher and registers its meters.
+   *
+   * @param schedulerConfig the scheduler configuration with the dispatch settings
+   * @param meterRegistry the registry for the queue depth, active count and lag meters
+   */
+  public ReminderDispatcher(SchedulerConfig schedulerConfig, MeterRegistry meterRegistry) {
+    int concurrency = Math.max(1, schedulerConfig.getDispatchConcurrency());
+    int capacity = Math.max(1, schedulerConfig.getDispatchQueueCapacity());
+
+    if (schedulerConfig.isVirtualDispatch()) {
+      this.executor =
+          Executors.newThreadPerTaskExecutor(
+              Thread.ofVirtual().name("reminder-dispatch-", 0).factory());
+      this.admitted = new Semaphore(concurrency + capacity);
+      this.running = new Semaphore(concurrency);
+    } else {
+      this.executor =
+          new ThreadPoolExecutor(
+              concurrency,
+              concurrency,
+              0L,
+              TimeUnit.MILLISECONDS,
+              new LinkedBlockingQueue<>(capacity),
+              new CustomizableThreadFactory("reminder-dispatch-"),
+              ReminderDispatcher::waitForRoom);
+      this.admitted = null;
+      this.running = null;
+    }
+
+    Gauge.builder("reminder.dispatch.queue.depth", queued, AtomicInteger::get)
+        .description("Due reminders waiting for a dispatch thread")
+        .register(meterRegistry);
+    Gauge.builder("reminder.dispatch.active", active, AtomicInteger::get)
+        .description("Reminders being executed")
+        .register(meterRegistry);
+    this.lagTimer =
+        Timer.builder("reminder.dispatch.lag")
+            .description("Delay between a reminder due time and the start of its execution")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+
+    log.info(
+        "Reminder dispatch on {} threads, concurrency {}, queue capacity {}",
+        schedulerConfig.getDispatchType(),
+        concurrency,
+        capacity);
+  }
+
+  /**
+   * Hand a due reminder over for execution.
+   *
+   * @param task the reminder to execute
+   * @param dueAtMillis when the reminder was due, in epoch millis, used to measure the lag
+   */
+  public void dispatch(Runnable task, long dueAtMillis) {
+    queued.incrementAndGet();
+    Runnable measured =
+        () -> {
+          queued.decrementAndGet();
+          active.incrementAndGet();
+          lagTimer.record(
+              Math.max(0L, System.currentTimeMillis() - dueAtMillis), TimeUnit.MILLISECONDS);
+          try {
+            task.run();
+          } catch (Exception e) {
+            log.error("Unexpected error running a reminder", e);
+          } finally {
+            active.decrementAndGet();
+          }
+        };
+
+    if (admitted == null) {
+      executor.execute(measured);
+      return;
+    }
+
+    admitted.acquireUninterruptibly();
+    try {
+      executor.execute(
+          () -> {
+            running.acquireUninterruptibly();
+            try {
+              measured.run();
+            } finally {
+              running.release();
+              admitted.release();
+            }
+          });
+    } catch (RejectedExecutionException e) {
+      admitted.release();
+      queued.decrementAndGet();
+      throw e;
+    }
+  }
+
+  /**
+   * Number of reminders handed over and not started yet.
+   *
+   * @return the queue depth
+   */
+  public int getQueueDepth() {
+    return queued.get();
+  }
+
+  /** Stop accepting reminders and let the running ones finish. */
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdown();
+  }
+
+  private static void waitForRoom(Runnable task, ThreadPoolExecutor pool) {
+    if (pool.isShutdown()) {
+      throw new RejectedExecutionException("Reminder dispatcher is shut down");
+    }
+    try {
+      pool.getQueue().put(task);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RejectedExecutionException("Interrupted waiting for dispatch queue room", e);
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package br.dev.ricardocampos.silentguardapi.scheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Timer abstraction used by the reminder service to arm check-in and content reminders. The
+ * implementation is selected with the {@code scheduler.engine} property.
+ */
+public interface ReminderEngine {
+
+  /**
+   * Run the task once at the given instant.
+   *
+   * @param task the task to run
+   * @param startTime when to run it. Instants in the past run as soon as possible
+   * @return the handle to cancel the reminder
+   */
+  ReminderHandle schedule(Runnable task, Instant startTime);
+
+  /**
+   * Run the task at the given instant and then repeatedly, once per period counted from the first
+   * due time, so the time the task takes doesn't push the next runs back. Runs missed while the
+   * task fell behind are skipped rather than run back to back.
+   *
+   * @param task the task to run
+   * @param startTime when to run it the first time
+   * @param period the time between the due times of two runs
+   * @return the handle to cancel the reminder
+   */
+  ReminderHandle scheduleAtFixedRate(Runnable task, Instant startTime, Duration period);
+
+  /**
+   * Number of reminders currently armed in the engine.
+   *
+   * @return the pending reminder count
+   */
+  int size();
+}
@@ -0,0 +1,28 @@
+package br.dev.ricardocampos.silentguardapi.scheduler;
+
+/** Handle to a reminder armed in a {@link ReminderEngine}, used to cancel it later. */
+public interface ReminderHandle {
+
+  /**
+   * Cancel the reminder. A running execution is never interrupted.
+   *
+   * @return true if the reminder was cancelled by this call, false if it was already cancelled or
+   *     a one-shot reminder already fired
+   */
+  boolean cancel();
+
+  /**
+   * Whether this reminder was cancelled.
+   *
+   * @return true if cancelled
+   */
+  boolean isCancelled();
+
+  /**
+   * Whether this reminder will never run again: it was cancelled, or it is a one-shot reminder
+   * that already fired.
+   *
+   * @return true if done
+   */
+  boolean isDone();
+}
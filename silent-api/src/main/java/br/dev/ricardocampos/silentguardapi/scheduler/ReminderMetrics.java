@@ -0,0 +1,183 @@
+package br.dev.ricardocampos.silentguardapi.scheduler;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import org.springframework.stereotype.Component;
+
+/**
+ * Meters for the reminder handlers, published through actuator:
+ *
+ * <ul>
+ *   <li>{@code reminder.fire.lag}: time between the due time stored in the database and the
+ *       moment the handler runs, tagged by {@code kind}
+ *   <li>{@code reminder.sends}: check-in and content sends tagged by {@code kind} and {@code
+ *       outcome} ({@code sent}, {@code queued}, {@code deferred}, {@code failed} or {@code
+ *       skipped})
+ *   <li>{@code reminder.active.tasks}: armed check-in and content reminders, tagged by {@code kind}
+ *   <li>{@code reminder.step}: duration of each database and Mailgun step, tagged by {@code step}
+ *   <li>{@code reminder.outbox.retries}: outbox emails rescheduled after a failed send, tagged by
+ *       {@code kind}
+ *   <li>{@code reminder.dead.letters}: outbox emails moved to the dead letters after running out
+ *       of attempts, tagged by {@code kind}
+ *   <li>{@code reminder.digest.size}: messages covered by each digest check-in email
+ * </ul>
+ */
+@Component
+public class ReminderMetrics {
+
+  public static final String KIND_CHECK_IN = "check-in";
+
+  public static final String KIND_CONTENT = "content";
+
+  public static final String OUTCOME_SENT = "sent";
+
+  public static final String OUTCOME_QUEUED = "queued";
+
+  public static final String OUTCOME_DEFERRED = "deferred";
+
+  public static final String OUTCOME_FAILED = "failed";
+
+  public static final String OUTCOME_SKIPPED = "skipped";
+
+  private final MeterRegistry meterRegistry;
+
+  private final Clock clock;
+
+  /**
+   * Constructs the reminder meters.
+   *
+   * @param meterRegistry the registry the meters are published to
+   * @param clock the clock fire lags are measured with
+   */
+  public ReminderMetrics(MeterRegistry meterRegistry, Clock clock) {
+    this.meterRegistry = meterRegistry;
+    this.clock = clock;
+  }
+
+  /**
+   * Register the gauges of armed reminders.
+   *
+   * @param activeTaskCount counts the armed reminders, given true for content and false for
+   *     check-in
+   */
+  public void bindActiveTasks(ToLongFunction<Boolean> activeTaskCount) {
+    Gauge.builder("reminder.active.tasks", () -> activeTaskCount.applyAsLong(false))
+        .description("Armed check-in reminders")
+        .tag("kind", KIND_CHECK_IN)
+        .register(meterRegistry);
+    Gauge.builder("reminder.active.tasks", () -> activeTaskCount.applyAsLong(true))
+        .description("Armed content reminders")
+        .tag("kind", KIND_CONTENT)
+        .register(meterRegistry);
+  }
+
+  /**
+   * Record how late a reminder fired compared to its due time in the database.
+   *
+   * @param kind {@link #KIND_CHECK_IN} or {@link #KIND_CONTENT}
+   * @param dueAt the due time, ignored when null
+   */
+  public void recordFireLag(String kind, LocalDateTime dueAt) {
+    if (dueAt == null) {
+      return;
+    }
+    Duration lag = Duration.between(dueAt, LocalDateTime.now(clock));
+    Timer.builder("reminder.fire.lag")
+        .description("Delay between a reminder due time in the database and its handler running")
+        .tag("kind", kind)
+        .publishPercentileHistogram()
+        .register(meterRegistry)
+        .record(lag.isNegative() ? Duration.ZERO : lag);
+  }
+
+  /**
+   * Count a send attempt.
+   *
+   * @param kind {@link #KIND_CHECK_IN} or {@link #KIND_CONTENT}
+   * @param outcome the outcome of the attempt
+   */
+  public void countSend(String kind, String outcome) {
+    Counter.builder("reminder.sends")
+        .description("Reminder emails by kind and outcome")
+        .tag("kind", kind)
+        .tag("outcome", outcome)
+        .register(meterRegistry)
+        .increment();
+  }
+
+  /**
+   * Record how many messages a digest check-in email covered.
+   *
+   * @param size the number of messages in the digest
+   */
+  public void recordDigestSize(int size) {
+    DistributionSummary.builder("reminder.digest.size")
+        .description("Messages covered by each digest check-in email")
+        .register(meterRegistry)
+        .record(size);
+  }
+
+  /**
+   * Count an outbox email rescheduled after a failed send.
+   *
+   * @param kind {@link #KIND_CHECK_IN} or {@link #KIND_CONTENT}
+   */
+  public void countRetry(String kind) {
+    Counter.builder("reminder.outbox.retries")
+        .description("Outbox emails rescheduled after a failed send")
+        .tag("kind", kind)
+        .register(meterRegistry)
+        .increment();
+  }
+
+  /**
+   * Count an outbox email moved to the dead letters.
+   *
+   * @param kind {@link #KIND_CHECK_IN} or {@link #KIND_CONTENT}
+   */
+  public void countDeadLetter(String kind) {
+    Counter.builder("reminder.dead.letters")
+        .description("Outbox emails moved to the dead letters after running out of attempts")
+        .tag("kind", kind)
+        .register(meterRegistry)
+        .increment();
+  }
+
+  /**
+   * Time one database or Mailgun step of a handler.
+   *
+   * @param step the step name, such as {@code db.load-reminder} or {@code mailgun.check-in}
+   * @param action the step
+   * @param <T> the step result type
+   * @return the step result
+   */
+  public <T> T timeStep(String step, Supplier<T> action) {
+    return Timer.builder("reminder.step")
+        .description("Duration of the database and Mailgun steps of the reminder handlers")
+        .tag("step", step)
+        .register(meterRegistry)
+        .record(action);
+  }
+
+  /**
+   * Time one database or Mailgun step of a handler that returns nothing.
+   *
+   * @param step the step name
+   * @param action the step
+   */
+  public void timeStep(String step, Runnable action) {
+    Timer.builder("reminder.step")
+        .description("Duration of the database and Mailgun steps of the reminder handlers")
+        .tag("step", step)
+        .register(meterRegistry)
+        .record(action);
+  }
+}
@@ -0,0 +1,174 @@
+package br.dev.ricardocampos.silentguardapi.scheduler;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Registry of the armed reminders, keyed by schedule id. Registering a reminder under an id that
+ * already holds one cancels the previous reminder in the same atomic step, so a replaced one-shot
+ * reminder can't fire later as an orphan. Cancelling removes the entry right away; one-shot
+ * reminders that fired are dropped by their handler or by the periodic purge.
+ *
+ * <p>Schedule ids are {@code <message id>-<kind>}, and the held reminders are counted per kind
+ * next to the map, as they are registered and removed, so reading the counts never scans the
+ * registry. A one-shot reminder that fired is counted until its handler or the purge drops it.
+ *
+ * <p>Meters: {@code reminder.registry.tasks} for the held reminders, {@code
+ * reminder.registry.replaced} for reminders cancelled because a new one replaced them and {@code
+ * reminder.registry.purged} for fired reminders dropped by the purge.
+ */
+@Slf4j
+@Component
+public class ReminderTaskRegistry {
+
+  private final Map<String, ReminderHandle> tasks = new ConcurrentHashMap<>();
+
+  private final AtomicInteger held = new AtomicInteger();
+
+  private final Map<String, AtomicInteger> heldByKind = new ConcurrentHashMap<>();
+
+  private final Counter replaced;
+
+  private final Counter purged;
+
+  /**
+   * Constructs the registry and registers its meters.
+   *
+   * @param meterRegistry the registry for the task meters
+   */
+  public ReminderTaskRegistry(MeterRegistry meterRegistry) {
+    Gauge.builder("reminder.registry.tasks", held, AtomicInteger::get)
+        .description("Reminders held by the task registry")
+        .register(meterRegistry);
+    this.replaced =
+        Counter.builder("reminder.registry.replaced")
+            .description("Reminders cancelled because a new one replaced them")
+            .register(meterRegistry);
+    this.purged =
+        Counter.builder("reminder.registry.purged")
+            .description("Fired reminders dropped by the purge")
+            .register(meterRegistry);
+  }
+
+  /**
+   * Register a reminder, cancelling the one it replaces.
+   *
+   * @param scheduleId the schedule id
+   * @param handle the handle of the new reminder
+   */
+  public void register(String scheduleId, ReminderHandle handle) {
+    tasks.compute(
+        scheduleId,
+        (id, previous) -> {
+          if (Objects.isNull(previous)) {
+            countHeld(id, 1);
+          } else if (previous != handle && previous.cancel()) {
+            replaced.increment();
+            log.debug("Cancelled reminder {} replaced by a new one", id);
+          }
+          return handle;
+        });
+  }
+
+  /**
+   * Remove a reminder and cancel it. A running execution is never interrupted.
+   *
+   * @param scheduleId the schedule id
+   * @return true if an armed reminder was cancelled, false if there was none or it already fired
+   */
+  public boolean cancel(String scheduleId) {
+    ReminderHandle handle = tasks.remove(scheduleId);
+    if (Objects.isNull(handle)) {
+      return false;
+    }
+    countHeld(scheduleId, -1);
+    return handle.cancel();
+  }
+
+  /**
+   * Whether a reminder is armed under the given id.
+   *
+   * @param scheduleId the schedule id
+   * @return true if a reminder is registered and will still run
+   */
+  public boolean isArmed(String scheduleId) {
+    ReminderHandle handle = tasks.get(scheduleId);
+    return Objects.nonNull(handle) && !handle.isDone();
+  }
+
+  /**
+   * Snapshot of the registered schedule ids.
+   *
+   * @return the schedule ids
+   */
+  public List<String> scheduleIds() {
+    return List.copyOf(tasks.keySet());
+  }
+
+  /**
+   * Count the held reminders of a kind, without scanning the registry.
+   *
+   * @param kind the kind part of the schedule ids
+   * @return the number of reminders held, including fired ones not dropped yet
+   */
+  public int countHeld(String kind) {
+    AtomicInteger count = heldByKind.get(kind);
+    return Objects.isNull(count) ? 0 : count.get();
+  }
+
+  /**
+   * Count the armed reminders whose schedule id matches the filter. Scans the registry.
+   *
+   * @param scheduleIdFilter the schedule id filter
+   * @return the number of armed reminders
+   */
+  public long countLive(Predicate<String> scheduleIdFilter) {
+    return tasks.entrySet().stream()
+        .filter(entry -> !entry.getValue().isDone() && scheduleIdFilter.test(entry.getKey()))
+        .count();
+  }
+
+  /**
+   * Count the fired or cancelled reminders not purged yet. Scans the registry.
+   *
+   * @return the number of done reminders still registered
+   */
+  public long countDone() {
+    return tasks.values().stream().filter(ReminderHandle::isDone).count();
+  }
+
+  /** Drop the reminders that fired or were cancelled without going through {@link #cancel}. */
+  @Scheduled(fixedDelayString = "${scheduler.registry.purge-interval-millis:60000}")
+  public void purge() {
+    long dropped = 0;
+    for (Map.Entry<String, ReminderHandle> entry : tasks.entrySet()) {
+      if (entry.getValue().isDone() && tasks.remove(entry.getKey(), entry.getValue())) {
+        countHeld(entry.getKey(), -1);
+        dropped++;
+      }
+    }
+    if (dropped > 0) {
+      purged.increment(dropped);
+      log.debug("Purged {} fired or cancelled reminder(s) from the registry", dropped);
+    }
+  }
+
+  private void countHeld(String scheduleId, int delta) {
+    held.addAndGet(delta);
+    heldByKind.computeIfAbsent(kindOf(scheduleId), kind -> new AtomicInteger()).addAndGet(delta);
+  }
+
+  private static String kindOf(String scheduleId) {
+    return scheduleId.substring(scheduleId.indexOf('-') + 1);
+  }
+}
@@ -0,0 +1,13 @@
+package br.dev.ricardocampos.silentguardapi.scheduler;
+
+import java.util.Set;
+
+/**
+ * Published when the membership of the sharding ring changes and this node gained or lost slots.
+ *
+ * @param lostSlots the slots now owned by another node, whose reminders must be released here
+ * @param gainedSlots the slots now owned by this node, whose reminders must be loaded here
+ * @param slotCount how many slots message ids are grouped into
+ */
+public record ShardAssignmentChangedEvent(
+    Set<Long> lostSlots, Set<Long> gainedSlots, int slotCount) {}
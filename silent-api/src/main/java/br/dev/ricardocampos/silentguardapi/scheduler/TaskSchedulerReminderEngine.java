@@ -0,0 +1,123 @@
+package br.dev.ricardocampos.silentguardapi.scheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fallback {@link ReminderEngine} backed by Spring's {@link TaskScheduler}. Every reminder holds
+ * one entry in the executor delay heap. The scheduler thread only hands due reminders to the
+ * {@link ReminderDispatcher}. Enabled with {@code scheduler.engine=task-scheduler}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "scheduler.engine", havingValue = "task-scheduler")
+public class TaskSchedulerReminderEngine implements ReminderEngine {
+
+  private final TaskScheduler taskScheduler;
+
+  private final ReminderDispatcher reminderDispatcher;
+
+  private final AtomicInteger pending = new AtomicInteger();
+
+  /**
+   * Constructs a TaskSchedulerReminderEngine.
+   *
+   * @param taskScheduler the Spring task scheduler to delegate to
+   * @param reminderDispatcher the dispatcher that executes due reminders
+   */
+  public TaskSchedulerReminderEngine(
+      TaskScheduler taskScheduler, ReminderDispatcher reminderDispatcher) {
+    this.taskScheduler = taskScheduler;
+    this.reminderDispatcher = reminderDispatcher;
+    // a cancelled future leaves the executor delay heap right away instead of at its due time
+    if (taskScheduler instanceof ThreadPoolTaskScheduler threadPoolTaskScheduler) {
+      threadPoolTaskScheduler.setRemoveOnCancelPolicy(true);
+    }
+    log.info("Using TaskScheduler reminder engine");
+  }
+
+  @Override
+  public ReminderHandle schedule(Runnable task, Instant startTime) {
+    FutureReminderHandle handle = new FutureReminderHandle(true);
+    handle.future =
+        taskScheduler.schedule(
+            () -> {
+              handle.markDone();
+              reminderDispatcher.dispatch(task, startTime.toEpochMilli());
+            },
+            startTime);
+    return handle;
+  }
+
+  @Override
+  public ReminderHandle scheduleAtFixedRate(Runnable task, Instant startTime, Duration period) {
+    FutureReminderHandle handle = new FutureReminderHandle(false);
+    long periodMillis = period.toMillis();
+    AtomicLong nextDueMillis = new AtomicLong(startTime.toEpochMilli());
+    handle.future =
+        taskScheduler.scheduleAtFixedRate(
+            () -> {
+              long dueMillis = nextDueMillis.getAndAdd(periodMillis);
+              // the scheduler runs missed executions back to back, only the last one is kept
+              if (System.currentTimeMillis() - dueMillis < periodMillis) {
+                reminderDispatcher.dispatch(task, dueMillis);
+              }
+            },
+            startTime,
+            period);
+    return handle;
+  }
+
+  @Override
+  public int size() {
+    return pending.get();
+  }
+
+  private final class FutureReminderHandle implements ReminderHandle {
+
+    private final boolean oneShot;
+
+    private volatile ScheduledFuture<?> future;
+
+    private final AtomicBoolean done = new AtomicBoolean();
+
+    private FutureReminderHandle(boolean oneShot) {
+      this.oneShot = oneShot;
+      pending.incrementAndGet();
+    }
+
+    private void markDone() {
+      if (oneShot && done.compareAndSet(false, true)) {
+        pending.decrementAndGet();
+      }
+    }
+
+    @Override
+    public boolean cancel() {
+      boolean cancelled = future.cancel(false);
+      if (cancelled && done.compareAndSet(false, true)) {
+        pending.decrementAndGet();
+      }
+      return cancelled;
+    }
+
+    @Override
+    public boolean isCancelled() {
+      return future.isCancelled();
+    }
+
+    @Override
+    public boolean isDone() {
+      return done.get();
+    }
+  }
+}
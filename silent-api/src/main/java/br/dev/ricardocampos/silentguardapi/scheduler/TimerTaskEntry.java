@@ -0,0 +1,35 @@
+package br.dev.ricardocampos.silentguardapi.scheduler;
+
+/**
+ * A task linked into one bucket of a {@link TimingWheel}. Entries form an intrusive doubly linked
+ * list, so unlinking on cancel is O(1).
+ */
+final class TimerTaskEntry {
+
+  final Runnable task;
+
+  final long expirationMs;
+
+  volatile TimerTaskList list;
+
+  TimerTaskEntry next;
+
+  TimerTaskEntry prev;
+
+  volatile boolean cancelled;
+
+  TimerTaskEntry(Runnable task, long expirationMs) {
+    this.task = task;
+    this.expirationMs = expirationMs;
+  }
+
+  /** Unlink this entry from whatever bucket currently holds it. */
+  void remove() {
+    TimerTaskList current = list;
+    // the entry may be moved to another bucket while we remove it, so retry until unlinked
+    while (current != null) {
+      current.remove(this);
+      current = list;
+    }
+  }
+}
@@ -0,0 +1,102 @@
+package br.dev.ricardocampos.silentguardapi.scheduler;
+
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * One bucket of a {@link TimingWheel}. Buckets, not tasks, are queued in the delay queue, so the
+ * queue holds at most one element per wheel slot no matter how many reminders are armed.
+ */
+final class TimerTaskList implements Delayed {
+
+  private final AtomicInteger taskCounter;
+
+  private final TimerTaskEntry root = new TimerTaskEntry(null, -1L);
+
+  private final AtomicLong expiration = new AtomicLong(-1L);
+
+  TimerTaskList(AtomicInteger taskCounter) {
+    this.taskCounter = taskCounter;
+    root.next = root;
+    root.prev = root;
+  }
+
+  /**
+   * Set the bucket expiration.
+   *
+   * @param expirationMs the new expiration
+   * @return true if the expiration changed, meaning the bucket must be (re)queued
+   */
+  boolean setExpiration(long expirationMs) {
+    return expiration.getAndSet(expirationMs) != expirationMs;
+  }
+
+  long getExpiration() {
+    return expiration.get();
+  }
+
+  void add(TimerTaskEntry entry) {
+    boolean done = false;
+    while (!done) {
+      // drop the entry from any other bucket first, outside this bucket lock to avoid deadlocks
+      entry.remove();
+
+      synchronized (this) {
+        synchronized (entry) {
+          if (entry.list == null) {
+            TimerTaskEntry tail = root.prev;
+            entry.next = root;
+            entry.prev = tail;
+            entry.list = this;
+            tail.next = entry;
+            root.prev = entry;
+            taskCounter.incrementAndGet();
+            done = true;
+          }
+        }
+      }
+    }
+  }
+
+  synchronized void remove(TimerTaskEntry entry) {
+    synchronized (entry) {
+      if (entry.list == this) {
+        entry.next.prev = entry.prev;
+        entry.prev.next = entry.next;
+        entry.next = null;
+        entry.prev = null;
+        entry.list = null;
+        taskCounter.decrementAndGet();
+      }
+    }
+  }
+
+  /**
+   * Remove every entry and hand it to the given consumer, then reset the expiration.
+   *
+   * @param consumer receives each removed entry
+   */
+  synchronized void flush(Consumer<TimerTaskEntry> consumer) {
+    TimerTaskEntry head = root.next;
+    while (head != root) {
+      remove(head);
+      consumer.accept(head);
+      head = root.next;
+    }
+    expiration.set(-1L);
+  }
+
+  @Override
+  public long getDelay(TimeUnit unit) {
+    long delayMs = Math.max(getExpiration() - System.currentTimeMillis(), 0L);
+    return unit.convert(delayMs, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public int compareTo(Delayed other) {
+    return Long.compare(getExpiration(), ((TimerTaskList) other).getExpiration());
+  }
+}
@@ -0,0 +1,100 @@
+package br.dev.ricardocampos.silentguardapi.scheduler;
+
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hierarchical timing wheel. Each level has {@code wheelSize} buckets of {@code tickMs}; reminders
+ * beyond the level span go to a lazily created overflow wheel whose tick is the whole span of this
+ * one. Insert and cancel are O(1) regardless of how many reminders are armed.
+ */
+final class TimingWheel {
+
+  private final long tickMs;
+
+  private final int wheelSize;
+
+  private final long interval;
+
+  private final AtomicInteger taskCounter;
+
+  private final DelayQueue<TimerTaskList> queue;
+
+  private final TimerTaskList[] buckets;
+
+  private long currentTimeMs;
+
+  private volatile TimingWheel overflowWheel;
+
+  TimingWheel(
+      long tickMs,
+      int wheelSize,
+      long startMs,
+      AtomicInteger taskCounter,
+      DelayQueue<TimerTaskList> queue) {
+    this.tickMs = tickMs;
+    this.wheelSize = wheelSize;
+    this.interval = tickMs * wheelSize;
+    this.taskCounter = taskCounter;
+    this.queue = queue;
+    this.buckets = new TimerTaskList[wheelSize];
+    for (int i = 0; i < wheelSize; i++) {
+      buckets[i] = new TimerTaskList(taskCounter);
+    }
+    this.currentTimeMs = startMs - (startMs % tickMs);
+  }
+
+  private synchronized void addOverflowWheel() {
+    if (overflowWheel == null) {
+      overflowWheel = new TimingWheel(interval, wheelSize, currentTimeMs, taskCounter, queue);
+    }
+  }
+
+  /**
+   * Add an entry to the wheel.
+   *
+   * @param entry the entry to add
+   * @return false if the entry is cancelled or already due, so the caller should run it now
+   */
+  boolean add(TimerTaskEntry entry) {
+    long expiration = entry.expirationMs;
+
+    if (entry.cancelled) {
+      return false;
+    }
+    if (expiration < currentTimeMs + tickMs) {
+      return false;
+    }
+    if (expiration < currentTimeMs + interval) {
+      long virtualId = expiration / tickMs;
+      TimerTaskList bucket = buckets[(int) (virtualId % wheelSize)];
+      bucket.add(entry);
+
+      // a bucket is queued once per round; only requeue when it starts a new round
+      if (bucket.setExpiration(virtualId * tickMs)) {
+        queue.offer(bucket);
+      }
+      return true;
+    }
+
+    if (overflowWheel == null) {
+      addOverflowWheel();
+    }
+    return overflowWheel.add(entry);
+  }
+
+  /**
+   * Move the wheel clock forward, cascading into the overflow wheels.
+   *
+   * @param timeMs the new current time
+   */
+  void advanceClock(long timeMs) {
+    if (timeMs >= currentTimeMs + tickMs) {
+      currentTimeMs = timeMs - (timeMs % tickMs);
+
+      if (overflowWheel != null) {
+        overflowWheel.advanceClock(currentTimeMs);
+      }
+    }
+  }
+}
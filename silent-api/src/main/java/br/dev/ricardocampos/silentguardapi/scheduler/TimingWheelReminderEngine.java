@@ -0,0 +1,242 @@
+package br.dev.ricardocampos.silentguardapi.scheduler;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Default {@link ReminderEngine}, backed by a hierarchical {@link TimingWheel}. A single timer
+ * thread waits on the delay queue of wheel buckets and hands due reminders to the {@link
+ * ReminderDispatcher}, so a slow reminder never delays the wheel. Enabled with {@code
+ * scheduler.engine=timing-wheel}.
+ *
+ * <p>Due reminders are handed over only once the wheel lock is released. The hand-off waits while
+ * the dispatch queue is full, and the running reminders need the lock to arm their next one, so
+ * waiting with the lock held would stop both the timer and the workers.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(
+    name = "scheduler.engine",
+    havingValue = "timing-wheel",
+    matchIfMissing = true)
+public class TimingWheelReminderEngine implements ReminderEngine {
+
+  private static final long POLL_TIMEOUT_MS = 200L;
+
+  private final DelayQueue<TimerTaskList> delayQueue = new DelayQueue<>();
+
+  private final AtomicInteger taskCounter = new AtomicInteger();
+
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private final long tickMillis;
+
+  private final TimingWheel timingWheel;
+
+  private final ReminderDispatcher reminderDispatcher;
+
+  private final Thread timerThread;
+
+  private volatile boolean running = true;
+
+  /**
+   * Constructs a TimingWheelReminderEngine and starts its timer thread.
+   *
+   * @param tickMillis the duration of one tick of the lowest wheel
+   * @param wheelSize the number of buckets on each wheel level
+   * @param reminderDispatcher the dispatcher that executes due reminders
+   */
+  public TimingWheelReminderEngine(
+      @Value("${scheduler.timing-wheel.tick-millis:1000}") long tickMillis,
+      @Value("${scheduler.timing-wheel.wheel-size:60}") int wheelSize,
+      ReminderDispatcher reminderDispatcher) {
+    this.tickMillis = tickMillis;
+    this.timingWheel =
+        new TimingWheel(
+            tickMillis, wheelSize, System.currentTimeMillis(), taskCounter, delayQueue);
+    this.reminderDispatcher = reminderDispatcher;
+    this.timerThread = new Thread(this::runTimer, "reminder-timing-wheel");
+    this.timerThread.setDaemon(true);
+    this.timerThread.start();
+    log.info(
+        "Using timing wheel reminder engine, tick {} ms, wheel size {}", tickMillis, wheelSize);
+  }
+
+  @Override
+  public ReminderHandle schedule(Runnable task, Instant startTime) {
+    WheelReminderHandle handle = new WheelReminderHandle(task, null);
+    handle.arm(startTime.toEpochMilli());
+    return handle;
+  }
+
+  @Override
+  public ReminderHandle scheduleAtFixedRate(Runnable task, Instant startTime, Duration period) {
+    WheelReminderHandle handle = new WheelReminderHandle(task, period);
+    handle.arm(startTime.toEpochMilli());
+    return handle;
+  }
+
+  @Override
+  public int size() {
+    return taskCounter.get();
+  }
+
+  /** Stop the timer thread. Reminders still armed are dropped, they are restored on startup. */
+  @PreDestroy
+  public void shutdown() {
+    running = false;
+    timerThread.interrupt();
+  }
+
+  private void addEntry(TimerTaskEntry entry) {
+    boolean due;
+    lock.readLock().lock();
+    try {
+      due = !timingWheel.add(entry);
+    } finally {
+      lock.readLock().unlock();
+    }
+    if (due) {
+      dispatch(entry);
+    }
+  }
+
+  private void dispatch(TimerTaskEntry entry) {
+    if (!entry.cancelled) {
+      reminderDispatcher.dispatch(entry.task, entry.expirationMs);
+    }
+  }
+
+  private void runTimer() {
+    while (running) {
+      try {
+        TimerTaskList bucket = delayQueue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        if (bucket == null) {
+          continue;
+        }
+
+        List<TimerTaskEntry> due = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+          while (bucket != null) {
+            timingWheel.advanceClock(bucket.getExpiration());
+            // due entries fire, the others cascade down to a finer wheel
+            bucket.flush(
+                entry -> {
+                  if (!timingWheel.add(entry)) {
+                    due.add(entry);
+                  }
+                });
+            bucket = delayQueue.poll();
+          }
+        } finally {
+          lock.writeLock().unlock();
+        }
+        due.forEach(this::dispatch);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (Exception e) {
+        log.error("Unexpected error on the reminder timing wheel", e);
+      }
+    }
+  }
+
+  private final class WheelReminderHandle implements ReminderHandle, Runnable {
+
+    private final Runnable task;
+
+    private final Duration period;
+
+    private volatile TimerTaskEntry entry;
+
+    private volatile boolean cancelled;
+
+    private volatile boolean done;
+
+    private WheelReminderHandle(Runnable task, Duration period) {
+      this.task = task;
+      this.period = period;
+    }
+
+    private void arm(long expirationMs) {
+      TimerTaskEntry next = new TimerTaskEntry(this, expirationMs);
+      entry = next;
+      addEntry(next);
+      // a cancel racing with a re-arm must not leave the new entry behind
+      if (cancelled) {
+        next.cancelled = true;
+        next.remove();
+      }
+    }
+
+    @Override
+    public void run() {
+      if (cancelled) {
+        return;
+      }
+      long expirationMs = entry.expirationMs;
+      try {
+        task.run();
+      } finally {
+        if (Objects.isNull(period)) {
+          done = true;
+        } else if (!cancelled) {
+          arm(nextExpiration(expirationMs, System.currentTimeMillis()));
+        }
+      }
+    }
+
+    /**
+     * The due time of the next run, one period after the previous due time so the run time of the
+     * task doesn't accumulate. When the task fell behind, the missed runs are skipped and the next
+     * one is the first due time at least a tick ahead, so it always goes to the wheel instead of
+     * being handed over from the dispatch thread running this one.
+     */
+    private long nextExpiration(long previousMs, long nowMs) {
+      long periodMs = Math.max(1L, period.toMillis());
+      long earliestMs = nowMs + tickMillis;
+      long next = previousMs + periodMs;
+      if (next < earliestMs) {
+        next += (earliestMs - next + periodMs - 1) / periodMs * periodMs;
+      }
+      return next;
+    }
+
+    @Override
+    public synchronized boolean cancel() {
+      if (cancelled || done) {
+        return false;
+      }
+      cancelled = true;
+      TimerTaskEntry current = entry;
+      if (current != null) {
+        current.cancelled = true;
+        current.remove();
+      }
+      return true;
+    }
+
+    @Override
+    public boolean isCancelled() {
+      return cancelled;
+    }
+
+    @Override
+    public boolean isDone() {
+      return cancelled || done;
+    }
+  }
+}
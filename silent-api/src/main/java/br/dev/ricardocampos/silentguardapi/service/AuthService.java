@@ -1,86 +1,280 @@
 package br.dev.ricardocampos.silentguardapi.service;
 
 import br.dev.ricardocampos.silentguardapi.config.AppConfig;
+import br.dev.ricardocampos.silentguardapi.config.CacheConfig;
 import br.dev.ricardocampos.silentguardapi.dto.UserInfoDto;
+import br.dev.ricardocampos.silentguardapi.exception.AuthServiceException;
+import br.dev.ricardocampos.silentguardapi.util.DigestUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.http.HttpEntity;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.RestTemplate;
 
 /**
  * Service class for handling authentication-related operations, specifically fetching user
- * information from Auth0 using a provided token. This service caches the user information to avoid
- * repeated calls to Auth0 for the same token.
+ * information from Auth0 using a provided token. With the {@code claims} identity source, the email
+ * is read from a namespaced claim of the access token Spring Security already validated, and Auth0
+ * is called only for tokens without that claim.
+ *
+ * <p>The user info is cached in an asynchronous cache keyed by the SHA-256 digest of the token,
+ * so concurrent requests with the same fresh token share one call to Auth0 and the cache never
+ * holds the token itself. Each entry expires when the token does, or after {@code
+ * cache.auth0.ttl-minutes} or {@code cache.auth0.access-ttl-minutes} without a read if that comes
+ * first. Calls go through a shared keep-alive client bounded by {@code
+ * auth.connect-timeout-millis} and {@code auth.read-timeout-millis}. Entries read after {@code
+ * cache.auth0.refresh-minutes} are reloaded in the background while the cached value keeps being
+ * served, so a hot token never waits for Auth0.
  */
 @Slf4j
 @Service
 public class AuthService {
 
+  private static final int TOO_MANY_REQUESTS = 429;
+
+  private final HttpClient httpClient;
+
+  private final ObjectMapper objectMapper;
+
   private final AppConfig appConfig;
 
+  private final URI userInfoUri;
+
+  private final Duration readTimeout;
+
+  private final Duration timeToLive;
+
+  private final Duration timeToIdle;
+
+  private final Duration refreshAfter;
+
+  private final Clock clock;
+
+  private final AsyncCache<String, CachedUserInfo> userInfoCache;
+
+  private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
   /**
    * Constructs an AuthService with the specified AppConfig.
    *
    * @param appConfig the application configuration containing Auth0 domain and other settings
+   * @param httpClient the shared client Auth0 requests are sent with
+   * @param cacheConfig the size, expiry and refresh settings of the user info cache
+   * @param objectMapper the mapper the Auth0 answers are read with
+   * @param meterRegistry the registry for the {@code userInfoDto} cache meters
+   * @param clock the clock the token expiry is compared with
    */
-  public AuthService(AppConfig appConfig) {
+  public AuthService(
+      AppConfig appConfig,
+      @Qualifier("auth0HttpClient") HttpClient httpClient,
+      CacheConfig cacheConfig,
+      ObjectMapper objectMapper,
+      MeterRegistry meterRegistry,
+      Clock clock) {
     this.appConfig = appConfig;
+    this.httpClient = httpClient;
+    this.objectMapper = objectMapper;
+    this.userInfoUri = URI.create(String.format("%s/userinfo", appConfig.getAuthZeroAuthDomain()));
+    this.readTimeout = Duration.ofMillis(appConfig.getAuthReadTimeoutMillis());
+    this.timeToLive = Duration.ofMinutes(cacheConfig.getTtlMinutes());
+    this.timeToIdle = Duration.ofMinutes(cacheConfig.getAccessTtlMinutes());
+    this.refreshAfter = Duration.ofMinutes(cacheConfig.getRefreshMinutes());
+    this.clock = clock;
+    this.userInfoCache =
+        cacheConfig
+            .userInfoCacheBuilder()
+            .expireAfter(Expiry.accessing((String key, CachedUserInfo cached) -> timeLeft(cached)))
+            .buildAsync();
+    CaffeineCacheMetrics.monitor(meterRegistry, userInfoCache, "userInfoDto");
   }
 
   /**
-   * Retrieves user information from Auth0 using the provided token. The result is cached to improve
-   * performance and reduce the number of requests to Auth0.
+   * Retrieves user information from the token claims or from Auth0. Auth0 answers are cached by
+   * token digest, and concurrent misses for the same token wait for the same request.
    *
    * @param token the JWT token used to authenticate the request
-   * @return an Optional containing UserInfoDto if successful, or empty if not found or an error
-   *     occurs
+   * @return an Optional containing UserInfoDto if successful, or empty if not found
+   * @throws AuthServiceException if Auth0 is unavailable or doesn't answer in time
    */
-  @Cacheable(value = "userInfoDto", key = "#token")
   public Optional<UserInfoDto> getUserInfo(String token) {
-    log.info(
-        "Token length: {}, Hash: {}, Ends with: {}",
-        token.length(),
-        token.hashCode(),
-        token.substring(token.length() - 20));
+    Optional<UserInfoDto> fromClaims = getUserInfoFromClaims();
+    if (fromClaims.isPresent()) {
+      return fromClaims;
+    }
 
-    log.info("No cached version for the token, fetching from Auth0");
-    String userInfoUrl = String.format("%s/userinfo", appConfig.getAuthZeroAuthDomain());
+    Instant now = clock.instant();
+    String key = tokenDigest(token);
+    Instant expiresAt = expiresAt(now);
+    CachedUserInfo cached;
+    try {
+      cached = userInfoCache.get(key, (digest, executor) -> fetchUserInfo(token, expiresAt)).join();
+    } catch (CompletionException e) {
+      log.error("Failed to fetch user info from Auth0: {}", e.getCause().getMessage());
+      throw new AuthServiceException("Could not fetch user info from Auth0");
+    }
 
-    HttpHeaders headers = new HttpHeaders();
-    headers.set("Authorization", "Bearer " + token);
+    if (cached.fetchedAt().plus(refreshAfter).isBefore(now)) {
+      refresh(key, token, expiresAt);
+    }
+    return cached.userInfo().flatMap(this::getUserInfoAndValidate);
+  }
 
-    RestTemplate restTemplate = new RestTemplate();
+  /**
+   * Loads the user info of a token not cached yet, or refreshes a cached one. A 4xx answer other
+   * than 429 is cached as empty, since Auth0 won't accept the token later; a 429 or 5xx answer, a
+   * timeout or a connection error fails the load, so nothing is cached and the next request tries
+   * again. Runs on the calling thread only up to the request being sent.
+   *
+   * @param token the access token
+   * @param expiresAt when the entry expires at the latest
+   * @return a future completed with the user info
+   */
+  private CompletableFuture<CachedUserInfo> fetchUserInfo(String token, Instant expiresAt) {
+    log.info("No fresh cached version for the token, fetching from Auth0");
+    Instant fetchedAt = clock.instant();
+    HttpRequest request =
+        HttpRequest.newBuilder(userInfoUri)
+            .timeout(readTimeout)
+            .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+            .GET()
+            .build();
 
-    try {
-      log.info("Starting request to {}", userInfoUrl);
+    return httpClient
+        .sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+        .thenApply(response -> new CachedUserInfo(readUserInfo(response), fetchedAt, expiresAt));
+  }
 
-      ResponseEntity<UserInfoDto> response =
-          restTemplate.exchange(
-              userInfoUrl, HttpMethod.GET, new HttpEntity<>(headers), UserInfoDto.class);
+  /**
+   * Reloads a cached entry in the background, once at a time per token. The cached entry keeps
+   * being served meanwhile, and stays as it is if the reload fails.
+   *
+   * @param key the digest of the token
+   * @param token the access token
+   * @param expiresAt when the reloaded entry expires at the latest
+   */
+  private void refresh(String key, String token, Instant expiresAt) {
+    if (!refreshing.add(key)) {
+      return;
+    }
 
-      log.info("Finished request to {}", userInfoUrl);
-      log.debug("Response HTTP Status: {}", response.getStatusCode());
-      log.debug("Response Body: {}", response.getBody());
+    fetchUserInfo(token, expiresAt)
+        .whenComplete(
+            (fresh, error) -> {
+              refreshing.remove(key);
+              if (Objects.isNull(error)) {
+                userInfoCache.put(key, CompletableFuture.completedFuture(fresh));
+              } else {
+                log.warn("Failed to refresh user info from Auth0: {}", error.getMessage());
+              }
+            });
+  }
 
-      if (response.getStatusCode().is2xxSuccessful() && response.hasBody()) {
-        return getUserInfoAndValidate(response.getBody());
-      }
+  /**
+   * When an entry fetched now must expire: at the expiry of the authenticated token, or after the
+   * cache time-to-live if that comes first.
+   *
+   * @param now the current time
+   * @return the latest time the entry may be served
+   */
+  private Instant expiresAt(Instant now) {
+    Instant deadline = now.plus(timeToLive);
+    Optional<Instant> tokenExpiresAt = getJwt().map(Jwt::getExpiresAt);
+    if (tokenExpiresAt.isPresent() && tokenExpiresAt.get().isBefore(deadline)) {
+      return tokenExpiresAt.get();
+    }
+    return deadline;
+  }
 
-    } catch (HttpClientErrorException e) {
-      log.error("HttpClientErrorException when fetching user info: {}", e.getMessage());
+  private Duration timeLeft(CachedUserInfo cached) {
+    Duration untilExpiry = Duration.between(clock.instant(), cached.expiresAt());
+    if (untilExpiry.isNegative()) {
+      return Duration.ZERO;
     }
+    return untilExpiry.compareTo(timeToIdle) < 0 ? untilExpiry : timeToIdle;
+  }
 
-    return Optional.empty();
+  private static String tokenDigest(String token) {
+    byte[] digest = DigestUtil.sha256(token.getBytes(StandardCharsets.UTF_8));
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+  }
+
+  private Optional<UserInfoDto> readUserInfo(HttpResponse<byte[]> response) {
+    HttpStatusCode status = HttpStatusCode.valueOf(response.statusCode());
+    log.debug("Response HTTP Status: {}", status);
+    if (status.value() == TOO_MANY_REQUESTS || status.is5xxServerError()) {
+      throw new AuthServiceException("Auth0 answered " + status + " when fetching user info");
+    }
+    if (!status.is2xxSuccessful()) {
+      log.error("Auth0 answered {} when fetching user info", status);
+      return Optional.empty();
+    }
+
+    try {
+      return Optional.ofNullable(objectMapper.readValue(response.body(), UserInfoDto.class));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Reads the user info from the validated access token, when the identity source is {@code
+   * claims}. The signature, issuer, audience and expiry were checked by the resource server before
+   * the request got here, so the claims are trusted as they are.
+   *
+   * @return the user info with the subject and email of the token, or empty to ask Auth0
+   */
+  private Optional<UserInfoDto> getUserInfoFromClaims() {
+    if (!appConfig.isIdentityFromClaims()) {
+      return Optional.empty();
+    }
+
+    Optional<Jwt> authenticatedJwt = getJwt();
+    if (authenticatedJwt.isEmpty()) {
+      return Optional.empty();
+    }
+
+    Jwt jwt = authenticatedJwt.get();
+    String email = jwt.getClaimAsString(appConfig.getAuthEmailClaim());
+    if (Objects.isNull(email) || email.isBlank()) {
+      log.info(
+          "Token has no {} claim, fetching user info from Auth0", appConfig.getAuthEmailClaim());
+      return Optional.empty();
+    }
+
+    return Optional.of(new UserInfoDto(jwt.getSubject(), null, null, null, null, email, null));
+  }
+
+  private Optional<Jwt> getJwt() {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (Objects.isNull(authentication) || !(authentication.getPrincipal() instanceof Jwt jwt)) {
+      return Optional.empty();
+    }
+    return Optional.of(jwt);
   }
 
   private Optional<UserInfoDto> getUserInfoAndValidate(UserInfoDto userInfoDto) {
@@ -101,4 +295,14 @@ public class AuthService {
 
     return Optional.of(userInfoDto);
   }
+
+  /**
+   * A cached Auth0 answer.
+   *
+   * @param userInfo the user info, or empty if Auth0 refused the token
+   * @param fetchedAt when the request was sent
+   * @param expiresAt the latest time the entry may be served
+   */
+  private record CachedUserInfo(
+      Optional<UserInfoDto> userInfo, Instant fetchedAt, Instant expiresAt) {}
 }
@@ -0,0 +1,508 @@
+package br.dev.ricardocampos.silentguardapi.service;
+
+import br.dev.ricardocampos.silentguardapi.config.SchedulerConfig;
+import br.dev.ricardocampos.silentguardapi.dto.CheckInDigestItemDto;
+import br.dev.ricardocampos.silentguardapi.dto.CheckInRequestDto;
+import br.dev.ricardocampos.silentguardapi.entity.DeadLetterEntity;
+import br.dev.ricardocampos.silentguardapi.entity.MessageEntity;
+import br.dev.ricardocampos.silentguardapi.entity.OutboxEntity;
+import br.dev.ricardocampos.silentguardapi.enums.OutboxKindEnum;
+import br.dev.ricardocampos.silentguardapi.exception.MailDeferredException;
+import br.dev.ricardocampos.silentguardapi.mail.MailTransport;
+import br.dev.ricardocampos.silentguardapi.repository.DeadLetterRepository;
+import br.dev.ricardocampos.silentguardapi.repository.MessageRepository;
+import br.dev.ricardocampos.silentguardapi.repository.OutboxRepository;
+import br.dev.ricardocampos.silentguardapi.scheduler.ReminderMetrics;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service for the transactional email outbox. The scheduler enqueues emails in the same
+ * transaction that advances the reminder state, and a worker drains the outbox in batches, with
+ * jittered exponential backoff between attempts. Transport latency then only affects the worker.
+ * Check-in requests due in the same poll go out as one batch send, such as a Mailgun send with
+ * recipient variables. Emails that run out of attempts move to the {@code sg_dead_letters} table.
+ *
+ * <p>The worker claims a batch in a short transaction that leases it, by moving its next attempt
+ * to the end of the lease, so no row lock is held while the mail transport is called. The results
+ * are recorded in a second transaction. A batch whose worker died is claimed again once its lease
+ * expires, which uses up an attempt.
+ *
+ * <p>The outbox is also where emails wait while the mail transport refuses sends: the worker
+ * doesn't claim anything while the circuit breaker is open, and a send refused without being tried
+ * is deferred without using up an attempt. The worker runs with the outbox disabled too, to drain
+ * the emails the reminder handlers deferred.
+ *
+ * <p>Sent emails are kept for {@code scheduler.outbox.retention-hours}, then deleted in batches so
+ * the table only holds recent history.
+ */
+@Slf4j
+@Service
+@AllArgsConstructor
+public class EmailOutboxService {
+
+  private static final int MAX_ERROR_LENGTH = 1000;
+
+  private final OutboxRepository outboxRepository;
+
+  private final DeadLetterRepository deadLetterRepository;
+
+  private final MessageRepository messageRepository;
+
+  private final MessageContentService messageContentService;
+
+  private final MailTransport mailTransport;
+
+  private final SchedulerConfig schedulerConfig;
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final ReminderMetrics reminderMetrics;
+
+  private final Clock clock;
+
+  /**
+   * Queue a check-in request. Must be called inside the transaction that advances the reminder.
+   *
+   * @param message the message the check-in is for
+   * @param userEmail the owner email
+   * @param timeToRespond how long the user has to check in
+   */
+  public void enqueueCheckIn(MessageEntity message, String userEmail, Duration timeToRespond) {
+    OutboxEntity outbox = newOutbox(message, OutboxKindEnum.CHECK_IN, userEmail);
+    outbox.setConfirmationId(message.getReminderUuid());
+    outbox.setTimeToRespondSeconds(timeToRespond.toSeconds());
+    outboxRepository.save(outbox);
+    log.info("Check-in request for message id {} queued in the outbox", message.getId());
+  }
+
+  /**
+   * Queue the content message. Must be called inside the transaction that disables the message.
+   * The subject and content are read from the message when the email is sent.
+   *
+   * @param message the message whose content is sent
+   */
+  public void enqueueContent(MessageEntity message) {
+    outboxRepository.save(newOutbox(message, OutboxKindEnum.CONTENT, message.getTargets()));
+    log.info("Content message for message id {} queued in the outbox", message.getId());
+  }
+
+  /**
+   * Claim and send pending check-in requests, then content messages, until no full batch is left
+   * or the mail transport stops accepting sends.
+   */
+  @Scheduled(fixedDelayString = "${scheduler.outbox.poll-interval-millis:2000}")
+  public void dispatchPending() {
+    if (!mailTransport.isAvailable()) {
+      log.debug("Mail transport unavailable, outbox emails stay pending");
+      return;
+    }
+
+    int checkInBatchSize =
+        Math.min(schedulerConfig.getOutboxCheckInBatchSize(), mailTransport.maxBatchSize());
+    List<OutboxEntity> batch;
+    do {
+      batch = claim(OutboxKindEnum.CHECK_IN, checkInBatchSize);
+      dispatchCheckInBatch(batch);
+      record(batch);
+    } while (batch.size() == checkInBatchSize && mailTransport.isAvailable());
+
+    int batchSize = schedulerConfig.getOutboxBatchSize();
+    do {
+      batch = claim(OutboxKindEnum.CONTENT, batchSize);
+      dispatchBatch(batch);
+      record(batch);
+    } while (batch.size() == batchSize && mailTransport.isAvailable());
+  }
+
+  /**
+   * Delete the emails sent longer ago than the retention, one batch per transaction, so a large
+   * backlog doesn't hold a long lock on the outbox.
+   */
+  @Scheduled(fixedDelayString = "${scheduler.outbox.retention-interval-millis:3600000}")
+  public void purgeSent() {
+    LocalDateTime sentBefore =
+        LocalDateTime.now(clock).minusHours(schedulerConfig.getOutboxRetentionHours());
+    int batchSize = Math.max(1, schedulerConfig.getOutboxRetentionBatchSize());
+    long purged = 0;
+    int deleted;
+    do {
+      deleted = outboxRepository.deleteSentBefore(sentBefore, batchSize);
+      purged += deleted;
+    } while (deleted == batchSize);
+
+    if (purged > 0) {
+      log.info("Outbox retention deleted {} email(s) sent before {}", purged, sentBefore);
+    }
+  }
+
+  /**
+   * Claim a batch of pending emails of one kind and lease it, in one short transaction. Each claim
+   * counts as an attempt.
+   *
+   * @param kind the kind of emails to claim
+   * @param limit the maximum number of emails to claim
+   * @return the claimed emails, detached once the transaction commits
+   */
+  private List<OutboxEntity> claim(OutboxKindEnum kind, int limit) {
+    return Objects.requireNonNull(
+        transactionTemplate.execute(
+            status -> {
+              LocalDateTime now = LocalDateTime.now(clock);
+              List<OutboxEntity> batch = outboxRepository.claimPending(kind.name(), now, limit);
+              LocalDateTime leasedUntil = now.plusSeconds(schedulerConfig.getOutboxLeaseSeconds());
+              for (OutboxEntity outbox : batch) {
+                outbox.setAttempts(outbox.getAttempts() + 1);
+                outbox.setNextAttemptAt(leasedUntil);
+              }
+              outboxRepository.saveAllAndFlush(batch);
+              return batch;
+            }));
+  }
+
+  /**
+   * Record the results of a sent batch onto its rows, and move the emails out of attempts to the
+   * dead letters. An email deleted with its message while it was sent is skipped.
+   *
+   * @param batch the claimed emails, with the results of the send
+   */
+  private void record(List<OutboxEntity> batch) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    Map<Long, OutboxEntity> results =
+        batch.stream().collect(Collectors.toMap(OutboxEntity::getId, Function.identity()));
+    transactionTemplate.executeWithoutResult(
+        status -> {
+          List<OutboxEntity> rows = outboxRepository.findAllById(results.keySet());
+          for (OutboxEntity row : rows) {
+            OutboxEntity result = results.get(row.getId());
+            row.setAttempts(result.getAttempts());
+            row.setNextAttemptAt(result.getNextAttemptAt());
+            row.setLastError(result.getLastError());
+            row.setSentAt(result.getSentAt());
+          }
+          outboxRepository.saveAllAndFlush(rows);
+          moveToDeadLetters(rows);
+        });
+  }
+
+  private void dispatchCheckInBatch(List<OutboxEntity> batch) {
+    // requests with carbon copies can't share a batch send, they go out one by one
+    Map<String, List<OutboxEntity>> byRecipient = new LinkedHashMap<>();
+    for (OutboxEntity outbox : batch) {
+      if (outbox.getRecipients().contains(";")) {
+        dispatch(outbox, ReminderMetrics.KIND_CHECK_IN);
+        continue;
+      }
+      byRecipient.computeIfAbsent(outbox.getRecipients(), r -> new ArrayList<>()).add(outbox);
+    }
+
+    // in digest mode, the requests of a recipient with several ones go out as one digest
+    Map<String, List<OutboxEntity>> digests = new LinkedHashMap<>();
+    Map<CheckInRequestDto, OutboxEntity> batched = new IdentityHashMap<>();
+    for (Map.Entry<String, List<OutboxEntity>> entry : byRecipient.entrySet()) {
+      if (schedulerConfig.isDigestEnabled() && entry.getValue().size() > 1) {
+        digests.put(entry.getKey(), entry.getValue());
+        continue;
+      }
+      for (OutboxEntity outbox : entry.getValue()) {
+        batched.put(
+            new CheckInRequestDto(
+                outbox.getRecipients(),
+                outbox.getConfirmationId().toString(),
+                Duration.ofSeconds(outbox.getTimeToRespondSeconds())),
+            outbox);
+      }
+    }
+    if (!digests.isEmpty()) {
+      dispatchDigests(digests);
+    }
+
+    if (!batched.isEmpty()) {
+      Set<CheckInRequestDto> accepted = Collections.newSetFromMap(new IdentityHashMap<>());
+      try {
+        accepted.addAll(
+            reminderMetrics.timeStep(
+                "mailgun.check-in-batch",
+                () -> mailTransport.sendCheckInBatch(List.copyOf(batched.keySet()))));
+      } catch (MailDeferredException e) {
+        batched.values().forEach(outbox -> defer(outbox, ReminderMetrics.KIND_CHECK_IN, e));
+        batched.clear();
+      } catch (Exception e) {
+        log.error("Failed to send batch of {} check-in request(s)", batched.size(), e);
+      }
+      for (Map.Entry<CheckInRequestDto, OutboxEntity> entry : batched.entrySet()) {
+        if (accepted.contains(entry.getKey())) {
+          entry.getValue().setSentAt(LocalDateTime.now(clock));
+          reminderMetrics.countSend(ReminderMetrics.KIND_CHECK_IN, ReminderMetrics.OUTCOME_SENT);
+        } else {
+          reminderMetrics.countSend(ReminderMetrics.KIND_CHECK_IN, ReminderMetrics.OUTCOME_FAILED);
+          scheduleRetry(entry.getValue(), "The mail transport did not accept the batch");
+        }
+      }
+    }
+
+    if (!batch.isEmpty()) {
+      log.info("Outbox worker processed {} check-in request(s)", batch.size());
+    }
+  }
+
+  /**
+   * Send one digest check-in email per recipient, each listing the subjects of the messages with
+   * their own check-in link. The outcome of a digest is recorded on every request it covers.
+   *
+   * @param digests the claimed check-in requests, grouped by recipient
+   */
+  private void dispatchDigests(Map<String, List<OutboxEntity>> digests) {
+    List<Long> messageIds =
+        digests.values().stream().flatMap(List::stream).map(OutboxEntity::getMessageId).toList();
+    Map<Long, String> subjects =
+        reminderMetrics
+            .timeStep("db.load-subjects", () -> messageRepository.findAllByIdIn(messageIds))
+            .stream()
+            .collect(Collectors.toMap(MessageEntity::getId, MessageEntity::getSubject));
+
+    Map<List<OutboxEntity>, CompletableFuture<Boolean>> sends = new IdentityHashMap<>();
+    for (Map.Entry<String, List<OutboxEntity>> digest : digests.entrySet()) {
+      List<OutboxEntity> rows = new ArrayList<>();
+      List<CheckInDigestItemDto> items = new ArrayList<>();
+      for (OutboxEntity outbox : digest.getValue()) {
+        String subject = subjects.get(outbox.getMessageId());
+        if (Objects.isNull(subject)) {
+          log.warn(
+              "Message {} of outbox email {} no longer exists",
+              outbox.getMessageId(),
+              outbox.getId());
+          outbox.setSentAt(LocalDateTime.now(clock));
+          continue;
+        }
+        rows.add(outbox);
+        items.add(
+            new CheckInDigestItemDto(
+                subject,
+                outbox.getConfirmationId().toString(),
+                Duration.ofSeconds(outbox.getTimeToRespondSeconds())));
+      }
+      if (rows.isEmpty()) {
+        continue;
+      }
+      try {
+        sends.put(rows, mailTransport.sendCheckInDigestAsync(digest.getKey(), items));
+      } catch (Exception e) {
+        rows.forEach(outbox -> recordFailure(outbox, ReminderMetrics.KIND_CHECK_IN, e));
+      }
+    }
+
+    reminderMetrics.timeStep(
+        "mailgun.check-in-digest",
+        () ->
+            CompletableFuture.allOf(sends.values().toArray(CompletableFuture[]::new))
+                .exceptionally(error -> null)
+                .join());
+    for (Map.Entry<List<OutboxEntity>, CompletableFuture<Boolean>> send : sends.entrySet()) {
+      try {
+        boolean sent = send.getValue().join();
+        send.getKey().forEach(outbox -> recordResult(outbox, ReminderMetrics.KIND_CHECK_IN, sent));
+        reminderMetrics.recordDigestSize(send.getKey().size());
+      } catch (CompletionException e) {
+        send.getKey()
+            .forEach(outbox -> recordFailure(outbox, ReminderMetrics.KIND_CHECK_IN, e.getCause()));
+      }
+    }
+  }
+
+  private void dispatchBatch(List<OutboxEntity> batch) {
+    // start every send first, so the content messages share the Mailgun connection in flight
+    Map<OutboxEntity, CompletableFuture<Boolean>> sends = new LinkedHashMap<>();
+    for (OutboxEntity outbox : batch) {
+      try {
+        sends.put(outbox, sendContent(outbox));
+      } catch (Exception e) {
+        recordFailure(outbox, ReminderMetrics.KIND_CONTENT, e);
+      }
+    }
+
+    reminderMetrics.timeStep(
+        "mailgun.content",
+        () ->
+            CompletableFuture.allOf(sends.values().toArray(CompletableFuture[]::new))
+                .exceptionally(error -> null)
+                .join());
+    for (Map.Entry<OutboxEntity, CompletableFuture<Boolean>> send : sends.entrySet()) {
+      try {
+        recordResult(send.getKey(), ReminderMetrics.KIND_CONTENT, send.getValue().join());
+      } catch (CompletionException e) {
+        recordFailure(send.getKey(), ReminderMetrics.KIND_CONTENT, e.getCause());
+      }
+    }
+
+    if (!batch.isEmpty()) {
+      log.info("Outbox worker processed {} email(s)", batch.size());
+    }
+  }
+
+  private void dispatch(OutboxEntity outbox, String kind) {
+    List<String> recipients = List.of(outbox.getRecipients().split(";"));
+    try {
+      boolean sent =
+          reminderMetrics.timeStep(
+              "mailgun.check-in",
+              () ->
+                  mailTransport.sendCheckInRequest(
+                      recipients,
+                      outbox.getConfirmationId().toString(),
+                      Duration.ofSeconds(outbox.getTimeToRespondSeconds())));
+      recordResult(outbox, kind, sent);
+    } catch (Exception e) {
+      recordFailure(outbox, kind, e);
+    }
+  }
+
+  private CompletableFuture<Boolean> sendContent(OutboxEntity outbox) {
+    Optional<MessageEntity> message =
+        reminderMetrics.timeStep(
+            "db.load-message", () -> messageRepository.findById(outbox.getMessageId()));
+    if (message.isEmpty()) {
+      log.warn(
+          "Message {} of outbox email {} no longer exists", outbox.getMessageId(), outbox.getId());
+      return CompletableFuture.completedFuture(true);
+    }
+    String content =
+        reminderMetrics
+            .timeStep(
+                "db.load-content", () -> messageContentService.load(message.get().getContentId()))
+            .orElseThrow();
+    return mailTransport.sendHtmlContentMessageAsync(
+        List.of(outbox.getRecipients().split(";")), message.get().getSubject(), content);
+  }
+
+  private void recordResult(OutboxEntity outbox, String kind, boolean sent) {
+    if (sent) {
+      outbox.setSentAt(LocalDateTime.now(clock));
+      reminderMetrics.countSend(kind, ReminderMetrics.OUTCOME_SENT);
+      return;
+    }
+    reminderMetrics.countSend(kind, ReminderMetrics.OUTCOME_FAILED);
+    scheduleRetry(outbox, "The mail transport did not accept the email");
+  }
+
+  private void recordFailure(OutboxEntity outbox, String kind, Throwable error) {
+    if (error instanceof MailDeferredException deferred) {
+      defer(outbox, kind, deferred);
+      return;
+    }
+    log.error("Failed to send outbox email {}", outbox.getId(), error);
+    reminderMetrics.countSend(kind, ReminderMetrics.OUTCOME_FAILED);
+    scheduleRetry(outbox, error.getMessage());
+  }
+
+  /** Put back an email the transport refused without trying it, the attempt doesn't count. */
+  private void defer(OutboxEntity outbox, String kind, MailDeferredException error) {
+    log.warn("Outbox email {} deferred: {}", outbox.getId(), error.getReason());
+    outbox.setAttempts(outbox.getAttempts() - 1);
+    outbox.setLastError(truncate(error.getReason()));
+    outbox.setNextAttemptAt(
+        LocalDateTime.now(clock).plusSeconds(schedulerConfig.getOutboxRetryBaseSeconds()));
+    reminderMetrics.countSend(kind, ReminderMetrics.OUTCOME_DEFERRED);
+  }
+
+  private void scheduleRetry(OutboxEntity outbox, String error) {
+    outbox.setLastError(truncate(error));
+    if (isExhausted(outbox)) {
+      log.error(
+          "Outbox email {} for message id {} failed after {} attempts",
+          outbox.getId(),
+          outbox.getMessageId(),
+          outbox.getAttempts());
+      return;
+    }
+
+    // half of the backoff is random, so emails that failed together don't retry together
+    long backoffSeconds =
+        schedulerConfig.getOutboxRetryBaseSeconds() * (1L << Math.min(outbox.getAttempts(), 16));
+    long jitteredSeconds =
+        backoffSeconds / 2 + ThreadLocalRandom.current().nextLong(backoffSeconds / 2 + 1);
+    outbox.setNextAttemptAt(LocalDateTime.now(clock).plusSeconds(jitteredSeconds));
+    reminderMetrics.countRetry(kindOf(outbox));
+  }
+
+  private boolean isExhausted(OutboxEntity outbox) {
+    return Objects.isNull(outbox.getSentAt())
+        && outbox.getAttempts() >= schedulerConfig.getOutboxMaxAttempts();
+  }
+
+  /** Move the emails of a processed batch that ran out of attempts to the dead letters. */
+  private void moveToDeadLetters(List<OutboxEntity> batch) {
+    List<OutboxEntity> exhausted = batch.stream().filter(this::isExhausted).toList();
+    if (exhausted.isEmpty()) {
+      return;
+    }
+
+    LocalDateTime now = LocalDateTime.now(clock);
+    deadLetterRepository.saveAll(
+        exhausted.stream().map(outbox -> toDeadLetter(outbox, now)).toList());
+    outboxRepository.deleteAll(exhausted);
+    exhausted.forEach(outbox -> reminderMetrics.countDeadLetter(kindOf(outbox)));
+    log.error("Moved {} outbox email(s) to the dead letters", exhausted.size());
+  }
+
+  private DeadLetterEntity toDeadLetter(OutboxEntity outbox, LocalDateTime deadAt) {
+    DeadLetterEntity deadLetter = new DeadLetterEntity();
+    deadLetter.setOutboxId(outbox.getId());
+    deadLetter.setMessageId(outbox.getMessageId());
+    deadLetter.setKind(outbox.getKind());
+    deadLetter.setRecipients(outbox.getRecipients());
+    deadLetter.setConfirmationId(outbox.getConfirmationId());
+    deadLetter.setTimeToRespondSeconds(outbox.getTimeToRespondSeconds());
+    deadLetter.setAttempts(outbox.getAttempts());
+    deadLetter.setLastError(outbox.getLastError());
+    deadLetter.setCreatedAt(outbox.getCreatedAt());
+    deadLetter.setDeadAt(deadAt);
+    return deadLetter;
+  }
+
+  private static String kindOf(OutboxEntity outbox) {
+    return OutboxKindEnum.CHECK_IN.name().equals(outbox.getKind())
+        ? ReminderMetrics.KIND_CHECK_IN
+        : ReminderMetrics.KIND_CONTENT;
+  }
+
+  private OutboxEntity newOutbox(MessageEntity message, OutboxKindEnum kind, String recipients) {
+    OutboxEntity outbox = new OutboxEntity();
+    outbox.setMessageId(message.getId());
+    outbox.setKind(kind.name());
+    outbox.setRecipients(recipients);
+    outbox.setAttempts(0);
+    outbox.setNextAttemptAt(LocalDateTime.now(clock));
+    outbox.setCreatedAt(LocalDateTime.now(clock));
+    return outbox;
+  }
+
+  private String truncate(String error) {
+    if (Objects.isNull(error) || error.length() <= MAX_ERROR_LENGTH) {
+      return error;
+    }
+    return error.substring(0, MAX_ERROR_LENGTH);
+  }
+}
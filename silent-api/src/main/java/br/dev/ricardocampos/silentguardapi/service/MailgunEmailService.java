@@ -1,87 +1,276 @@
 package br.dev.ricardocampos.silentguardapi.service;
 
 import br.dev.ricardocampos.silentguardapi.config.AppConfig;
+import br.dev.ricardocampos.silentguardapi.dto.CheckInDigestItemDto;
+import br.dev.ricardocampos.silentguardapi.dto.CheckInRequestDto;
 import br.dev.ricardocampos.silentguardapi.exception.MailServiceException;
+import br.dev.ricardocampos.silentguardapi.mail.MailTransport;
+import br.dev.ricardocampos.silentguardapi.template.MailgunFormEncoder;
 import br.dev.ricardocampos.silentguardapi.template.MailgunTemplate;
 import br.dev.ricardocampos.silentguardapi.template.MailgunTemplateCheckIn;
+import br.dev.ricardocampos.silentguardapi.template.CheckInDigestTemplate;
 import br.dev.ricardocampos.silentguardapi.template.MailgunTemplateHtml;
 import br.dev.ricardocampos.silentguardapi.util.FormatUtil;
-
+import br.dev.ricardocampos.silentguardapi.util.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
-import org.springframework.stereotype.Service;
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.util.MultiValueMap;
-import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.RestTemplate;
 
 /**
- * Service class for sending emails using the Mailgun API. This service provides methods to send
- * check-in requests and HTML content messages to specified recipients.
+ * {@link MailTransport} sending emails through the Mailgun HTTP API, with templates stored on
+ * Mailgun for check-in requests and batch sends with recipient variables.
+ *
+ * <p>Requests go through a shared, keep-alive {@link HttpClient} that prefers HTTP/2. Every send
+ * has an async variant returning a {@link CompletableFuture}, so callers can pipeline many sends
+ * without holding a thread per request; at most {@code mailgun.max-in-flight} requests are on the
+ * wire at once and the others wait in line without blocking their caller.
+ *
+ * <p>Requests to a sending domain are paced by a token bucket of {@code mailgun.rate-per-second}
+ * tokens with bursts of {@code mailgun.burst}. Answers 429 and 5xx, timeouts and connection errors
+ * are retried up to {@code mailgun.max-retries} times with jittered exponential backoff; 429
+ * answers wait at least as long as their {@code Retry-After} header asks. Meters: {@code
+ * mailgun.retries} tagged by {@code reason} ({@code throttled}, {@code server-error}, {@code
+ * timeout} or {@code network}) and {@code mailgun.rate.limited} for requests the bucket delayed.
  */
 @Slf4j
-@Service
-public class MailgunEmailService {
+public class MailgunEmailService implements MailTransport {
+
+  /** Most recipients Mailgun accepts in one batch send. */
+  public static final int MAX_BATCH_RECIPIENTS = 1000;
+
+  private static final int TOO_MANY_REQUESTS = 429;
+
+  private static final String RETRY_THROTTLED = "throttled";
+
+  private static final String RETRY_SERVER_ERROR = "server-error";
+
+  private static final String RETRY_TIMEOUT = "timeout";
 
-  private final RestTemplate restTemplate;
+  private static final String RETRY_NETWORK = "network";
+
+  // with recipient-variables, Mailgun replaces %recipient.NAME% for each recipient
+  private static final String CHECK_IN_BATCH_VARIABLES =
+      "{\"CHECK_IN_LINK\":\"%recipient.CHECK_IN_LINK%\","
+          + "\"TIME_TO_RESPOND\":\"%recipient.TIME_TO_RESPOND%\"}";
+
+  // one reusable body buffer per thread
+  private static final ThreadLocal<MailgunFormEncoder> ENCODERS =
+      ThreadLocal.withInitial(MailgunFormEncoder::new);
+
+  private final HttpClient httpClient;
 
   private final AppConfig appConfig;
 
+  private final int maxInFlight;
+
+  private final Deque<Runnable> waiting = new ArrayDeque<>();
+
+  private int inFlight;
+
+  private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+  private final Counter rateLimited;
+
+  private final Map<String, Counter> retries;
+
+  private final URI messagesUri;
+
+  private final String authorization;
+
+  private final Duration readTimeout;
+
+  private final String checkInLinkPrefix;
+
+  private final byte[] fromField;
+
+  private final byte[] checkInBatchFields;
+
   /**
-   * Constructs a MailgunEmailService with the specified RestTemplateBuilder and AppConfig.
+   * Constructs a MailgunEmailService with the specified HttpClient and AppConfig.
    *
-   * @param templateBuilder the RestTemplateBuilder to create the RestTemplate instance
+   * @param httpClient the pooled client Mailgun requests are sent with
    * @param appConfig the application configuration containing Mailgun settings
+   * @param meterRegistry the registry for the retry and rate limit meters
+   * @param baseUrl the Mailgun API base URL, such as {@code https://api.mailgun.net/v3}
    */
-  public MailgunEmailService(RestTemplateBuilder templateBuilder, AppConfig appConfig) {
-    this.restTemplate = templateBuilder.build();
+  public MailgunEmailService(
+      HttpClient httpClient, AppConfig appConfig, MeterRegistry meterRegistry, String baseUrl) {
+    this.httpClient = httpClient;
     this.appConfig = appConfig;
+    this.maxInFlight = Math.max(1, appConfig.getMailgunMaxInFlight());
+    this.rateLimited =
+        Counter.builder("mailgun.rate.limited")
+            .description("Mailgun requests delayed by the sending domain token bucket")
+            .register(meterRegistry);
+    this.retries =
+        Stream.of(RETRY_THROTTLED, RETRY_SERVER_ERROR, RETRY_TIMEOUT, RETRY_NETWORK)
+            .collect(
+                Collectors.toUnmodifiableMap(
+                    Function.identity(),
+                    reason ->
+                        Counter.builder("mailgun.retries")
+                            .description("Mailgun requests retried, by reason")
+                            .tag("reason", reason)
+                            .register(meterRegistry)));
+
+    // constant parts of every request, encoded once
+    this.messagesUri =
+        URI.create(baseUrl + "/" + appConfig.getMailgunDomain() + "/messages");
+    this.authorization = basicAuth(appConfig.getMailgunApiKey());
+    this.readTimeout = Duration.ofMillis(appConfig.getMailgunReadTimeoutMillis());
+    this.checkInLinkPrefix = appConfig.getCheckInLinkPrefix();
+    this.fromField = new MailgunFormEncoder().field("from", appConfig.getMailFrom()).toByteArray();
+    this.checkInBatchFields =
+        new MailgunFormEncoder()
+            .field("subject", CHECK_IN_SUBJECT)
+            .field("template", new MailgunTemplateCheckIn().getName())
+            .field("h:X-Mailgun-Variables", CHECK_IN_BATCH_VARIABLES)
+            .toByteArray();
   }
 
   /**
-   * Sends a check-in request email to the first recipient in the list and optionally CCs others.
+   * Sends a check-in request email to the first recipient in the list and CCs the others, without
+   * blocking the caller.
    *
    * @param recipients the list of email addresses to send the check-in request to
    * @param confirmationId the confirmation ID to include in the check-in link
+   * @param hoursToRespond how long the user has to check in
+   * @return a future completed with true if Mailgun accepted the email, or completed exceptionally
+   *     on a timeout or server error
    */
-  public void sendCheckInRequest(List<String> recipients, String confirmationId, Duration hoursToRespond) {
+  @Override
+  public CompletableFuture<Boolean> sendCheckInRequestAsync(
+      List<String> recipients, String confirmationId, Duration hoursToRespond) {
     log.info("Sending check-in message");
 
     String to = recipients.getFirst();
-    String subject = "Silent Guard hasn't heard from you in a while!";
-    String link = getBaseUrl() + "?confirmation=%s";
 
     MailgunTemplateCheckIn checkInTemplate = new MailgunTemplateCheckIn();
-    checkInTemplate.setCheckInLink(String.format(link, confirmationId));
+    checkInTemplate.setCheckInLink(getCheckInLink(confirmationId));
     checkInTemplate.setTimeToRespond(FormatUtil.formatDuration(hoursToRespond));
     List<String> recipientsCarbonCopy = getRecipientsCarbonCopy(recipients);
     if (!recipientsCarbonCopy.isEmpty()) {
       checkInTemplate.setCarbonCopy(String.join(",", recipientsCarbonCopy));
     }
 
-    boolean sent = sendEmail(to, subject, checkInTemplate);
-    log.info("Check-in message sent successfully: {}", sent);
+    return sendEmail(to, CHECK_IN_SUBJECT, checkInTemplate)
+        .thenApply(
+            sent -> {
+              log.info("Check-in message sent successfully: {}", sent);
+              return sent;
+            });
   }
 
   /**
-   * Sends an HTML content message to the first recipient in the list and optionally CCs others.
+   * Sends check-in requests in batches: one templated Mailgun call for up to {@link
+   * #MAX_BATCH_RECIPIENTS} recipients, each with their own {@code CHECK_IN_LINK} and {@code
+   * TIME_TO_RESPOND} passed as recipient variables. Recipient variables are keyed by address, so a
+   * recipient with several requests gets them in separate calls. The batch calls are sent
+   * concurrently; a batch that fails leaves its requests out of the result.
+   *
+   * @param requests the check-in requests, one recipient each
+   * @return a future completed with the requests whose batch Mailgun accepted
+   */
+  @Override
+  public CompletableFuture<List<CheckInRequestDto>> sendCheckInBatchAsync(
+      List<CheckInRequestDto> requests) {
+    List<CompletableFuture<List<CheckInRequestDto>>> sends = new ArrayList<>();
+    for (List<CheckInRequestDto> batch : partition(requests)) {
+      log.info("Sending batch of {} check-in message(s)", batch.size());
+      sends.add(
+          postBatch(batch)
+              .handle(
+                  (sent, error) -> {
+                    if (Objects.nonNull(error)) {
+                      log.error(
+                          "Failed to send batch of {} check-in message(s): {}",
+                          batch.size(),
+                          error.getMessage());
+                      return List.of();
+                    }
+                    return sent ? batch : List.of();
+                  }));
+    }
+
+    return CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new))
+        .thenApply(
+            done -> {
+              List<CheckInRequestDto> accepted = new ArrayList<>();
+              sends.forEach(send -> accepted.addAll(send.join()));
+              log.info(
+                  "Check-in batches accepted {} of {} message(s)",
+                  accepted.size(),
+                  requests.size());
+              return accepted;
+            });
+  }
+
+  /**
+   * Sends one check-in request for several messages of the same user, rendered by {@link
+   * CheckInDigestTemplate} and sent as an HTML email, without blocking the caller.
+   *
+   * @param recipient the email address of the user
+   * @param items the messages to check in for
+   * @return a future completed with true if Mailgun accepted the email, or completed exceptionally
+   *     on a timeout or server error
+   */
+  @Override
+  public CompletableFuture<Boolean> sendCheckInDigestAsync(
+      String recipient, List<CheckInDigestItemDto> items) {
+    log.info("Sending digest check-in message for {} message(s)", items.size());
+
+    MailgunTemplateHtml htmlTemplate = new MailgunTemplateHtml();
+    htmlTemplate.setHtmlCode(CheckInDigestTemplate.render(checkInLinkPrefix, items));
+
+    return sendEmail(recipient, CHECK_IN_SUBJECT, htmlTemplate)
+        .thenApply(
+            sent -> {
+              log.info("Digest check-in message sent successfully: {}", sent);
+              return sent;
+            });
+  }
+
+  /**
+   * Sends an HTML content message to the first recipient in the list and CCs the others, without
+   * blocking the caller.
    *
    * @param recipients the list of email addresses to send the HTML content message to
    * @param subject the subject of the email
    * @param htmlContent the HTML content to be included in the email body
+   * @return a future completed with true if Mailgun accepted the email, or completed exceptionally
+   *     on a timeout or server error
    */
-  public void sendHtmlContentMessage(List<String> recipients, String subject, String htmlContent) {
+  @Override
+  public CompletableFuture<Boolean> sendHtmlContentMessageAsync(
+      List<String> recipients, String subject, String htmlContent) {
     log.info("Sending HTML content message");
 
     String to = recipients.getFirst();
@@ -93,8 +282,17 @@ public class MailgunEmailService {
       htmlTemplate.setCarbonCopy(String.join(",", recipientsCarbonCopy));
     }
 
-    boolean sent = sendEmail(to, subject, htmlTemplate);
-    log.info("Content message sent successfully: {}", sent);
+    return sendEmail(to, subject, htmlTemplate)
+        .thenApply(
+            sent -> {
+              log.info("Content message sent successfully: {}", sent);
+              return sent;
+            });
+  }
+
+  @Override
+  public int maxBatchSize() {
+    return MAX_BATCH_RECIPIENTS;
   }
 
   /**
@@ -104,67 +302,227 @@ public class MailgunEmailService {
    * @param subject The message subject.
    * @param template The {@link MailgunTemplate} instance
    */
-  private boolean sendEmail(String to, String subject, MailgunTemplate template) {
-    String url = "https://api.mailgun.net/v3/" + appConfig.getMailgunDomain() + "/messages";
-    String from = "Silent Guard <" + appConfig.getMailgunSender() + ">";
-
-    log.debug("Mailgun URL: {}", url);
-    log.debug("Mailgun Email from: {}", from);
-
-    HttpHeaders headers = new HttpHeaders();
-    headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
-    headers.set(HttpHeaders.AUTHORIZATION, basicAuth(appConfig.getMailgunApiKey()));
-
-    MultiValueMap<String, String> mailData = new LinkedMultiValueMap<>();
-    mailData.add("from", from);
-    mailData.add("to", to);
+  private CompletableFuture<Boolean> sendEmail(
+      String to, String subject, MailgunTemplate template) {
+    MailgunFormEncoder form = ENCODERS.get().reset().append(fromField).field("to", to);
     if (template.getCarbonCopy().isPresent()) {
-      mailData.add("cc", template.getCarbonCopy().get());
+      form.field("cc", template.getCarbonCopy().get());
     }
     boolean isTemplateHtml = template.isHtml() && template.getHtmlCode().isPresent();
-    mailData.add("subject", subject);
+    form.field("subject", subject);
     if (!isTemplateHtml) {
-      mailData.add("template", template.getName());
+      form.field("template", template.getName());
       if (!template.getVariables().isEmpty()) {
-        mailData.add("h:X-Mailgun-Variables", template.getVariableValuesJson());
+        form.jsonField("h:X-Mailgun-Variables", template.getVariables());
       }
     } else {
-      mailData.add("html", template.getHtmlCode().get());
+      form.field("html", template.getHtmlCode().get());
     }
+    log.debug("Mailgun {} email to {}, {} bytes", template.getName(), to, form.size());
 
-    for (Map.Entry<String, List<String>> entry : mailData.entrySet()) {
-      String message = String.format("%s: %s", entry.getKey(), entry.getValue().getFirst());
-      log.debug(message);
+    return post(form.toByteArray());
+  }
+
+  private CompletableFuture<Boolean> postBatch(List<CheckInRequestDto> batch) {
+    MailgunFormEncoder form = ENCODERS.get().reset().append(fromField);
+    for (CheckInRequestDto request : batch) {
+      form.field("to", request.recipient());
+    }
+    form.append(checkInBatchFields).beginJsonField("recipient-variables");
+    for (CheckInRequestDto request : batch) {
+      form.beginJsonObject(request.recipient())
+          .jsonMember("CHECK_IN_LINK", getCheckInLink(request.confirmationId()))
+          .jsonMember("TIME_TO_RESPOND", FormatUtil.formatDuration(request.timeToRespond()))
+          .endJsonObject();
     }
+    form.endJsonField();
 
-    HttpEntity<MultiValueMap<String, String>> request = new HttpEntity<>(mailData, headers);
+    return post(form.toByteArray());
+  }
 
-    try {
-      ResponseEntity<String> response = restTemplate.postForEntity(url, request, String.class);
+  /**
+   * Post a form to the Mailgun messages endpoint. A 4xx answer other than 429 completes the future
+   * with false, as Mailgun won't accept the same request later; a 429 or 5xx answer, a timeout or a
+   * connection error is retried, and completes the future exceptionally once the retries run out
+   * so the caller can try again later.
+   */
+  private CompletableFuture<Boolean> post(byte[] form) {
+    HttpRequest request =
+        HttpRequest.newBuilder(messagesUri)
+            .timeout(readTimeout)
+            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+            .header(HttpHeaders.AUTHORIZATION, authorization)
+            .POST(HttpRequest.BodyPublishers.ofByteArray(form))
+            .build();
 
-      if (!response.getStatusCode().is2xxSuccessful()) {
-        throw new MailServiceException("Failed to send email: " + response.getStatusCode());
-      }
+    return send(request, 0);
+  }
 
+  private CompletableFuture<Boolean> send(HttpRequest request, int attempt) {
+    return throttle(request)
+        .handle(
+            (response, error) -> {
+              Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+              String retryReason = retryReason(response, cause);
+              if (Objects.nonNull(retryReason) && attempt < appConfig.getMailgunMaxRetries()) {
+                long delayMillis = retryDelayMillis(response, attempt);
+                log.warn(
+                    "Mailgun request failed ({}), retry {} in {} ms",
+                    retryReason,
+                    attempt + 1,
+                    delayMillis);
+                retries.get(retryReason).increment();
+                Executor later =
+                    CompletableFuture.delayedExecutor(delayMillis, TimeUnit.MILLISECONDS);
+                return CompletableFuture.runAsync(() -> {}, later)
+                    .thenCompose(ignored -> send(request, attempt + 1));
+              }
+              if (Objects.nonNull(cause)) {
+                return CompletableFuture.<Boolean>failedFuture(cause);
+              }
+              return CompletableFuture.completedFuture(toResult(response, attempt));
+            })
+        .thenCompose(Function.identity());
+  }
+
+  private boolean toResult(HttpResponse<String> response, int attempt) {
+    int status = response.statusCode();
+    if (status >= 200 && status < 300) {
       log.info("Email message sent successfully.");
       return true;
-    } catch (HttpClientErrorException ex) {
-      log.error("HttpClientErrorException when sending email: {}", ex.getMessage());
     }
-    return false;
+    if (status >= 400 && status < 500 && status != TOO_MANY_REQUESTS) {
+      log.error("Mailgun rejected the email with status {}: {}", status, response.body());
+      return false;
+    }
+    throw new MailServiceException(
+        "Failed to send email: " + status + " after " + (attempt + 1) + " attempt(s)");
   }
 
-  private String basicAuth(String password) {
-    String auth = "api" + ":" + password;
-    return "Basic " + Base64.getEncoder().encodeToString(auth.getBytes(StandardCharsets.UTF_8));
+  /** The reason a request is worth retrying, or null when its outcome is final. */
+  private static String retryReason(HttpResponse<String> response, Throwable error) {
+    if (error instanceof HttpTimeoutException) {
+      return RETRY_TIMEOUT;
+    }
+    if (error instanceof IOException) {
+      return RETRY_NETWORK;
+    }
+    if (Objects.nonNull(error)) {
+      return null;
+    }
+    if (response.statusCode() == TOO_MANY_REQUESTS) {
+      return RETRY_THROTTLED;
+    }
+    return response.statusCode() >= 500 ? RETRY_SERVER_ERROR : null;
+  }
+
+  /**
+   * Exponential backoff from {@code mailgun.retry-base-millis}, capped at {@code
+   * mailgun.retry-max-millis}. Half of the delay is random, so requests that failed together don't
+   * come back together.
+   */
+  private long retryDelayMillis(HttpResponse<String> response, int attempt) {
+    long backoff =
+        Math.min(
+            appConfig.getMailgunRetryMaxMillis(),
+            appConfig.getMailgunRetryBaseMillis() * (1L << Math.min(attempt, 20)));
+    long delay = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+    if (Objects.nonNull(response)) {
+      OptionalLong retryAfterSeconds =
+          response.headers().firstValueAsLong(HttpHeaders.RETRY_AFTER);
+      if (retryAfterSeconds.isPresent()) {
+        delay = Math.max(delay, TimeUnit.SECONDS.toMillis(retryAfterSeconds.getAsLong()));
+      }
+    }
+    return Math.min(delay, appConfig.getMailgunRetryMaxMillis());
+  }
+
+  /** Take a token from the sending domain bucket and submit the request once it may be used. */
+  private CompletableFuture<HttpResponse<String>> throttle(HttpRequest request) {
+    TokenBucket bucket =
+        buckets.computeIfAbsent(
+            appConfig.getMailgunDomain(),
+            domain ->
+                new TokenBucket(appConfig.getMailgunRatePerSecond(), appConfig.getMailgunBurst()));
+    long waitNanos = bucket.reserve();
+    if (waitNanos == 0) {
+      return submit(request);
+    }
+    rateLimited.increment();
+    Executor later = CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS);
+    return CompletableFuture.runAsync(() -> {}, later).thenCompose(ignored -> submit(request));
+  }
+
+  /** Send a request now if fewer than the in-flight cap are on the wire, otherwise queue it. */
+  private CompletableFuture<HttpResponse<String>> submit(HttpRequest request) {
+    CompletableFuture<HttpResponse<String>> result = new CompletableFuture<>();
+    Runnable send =
+        () ->
+            httpClient
+                .sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .whenComplete(
+                    (response, error) -> {
+                      startNext();
+                      if (Objects.nonNull(error)) {
+                        result.completeExceptionally(error);
+                      } else {
+                        result.complete(response);
+                      }
+                    });
+
+    synchronized (waiting) {
+      if (inFlight >= maxInFlight) {
+        waiting.add(send);
+        return result;
+      }
+      inFlight++;
+    }
+    send.run();
+    return result;
+  }
+
+  private void startNext() {
+    Runnable next;
+    synchronized (waiting) {
+      next = waiting.poll();
+      if (Objects.isNull(next)) {
+        inFlight--;
+        return;
+      }
+    }
+    // the finished request hands its slot over to the next one
+    next.run();
   }
 
-  private String getBaseUrl() {
-    if ("development".equals(appConfig.getTargetEnv())
-        || Objects.isNull(appConfig.getTargetEnv())) {
-      return "https://silentguard-local.ricardocampos.dev.br:5173";
+  /**
+   * Split the requests into batches of at most {@link #MAX_BATCH_RECIPIENTS}, each recipient at
+   * most once per batch. A repeated recipient goes to a later batch than its previous request.
+   */
+  private List<List<CheckInRequestDto>> partition(List<CheckInRequestDto> requests) {
+    List<List<CheckInRequestDto>> batches = new ArrayList<>();
+    Map<String, Integer> nextBatchOf = new HashMap<>();
+    for (CheckInRequestDto request : requests) {
+      String recipient = request.recipient().toLowerCase();
+      int index = nextBatchOf.getOrDefault(recipient, 0);
+      while (index < batches.size() && batches.get(index).size() >= MAX_BATCH_RECIPIENTS) {
+        index++;
+      }
+      if (index == batches.size()) {
+        batches.add(new ArrayList<>());
+      }
+      batches.get(index).add(request);
+      nextBatchOf.put(recipient, index + 1);
     }
-    return String.format("https://%s%s", "silentguard.", appConfig.getMailgunDomain() + "/");
+    return batches;
+  }
+
+  private String getCheckInLink(String confirmationId) {
+    return checkInLinkPrefix + confirmationId;
+  }
+
+  private String basicAuth(String password) {
+    String auth = "api" + ":" + password;
+    return "Basic " + Base64.getEncoder().encodeToString(auth.getBytes(StandardCharsets.UTF_8));
   }
 
   private List<String> getRecipientsCarbonCopy(List<String> recipients) {
@@ -0,0 +1,122 @@
+package br.dev.ricardocampos.silentguardapi.service;
+
+import br.dev.ricardocampos.silentguardapi.entity.MessageContentEntity;
+import br.dev.ricardocampos.silentguardapi.repository.MessageContentRepository;
+import br.dev.ricardocampos.silentguardapi.util.CompressionUtil;
+import br.dev.ricardocampos.silentguardapi.util.DigestUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Optional;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service for the content of messages, stored Deflate compressed in {@code sg_message_contents}.
+ * Messages only keep the id of their content, so the content is read when it is actually needed:
+ * when it is sent and when the message is opened for editing.
+ *
+ * <p>Contents are addressed by the SHA-256 digest of their UTF-8 bytes and counted: messages with
+ * the same content share one row, stored and cached once, and the row is deleted when the last
+ * message pointing at it lets go. Saving a message with the content it already has writes nothing.
+ * Rows never change, so the decompressed contents are cached by id without invalidation other than
+ * for deleted rows.
+ */
+@Slf4j
+@Service
+@AllArgsConstructor
+public class MessageContentService {
+
+  private final MessageContentRepository messageContentRepository;
+
+  private final Cache<Long, String> messageContentCache;
+
+  /**
+   * Reference a content for a new message, storing it if no message has it yet. Must be called
+   * inside the transaction that saves the message.
+   *
+   * @param content the content
+   * @return the id of the stored content
+   */
+  public Long acquire(String content) {
+    byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+    return acquire(bytes, DigestUtil.sha256(bytes));
+  }
+
+  /**
+   * Reference the new content of a message. If it is the content the message already has, nothing
+   * is written and the same id is returned; otherwise the caller must {@link #release(Long)} the
+   * old content once the message points at the new one. Must be called inside the transaction that
+   * saves the message.
+   *
+   * @param contentId the id of the current content of the message
+   * @param content the new content
+   * @return the id of the new content, equal to {@code contentId} if the content didn't change
+   */
+  public Long replace(Long contentId, String content) {
+    byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+    byte[] digest = DigestUtil.sha256(bytes);
+    if (Objects.nonNull(contentId)
+        && Arrays.equals(messageContentRepository.findDigestById(contentId), digest)) {
+      log.debug("Content {} unchanged, nothing written", contentId);
+      return contentId;
+    }
+    return acquire(bytes, digest);
+  }
+
+  /**
+   * Read and decompress a content, from the cache when possible.
+   *
+   * @param contentId the id of the stored content
+   * @return the content, or empty if it doesn't exist
+   */
+  public Optional<String> load(Long contentId) {
+    if (Objects.isNull(contentId)) {
+      return Optional.empty();
+    }
+    return Optional.ofNullable(
+        messageContentCache.get(
+            contentId,
+            id ->
+                messageContentRepository
+                    .findById(id)
+                    .map(MessageContentService::decompress)
+                    .orElse(null)));
+  }
+
+  /**
+   * Drop the reference of a message to a content, deleting the content if it was the last one.
+   * Must be called once the message no longer points at the content, in the same transaction.
+   *
+   * @param contentId the id of the stored content
+   */
+  public void release(Long contentId) {
+    if (Objects.isNull(contentId)) {
+      return;
+    }
+    messageContentRepository.decrementRefCount(contentId);
+    if (messageContentRepository.deleteIfUnreferenced(contentId) > 0) {
+      messageContentCache.invalidate(contentId);
+      log.debug("Content {} no longer referenced, deleted", contentId);
+    }
+  }
+
+  private Long acquire(byte[] bytes, byte[] digest) {
+    if (messageContentRepository.incrementRefCount(digest) > 0) {
+      Long contentId = messageContentRepository.findIdByDigest(digest);
+      log.debug("Content {} already stored, shared by one more message", contentId);
+      return contentId;
+    }
+    byte[] data = CompressionUtil.deflate(bytes);
+    log.debug("Content compressed from {} to {} bytes", bytes.length, data.length);
+    return messageContentRepository.insertOrIncrementRefCount(digest, data, bytes.length);
+  }
+
+  private static String decompress(MessageContentEntity entity) {
+    return new String(
+        CompressionUtil.inflate(entity.getData(), entity.getOriginalSize()),
+        StandardCharsets.UTF_8);
+  }
+}
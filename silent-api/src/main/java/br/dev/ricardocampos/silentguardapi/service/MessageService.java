@@ -14,6 +14,7 @@ import br.dev.ricardocampos.silentguardapi.repository.UserRepository;
 import br.dev.ricardocampos.silentguardapi.util.FormatUtil;
 import br.dev.ricardocampos.silentguardapi.util.UuidUtil;
 import jakarta.transaction.Transactional;
+import java.time.Clock;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.List;
@@ -43,10 +44,14 @@ public class MessageService {
 
   private final BearerTokenHolder bearerTokenHolder;
 
+  private final MessageContentService messageContentService;
+
   private final PersistentReminderService persistentReminderService;
 
+  private final Clock clock;
+
   /**
-   * Retrieves all messages for the authenticated user.
+   * Retrieves all messages for the authenticated user, without their content.
    *
    * @return a list of MessageDto objects representing the user's messages.
    */
@@ -57,7 +62,26 @@ public class MessageService {
     List<MessageEntity> messageList = messageRepository.findAllByUserId(user.getId());
     log.info("{} message(s) found.", messageList.size());
 
-    return messageList.stream().map(MessageDto::fromEntity).toList();
+    return messageList.stream().map(e -> MessageDto.fromEntity(e, clock)).toList();
+  }
+
+  /**
+   * Retrieves a message of the authenticated user with its content, for editing.
+   *
+   * @param id the ID of the message
+   * @return the MessageDto with the content
+   */
+  public MessageDto getMessage(Long id) {
+    UserEntity user = getUserEntity();
+    log.info("Getting message {} for user {}", id, user.getId());
+
+    MessageEntity message =
+        messageRepository
+            .findById(id)
+            .filter(m -> m.getUserId().equals(user.getId()))
+            .orElseThrow(MessageNotFoundException::new);
+    String content = messageContentService.load(message.getContentId()).orElse("");
+    return MessageDto.fromEntity(message, content, clock);
   }
 
   /**
@@ -78,33 +102,35 @@ public class MessageService {
     message.setUserId(user.getId());
     message.setSubject(messageDto.subject());
     message.setTargets(targets);
-    message.setContent(messageDto.content());
+    message.setContentId(messageContentService.acquire(messageDto.content()));
     message.setNumberToTrigger(messageDto.numberToTrigger());
     message.setTypeToTrigger(messageDto.typeToTrigger().name());
-    message.setCreatedAt(LocalDateTime.now());
+    message.setCreatedAt(LocalDateTime.now(clock));
     message.setLastReminderSent(null);
     if (messageDto.typeToTrigger().equals(TypeToTriggerEnum.DAYS)) {
-      message.setNextReminderDue(LocalDateTime.now().plusDays(messageDto.numberToTrigger()));
+      message.setNextReminderDue(LocalDateTime.now(clock).plusDays(messageDto.numberToTrigger()));
     } else if (messageDto.typeToTrigger().equals(TypeToTriggerEnum.HOURS)) {
-      message.setNextReminderDue(LocalDateTime.now().plusHours(messageDto.numberToTrigger()));
+      message.setNextReminderDue(LocalDateTime.now(clock).plusHours(messageDto.numberToTrigger()));
     } else if (messageDto.typeToTrigger().equals(TypeToTriggerEnum.MINUTES)) {
-      message.setNextReminderDue(LocalDateTime.now().plusMinutes(messageDto.numberToTrigger()));
+      message.setNextReminderDue(
+          LocalDateTime.now(clock).plusMinutes(messageDto.numberToTrigger()));
     }
     message.setReminderUuid(new UuidUtil().generateRecipientUuid(targets));
 
     messageRepository.save(message);
-    persistentReminderService.scheduleCheckingMessage(user.getEmail(), message);
+    persistentReminderService.scheduleCheckingMessage(message);
 
     log.info("Message created for user {}", user.getId());
 
-    return MessageDto.fromEntity(message);
+    return MessageDto.fromEntity(message, messageDto.content(), clock);
   }
 
   /**
    * Updates an existing message for the authenticated user.
    *
    * @param id the ID of the message to be updated
-   * @param messageDto the MessageDto containing the updated details of the message
+   * @param messageDto the MessageDto containing the updated details of the message, with a null
+   *     content to keep the stored one
    */
   @Transactional
   public void updateMessage(Long id, MessageDto messageDto) {
@@ -123,29 +149,39 @@ public class MessageService {
     persistentReminderService.cancelExistingTask(id, true);
     persistentReminderService.cancelExistingTask(id, false);
 
+    Long previousContentId = messageFromDb.getContentId();
     messageFromDb.setSubject(messageDto.subject());
     messageFromDb.setTargets(targets);
-    messageFromDb.setContent(messageDto.content());
+    if (Objects.nonNull(messageDto.content())) {
+      messageFromDb.setContentId(
+          messageContentService.replace(previousContentId, messageDto.content()));
+    }
     messageFromDb.setNumberToTrigger(messageDto.numberToTrigger());
     messageFromDb.setTypeToTrigger(messageDto.typeToTrigger().name());
-    messageFromDb.setUpdatedAt(LocalDateTime.now());
+    messageFromDb.setUpdatedAt(LocalDateTime.now(clock));
     messageFromDb.setDisabledAt(null);
     messageFromDb.setLastReminderSent(null);
+    messageFromDb.setContentDue(null);
     if (messageDto.typeToTrigger().equals(TypeToTriggerEnum.DAYS)) {
-      messageFromDb.setNextReminderDue(LocalDateTime.now().plusDays(messageDto.numberToTrigger()));
+      messageFromDb.setNextReminderDue(
+          LocalDateTime.now(clock).plusDays(messageDto.numberToTrigger()));
     } else if (messageDto.typeToTrigger().equals(TypeToTriggerEnum.HOURS)) {
-      messageFromDb.setNextReminderDue(LocalDateTime.now().plusHours(messageDto.numberToTrigger()));
+      messageFromDb.setNextReminderDue(
+          LocalDateTime.now(clock).plusHours(messageDto.numberToTrigger()));
     } else if (messageDto.typeToTrigger().equals(TypeToTriggerEnum.MINUTES)) {
       messageFromDb.setNextReminderDue(
-          LocalDateTime.now().plusMinutes(messageDto.numberToTrigger()));
+          LocalDateTime.now(clock).plusMinutes(messageDto.numberToTrigger()));
     }
     messageFromDb.setReminderUuid(new UuidUtil().generateRecipientUuid(targets));
 
     if (!messageDto.active()) {
-      messageFromDb.setDisabledAt(LocalDateTime.now());
+      messageFromDb.setDisabledAt(LocalDateTime.now(clock));
     }
 
     messageRepository.save(messageFromDb);
+    if (!Objects.equals(previousContentId, messageFromDb.getContentId())) {
+      messageContentService.release(previousContentId);
+    }
 
     log.info("Message updated for user {}", user.getId());
 
@@ -153,7 +189,7 @@ public class MessageService {
     persistentReminderService.cancelExistingTask(messageFromDb.getId(), false);
 
     if (messageDto.active()) {
-      persistentReminderService.scheduleCheckingMessage(user.getEmail(), messageFromDb);
+      persistentReminderService.scheduleCheckingMessage(messageFromDb);
     }
   }
 
@@ -173,6 +209,7 @@ public class MessageService {
     }
 
     messageRepository.delete(messageOptional.get());
+    messageContentService.release(messageOptional.get().getContentId());
     log.info("Message deleted for user {}", user.getId());
 
     persistentReminderService.cancelExistingTask(id, true);
@@ -197,8 +234,9 @@ public class MessageService {
       }
 
       MessageEntity message = messageOption.get();
-      message.setLastCheckIn(LocalDateTime.now());
-      message.setUpdatedAt(LocalDateTime.now());
+      message.setLastCheckIn(LocalDateTime.now(clock));
+      message.setContentDue(null);
+      message.setUpdatedAt(LocalDateTime.now(clock));
 
       messageRepository.save(message);
 
@@ -0,0 +1,236 @@
+package br.dev.ricardocampos.silentguardapi.service;
+
+import br.dev.ricardocampos.silentguardapi.config.SchedulerConfig;
+import br.dev.ricardocampos.silentguardapi.repository.NodeRepository;
+import br.dev.ricardocampos.silentguardapi.scheduler.ConsistentHashRing;
+import br.dev.ricardocampos.silentguardapi.scheduler.ShardAssignmentChangedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Node membership for reminder sharding. Every node writes a heartbeat to {@code sg_nodes} and
+ * reads the live nodes back, builds a {@link ConsistentHashRing} from them and keeps only the
+ * reminders of the slots it owns. When a node joins or leaves, the slots that changed owner are
+ * published as a {@link ShardAssignmentChangedEvent}, so only those reminders are handed off. A
+ * node that can't reach the database for longer than the heartbeat time to live releases all of
+ * its slots, since the other nodes already consider it gone. Enabled with {@code
+ * scheduler.sharding.enabled=true}.
+ *
+ * <p>The heartbeat runs on its own thread, so a long outbox drain or reminder load on the shared
+ * {@code @Scheduled} pool can't hold it back past the time to live. A node whose last heartbeat is
+ * older than that doesn't fire its reminders, since the other nodes may be firing them already;
+ * once its heartbeat gets through again, it drops its reminders and loads the owned ones back.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "scheduler.sharding.enabled", havingValue = "true")
+public class NodeMembershipService {
+
+  @Getter private final String nodeId;
+
+  private final NodeRepository nodeRepository;
+
+  private final SchedulerConfig schedulerConfig;
+
+  private final ApplicationEventPublisher eventPublisher;
+
+  private final ScheduledExecutorService heartbeatExecutor;
+
+  private volatile List<String> members = List.of();
+
+  private volatile Set<Long> ownedSlots = Set.of();
+
+  private volatile long lastHeartbeatNanos = System.nanoTime();
+
+  /**
+   * Constructs the membership service. The node id comes from {@code scheduler.sharding.node-id},
+   * or from the host name plus a random suffix when not set.
+   *
+   * @param nodeRepository the node heartbeat repository
+   * @param schedulerConfig the scheduler configuration
+   * @param eventPublisher the publisher for shard assignment changes
+   */
+  public NodeMembershipService(
+      NodeRepository nodeRepository,
+      SchedulerConfig schedulerConfig,
+      ApplicationEventPublisher eventPublisher) {
+    this.nodeRepository = nodeRepository;
+    this.schedulerConfig = schedulerConfig;
+    this.eventPublisher = eventPublisher;
+    this.nodeId =
+        schedulerConfig.getShardingNodeId().isBlank()
+            ? hostName() + "-" + UUID.randomUUID().toString().substring(0, 8)
+            : schedulerConfig.getShardingNodeId();
+    this.heartbeatExecutor =
+        Executors.newSingleThreadScheduledExecutor(
+            new CustomizableThreadFactory("node-heartbeat-"));
+  }
+
+  /**
+   * Register this node and compute its slots before any reminder is restored, then start the
+   * heartbeat.
+   */
+  @PostConstruct
+  public void join() {
+    nodeRepository.heartbeat(nodeId);
+    lastHeartbeatNanos = System.nanoTime();
+    applyMembership(liveNodes(), false);
+
+    long intervalMillis = Math.max(1L, schedulerConfig.getShardingHeartbeatIntervalMillis());
+    heartbeatExecutor.scheduleWithFixedDelay(
+        this::heartbeat, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Refresh the heartbeat and rebalance if the set of live nodes changed. After a gap longer than
+   * the time to live, the reminders of this node are released and loaded again, since the ones
+   * that came due meanwhile were not fired here.
+   */
+  public void heartbeat() {
+    int ttlSeconds = schedulerConfig.getShardingNodeTtlSeconds();
+    try {
+      boolean lapsed = !isHeartbeatFresh();
+      nodeRepository.heartbeat(nodeId);
+      lastHeartbeatNanos = System.nanoTime();
+      nodeRepository.deleteStale(ttlSeconds * 10);
+      List<String> live = liveNodes();
+      if (lapsed && !members.isEmpty()) {
+        log.warn("Node {} heartbeat was late, reloading its reminders", nodeId);
+        applyMembership(List.of(), true);
+      }
+      if (!live.equals(members)) {
+        applyMembership(live, true);
+      }
+    } catch (Exception e) {
+      log.error("Failed to refresh heartbeat for node {}", nodeId, e);
+      if (!isHeartbeatFresh() && !members.isEmpty()) {
+        Duration silent = Duration.ofNanos(System.nanoTime() - lastHeartbeatNanos);
+        log.warn(
+            "Node {} missed heartbeats for {} s, releasing its slots", nodeId, silent.toSeconds());
+        applyMembership(List.of(), true);
+      }
+    }
+  }
+
+  /**
+   * Whether the last successful heartbeat of this node is within the node time to live. When it
+   * isn't, the other nodes may have taken over its slots, so its reminders must not fire.
+   *
+   * @return true if this node may fire the reminders of its slots
+   */
+  public boolean isHeartbeatFresh() {
+    long ttlNanos = TimeUnit.SECONDS.toNanos(schedulerConfig.getShardingNodeTtlSeconds());
+    return System.nanoTime() - lastHeartbeatNanos < ttlNanos;
+  }
+
+  /** Leave the ring on shutdown, so the other nodes take over without waiting for the TTL. */
+  @PreDestroy
+  public void leave() {
+    heartbeatExecutor.shutdownNow();
+    try {
+      nodeRepository.deleteById(nodeId);
+    } catch (Exception e) {
+      log.warn("Failed to unregister node {}: {}", nodeId, e.getMessage());
+    }
+  }
+
+  /**
+   * Whether the given message belongs to a slot owned by this node.
+   *
+   * @param messageId the message id
+   * @return true if this node must keep its reminders
+   */
+  public boolean isOwned(long messageId) {
+    return ownedSlots.contains(ConsistentHashRing.slotOf(messageId, getSlotCount()));
+  }
+
+  /**
+   * The slots currently owned by this node.
+   *
+   * @return an immutable set of slots
+   */
+  public Set<Long> getOwnedSlots() {
+    return ownedSlots;
+  }
+
+  /**
+   * How many slots message ids are grouped into.
+   *
+   * @return the slot count
+   */
+  public int getSlotCount() {
+    return schedulerConfig.getShardingSlotCount();
+  }
+
+  private List<String> liveNodes() {
+    List<String> live =
+        new ArrayList<>(
+            nodeRepository.findLiveNodeIds(schedulerConfig.getShardingNodeTtlSeconds()));
+    if (!live.contains(nodeId)) {
+      live.add(nodeId);
+      live.sort(null);
+    }
+    return List.copyOf(live);
+  }
+
+  private void applyMembership(List<String> live, boolean publish) {
+    Set<Long> owned = Set.of();
+    if (live.contains(nodeId)) {
+      ConsistentHashRing ring =
+          new ConsistentHashRing(live, schedulerConfig.getShardingVirtualNodes(), getSlotCount());
+      owned = Set.copyOf(ring.slotsOf(nodeId));
+    }
+
+    Set<Long> lost = new HashSet<>(ownedSlots);
+    lost.removeAll(owned);
+    Set<Long> gained = new HashSet<>(owned);
+    gained.removeAll(ownedSlots);
+
+    // switch ownership first, so reminders armed while handing off already see the new slots
+    members = live;
+    ownedSlots = owned;
+
+    log.info(
+        "Node {} sees {} live node(s) {}, owns {} of {} slots ({} lost, {} gained)",
+        nodeId,
+        live.size(),
+        live,
+        owned.size(),
+        getSlotCount(),
+        lost.size(),
+        gained.size());
+
+    if (publish && (!lost.isEmpty() || !gained.isEmpty())) {
+      eventPublisher.publishEvent(new ShardAssignmentChangedEvent(lost, gained, getSlotCount()));
+    }
+  }
+
+  private static String hostName() {
+    String hostName = System.getenv("HOSTNAME");
+    if (hostName != null && !hostName.isBlank()) {
+      return hostName;
+    }
+    try {
+      return InetAddress.getLocalHost().getHostName();
+    } catch (UnknownHostException e) {
+      return "node";
+    }
+  }
+}
@@ -1,27 +1,53 @@
 package br.dev.ricardocampos.silentguardapi.service;
 
+import br.dev.ricardocampos.silentguardapi.config.SchedulerConfig;
+import br.dev.ricardocampos.silentguardapi.dto.ActiveReminderDto;
+import br.dev.ricardocampos.silentguardapi.dto.CheckInDigestItemDto;
 import br.dev.ricardocampos.silentguardapi.entity.MessageEntity;
-import br.dev.ricardocampos.silentguardapi.entity.UserEntity;
-import br.dev.ricardocampos.silentguardapi.enums.TypeToTriggerEnum;
+import br.dev.ricardocampos.silentguardapi.exception.MailDeferredException;
+import br.dev.ricardocampos.silentguardapi.mail.MailTransport;
 import br.dev.ricardocampos.silentguardapi.repository.MessageRepository;
-import br.dev.ricardocampos.silentguardapi.repository.UserRepository;
+import br.dev.ricardocampos.silentguardapi.scheduler.ConsistentHashRing;
+import br.dev.ricardocampos.silentguardapi.scheduler.ReminderCatchUpQueue;
+import br.dev.ricardocampos.silentguardapi.scheduler.ReminderDescriptor;
+import br.dev.ricardocampos.silentguardapi.scheduler.ReminderDescriptorStore;
+import br.dev.ricardocampos.silentguardapi.scheduler.ReminderEngine;
+import br.dev.ricardocampos.silentguardapi.scheduler.ReminderHandle;
+import br.dev.ricardocampos.silentguardapi.scheduler.ReminderMetrics;
+import br.dev.ricardocampos.silentguardapi.scheduler.ReminderTaskRegistry;
+import br.dev.ricardocampos.silentguardapi.scheduler.ShardAssignmentChangedEvent;
 import br.dev.ricardocampos.silentguardapi.util.FormatUtil;
 import io.jsonwebtoken.lang.Arrays;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Clock;
 import java.time.Duration;
-import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ScheduledFuture;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.TaskScheduler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /** Service for managing persistent reminders. */
 @Slf4j
@@ -29,49 +55,357 @@ import org.springframework.stereotype.Service;
 @AllArgsConstructor
 public class PersistentReminderService {
 
-  private final TaskScheduler taskScheduler;
+  private static final int DIGEST_LOCK_STRIPES = 256;
+
+  private final ReminderEngine reminderEngine;
 
   private final MessageRepository messageRepository;
 
-  private final MailgunEmailService mailgunEmailService;
+  private final MessageContentService messageContentService;
+
+  private final MailTransport mailTransport;
+
+  private final SchedulerConfig schedulerConfig;
+
+  private final ReminderCatchUpQueue reminderCatchUpQueue;
+
+  private final EmailOutboxService emailOutboxService;
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final ObjectProvider<NodeMembershipService> nodeMembership;
 
-  private final UserRepository userRepository;
+  private final ReminderDescriptorStore reminderDescriptorStore;
 
-  private static final Map<String, ScheduledFuture<?>> activeTasks = new ConcurrentHashMap<>();
+  private final ReminderMetrics reminderMetrics;
+
+  private final ReminderTaskRegistry reminderTaskRegistry;
+
+  private final Clock clock;
+
+  private final AtomicReference<LocalDateTime> lastShardSync = new AtomicReference<>();
+
+  // in digest mode, the check-ins of a user run one at a time, striped by user id
+  private final ReentrantLock[] digestLocks =
+      Stream.generate(ReentrantLock::new).limit(DIGEST_LOCK_STRIPES).toArray(ReentrantLock[]::new);
+
+  private final ExecutorService shardHandoffExecutor =
+      Executors.newSingleThreadExecutor(new CustomizableThreadFactory("shard-handoff-"));
 
   /**
-   * Restore all active scheduled reminders on application startup. This method will fetch all
-   * messages that are not disabled and schedule them for checking.
+   * Restore all active scheduled reminders on application startup. The id space is split into
+   * partitions restored in parallel, each one reading keyset pages of a content-free projection,
+   * so memory stays bounded by the page size. Pending content messages are restored too, and
+   * overdue reminders go through the rate-limited catch-up queue. With sharding enabled, only the
+   * reminders of the slots owned by this node are read.
    */
   @PostConstruct
   public void restoreSchedulesOnStartup() {
+    reminderMetrics.bindActiveTasks(this::countActiveTasks);
+    lastShardSync.compareAndSet(null, LocalDateTime.now(clock));
+    if (schedulerConfig.isPollingMode()) {
+      log.info("Polling mode enabled, reminders are claimed from the database");
+      return;
+    }
+    if (schedulerConfig.isHorizonMode()) {
+      log.info("Horizon mode enabled, reminders are loaded as they get close to due");
+      return;
+    }
+
+    NodeMembershipService membership = nodeMembership.getIfAvailable();
+    Set<Long> slots = Objects.nonNull(membership) ? membership.getOwnedSlots() : null;
+    if (Objects.nonNull(slots) && slots.isEmpty()) {
+      log.info("Node {} owns no slot, nothing to restore", membership.getNodeId());
+      return;
+    }
+
     log.info("Restoring scheduled reminders, if any");
-    List<MessageEntity> activeReminders = messageRepository.findByDisabledAtNull();
+    long startNanos = System.nanoTime();
+    long maxId = messageRepository.findMaxActiveId();
+    int parallelism = Math.max(1, schedulerConfig.getRestoreParallelism());
+    long partitionSize = Math.max(1L, (maxId + parallelism - 1) / parallelism);
+
+    AtomicLong restored = new AtomicLong();
+    ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+    try {
+      List<CompletableFuture<Void>> partitions = new ArrayList<>();
+      for (long lowerId = 0; lowerId < maxId; lowerId += partitionSize) {
+        long afterId = lowerId;
+        long upToId = Math.min(maxId, lowerId + partitionSize);
+        partitions.add(
+            CompletableFuture.runAsync(
+                () -> restorePartition(afterId, upToId, slots, restored, startNanos),
+                executor));
+      }
+      CompletableFuture.allOf(partitions.toArray(CompletableFuture[]::new)).join();
+    } finally {
+      executor.shutdown();
+    }
+
+    Duration elapsed = Duration.ofNanos(System.nanoTime() - startNanos);
+    log.info(
+        "Restored {} scheduled reminders on startup in {} ms ({} reminders/s)",
+        restored.get(),
+        elapsed.toMillis(),
+        perSecond(restored.get(), elapsed));
+  }
+
+  private void restorePartition(
+      long afterId, long upToId, Set<Long> slots, AtomicLong restored, long startNanos) {
+    int pageSize = schedulerConfig.getRestorePageSize();
+    long slotCount = schedulerConfig.getShardingSlotCount();
+    long lastId = afterId;
+    List<ActiveReminderDto> page;
+    do {
+      Limit limit = Limit.of(pageSize);
+      page =
+          Objects.isNull(slots)
+              ? messageRepository.findActiveReminderPage(lastId, upToId, limit)
+              : messageRepository.findActiveReminderPageInSlots(
+                  lastId, upToId, slotCount, slots, limit);
+      for (ActiveReminderDto reminder : page) {
+        armIfAbsent(reminder, false);
+        if (Objects.nonNull(reminder.contentDue())) {
+          armIfAbsent(reminder, true);
+        }
+      }
+      if (!page.isEmpty()) {
+        lastId = page.getLast().id();
+        long total = restored.addAndGet(page.size());
+        log.info(
+            "Restore progress: {} reminders so far ({} reminders/s)",
+            total,
+            perSecond(total, Duration.ofNanos(System.nanoTime() - startNanos)));
+      }
+    } while (page.size() == pageSize);
+  }
+
+  private ReminderDescriptor toDescriptor(ActiveReminderDto reminder) {
+    return ReminderDescriptor.of(
+        reminder.id(),
+        reminder.userId(),
+        reminder.nextReminderDue(),
+        reminder.contentDue(),
+        reminder.numberToTrigger(),
+        reminder.typeToTrigger());
+  }
+
+  private ReminderDescriptor toDescriptor(MessageEntity message) {
+    return ReminderDescriptor.of(
+        message.getId(),
+        message.getUserId(),
+        message.getNextReminderDue(),
+        message.getContentDue(),
+        message.getNumberToTrigger(),
+        message.getTypeToTrigger());
+  }
+
+  private long perSecond(long count, Duration elapsed) {
+    return elapsed.isZero() ? count : count * 1000L / Math.max(1L, elapsed.toMillis());
+  }
+
+  private boolean isOwnedHere(Long messageId) {
+    NodeMembershipService membership = nodeMembership.getIfAvailable();
+    return Objects.isNull(membership) || membership.isOwned(messageId);
+  }
+
+  /**
+   * Whether a reminder owned here may fire now. With sharding, a node whose heartbeat is older
+   * than the node time to live may have lost its slots to the other nodes without knowing, so its
+   * reminders are skipped; the heartbeat loads them back once it gets through again.
+   *
+   * @param messageId the message whose reminder is firing
+   * @param kind the reminder kind, for the skipped send meter
+   * @return true if the reminder may fire
+   */
+  private boolean canFireHere(long messageId, String kind) {
+    NodeMembershipService membership = nodeMembership.getIfAvailable();
+    if (Objects.isNull(membership) || membership.isHeartbeatFresh()) {
+      return true;
+    }
+    log.warn(
+        "Node {} heartbeat is stale, not firing the {} reminder of message {}",
+        membership.getNodeId(),
+        kind,
+        messageId);
+    reminderMetrics.countSend(kind, ReminderMetrics.OUTCOME_SKIPPED);
+    return false;
+  }
+
+  /**
+   * Hand off reminders after the sharding ring changed: the reminders of the lost slots are
+   * released, since their new owner loads them, and the reminders of the gained slots are loaded
+   * from the database. Reminders of the other slots are left untouched. The event is published on
+   * the heartbeat thread, so the handoff runs on its own thread, in publishing order, and a large
+   * reload never delays the next heartbeat.
+   *
+   * @param event the slots lost and gained by this node
+   */
+  @EventListener
+  public void onShardAssignmentChanged(ShardAssignmentChangedEvent event) {
+    shardHandoffExecutor.execute(
+        () -> {
+          try {
+            handOff(event);
+          } catch (Exception e) {
+            log.error("Failed to hand off reminders after a shard assignment change", e);
+          }
+        });
+  }
+
+  /** Stop the shard handoff thread, dropping the handoffs not started yet. */
+  @PreDestroy
+  public void shutdown() {
+    shardHandoffExecutor.shutdownNow();
+  }
+
+  private void handOff(ShardAssignmentChangedEvent event) {
+    Set<Long> released = new HashSet<>();
+    for (String scheduleId : reminderTaskRegistry.scheduleIds()) {
+      long messageId = Long.parseLong(scheduleId.substring(0, scheduleId.indexOf('-')));
+      long slot = ConsistentHashRing.slotOf(messageId, event.slotCount());
+      if (event.lostSlots().contains(slot) && released.add(messageId)) {
+        cancelExistingTask(messageId, false);
+        cancelExistingTask(messageId, true);
+      }
+    }
 
-    List<Long> userIds = activeReminders.stream().map(MessageEntity::getUserId).toList();
-    List<UserEntity> users = userRepository.findAllById(userIds);
-    Map<Long, UserEntity> userMap =
-        users.stream().collect(Collectors.toMap(UserEntity::getId, Function.identity()));
+    AtomicLong loaded = new AtomicLong();
+    if (!event.gainedSlots().isEmpty()) {
+      long maxId = messageRepository.findMaxActiveId();
+      restorePartition(0L, maxId, event.gainedSlots(), loaded, System.nanoTime());
+    }
+
+    log.info(
+        "Shard handoff released {} and loaded {} reminder(s) ({} slots lost, {} gained)",
+        released.size(),
+        loaded.get(),
+        event.lostSlots().size(),
+        event.gainedSlots().size());
+  }
+
+  /**
+   * With sharding enabled, re-arm the owned reminders created, updated or disabled since the last
+   * run. Messages are edited through any API node, but only the owner keeps their timers. The
+   * window overlaps the previous one to tolerate clock skew between nodes.
+   */
+  @Scheduled(fixedDelayString = "${scheduler.sharding.sync-interval-millis:15000}")
+  public void syncShardChanges() {
+    NodeMembershipService membership = nodeMembership.getIfAvailable();
+    if (Objects.isNull(membership) || schedulerConfig.isPollingMode()) {
+      return;
+    }
+    Set<Long> slots = membership.getOwnedSlots();
+    if (slots.isEmpty()) {
+      return;
+    }
+
+    LocalDateTime now = LocalDateTime.now(clock);
+    LocalDateTime previous = Objects.requireNonNullElse(lastShardSync.getAndSet(now), now);
+    LocalDateTime since = previous.minus(Duration.between(previous, now));
+    long slotCount = membership.getSlotCount();
+
+    List<Long> disabled = messageRepository.findIdsDisabledSince(since, slotCount, slots);
+    for (Long messageId : disabled) {
+      cancelExistingTask(messageId, false);
+      cancelExistingTask(messageId, true);
+    }
+
+    List<ActiveReminderDto> changed =
+        messageRepository.findActiveRemindersChangedSince(since, slotCount, slots);
+    for (ActiveReminderDto reminder : changed) {
+      cancelExistingTask(reminder.id(), false);
+      cancelExistingTask(reminder.id(), true);
+      armIfAbsent(reminder, false);
+      if (Objects.nonNull(reminder.contentDue())) {
+        armIfAbsent(reminder, true);
+      }
+    }
+
+    if (!changed.isEmpty() || !disabled.isEmpty()) {
+      log.info(
+          "Shard sync re-armed {} and released {} changed reminder(s)",
+          changed.size(),
+          disabled.size());
+    }
+  }
+
+  /**
+   * Arm a restored or loaded reminder, unless it is already armed or waiting for catch-up. An
+   * overdue reminder goes to the rate-limited catch-up queue instead of firing right away.
+   *
+   * @param reminder the reminder projection
+   * @param isContent true to arm the content message at its content due time, false to arm the
+   *     check-in at its next due time
+   * @return true if the reminder was armed or queued for catch-up
+   */
+  public boolean armIfAbsent(ActiveReminderDto reminder, boolean isContent) {
+    if (!isOwnedHere(reminder.id())) {
+      return false;
+    }
+    String scheduleId = createScheduleId(reminder.id(), isContent);
+    if (reminderTaskRegistry.isArmed(scheduleId) || reminderCatchUpQueue.isPending(scheduleId)) {
+      return false;
+    }
 
-    for (MessageEntity message : activeReminders) {
-      UserEntity user = userMap.get(message.getUserId());
-      scheduleCheckingMessage(user.getEmail(), message);
+    LocalDateTime dueAt = isContent ? reminder.contentDue() : reminder.nextReminderDue();
+    Runnable arm =
+        () -> {
+          ReminderDescriptor descriptor = toDescriptor(reminder);
+          if (isContent) {
+            scheduleContentMessage(descriptor, dueAt);
+          } else {
+            scheduleCheckingMessage(descriptor);
+          }
+        };
+
+    if (reminderCatchUpQueue.isEnabled() && !dueAt.isAfter(LocalDateTime.now(clock))) {
+      long dueAtMillis = dueAt.atZone(clock.getZone()).toInstant().toEpochMilli();
+      return reminderCatchUpQueue.submit(
+          scheduleId,
+          isContent,
+          dueAtMillis,
+          () -> {
+            if (!reminderTaskRegistry.isArmed(scheduleId)) {
+              arm.run();
+            }
+          });
     }
 
-    log.info("Restored {} scheduled reminders on startup", activeReminders.size());
+    arm.run();
+    return true;
   }
 
   /**
-   * Schedule a check-in message to be sent periodically based on the message's span days. This
-   * method will create a new schedule if it doesn't exist or update the existing one.
+   * Schedule a check-in message to be sent periodically based on the message's trigger period.
+   * This method will create a new schedule if it doesn't exist or update the existing one. Only a
+   * compact descriptor is kept while the reminder is armed; the recipient and confirmation id are
+   * loaded when the check-in is sent.
    *
-   * @param userEmail The user emails to send the checking message to.
    * @param message The message entity containing the details for the check-in reminder.
    */
-  public void scheduleCheckingMessage(String userEmail, MessageEntity message) {
-    Duration initialDelay = Duration.between(LocalDateTime.now(), message.getNextReminderDue());
-    Duration interval = Duration.ofDays(message.getNumberToTrigger());
-    int spanPeriod = message.getNumberToTrigger();
+  public void scheduleCheckingMessage(MessageEntity message) {
+    scheduleCheckingMessage(toDescriptor(message));
+  }
+
+  private void scheduleCheckingMessage(ReminderDescriptor descriptor) {
+    long messageId = descriptor.messageId();
+    if (schedulerConfig.isPollingMode()) {
+      log.debug("Polling mode enabled, message {} will be claimed when due", messageId);
+      return;
+    }
+    if (!isOwnedHere(messageId)) {
+      log.debug("Message {} belongs to another node, not armed", messageId);
+      return;
+    }
+    if (schedulerConfig.isHorizonMode()) {
+      scheduleCheckingWithinHorizon(descriptor);
+      return;
+    }
+
+    Duration initialDelay =
+        Duration.between(LocalDateTime.now(clock), descriptor.nextReminderDue());
+    Duration interval = descriptor.period();
 
     if (initialDelay.isNegative()) {
       initialDelay = Duration.ZERO;
@@ -79,155 +413,548 @@ public class PersistentReminderService {
 
     log.info(
         "Scheduling check-in message {} to be sent in {}, then repeat after {} {}",
-        message.getId(),
+        messageId,
         FormatUtil.formatDuration(initialDelay),
-        spanPeriod,
-        message.getTypeToTrigger().toLowerCase());
-
-    ScheduledFuture<?> future =
-        taskScheduler.scheduleWithFixedDelay(
-            () -> handleReminderAndUpdateDb(userEmail, message),
-            Instant.now().plus(initialDelay),
+        descriptor.numberToTrigger(),
+        descriptor.typeToTrigger().name().toLowerCase());
+
+    reminderDescriptorStore.put(descriptor);
+    ReminderHandle future =
+        reminderEngine.scheduleAtFixedRate(
+            () -> handleReminderAndUpdateDb(messageId),
+            clock.instant().plus(initialDelay),
             interval);
 
-    activeTasks.put(createScheduleId(message.getId(), false), future);
+    reminderTaskRegistry.register(createScheduleId(messageId, false), future);
+  }
+
+  private void scheduleCheckingWithinHorizon(ReminderDescriptor descriptor) {
+    long messageId = descriptor.messageId();
+    if (!isWithinHorizon(descriptor.nextReminderDue())) {
+      log.debug("Check-in message {} is due after the horizon, not armed", messageId);
+      return;
+    }
+
+    Duration initialDelay =
+        Duration.between(LocalDateTime.now(clock), descriptor.nextReminderDue());
+    if (initialDelay.isNegative()) {
+      initialDelay = Duration.ZERO;
+    }
+
+    log.info(
+        "Scheduling check-in message {} to be sent in {}",
+        messageId,
+        FormatUtil.formatDuration(initialDelay));
+
+    // one-shot: the handler re-arms it only if the next due time is within the horizon again
+    reminderDescriptorStore.put(descriptor);
+    ReminderHandle future =
+        reminderEngine.schedule(
+            () -> handleReminderAndUpdateDb(messageId), clock.instant().plus(initialDelay));
+
+    reminderTaskRegistry.register(createScheduleId(messageId, false), future);
+  }
+
+  private boolean isWithinHorizon(LocalDateTime dueAt) {
+    return !dueAt.isAfter(LocalDateTime.now(clock).plus(schedulerConfig.getHorizon()));
+  }
+
+  private void handleReminderAndUpdateDb(long messageId) {
+    if (!canFireHere(messageId, ReminderMetrics.KIND_CHECK_IN)) {
+      return;
+    }
+
+    ReminderDescriptor descriptor = reminderDescriptorStore.get(messageId);
+    if (!schedulerConfig.isDigestEnabled() || Objects.isNull(descriptor)) {
+      sendCheckIn(messageId);
+      return;
+    }
+
+    // the first check-in of a user to fire sends the digest, the others find it already sent
+    ReentrantLock lock = digestLocks[Math.floorMod(descriptor.userId(), DIGEST_LOCK_STRIPES)];
+    lock.lock();
+    try {
+      sendCheckIn(messageId);
+    } finally {
+      lock.unlock();
+    }
   }
 
-  private void handleReminderAndUpdateDb(String userEmail, MessageEntity message) {
+  private void sendCheckIn(long messageId) {
+    String outcome = null;
     try {
-      log.info("Handling check-in message schedule for message id {}", message.getId());
-      List<String> recipients = Arrays.asList(new String[] {userEmail});
-      Duration timeToRespond = null;
-      if (message.getTypeToTrigger().equals(TypeToTriggerEnum.HOURS.name())) {
-        timeToRespond = Duration.ofHours(message.getNumberToTrigger());
-      } else if (message.getTypeToTrigger().equals(TypeToTriggerEnum.DAYS.name())) {
-        timeToRespond = Duration.ofDays(message.getNumberToTrigger());
-      } else if (message.getTypeToTrigger().equals(TypeToTriggerEnum.MINUTES.name())) {
-        timeToRespond = Duration.ofMinutes(message.getNumberToTrigger());
+      log.info("Handling check-in message schedule for message id {}", messageId);
+      ReminderDescriptor descriptor = reminderDescriptorStore.get(messageId);
+      // loaded at send time; the message may have been deleted or disabled through another node
+      Optional<ActiveReminderDto> target =
+          reminderMetrics.timeStep(
+              "db.load-reminder", () -> messageRepository.findActiveReminder(messageId));
+      if (Objects.isNull(descriptor) || target.isEmpty()) {
+        log.info("Message {} is no longer active, dropping its reminders", messageId);
+        reminderMetrics.countSend(ReminderMetrics.KIND_CHECK_IN, ReminderMetrics.OUTCOME_SKIPPED);
+        cancelExistingTask(messageId, false);
+        cancelExistingTask(messageId, true);
+        return;
+      }
+
+      if (schedulerConfig.isDigestEnabled()) {
+        LocalDateTime dueBy = LocalDateTime.now(clock).plus(schedulerConfig.getDigestWindow());
+        if (target.get().nextReminderDue().isAfter(dueBy)) {
+          log.info("Check-in for message id {} was sent in a digest, re-arming it", messageId);
+          reminderMetrics.countSend(ReminderMetrics.KIND_CHECK_IN, ReminderMetrics.OUTCOME_SKIPPED);
+          cancelExistingTask(messageId, false);
+          armIfAbsent(target.get(), false);
+          armIfAbsent(target.get(), true);
+          return;
+        }
+
+        List<MessageEntity> digest =
+            reminderMetrics.timeStep(
+                "db.load-digest",
+                () -> messageRepository.findActiveByUserIdDueBy(target.get().userId(), dueBy));
+        if (digest.size() > 1 && digest.stream().anyMatch(m -> m.getId() == messageId)) {
+          reminderMetrics.recordFireLag(
+              ReminderMetrics.KIND_CHECK_IN, target.get().nextReminderDue());
+          sendDigest(messageId, target.get().userEmail(), digest, dueBy);
+          return;
+        }
+      }
+      ActiveReminderDto reminder = target.get();
+      reminderMetrics.recordFireLag(ReminderMetrics.KIND_CHECK_IN, reminder.nextReminderDue());
+
+      // a check-in already sent, such as by the previous owner of the shard, is due a period later
+      Duration timeToRespond = descriptor.period();
+      LocalDateTime now = LocalDateTime.now(clock);
+      LocalDateTime expectedDue = reminder.nextReminderDue();
+      if (expectedDue.isAfter(now.plus(timeToRespond.dividedBy(2)))) {
+        log.info(
+            "Check-in for message id {} was already sent, next due {}",
+            messageId,
+            FormatUtil.formatDateTime(expectedDue));
+        reminderMetrics.countSend(ReminderMetrics.KIND_CHECK_IN, ReminderMetrics.OUTCOME_SKIPPED);
+        return;
+      }
+
+      // of two nodes firing the same check-in, only the one that claims it sends it
+      String userEmail = reminder.userEmail();
+      LocalDateTime claimedDue = now.plus(timeToRespond).truncatedTo(ChronoUnit.MICROS);
+      boolean useOutbox = schedulerConfig.isOutboxEnabled();
+      boolean claimed =
+          reminderMetrics.timeStep(
+              "db.claim-reminder",
+              () ->
+                  claimCheckIn(
+                      messageId, expectedDue, claimedDue, userEmail, timeToRespond, useOutbox));
+      if (!claimed) {
+        log.info("Check-in for message id {} was claimed by another node", messageId);
+        reminderMetrics.countSend(ReminderMetrics.KIND_CHECK_IN, ReminderMetrics.OUTCOME_SKIPPED);
+        return;
+      }
+
+      boolean completed = true;
+      if (useOutbox) {
+        outcome = queuedOutcome();
+        reminderMetrics.countSend(ReminderMetrics.KIND_CHECK_IN, outcome);
+      } else {
+        boolean sent;
+        boolean deferred = false;
+        try {
+          sent =
+              reminderMetrics.timeStep(
+                  "mailgun.check-in",
+                  () ->
+                      mailTransport.sendCheckInRequest(
+                          List.of(userEmail), reminder.reminderUuid().toString(), timeToRespond));
+        } catch (MailDeferredException e) {
+          log.warn(
+              "Check-in for message id {} deferred to the outbox: {}", messageId, e.getReason());
+          sent = true;
+          deferred = true;
+        } catch (RuntimeException e) {
+          releaseCheckIn(messageId, claimedDue, expectedDue);
+          throw e;
+        }
+
+        if (!sent) {
+          outcome = ReminderMetrics.OUTCOME_FAILED;
+          reminderMetrics.countSend(ReminderMetrics.KIND_CHECK_IN, outcome);
+          log.error("Check-in for message id {} was rejected, it stays due", messageId);
+          releaseCheckIn(messageId, claimedDue, expectedDue);
+          return;
+        }
+
+        outcome = deferred ? queuedOutcome() : ReminderMetrics.OUTCOME_SENT;
+        reminderMetrics.countSend(ReminderMetrics.KIND_CHECK_IN, outcome);
+        boolean enqueue = deferred;
+        completed =
+            reminderMetrics.timeStep(
+                "db.advance-reminder",
+                () -> completeCheckIn(messageId, claimedDue, userEmail, timeToRespond, enqueue));
+      }
+
+      // a user who checked in meanwhile has had the reminder re-armed already
+      if (!completed) {
+        return;
+      }
+
+      ReminderDescriptor next = descriptor.withDue(claimedDue, claimedDue);
+      reminderDescriptorStore.put(next);
+      scheduleContentMessage(next, next.contentDue());
+
+      if (schedulerConfig.isHorizonMode()) {
+        reminderTaskRegistry.cancel(createScheduleId(messageId, false));
+        scheduleCheckingMessage(next);
+        releaseDescriptorIfIdle(messageId);
       }
-      mailgunEmailService.sendCheckInRequest(
-          recipients, message.getReminderUuid().toString(), timeToRespond);
-
-      messageRepository
-          .findById(message.getId())
-          .ifPresent(
-              reminder -> {
-                reminder.setLastReminderSent(LocalDateTime.now());
-                if (reminder.getTypeToTrigger().equals(TypeToTriggerEnum.DAYS.name())) {
-                  reminder.setNextReminderDue(
-                      LocalDateTime.now().plusDays(reminder.getNumberToTrigger()));
-                } else if (reminder.getTypeToTrigger().equals(TypeToTriggerEnum.HOURS.name())) {
-                  reminder.setNextReminderDue(
-                      LocalDateTime.now().plusHours(reminder.getNumberToTrigger()));
-                } else if (reminder.getTypeToTrigger().equals(TypeToTriggerEnum.MINUTES.name())) {
-                  reminder.setNextReminderDue(
-                      LocalDateTime.now().plusMinutes(reminder.getNumberToTrigger()));
-                }
-                reminder.setUpdatedAt(LocalDateTime.now());
-                messageRepository.saveAndFlush(reminder);
-              });
-
-      scheduleContentMessage(message);
     } catch (Exception e) {
-      log.error("Failed to send reminder for message id {}", message.getId(), e);
+      log.error("Failed to send reminder for message id {}", messageId, e);
+      if (Objects.isNull(outcome)) {
+        reminderMetrics.countSend(ReminderMetrics.KIND_CHECK_IN, ReminderMetrics.OUTCOME_FAILED);
+      }
     }
   }
 
   /**
-   * Schedule the content message to be sent 24 hours after the last check-in if the user hasn't
-   * checked in again. This is a separate schedule from the check-in reminder. It will be scheduled
-   * only once, after the check-in reminder is sent. If the user checks in again, this schedule will
-   * be canceled.
+   * Claim a due check-in by moving its due time to {@code claimedDue}, if it is still due at
+   * {@code expectedDue}. With the outbox, the check-in is completed and queued in the same
+   * transaction.
    *
-   * @param message The {@link MessageEntity} instance containing the details to be sent
+   * @return whether this node claimed the check-in and should send it
    */
-  public void scheduleContentMessage(MessageEntity message) {
-    Duration initialDelay =
-        null; // Duration.between(LocalDateTime.now(),
-              // LocalDateTime.now().plusMinutes(getWindowCheckingInterval()));
-    if (message.getTypeToTrigger().equals(TypeToTriggerEnum.DAYS.name())) {
-      initialDelay =
-          Duration.between(
-              LocalDateTime.now(), LocalDateTime.now().plusDays(message.getNumberToTrigger()));
-    } else if (message.getTypeToTrigger().equals(TypeToTriggerEnum.HOURS.name())) {
-      initialDelay =
-          Duration.between(
-              LocalDateTime.now(), LocalDateTime.now().plusHours(message.getNumberToTrigger()));
-    } else if (message.getTypeToTrigger().equals(TypeToTriggerEnum.MINUTES.name())) {
-      initialDelay =
-          Duration.between(
-              LocalDateTime.now(), LocalDateTime.now().plusMinutes(message.getNumberToTrigger()));
+  private boolean claimCheckIn(
+      long messageId,
+      LocalDateTime expectedDue,
+      LocalDateTime claimedDue,
+      String userEmail,
+      Duration timeToRespond,
+      boolean useOutbox) {
+    Boolean claimed =
+        transactionTemplate.execute(
+            status -> {
+              if (messageRepository.claimCheckIn(messageId, expectedDue, claimedDue) == 0) {
+                return false;
+              }
+              if (useOutbox) {
+                completeCheckIn(messageId, claimedDue, userEmail, timeToRespond, true);
+              }
+              return true;
+            });
+    return Boolean.TRUE.equals(claimed);
+  }
+
+  /**
+   * Complete a claimed check-in that was sent, or queued when {@code enqueue} is set.
+   *
+   * @return false when the user checked in meanwhile, so nothing was completed
+   */
+  private boolean completeCheckIn(
+      long messageId,
+      LocalDateTime claimedDue,
+      String userEmail,
+      Duration timeToRespond,
+      boolean enqueue) {
+    Boolean completed =
+        transactionTemplate.execute(
+            status -> {
+              LocalDateTime sentAt = LocalDateTime.now(clock);
+              if (messageRepository.completeCheckIn(messageId, claimedDue, sentAt) == 0) {
+                return false;
+              }
+              if (enqueue) {
+                messageRepository
+                    .findById(messageId)
+                    .ifPresent(
+                        message ->
+                            emailOutboxService.enqueueCheckIn(message, userEmail, timeToRespond));
+              }
+              return true;
+            });
+    return Boolean.TRUE.equals(completed);
+  }
+
+  /** Make a claimed check-in that wasn't sent due again, without moving its content deadline. */
+  private void releaseCheckIn(long messageId, LocalDateTime claimedDue, LocalDateTime retryDue) {
+    messageRepository.releaseCheckIn(messageId, claimedDue, retryDue, LocalDateTime.now(clock));
+  }
+
+  /**
+   * Send the check-ins of a user due within the digest window as one email, then advance them all
+   * in one statement. Each message keeps its own confirmation id, so its check-in link works as
+   * with one email per message. With the outbox, one check-in request per message is queued in
+   * the same transaction, and the outbox worker sends them as one digest again.
+   *
+   * @param messageId the message whose check-in fired
+   * @param userEmail the owner email
+   * @param digest the active messages of the user due within the window, including the fired one
+   * @param dueBy the end of the digest window
+   */
+  private void sendDigest(
+      long messageId, String userEmail, List<MessageEntity> digest, LocalDateTime dueBy) {
+    Map<Long, ReminderDescriptor> descriptors = new LinkedHashMap<>();
+    digest.forEach(message -> descriptors.put(message.getId(), toDescriptor(message)));
+
+    String outcome = null;
+    boolean useOutbox = schedulerConfig.isOutboxEnabled();
+    if (!useOutbox) {
+      List<CheckInDigestItemDto> items =
+          digest.stream()
+              .map(
+                  message ->
+                      new CheckInDigestItemDto(
+                          message.getSubject(),
+                          message.getReminderUuid().toString(),
+                          descriptors.get(message.getId()).period()))
+              .toList();
+      try {
+        boolean sent =
+            reminderMetrics.timeStep(
+                "mailgun.check-in-digest", () -> mailTransport.sendCheckInDigest(userEmail, items));
+        outcome = sent ? ReminderMetrics.OUTCOME_SENT : ReminderMetrics.OUTCOME_FAILED;
+        reminderMetrics.recordDigestSize(items.size());
+      } catch (MailDeferredException e) {
+        log.warn(
+            "Digest check-in for message id {} deferred to the outbox: {}",
+            messageId,
+            e.getReason());
+        useOutbox = true;
+      }
+    }
+
+    // a message advanced by a concurrent digest in the meantime is neither advanced nor queued
+    boolean enqueue = useOutbox;
+    LocalDateTime sentAt = LocalDateTime.now(clock);
+    List<Long> advanced =
+        reminderMetrics.timeStep(
+            "db.advance-digest",
+            () ->
+                transactionTemplate.execute(
+                    status -> {
+                      List<Long> ids =
+                          messageRepository.advanceReminders(descriptors.keySet(), dueBy, sentAt);
+                      if (enqueue) {
+                        digest.stream()
+                            .filter(message -> ids.contains(message.getId()))
+                            .forEach(
+                                message ->
+                                    emailOutboxService.enqueueCheckIn(
+                                        message,
+                                        userEmail,
+                                        descriptors.get(message.getId()).period()));
+                      }
+                      return ids;
+                    }));
+    if (Objects.isNull(advanced)) {
+      return;
+    }
+
+    String sendOutcome = useOutbox ? queuedOutcome() : outcome;
+    for (Long id : advanced) {
+      reminderMetrics.countSend(ReminderMetrics.KIND_CHECK_IN, sendOutcome);
+      ReminderDescriptor descriptor = descriptors.get(id);
+      LocalDateTime nextDue = sentAt.plus(descriptor.period());
+      rearmAfterDigest(messageId, descriptor.withDue(nextDue, nextDue));
+    }
+    log.info(
+        "Digest check-in sent for {} of {} message(s) due by {}",
+        advanced.size(),
+        digest.size(),
+        FormatUtil.formatDateTime(dueBy));
+  }
+
+  /**
+   * Arm the next check-in and the content message of a message advanced by a digest. The fired
+   * reminder keeps its fixed rate in memory mode; the others restart from their new due time,
+   * replacing their armed check-in.
+   *
+   * @param firedId the message whose check-in fired
+   * @param next the advanced descriptor
+   */
+  private void rearmAfterDigest(long firedId, ReminderDescriptor next) {
+    long id = next.messageId();
+    if (!isOwnedHere(id)) {
+      return;
+    }
+    reminderDescriptorStore.put(next);
+    scheduleContentMessage(next, next.contentDue());
+
+    String scheduleId = createScheduleId(id, false);
+    if (id != firedId) {
+      reminderCatchUpQueue.cancel(scheduleId);
+    }
+    if (schedulerConfig.isHorizonMode()) {
+      reminderTaskRegistry.cancel(scheduleId);
+      scheduleCheckingMessage(next);
+      releaseDescriptorIfIdle(id);
+    } else if (id != firedId) {
+      scheduleCheckingMessage(next);
+    }
+  }
+
+  /**
+   * Schedule the content message to be sent at the given time, if the user doesn't check in
+   * before. This is a separate schedule from the check-in reminder, armed after the check-in
+   * reminder is sent and cancelled if the user checks in. In horizon mode, a content message due
+   * after the horizon is not armed; the horizon loader arms it later from its content due time.
+   * The content itself is loaded only when the message is sent.
+   *
+   * @param descriptor The compact descriptor of the reminder
+   * @param dueAt When the content message is due
+   */
+  private void scheduleContentMessage(ReminderDescriptor descriptor, LocalDateTime dueAt) {
+    long messageId = descriptor.messageId();
+    if (!isOwnedHere(messageId)) {
+      log.debug("Message {} belongs to another node, not armed", messageId);
+      return;
+    }
+    if (schedulerConfig.isHorizonMode() && !isWithinHorizon(dueAt)) {
+      log.debug("Content message {} is due after the horizon, not armed", messageId);
+      return;
+    }
+
+    Duration initialDelay = Duration.between(LocalDateTime.now(clock), dueAt);
+    if (initialDelay.isNegative()) {
+      initialDelay = Duration.ZERO;
     }
 
     log.info(
         "Scheduling content message id {} to be sent in {}, if not cancelled",
-        message.getId(),
+        messageId,
         FormatUtil.formatDuration(initialDelay));
 
-    ScheduledFuture<?> future =
-        taskScheduler.schedule(
-            () -> handleContentReminderAndUpdateDb(message), Instant.now().plus(initialDelay));
+    reminderDescriptorStore.put(descriptor);
+    ReminderHandle future =
+        reminderEngine.schedule(
+            () -> handleContentReminderAndUpdateDb(messageId), clock.instant().plus(initialDelay));
 
-    activeTasks.put(createScheduleId(message.getId(), true), future);
+    reminderTaskRegistry.register(createScheduleId(messageId, true), future);
   }
 
-  private void handleContentReminderAndUpdateDb(MessageEntity message) {
-    try {
-      log.info("Handling content message schedule for message id {}", message.getId());
-
-      MessageEntity messageOpt = messageRepository.findById(message.getId()).orElseThrow();
+  private void handleContentReminderAndUpdateDb(long messageId) {
+    if (!canFireHere(messageId, ReminderMetrics.KIND_CONTENT)) {
+      return;
+    }
 
-      LocalDateTime lastChecking = messageOpt.getLastCheckIn();
-      log.info("Last check-in for user {} was at {}", message.getUserId(), lastChecking);
-      if (Objects.isNull(lastChecking)) {
-        lastChecking = LocalDateTime.now().plusYears(99);
+    String outcome = null;
+    try {
+      log.info("Handling content message schedule for message id {}", messageId);
+
+      MessageEntity messageOpt =
+          reminderMetrics
+              .timeStep("db.load-message", () -> messageRepository.findById(messageId))
+              .orElseThrow();
+
+      // a check-in clears the content due time, and so does disabling the message
+      if (Objects.nonNull(messageOpt.getDisabledAt())
+          || Objects.isNull(messageOpt.getContentDue())) {
+        log.info("Skipping content message. User {} did the check in", messageOpt.getUserId());
+        reminderMetrics.countSend(ReminderMetrics.KIND_CONTENT, ReminderMetrics.OUTCOME_SKIPPED);
+        return;
+      }
+      LocalDateTime expectedDue = messageOpt.getContentDue();
+      reminderMetrics.recordFireLag(ReminderMetrics.KIND_CONTENT, expectedDue);
+
+      // of two nodes firing the same content message, only the one that claims it sends it
+      LocalDateTime claimedAt = LocalDateTime.now(clock).truncatedTo(ChronoUnit.MICROS);
+      boolean useOutbox = schedulerConfig.isOutboxEnabled();
+      boolean claimed =
+          reminderMetrics.timeStep(
+              "db.disable-message",
+              () -> claimContent(messageId, expectedDue, claimedAt, useOutbox));
+      if (!claimed) {
+        log.info("Content for message id {} was claimed by another node", messageId);
+        reminderMetrics.countSend(ReminderMetrics.KIND_CONTENT, ReminderMetrics.OUTCOME_SKIPPED);
+        return;
       }
 
-      Duration timePast = Duration.between(LocalDateTime.now(), lastChecking);
-
-      log.info(
-          "Time since last check-in for user {} is {}",
-          message.getUserId(),
-          FormatUtil.formatDuration(timePast));
+      log.info("User {} didn't check in. Sending content message.", messageOpt.getUserId());
 
-      if (message.getTypeToTrigger().equals(TypeToTriggerEnum.DAYS.name())) {
-        if (timePast.toDays() < message.getNumberToTrigger()) {
-          log.info("Skipping content message. User {} did the check in", message.getUserId());
-          return;
-        }
-      } else if (message.getTypeToTrigger().equals(TypeToTriggerEnum.HOURS.name())) {
-        if (timePast.toHours() < message.getNumberToTrigger()) {
-          log.info("Skipping content message. User {} did the check in", message.getUserId());
-          return;
+      if (useOutbox) {
+        outcome = queuedOutcome();
+        reminderMetrics.countSend(ReminderMetrics.KIND_CONTENT, outcome);
+      } else {
+        try {
+          List<String> recipients = Arrays.asList(messageOpt.getTargets().split(";"));
+          String content =
+              reminderMetrics
+                  .timeStep(
+                      "db.load-content",
+                      () -> messageContentService.load(messageOpt.getContentId()))
+                  .orElseThrow();
+          boolean sent =
+              reminderMetrics.timeStep(
+                  "mailgun.content",
+                  () ->
+                      mailTransport.sendHtmlContentMessage(
+                          recipients, messageOpt.getSubject(), content));
+          outcome = sent ? ReminderMetrics.OUTCOME_SENT : ReminderMetrics.OUTCOME_FAILED;
+          reminderMetrics.countSend(ReminderMetrics.KIND_CONTENT, outcome);
+        } catch (MailDeferredException e) {
+          log.warn(
+              "Content for message id {} deferred to the outbox: {}", messageId, e.getReason());
+          outcome = queuedOutcome();
+          reminderMetrics.countSend(ReminderMetrics.KIND_CONTENT, outcome);
+          transactionTemplate.executeWithoutResult(
+              status ->
+                  messageRepository
+                      .findById(messageId)
+                      .ifPresent(emailOutboxService::enqueueContent));
+        } catch (RuntimeException e) {
+          releaseContent(messageId, claimedAt, expectedDue);
+          throw e;
         }
-      } else if (message.getTypeToTrigger().equals(TypeToTriggerEnum.MINUTES.name())) {
-        if (timePast.toMinutes() < message.getNumberToTrigger()) {
-          log.info("Skipping content message. User {} did the check in", message.getUserId());
+
+        if (ReminderMetrics.OUTCOME_FAILED.equals(outcome)) {
+          log.error("Content for message id {} was rejected, it stays due", messageId);
+          releaseContent(messageId, claimedAt, expectedDue);
           return;
         }
       }
 
-      log.info("User {} didn't check in. Sending content message.", message.getUserId());
+      cancelExistingTask(messageId, false);
+      cancelExistingTask(messageId, true);
 
-      List<String> recipients = Arrays.asList(messageOpt.getTargets().split(";"));
-      mailgunEmailService.sendHtmlContentMessage(
-          recipients, messageOpt.getSubject(), messageOpt.getContent());
+    } catch (Exception e) {
+      log.error("Failed to send content message for message id {}", messageId, e);
+      if (Objects.isNull(outcome)) {
+        reminderMetrics.countSend(ReminderMetrics.KIND_CONTENT, ReminderMetrics.OUTCOME_FAILED);
+      }
+    }
+  }
 
-      messageRepository
-          .findById(message.getId())
-          .ifPresent(
-              reminder -> {
-                reminder.setUpdatedAt(LocalDateTime.now());
-                reminder.setDisabledAt(LocalDateTime.now());
-                messageRepository.saveAndFlush(reminder);
-              });
+  /**
+   * Claim a due content message by disabling it, if its content is still due at {@code
+   * expectedDue}. With the outbox, the content is queued in the same transaction.
+   *
+   * @return whether this node claimed the content message and should send it
+   */
+  private boolean claimContent(
+      long messageId, LocalDateTime expectedDue, LocalDateTime claimedAt, boolean useOutbox) {
+    Boolean claimed =
+        transactionTemplate.execute(
+            status -> {
+              if (messageRepository.claimContent(messageId, expectedDue, claimedAt) == 0) {
+                return false;
+              }
+              if (useOutbox) {
+                messageRepository
+                    .findById(messageId)
+                    .ifPresent(emailOutboxService::enqueueContent);
+              }
+              return true;
+            });
+    return Boolean.TRUE.equals(claimed);
+  }
 
-      cancelExistingTask(message.getId(), false);
-      cancelExistingTask(message.getId(), true);
+  /** Make a claimed content message that wasn't sent active and due again. */
+  private void releaseContent(long messageId, LocalDateTime claimedAt, LocalDateTime retryDue) {
+    messageRepository.releaseContent(messageId, claimedAt, retryDue, LocalDateTime.now(clock));
+  }
 
-    } catch (Exception e) {
-      log.error("Failed to send content message for message id {}", message.getId(), e);
-    }
+  /** Outcome of an email handed to the outbox: queued by design, or deferred by the transport. */
+  private String queuedOutcome() {
+    return schedulerConfig.isOutboxEnabled()
+        ? ReminderMetrics.OUTCOME_QUEUED
+        : ReminderMetrics.OUTCOME_DEFERRED;
   }
 
   /**
@@ -239,29 +966,39 @@ public class PersistentReminderService {
    */
   public void cancelExistingTask(Long messageId, boolean isContent) {
     log.info("Canceling existing task: {} for content {}", messageId, isContent);
-    ScheduledFuture<?> existingTask = activeTasks.remove(createScheduleId(messageId, isContent));
-
-    if (existingTask != null) {
-      boolean cancelled = existingTask.cancel(false); // false = don't interrupt if running
-
-      if (cancelled) {
-        log.info(
-            "Successfully cancelled existing scheduled task for message id {} and content {}",
-            messageId,
-            isContent);
-      } else {
-        log.warn(
-            "Failed to cancel existing reminder task for message id {} and content {} - task may"
-                + " have already completed or not scheduled yet",
-            messageId,
-            isContent);
-      }
+    String scheduleId = createScheduleId(messageId, isContent);
+    if (reminderCatchUpQueue.cancel(scheduleId)) {
+      log.info("Dropped overdue task {} waiting for catch-up", scheduleId);
+    }
+    // never interrupts a running reminder
+    if (reminderTaskRegistry.cancel(scheduleId)) {
+      log.info(
+          "Successfully cancelled existing scheduled task for message id {} and content {}",
+          messageId,
+          isContent);
     } else {
-      log.debug("No existing task found for message {} to cancel", messageId);
+      log.debug(
+          "No armed task found for message {} and content {} to cancel", messageId, isContent);
     }
+    releaseDescriptorIfIdle(messageId);
+  }
+
+  private void releaseDescriptorIfIdle(long messageId) {
+    if (!reminderTaskRegistry.isArmed(createScheduleId(messageId, false))
+        && !reminderTaskRegistry.isArmed(createScheduleId(messageId, true))) {
+      reminderDescriptorStore.remove(messageId);
+    }
+  }
+
+  private static String createScheduleId(Long messageId, boolean isContent) {
+    return messageId.toString() + scheduleIdSuffix(isContent);
+  }
+
+  private static String scheduleIdSuffix(boolean isContent) {
+    return isContent ? "-content" : "-check-in";
   }
 
-  private String createScheduleId(Long messageId, boolean isContent) {
-    return messageId.toString() + (isContent ? "-check-in" : "-content");
+  private long countActiveTasks(boolean isContent) {
+    return reminderTaskRegistry.countHeld(scheduleIdSuffix(isContent).substring(1));
   }
 }
@@ -0,0 +1,82 @@
+package br.dev.ricardocampos.silentguardapi.service;
+
+import br.dev.ricardocampos.silentguardapi.config.SchedulerConfig;
+import br.dev.ricardocampos.silentguardapi.dto.ActiveReminderDto;
+import br.dev.ricardocampos.silentguardapi.repository.MessageRepository;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Periodic loader for the horizon mode. Each run reads, ordered by due time, the check-in and
+ * content reminders due before the end of the horizon and arms the ones not armed yet, so memory
+ * scales with the reminders due soon instead of with every active message. Enabled with {@code
+ * scheduler.mode=horizon}.
+ */
+@Slf4j
+@Service
+@AllArgsConstructor
+@ConditionalOnProperty(name = "scheduler.mode", havingValue = SchedulerConfig.MODE_HORIZON)
+public class ReminderHorizonLoader {
+
+  private static final LocalDateTime KEYSET_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+  private final MessageRepository messageRepository;
+
+  private final PersistentReminderService persistentReminderService;
+
+  private final SchedulerConfig schedulerConfig;
+
+  private final Clock clock;
+
+  /** Load the next window. The load interval must be shorter than the horizon. */
+  @Scheduled(fixedDelayString = "${scheduler.horizon.load-interval-millis:60000}")
+  public void loadNextWindow() {
+    LocalDateTime until = LocalDateTime.now(clock).plus(schedulerConfig.getHorizon());
+
+    int contents = loadWindow(until, true);
+    int checkIns = loadWindow(until, false);
+
+    log.info(
+        "Horizon load armed {} check-in and {} content reminder(s) due until {}",
+        checkIns,
+        contents,
+        until);
+  }
+
+  private int loadWindow(LocalDateTime until, boolean isContent) {
+    int pageSize = schedulerConfig.getRestorePageSize();
+    LocalDateTime afterDue = KEYSET_START;
+    long afterId = 0L;
+    int armed = 0;
+
+    List<ActiveReminderDto> page;
+    do {
+      Limit limit = Limit.of(pageSize);
+      page =
+          isContent
+              ? messageRepository.findContentsDueUntil(until, afterDue, afterId, limit)
+              : messageRepository.findCheckInsDueUntil(until, afterDue, afterId, limit);
+
+      for (ActiveReminderDto reminder : page) {
+        if (persistentReminderService.armIfAbsent(reminder, isContent)) {
+          armed++;
+        }
+      }
+
+      if (!page.isEmpty()) {
+        ActiveReminderDto last = page.getLast();
+        afterDue = isContent ? last.contentDue() : last.nextReminderDue();
+        afterId = last.id();
+      }
+    } while (page.size() == pageSize);
+
+    return armed;
+  }
+}
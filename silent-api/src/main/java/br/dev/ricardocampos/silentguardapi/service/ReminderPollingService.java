@@ -0,0 +1,254 @@
+package br.dev.ricardocampos.silentguardapi.service;
+
+import br.dev.ricardocampos.silentguardapi.config.SchedulerConfig;
+import br.dev.ricardocampos.silentguardapi.entity.MessageEntity;
+import br.dev.ricardocampos.silentguardapi.entity.UserEntity;
+import br.dev.ricardocampos.silentguardapi.enums.TypeToTriggerEnum;
+import br.dev.ricardocampos.silentguardapi.exception.MailDeferredException;
+import br.dev.ricardocampos.silentguardapi.mail.MailTransport;
+import br.dev.ricardocampos.silentguardapi.repository.MessageRepository;
+import br.dev.ricardocampos.silentguardapi.repository.UserRepository;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Cluster-safe reminder dispatch. Every node polls {@code sg_messages} for due rows and claims a
+ * bounded batch with {@code FOR UPDATE SKIP LOCKED}, so a message is handled by exactly one node.
+ * The claim advances the batch in one short transaction: a check-in moves to its next due time, a
+ * content message is disabled. The emails are sent after the claim commits, so no row lock is held
+ * while the mail transport is called. A sent check-in is then completed, while a failed send is
+ * released to be claimed again after the retry delay. With the outbox, the emails are queued in
+ * the claim transaction instead. Enabled with {@code scheduler.mode=polling}.
+ */
+@Slf4j
+@Service
+@AllArgsConstructor
+@ConditionalOnProperty(name = "scheduler.mode", havingValue = SchedulerConfig.MODE_POLLING)
+public class ReminderPollingService {
+
+  private final MessageRepository messageRepository;
+
+  private final UserRepository userRepository;
+
+  private final MessageContentService messageContentService;
+
+  private final MailTransport mailTransport;
+
+  private final EmailOutboxService emailOutboxService;
+
+  private final SchedulerConfig schedulerConfig;
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final Clock clock;
+
+  /**
+   * Claim and process due reminders until no full batch is left. Content messages go first, so a
+   * message whose content is due is disabled before its next check-in is claimed.
+   */
+  @Scheduled(
+      fixedDelayString = "${scheduler.polling.interval-millis:5000}",
+      initialDelayString = "${scheduler.polling.interval-millis:5000}")
+  public void pollDueReminders() {
+    int batchSize = schedulerConfig.getPollingBatchSize();
+
+    int contents = 0;
+    List<ClaimedMessage> claimed;
+    do {
+      claimed = Objects.requireNonNull(transactionTemplate.execute(s -> claimDueContents()));
+      claimed.forEach(this::sendContent);
+      contents += claimed.size();
+    } while (claimed.size() == batchSize);
+
+    int checkIns = 0;
+    do {
+      claimed = Objects.requireNonNull(transactionTemplate.execute(s -> claimDueCheckIns()));
+      claimed.forEach(this::sendCheckIn);
+      checkIns += claimed.size();
+    } while (claimed.size() == batchSize);
+
+    if (contents > 0 || checkIns > 0) {
+      log.info("Polling processed {} content and {} check-in message(s)", contents, checkIns);
+    }
+  }
+
+  /**
+   * Claim a batch of due check-ins by moving each one to its next due time. With the outbox, the
+   * check-ins are also completed and queued here.
+   */
+  private List<ClaimedMessage> claimDueCheckIns() {
+    LocalDateTime now = LocalDateTime.now(clock);
+    List<MessageEntity> batch =
+        messageRepository.claimDueCheckIns(now, schedulerConfig.getPollingBatchSize());
+    if (batch.isEmpty()) {
+      return List.of();
+    }
+
+    List<Long> userIds = batch.stream().map(MessageEntity::getUserId).distinct().toList();
+    Map<Long, String> emails =
+        userRepository.findAllById(userIds).stream()
+            .collect(Collectors.toMap(UserEntity::getId, UserEntity::getEmail));
+
+    List<ClaimedMessage> claimed = new ArrayList<>();
+    for (MessageEntity message : batch) {
+      LocalDateTime claimedDue = now.plus(interval(message)).truncatedTo(ChronoUnit.MICROS);
+      String userEmail = emails.get(message.getUserId());
+      claimed.add(new ClaimedMessage(message, userEmail, claimedDue));
+
+      message.setNextReminderDue(claimedDue);
+      if (schedulerConfig.isOutboxEnabled()) {
+        log.info("Queueing claimed check-in for message id {}", message.getId());
+        emailOutboxService.enqueueCheckIn(message, userEmail, interval(message));
+        message.setLastReminderSent(now);
+        message.setContentDue(claimedDue);
+        message.setUpdatedAt(now);
+      }
+    }
+
+    messageRepository.saveAllAndFlush(batch);
+    return claimed;
+  }
+
+  /**
+   * Claim a batch of due content messages by disabling them. With the outbox, the content
+   * messages are also queued here.
+   */
+  private List<ClaimedMessage> claimDueContents() {
+    LocalDateTime now = LocalDateTime.now(clock);
+    List<MessageEntity> batch =
+        messageRepository.claimDueContents(now, schedulerConfig.getPollingBatchSize());
+    if (batch.isEmpty()) {
+      return List.of();
+    }
+
+    LocalDateTime claimedAt = now.truncatedTo(ChronoUnit.MICROS);
+    List<ClaimedMessage> claimed = new ArrayList<>();
+    for (MessageEntity message : batch) {
+      claimed.add(new ClaimedMessage(message, message.getTargets(), claimedAt));
+
+      message.setContentDue(null);
+      message.setDisabledAt(claimedAt);
+      message.setUpdatedAt(claimedAt);
+      if (schedulerConfig.isOutboxEnabled()) {
+        log.info("Queueing claimed content for message id {}", message.getId());
+        emailOutboxService.enqueueContent(message);
+      }
+    }
+
+    messageRepository.saveAllAndFlush(batch);
+    return claimed;
+  }
+
+  /**
+   * Send a claimed check-in, then complete it. A check-in that wasn't sent is released, so it is
+   * claimed again after the retry delay and its content deadline doesn't move.
+   */
+  private void sendCheckIn(ClaimedMessage claimed) {
+    if (schedulerConfig.isOutboxEnabled()) {
+      return;
+    }
+
+    MessageEntity message = claimed.message();
+    Duration interval = interval(message);
+    boolean sent;
+    try {
+      log.info("Handling claimed check-in for message id {}", message.getId());
+      sent =
+          mailTransport.sendCheckInRequest(
+              List.of(claimed.recipients()), message.getReminderUuid().toString(), interval);
+      if (!sent) {
+        log.error("Claimed check-in for message id {} was rejected", message.getId());
+      }
+    } catch (MailDeferredException e) {
+      log.warn("Claimed check-in for message id {} deferred to the outbox", message.getId());
+      transactionTemplate.executeWithoutResult(
+          s -> {
+            if (completeCheckIn(claimed) == 1) {
+              emailOutboxService.enqueueCheckIn(message, claimed.recipients(), interval);
+            }
+          });
+      return;
+    } catch (Exception e) {
+      log.error("Failed to send claimed check-in for message id {}", message.getId(), e);
+      sent = false;
+    }
+
+    if (sent) {
+      completeCheckIn(claimed);
+      return;
+    }
+    messageRepository.releaseCheckIn(
+        message.getId(), claimed.claimedAt(), retryAt(), LocalDateTime.now(clock));
+  }
+
+  private int completeCheckIn(ClaimedMessage claimed) {
+    return messageRepository.completeCheckIn(
+        claimed.message().getId(), claimed.claimedAt(), LocalDateTime.now(clock));
+  }
+
+  /**
+   * Send a claimed content message. A content message that wasn't sent is released, so it is
+   * claimed again after the retry delay.
+   */
+  private void sendContent(ClaimedMessage claimed) {
+    if (schedulerConfig.isOutboxEnabled()) {
+      return;
+    }
+
+    MessageEntity message = claimed.message();
+    boolean sent;
+    try {
+      log.info("User {} didn't check in. Sending claimed content message.", message.getUserId());
+      List<String> recipients = List.of(claimed.recipients().split(";"));
+      String content = messageContentService.load(message.getContentId()).orElseThrow();
+      sent = mailTransport.sendHtmlContentMessage(recipients, message.getSubject(), content);
+      if (!sent) {
+        log.error("Claimed content for message id {} was rejected", message.getId());
+      }
+    } catch (MailDeferredException e) {
+      log.warn("Claimed content for message id {} deferred to the outbox", message.getId());
+      transactionTemplate.executeWithoutResult(s -> emailOutboxService.enqueueContent(message));
+      return;
+    } catch (Exception e) {
+      log.error("Failed to send claimed content for message id {}", message.getId(), e);
+      sent = false;
+    }
+
+    if (!sent) {
+      messageRepository.releaseContent(
+          message.getId(), claimed.claimedAt(), retryAt(), LocalDateTime.now(clock));
+    }
+  }
+
+  private static Duration interval(MessageEntity message) {
+    return TypeToTriggerEnum.fromString(message.getTypeToTrigger())
+        .toDuration(message.getNumberToTrigger());
+  }
+
+  private LocalDateTime retryAt() {
+    return LocalDateTime.now(clock).plusSeconds(schedulerConfig.getPollingRetryDelaySeconds());
+  }
+
+  /**
+   * A message claimed by this node.
+   *
+   * @param message the message, as claimed
+   * @param recipients the owner email for a check-in, or the targets for a content message
+   * @param claimedAt the due time a check-in was claimed with, or when the content was claimed
+   */
+  private record ClaimedMessage(
+      MessageEntity message, String recipients, LocalDateTime claimedAt) {}
+}
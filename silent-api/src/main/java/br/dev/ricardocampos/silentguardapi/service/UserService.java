@@ -5,6 +5,7 @@ import br.dev.ricardocampos.silentguardapi.dto.UserInfoDto;
 import br.dev.ricardocampos.silentguardapi.entity.UserEntity;
 import br.dev.ricardocampos.silentguardapi.exception.InvalidUserException;
 import br.dev.ricardocampos.silentguardapi.repository.UserRepository;
+import java.time.Clock;
 import java.time.LocalDateTime;
 import java.util.Objects;
 import java.util.Optional;
@@ -27,6 +28,8 @@ public class UserService {
 
   private final BearerTokenHolder bearerTokenHolder;
 
+  private final Clock clock;
+
   /**
    * Checks if the user is registered or signs them up if they are not. If the user is already
    * registered, it updates their last check-in time.
@@ -47,8 +50,8 @@ public class UserService {
     if (userOptional.isEmpty()) {
       UserEntity user = new UserEntity();
       user.setEmail(userDto.get().email());
-      user.setLastCheckIn(LocalDateTime.now());
-      user.setCreatedAt(LocalDateTime.now());
+      user.setLastCheckIn(LocalDateTime.now(clock));
+      user.setCreatedAt(LocalDateTime.now(clock));
 
       userRepository.save(user);
       log.info("User registered successfully!");
@@ -56,7 +59,7 @@ public class UserService {
     }
 
     UserEntity user = userOptional.get();
-    user.setLastCheckIn(LocalDateTime.now());
+    user.setLastCheckIn(LocalDateTime.now(clock));
 
     userRepository.save(user);
     log.info("User logged in successfully!");
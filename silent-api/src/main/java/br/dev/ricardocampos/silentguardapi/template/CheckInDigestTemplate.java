@@ -0,0 +1,49 @@
+package br.dev.ricardocampos.silentguardapi.template;
+
+import br.dev.ricardocampos.silentguardapi.dto.CheckInDigestItemDto;
+import br.dev.ricardocampos.silentguardapi.util.FormatUtil;
+import java.util.List;
+import org.springframework.web.util.HtmlUtils;
+
+/**
+ * Renders the digest check-in email, which asks a user to check in for several messages at once.
+ * Every message keeps its own check-in link, so each is confirmed on its own, as with one check-in
+ * email per message. The HTML is rendered here and sent as an HTML email by every transport.
+ */
+public class CheckInDigestTemplate {
+
+  private static final String HEADER =
+      """
+      <p>Hi,</p>
+      <p>Silent Guard hasn't heard from you in a while. Please let us know you're fine, or these \
+      messages will be sent to their recipients:</p>
+      <ul>
+      """;
+
+  private static final String ITEM =
+      """
+      <li><strong>%s</strong>, within %s: <a href="%s">I'm fine, check me in</a></li>
+      """;
+
+  private static final String FOOTER = "</ul>\n";
+
+  /**
+   * Renders the digest.
+   *
+   * @param checkInLinkPrefix the check-in link without the confirmation id
+   * @param items the messages to check in for
+   * @return the HTML body of the email
+   */
+  public static String render(String checkInLinkPrefix, List<CheckInDigestItemDto> items) {
+    StringBuilder html = new StringBuilder(HEADER.length() + items.size() * 160);
+    html.append(HEADER);
+    for (CheckInDigestItemDto item : items) {
+      html.append(
+          ITEM.formatted(
+              HtmlUtils.htmlEscape(item.subject()),
+              HtmlUtils.htmlEscape(FormatUtil.formatDuration(item.timeToRespond())),
+              HtmlUtils.htmlEscape(checkInLinkPrefix + item.confirmationId())));
+    }
+    return html.append(FOOTER).toString();
+  }
+}
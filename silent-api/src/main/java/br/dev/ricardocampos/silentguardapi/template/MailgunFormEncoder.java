@@ -0,0 +1,290 @@
+package br.dev.ricardocampos.silentguardapi.template;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Writes a Mailgun form body ({@code application/x-www-form-urlencoded}) straight into a reusable
+ * byte buffer, with the same encoding as {@link java.net.URLEncoder} in UTF-8. JSON values such as
+ * the template variables are escaped and url-encoded in the same pass, so no intermediate strings
+ * are built. An encoder is not thread-safe; keep one per thread and {@link #reset()} it between
+ * bodies.
+ */
+public class MailgunFormEncoder {
+
+  private static final byte[] HEX = "0123456789ABCDEF".getBytes();
+
+  // buffers grown past this size by a large batch are dropped on reset
+  private static final int MAX_RETAINED_SIZE = 256 * 1024;
+
+  private static final int INITIAL_SIZE = 4096;
+
+  private byte[] buffer = new byte[INITIAL_SIZE];
+
+  private int size;
+
+  private boolean inJsonObject;
+
+  /**
+   * Empty the buffer to start a new body.
+   *
+   * @return this encoder
+   */
+  public MailgunFormEncoder reset() {
+    if (buffer.length > MAX_RETAINED_SIZE) {
+      buffer = new byte[INITIAL_SIZE];
+    }
+    size = 0;
+    inJsonObject = false;
+    return this;
+  }
+
+  /**
+   * Append an already encoded part, such as the {@code from} field encoded once at startup.
+   *
+   * @param encoded the encoded bytes, without the leading {@code &}
+   * @return this encoder
+   */
+  public MailgunFormEncoder append(byte[] encoded) {
+    separate();
+    ensureCapacity(encoded.length);
+    System.arraycopy(encoded, 0, buffer, size, encoded.length);
+    size += encoded.length;
+    return this;
+  }
+
+  /**
+   * Append a field.
+   *
+   * @param name the field name
+   * @param value the field value
+   * @return this encoder
+   */
+  public MailgunFormEncoder field(String name, String value) {
+    separate();
+    writeEncoded(name);
+    writeByte('=');
+    writeEncoded(value);
+    return this;
+  }
+
+  /**
+   * Append a field holding a flat JSON object of string values, such as {@code
+   * h:X-Mailgun-Variables}.
+   *
+   * @param name the field name
+   * @param values the object members; values are written with {@code toString()}
+   * @return this encoder
+   */
+  public MailgunFormEncoder jsonField(String name, Map<String, ?> values) {
+    beginJsonField(name);
+    for (Map.Entry<String, ?> entry : values.entrySet()) {
+      jsonMember(entry.getKey(), String.valueOf(entry.getValue()));
+    }
+    return endJsonField();
+  }
+
+  /**
+   * Start a field holding a JSON object whose members are written with {@link #jsonMember} and
+   * {@link #beginJsonObject}.
+   *
+   * @param name the field name
+   * @return this encoder
+   */
+  public MailgunFormEncoder beginJsonField(String name) {
+    separate();
+    writeEncoded(name);
+    writeByte('=');
+    writeJsonOpen();
+    return this;
+  }
+
+  /**
+   * Write a string member of the current JSON object.
+   *
+   * @param key the member name
+   * @param value the member value
+   * @return this encoder
+   */
+  public MailgunFormEncoder jsonMember(String key, String value) {
+    writeJsonKey(key);
+    writeJsonString(value);
+    inJsonObject = true;
+    return this;
+  }
+
+  /**
+   * Start a nested JSON object member of the current JSON object.
+   *
+   * @param key the member name
+   * @return this encoder
+   */
+  public MailgunFormEncoder beginJsonObject(String key) {
+    writeJsonKey(key);
+    writeJsonOpen();
+    return this;
+  }
+
+  /**
+   * Close the current nested JSON object.
+   *
+   * @return this encoder
+   */
+  public MailgunFormEncoder endJsonObject() {
+    writePercent('}');
+    inJsonObject = true;
+    return this;
+  }
+
+  /**
+   * Close the JSON object started by {@link #beginJsonField}.
+   *
+   * @return this encoder
+   */
+  public MailgunFormEncoder endJsonField() {
+    writePercent('}');
+    inJsonObject = false;
+    return this;
+  }
+
+  /**
+   * Copy the body out of the reusable buffer.
+   *
+   * @return the encoded body
+   */
+  public byte[] toByteArray() {
+    return Arrays.copyOf(buffer, size);
+  }
+
+  /**
+   * The encoded length so far.
+   *
+   * @return the number of bytes written
+   */
+  public int size() {
+    return size;
+  }
+
+  private void separate() {
+    if (size > 0) {
+      writeByte('&');
+    }
+  }
+
+  private void writeJsonOpen() {
+    writePercent('{');
+    inJsonObject = false;
+  }
+
+  private void writeJsonKey(String key) {
+    if (inJsonObject) {
+      writePercent(',');
+    }
+    writeJsonString(key);
+    writePercent(':');
+  }
+
+  private void writeJsonString(String value) {
+    writePercent('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '"' -> writeJsonEscape('"');
+        case '\\' -> writeJsonEscape('\\');
+        case '\n' -> writeJsonEscape('n');
+        case '\r' -> writeJsonEscape('r');
+        case '\t' -> writeJsonEscape('t');
+        default -> {
+          if (c < 0x20) {
+            writeJsonEscape('u');
+            writeByte('0');
+            writeByte('0');
+            writeByte(HEX[c >> 4]);
+            writeByte(HEX[c & 0xF]);
+          } else {
+            i = writeEncodedChar(value, i);
+          }
+        }
+      }
+    }
+    writePercent('"');
+  }
+
+  private void writeJsonEscape(char escaped) {
+    writePercent('\\');
+    writeEncodedAscii(escaped);
+  }
+
+  private void writeEncoded(String value) {
+    for (int i = 0; i < value.length(); i++) {
+      i = writeEncodedChar(value, i);
+    }
+  }
+
+  /** Encode the character at the index, two for a surrogate pair, and return the last index. */
+  private int writeEncodedChar(String value, int index) {
+    char c = value.charAt(index);
+    if (c < 0x80) {
+      writeEncodedAscii(c);
+      return index;
+    }
+    if (c < 0x800) {
+      writePercent(0xC0 | (c >> 6));
+      writePercent(0x80 | (c & 0x3F));
+      return index;
+    }
+    if (Character.isHighSurrogate(c)
+        && index + 1 < value.length()
+        && Character.isLowSurrogate(value.charAt(index + 1))) {
+      int codePoint = Character.toCodePoint(c, value.charAt(index + 1));
+      writePercent(0xF0 | (codePoint >> 18));
+      writePercent(0x80 | ((codePoint >> 12) & 0x3F));
+      writePercent(0x80 | ((codePoint >> 6) & 0x3F));
+      writePercent(0x80 | (codePoint & 0x3F));
+      return index + 1;
+    }
+    if (Character.isSurrogate(c)) {
+      // a lone surrogate is encoded as '?', as String.getBytes does
+      writePercent('?');
+      return index;
+    }
+    writePercent(0xE0 | (c >> 12));
+    writePercent(0x80 | ((c >> 6) & 0x3F));
+    writePercent(0x80 | (c & 0x3F));
+    return index;
+  }
+
+  private void writeEncodedAscii(char c) {
+    if ((c >= 'a' && c <= 'z')
+        || (c >= 'A' && c <= 'Z')
+        || (c >= '0' && c <= '9')
+        || c == '.'
+        || c == '-'
+        || c == '*'
+        || c == '_') {
+      writeByte(c);
+    } else if (c == ' ') {
+      writeByte('+');
+    } else {
+      writePercent(c);
+    }
+  }
+
+  private void writePercent(int b) {
+    ensureCapacity(3);
+    buffer[size++] = '%';
+    buffer[size++] = HEX[(b >> 4) & 0xF];
+    buffer[size++] = HEX[b & 0xF];
+  }
+
+  private void writeByte(int b) {
+    ensureCapacity(1);
+    buffer[size++] = (byte) b;
+  }
+
+  private void ensureCapacity(int extra) {
+    if (size + extra > buffer.length) {
+      buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+    }
+  }
+}
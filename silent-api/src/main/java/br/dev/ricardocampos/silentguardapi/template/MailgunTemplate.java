@@ -31,22 +31,45 @@ public interface MailgunTemplate {
   }
 
   /**
-   * Default method to get variables in JSON format.
+   * Default method to get variables in JSON format, with keys and values escaped.
    *
    * @return The JSON String representation.
    */
   default String getVariableValuesJson() {
     StringBuilder sb = new StringBuilder("{");
     for (Map.Entry<String, Object> entry : getVariables().entrySet()) {
-      if (sb.toString().length() > 1) {
+      if (sb.length() > 1) {
         sb.append(COMMA);
       }
-      sb.append(STRING_SCAPE).append(entry.getKey()).append(STRING_SCAPE);
+      appendJsonString(sb, entry.getKey());
       sb.append(COLON);
-      sb.append(STRING_SCAPE).append(entry.getValue().toString()).append(STRING_SCAPE);
+      appendJsonString(sb, entry.getValue().toString());
     }
     sb.append("}");
 
     return sb.toString();
   }
+
+  private static void appendJsonString(StringBuilder sb, String value) {
+    sb.append(STRING_SCAPE);
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '"' -> sb.append("\\\"");
+        case '\\' -> sb.append("\\\\");
+        case '\n' -> sb.append("\\n");
+        case '\r' -> sb.append("\\r");
+        case '\t' -> sb.append("\\t");
+        default -> {
+          if (c < 0x20) {
+            sb.append("\\u00").append(Character.forDigit(c >> 4, 16));
+            sb.append(Character.forDigit(c & 0xF, 16));
+          } else {
+            sb.append(c);
+          }
+        }
+      }
+    }
+    sb.append(STRING_SCAPE);
+  }
 }
@@ -0,0 +1,197 @@
+package br.dev.ricardocampos.silentguardapi.util;
+
+import java.time.Duration;
+import java.util.function.BiConsumer;
+
+/**
+ * Count-based circuit breaker. While closed, it records the outcome of the last {@code
+ * windowSize} calls and opens once at least {@code minimumCalls} were recorded and the share of
+ * failures reaches the threshold. While open, every call is refused. After {@code openDuration}
+ * it lets {@code halfOpenProbes} calls through: the breaker closes when all of them succeed and
+ * opens again on the first failure.
+ *
+ * <p>A call takes a permit with {@link #tryAcquire()} and hands it back with its outcome. The
+ * permit carries the breaker generation, so a call started before a transition can't decide the
+ * outcome of the probes.
+ */
+public class CircuitBreaker {
+
+  /** The breaker states. */
+  public enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  private final boolean[] window;
+
+  private final int minimumCalls;
+
+  private final double failureRateThreshold;
+
+  private final long openNanos;
+
+  private final int halfOpenProbes;
+
+  private final BiConsumer<State, State> onTransition;
+
+  private State state = State.CLOSED;
+
+  private long generation;
+
+  private int windowIndex;
+
+  private int recordedCalls;
+
+  private int failedCalls;
+
+  private long openUntil;
+
+  private int probesStarted;
+
+  private int probesSucceeded;
+
+  /**
+   * Constructs a closed breaker.
+   *
+   * @param windowSize how many of the last calls the failure rate is computed over
+   * @param minimumCalls how many calls must be recorded before the breaker may open
+   * @param failureRateThreshold the share of failed calls that opens the breaker, from 0 to 1
+   * @param openDuration how long the breaker stays open before probing
+   * @param halfOpenProbes how many probe calls must succeed to close the breaker
+   * @param onTransition called with the previous and the new state on every transition, under the
+   *     breaker lock
+   */
+  public CircuitBreaker(
+      int windowSize,
+      int minimumCalls,
+      double failureRateThreshold,
+      Duration openDuration,
+      int halfOpenProbes,
+      BiConsumer<State, State> onTransition) {
+    this.window = new boolean[Math.max(1, windowSize)];
+    this.minimumCalls = Math.clamp(minimumCalls, 1, window.length);
+    this.failureRateThreshold = failureRateThreshold;
+    this.openNanos = openDuration.toNanos();
+    this.halfOpenProbes = Math.max(1, halfOpenProbes);
+    this.onTransition = onTransition;
+  }
+
+  /**
+   * Ask to make a call.
+   *
+   * @return the permit to give back to {@link #onSuccess} or {@link #onFailure}, or -1 if the
+   *     breaker refuses the call
+   */
+  public synchronized long tryAcquire() {
+    if (state == State.OPEN) {
+      if (System.nanoTime() - openUntil < 0) {
+        return -1;
+      }
+      transitionTo(State.HALF_OPEN);
+    }
+    if (state == State.HALF_OPEN) {
+      if (probesStarted >= halfOpenProbes) {
+        return -1;
+      }
+      probesStarted++;
+    }
+    return generation;
+  }
+
+  /**
+   * Record a successful call.
+   *
+   * @param permit the permit of the call
+   */
+  public synchronized void onSuccess(long permit) {
+    if (permit != generation) {
+      return;
+    }
+    if (state == State.HALF_OPEN) {
+      if (++probesSucceeded >= halfOpenProbes) {
+        transitionTo(State.CLOSED);
+      }
+      return;
+    }
+    record(false);
+  }
+
+  /**
+   * Record a failed call.
+   *
+   * @param permit the permit of the call
+   */
+  public synchronized void onFailure(long permit) {
+    if (permit != generation) {
+      return;
+    }
+    if (state == State.HALF_OPEN) {
+      transitionTo(State.OPEN);
+      return;
+    }
+    record(true);
+    if (recordedCalls >= minimumCalls
+        && failedCalls >= failureRateThreshold * recordedCalls) {
+      transitionTo(State.OPEN);
+    }
+  }
+
+  /**
+   * Whether calls are refused right now, without moving an expired open breaker to half-open.
+   *
+   * @return true while the breaker is open and waiting
+   */
+  public synchronized boolean isRefusing() {
+    return state == State.OPEN && System.nanoTime() - openUntil < 0;
+  }
+
+  public synchronized State getState() {
+    return state;
+  }
+
+  /**
+   * The share of failed calls in the window.
+   *
+   * @return the failure rate, from 0 to 1; 0 while no call was recorded
+   */
+  public synchronized double getFailureRate() {
+    return recordedCalls == 0 ? 0 : (double) failedCalls / recordedCalls;
+  }
+
+  public synchronized int getRecordedCalls() {
+    return recordedCalls;
+  }
+
+  private void record(boolean failed) {
+    if (recordedCalls == window.length) {
+      if (window[windowIndex]) {
+        failedCalls--;
+      }
+    } else {
+      recordedCalls++;
+    }
+    window[windowIndex] = failed;
+    if (failed) {
+      failedCalls++;
+    }
+    windowIndex = (windowIndex + 1) % window.length;
+  }
+
+  private void transitionTo(State next) {
+    State previous = state;
+    state = next;
+    generation++;
+    probesStarted = 0;
+    probesSucceeded = 0;
+    if (next == State.OPEN) {
+      openUntil = System.nanoTime() + openNanos;
+    }
+    if (next == State.CLOSED) {
+      recordedCalls = 0;
+      failedCalls = 0;
+      windowIndex = 0;
+    }
+    onTransition.accept(previous, next);
+  }
+}
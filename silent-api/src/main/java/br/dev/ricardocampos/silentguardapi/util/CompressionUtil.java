@@ -0,0 +1,78 @@
+package br.dev.ricardocampos.silentguardapi.util;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Utility class for compressing stored text with Deflate. The compressed bytes don't record their
+ * original size, so callers keep it next to them and hand it back when inflating, which lets the
+ * output buffer be allocated once.
+ */
+public class CompressionUtil {
+
+  private static final int BUFFER_SIZE = 4096;
+
+  /**
+   * Compresses the given bytes.
+   *
+   * @param data the bytes to compress
+   * @return the Deflate (zlib) compressed bytes
+   */
+  public static byte[] deflate(byte[] data) {
+    Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+    try {
+      deflater.setInput(data);
+      deflater.finish();
+      ByteArrayOutputStream output =
+          new ByteArrayOutputStream(Math.min(Math.max(data.length / 2, 64), BUFFER_SIZE));
+      byte[] buffer = new byte[BUFFER_SIZE];
+      while (!deflater.finished()) {
+        int length = deflater.deflate(buffer);
+        output.write(buffer, 0, length);
+      }
+      return output.toByteArray();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  /**
+   * Decompresses bytes made by {@link #deflate(byte[])}.
+   *
+   * @param data the compressed bytes
+   * @param originalSize the size of the bytes before compression
+   * @return the original bytes
+   * @throws IllegalStateException if the data is corrupt or doesn't match the original size
+   */
+  public static byte[] inflate(byte[] data, int originalSize) {
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(data);
+      byte[] output = new byte[originalSize];
+      // once the output is full, a byte more only tells whether the stream really ends there
+      byte[] overflow = new byte[1];
+      int length = 0;
+      while (!inflater.finished() && length <= originalSize) {
+        int inflated =
+            length < originalSize
+                ? inflater.inflate(output, length, originalSize - length)
+                : inflater.inflate(overflow);
+        if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          break;
+        }
+        length += inflated;
+      }
+      if (length != originalSize || !inflater.finished()) {
+        throw new IllegalStateException(
+            "Compressed data doesn't match its original size of " + originalSize + " bytes");
+      }
+      return output;
+    } catch (DataFormatException e) {
+      throw new IllegalStateException("Compressed data is corrupt", e);
+    } finally {
+      inflater.end();
+    }
+  }
+}
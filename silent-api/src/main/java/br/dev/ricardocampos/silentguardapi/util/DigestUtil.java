@@ -0,0 +1,22 @@
+package br.dev.ricardocampos.silentguardapi.util;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/** Utility class for the SHA-256 digests that identify stored content and cached tokens. */
+public class DigestUtil {
+
+  /**
+   * Computes the SHA-256 digest of the given bytes.
+   *
+   * @param data the bytes to digest
+   * @return the 32 byte digest
+   */
+  public static byte[] sha256(byte[] data) {
+    try {
+      return MessageDigest.getInstance("SHA-256").digest(data);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 algorithm not available", e);
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package br.dev.ricardocampos.silentguardapi.util;
 
+import java.time.Clock;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.Period;
@@ -16,14 +17,15 @@ public class FormatUtil {
    * Formats a given pastime into a human-readable "time ago" format.
    *
    * @param pastTime the pastime to format
+   * @param clock the clock the elapsed time is measured from
    * @return a string representing the time elapsed since the pastime, or "none" if the input is
    *     null
    */
-  public static String formatTimeAgo(LocalDateTime pastTime) {
+  public static String formatTimeAgo(LocalDateTime pastTime, Clock clock) {
     if (Objects.isNull(pastTime)) {
       return "none";
     }
-    LocalDateTime now = LocalDateTime.now();
+    LocalDateTime now = LocalDateTime.now(clock);
     Period period = Period.between(pastTime.toLocalDate(), now.toLocalDate());
     Duration duration = Duration.between(pastTime, now);
     if (period.getYears() > 1) {
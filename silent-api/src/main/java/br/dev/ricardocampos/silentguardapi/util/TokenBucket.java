@@ -0,0 +1,44 @@
+package br.dev.ricardocampos.silentguardapi.util;
+
+/**
+ * Token bucket rate limiter. The bucket holds up to {@code burst} tokens and refills at a steady
+ * rate; a caller reserves one token per request. Reservations never block: when the bucket is
+ * empty the token is borrowed from the future and the caller is told how long to wait before
+ * using it, so concurrent callers line up one refill interval apart.
+ */
+public class TokenBucket {
+
+  private final double tokensPerNano;
+
+  private final double capacity;
+
+  private double tokens;
+
+  private long refilledAt;
+
+  /**
+   * Constructs a full bucket.
+   *
+   * @param tokensPerSecond the refill rate
+   * @param burst the bucket capacity
+   */
+  public TokenBucket(double tokensPerSecond, int burst) {
+    this.tokensPerNano = tokensPerSecond / 1_000_000_000d;
+    this.capacity = Math.max(1, burst);
+    this.tokens = capacity;
+    this.refilledAt = System.nanoTime();
+  }
+
+  /**
+   * Reserve one token.
+   *
+   * @return how many nanoseconds to wait before the token may be used, 0 if it may be used now
+   */
+  public synchronized long reserve() {
+    long now = System.nanoTime();
+    tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+    refilledAt = now;
+    tokens -= 1;
+    return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / tokensPerNano);
+  }
+}
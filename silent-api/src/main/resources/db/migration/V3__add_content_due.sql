@@ -0,0 +1,10 @@
+ALTER TABLE sg_messages
+  ADD COLUMN IF NOT EXISTS content_due TIMESTAMP NULL DEFAULT NULL;
+
+CREATE INDEX IF NOT EXISTS sg_messages_next_reminder_due_idx
+  ON sg_messages (next_reminder_due)
+  WHERE disabled_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS sg_messages_content_due_idx
+  ON sg_messages (content_due)
+  WHERE disabled_at IS NULL AND content_due IS NOT NULL;
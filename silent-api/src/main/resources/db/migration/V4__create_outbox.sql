@@ -0,0 +1,21 @@
+CREATE TABLE IF NOT EXISTS sg_outbox (
+  id                      BIGSERIAL,
+  message_id              INTEGER NOT NULL,
+  kind                    VARCHAR(20) NOT NULL,
+  recipients              VARCHAR(3000) NOT NULL,
+  confirmation_id         UUID NULL DEFAULT NULL,
+  time_to_respond_seconds BIGINT NULL DEFAULT NULL,
+  attempts                INTEGER NOT NULL DEFAULT 0,
+  next_attempt_at         TIMESTAMP NOT NULL DEFAULT NOW(),
+  last_error              VARCHAR(1000) NULL DEFAULT NULL,
+  created_at              TIMESTAMP NOT NULL DEFAULT NOW(),
+  sent_at                 TIMESTAMP NULL DEFAULT NULL,
+  failed_at               TIMESTAMP NULL DEFAULT NULL,
+  CONSTRAINT sg_outbox_pk PRIMARY KEY (id),
+  CONSTRAINT sg_outbox_message_id_fk FOREIGN KEY (message_id)
+    REFERENCES sg_messages ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS sg_outbox_pending_idx
+  ON sg_outbox (next_attempt_at)
+  WHERE sent_at IS NULL AND failed_at IS NULL;
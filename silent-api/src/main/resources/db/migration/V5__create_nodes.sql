@@ -0,0 +1,8 @@
+CREATE TABLE IF NOT EXISTS sg_nodes (
+  node_id      VARCHAR(100) NOT NULL,
+  started_at   TIMESTAMP NOT NULL DEFAULT NOW(),
+  heartbeat_at TIMESTAMP NOT NULL DEFAULT NOW(),
+  CONSTRAINT sg_nodes_pk PRIMARY KEY (node_id)
+);
+
+CREATE INDEX IF NOT EXISTS sg_nodes_heartbeat_at_idx ON sg_nodes (heartbeat_at);
@@ -0,0 +1,35 @@
+CREATE TABLE IF NOT EXISTS sg_dead_letters (
+  id                      BIGSERIAL,
+  outbox_id               BIGINT NOT NULL,
+  message_id              INTEGER NOT NULL,
+  kind                    VARCHAR(20) NOT NULL,
+  recipients              VARCHAR(3000) NOT NULL,
+  confirmation_id         UUID NULL DEFAULT NULL,
+  time_to_respond_seconds BIGINT NULL DEFAULT NULL,
+  attempts                INTEGER NOT NULL,
+  last_error              VARCHAR(1000) NULL DEFAULT NULL,
+  created_at              TIMESTAMP NOT NULL,
+  dead_at                 TIMESTAMP NOT NULL DEFAULT NOW(),
+  CONSTRAINT sg_dead_letters_pk PRIMARY KEY (id),
+  CONSTRAINT sg_dead_letters_message_id_fk FOREIGN KEY (message_id)
+    REFERENCES sg_messages ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS sg_dead_letters_dead_at_idx ON sg_dead_letters (dead_at);
+
+-- outbox emails that already ran out of attempts move to the dead letters
+INSERT INTO sg_dead_letters (outbox_id, message_id, kind, recipients, confirmation_id,
+  time_to_respond_seconds, attempts, last_error, created_at, dead_at)
+SELECT id, message_id, kind, recipients, confirmation_id, time_to_respond_seconds, attempts,
+  last_error, created_at, failed_at
+FROM sg_outbox
+WHERE failed_at IS NOT NULL;
+
+DELETE FROM sg_outbox WHERE failed_at IS NOT NULL;
+
+DROP INDEX IF EXISTS sg_outbox_pending_idx;
+ALTER TABLE sg_outbox DROP COLUMN failed_at;
+
+CREATE INDEX IF NOT EXISTS sg_outbox_pending_idx
+  ON sg_outbox (next_attempt_at)
+  WHERE sent_at IS NULL;
@@ -0,0 +1,5 @@
+ALTER TABLE sg_messages ALTER COLUMN content_id SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS sg_messages_content_id_idx ON sg_messages (content_id);
+
+ALTER TABLE sg_messages DROP COLUMN content;
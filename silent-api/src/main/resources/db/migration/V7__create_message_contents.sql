@@ -0,0 +1,13 @@
+CREATE TABLE IF NOT EXISTS sg_message_contents (
+  id            BIGSERIAL,
+  data          BYTEA NOT NULL,
+  original_size INTEGER NOT NULL,
+  CONSTRAINT sg_message_contents_pk PRIMARY KEY (id)
+);
+
+-- filled in by the 7.1 Java migration, which compresses the existing contents
+ALTER TABLE sg_messages ADD COLUMN IF NOT EXISTS content_id BIGINT NULL DEFAULT NULL;
+
+ALTER TABLE sg_messages
+  ADD CONSTRAINT sg_messages_content_id_fk FOREIGN KEY (content_id)
+    REFERENCES sg_message_contents;
@@ -0,0 +1,6 @@
+UPDATE sg_message_contents c
+SET ref_count = (SELECT COUNT(*) FROM sg_messages m WHERE m.content_id = c.id);
+
+DELETE FROM sg_message_contents WHERE ref_count = 0;
+
+ALTER TABLE sg_message_contents ALTER COLUMN digest SET NOT NULL;
@@ -0,0 +1,6 @@
+ALTER TABLE sg_message_contents ADD COLUMN IF NOT EXISTS digest BYTEA NULL DEFAULT NULL;
+ALTER TABLE sg_message_contents ADD COLUMN IF NOT EXISTS ref_count INTEGER NOT NULL DEFAULT 0;
+
+-- filled in by the 8.1 Java migration, which digests the existing contents and merges duplicates
+CREATE UNIQUE INDEX IF NOT EXISTS sg_message_contents_digest_idx
+  ON sg_message_contents (digest);
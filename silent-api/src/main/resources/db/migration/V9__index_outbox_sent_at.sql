@@ -0,0 +1,4 @@
+-- sent emails are deleted once older than the retention, oldest first
+CREATE INDEX IF NOT EXISTS sg_outbox_sent_at_idx
+  ON sg_outbox (sent_at)
+  WHERE sent_at IS NOT NULL;
@@ -0,0 +1,33 @@
+package br.dev.ricardocampos.silentguardapi.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Expiry;
+import java.time.Duration;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class CacheConfigTest {
+
+  @Test
+  void userInfoCacheBuilderIsNewOnEveryCall() {
+    CacheConfig cacheConfig = new CacheConfig();
+    ReflectionTestUtils.setField(cacheConfig, "maxSize", 10);
+
+    Cache<String, String> first =
+        cacheConfig
+            .userInfoCacheBuilder()
+            .expireAfter(Expiry.accessing((String key, String value) -> Duration.ofMinutes(1)))
+            .build();
+    Cache<String, String> second =
+        cacheConfig
+            .userInfoCacheBuilder()
+            .expireAfter(Expiry.accessing((String key, String value) -> Duration.ofMinutes(2)))
+            .build();
+
+    Assertions.assertThat(cacheConfig.userInfoCacheBuilder())
+        .isNotSameAs(cacheConfig.userInfoCacheBuilder());
+    Assertions.assertThat(first.policy().eviction().orElseThrow().getMaximum()).isEqualTo(10);
+    Assertions.assertThat(second.policy().expireVariably()).isPresent();
+  }
+}
@@ -0,0 +1,60 @@
+package br.dev.ricardocampos.silentguardapi.config;
+
+import java.util.Properties;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class MailTransportConfigTest {
+
+  private final MailTransportConfig mailTransportConfig = new MailTransportConfig();
+
+  @Test
+  void startTlsIsRequiredAndChecksTheServerName() {
+    Properties properties =
+        mailTransportConfig
+            .smtpMailSender(smtpConfig("starttls", "user"))
+            .getJavaMailProperties();
+
+    Assertions.assertThat(properties)
+        .containsEntry("mail.smtp.starttls.enable", "true")
+        .containsEntry("mail.smtp.starttls.required", "true")
+        .containsEntry("mail.smtp.ssl.checkserveridentity", "true")
+        .containsEntry("mail.smtp.auth", "true");
+  }
+
+  @Test
+  void implicitTlsChecksTheServerName() {
+    Properties properties =
+        mailTransportConfig.smtpMailSender(smtpConfig("implicit", "")).getJavaMailProperties();
+
+    Assertions.assertThat(properties)
+        .containsEntry("mail.smtp.ssl.enable", "true")
+        .containsEntry("mail.smtp.ssl.checkserveridentity", "true")
+        .doesNotContainKey("mail.smtp.auth");
+  }
+
+  @Test
+  void credentialsWithoutTlsAreRefused() {
+    Assertions.assertThatThrownBy(() -> mailTransportConfig.smtpMailSender(smtpConfig("none", "u")))
+        .isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  void unknownTlsModeIsRefused() {
+    Assertions.assertThatThrownBy(() -> mailTransportConfig.smtpMailSender(smtpConfig("ssl", "")))
+        .isInstanceOf(IllegalStateException.class);
+  }
+
+  private static AppConfig smtpConfig(String tls, String username) {
+    AppConfig appConfig = new AppConfig();
+    ReflectionTestUtils.setField(appConfig, "mailgunSender", "no-reply@example.com");
+    ReflectionTestUtils.setField(appConfig, "smtpHost", "smtp.example.com");
+    ReflectionTestUtils.setField(appConfig, "smtpPort", 587);
+    ReflectionTestUtils.setField(appConfig, "smtpTls", tls);
+    ReflectionTestUtils.setField(appConfig, "smtpUsername", username);
+    ReflectionTestUtils.setField(appConfig, "smtpPassword", "secret");
+    ReflectionTestUtils.setField(appConfig, "smtpTimeoutMillis", 10000);
+    return appConfig;
+  }
+}
@@ -0,0 +1,171 @@
+package br.dev.ricardocampos.silentguardapi.mail;
+
+import br.dev.ricardocampos.silentguardapi.config.AppConfig;
+import br.dev.ricardocampos.silentguardapi.dto.CheckInRequestDto;
+import br.dev.ricardocampos.silentguardapi.exception.MailServiceException;
+import jakarta.mail.Address;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import org.assertj.core.api.Assertions;
+import org.eclipse.angus.mail.smtp.SMTPAddressFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSendFailedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class SmtpMailTransportTest {
+
+  private final JavaMailSender mailSender = Mockito.mock(JavaMailSender.class);
+
+  private final SmtpMailTransport transport = newTransport();
+
+  @AfterEach
+  void tearDown() {
+    transport.close();
+  }
+
+  @Test
+  void acceptedEmailGoesToTheFirstRecipientAndCopiesTheOthers() throws MessagingException {
+    boolean sent =
+        transport.sendHtmlContentMessage(
+            List.of("a@example.com", "b@example.com", "c@example.com"), "Olá", "<p>hi</p>");
+
+    ArgumentCaptor<MimeMessage> message = ArgumentCaptor.forClass(MimeMessage.class);
+    Mockito.verify(mailSender).send(message.capture());
+    Assertions.assertThat(sent).isTrue();
+    Assertions.assertThat(addresses(message.getValue(), Message.RecipientType.TO))
+        .containsExactly("a@example.com");
+    Assertions.assertThat(addresses(message.getValue(), Message.RecipientType.CC))
+        .containsExactly("b@example.com", "c@example.com");
+    Assertions.assertThat(message.getValue().getSubject()).isEqualTo("Olá");
+    Assertions.assertThat(message.getValue().getSentDate())
+        .isEqualTo(Date.from(Instant.parse("2026-10-17T12:00:00Z")));
+  }
+
+  @Test
+  void permanentRejectionIsNotSent() {
+    failWith(new SMTPSendFailedException("DATA", 550, "550 no such user", null, null, null, null));
+
+    Assertions.assertThat(transport.sendHtmlContentMessage(List.of("a@example.com"), "s", "h"))
+        .isFalse();
+  }
+
+  @Test
+  void temporaryRejectionOfAnyRecipientIsRetried() throws MessagingException {
+    SendFailedException invalid = new SendFailedException("Invalid Addresses");
+    invalid.setNextException(
+        new SMTPAddressFailedException(address("a@example.com"), "RCPT", 550, "550 unknown"));
+    ((MessagingException) invalid.getNextException())
+        .setNextException(
+            new SMTPAddressFailedException(address("b@example.com"), "RCPT", 451, "451 later"));
+    failWith(invalid);
+
+    Assertions.assertThatThrownBy(
+            () ->
+                transport.sendHtmlContentMessage(
+                    List.of("a@example.com", "b@example.com"), "s", "h"))
+        .isInstanceOf(MailServiceException.class);
+  }
+
+  @Test
+  void failureWithoutAReplyIsRetried() {
+    failWith(new MessagingException("connection reset"));
+
+    Assertions.assertThatThrownBy(
+            () -> transport.sendHtmlContentMessage(List.of("a@example.com"), "s", "h"))
+        .isInstanceOf(MailServiceException.class);
+  }
+
+  @Test
+  void emailAcceptedForSomeRecipientsIsSent() throws MessagingException {
+    failWith(
+        new SendFailedException(
+            "Invalid Addresses",
+            null,
+            new Address[] {address("a@example.com")},
+            null,
+            new Address[] {address("b@example.com")}));
+
+    Assertions.assertThat(
+            transport.sendHtmlContentMessage(List.of("a@example.com", "b@example.com"), "s", "h"))
+        .isTrue();
+  }
+
+  @Test
+  void malformedAddressIsRejectedWithoutSending() {
+    Assertions.assertThat(
+            transport.sendHtmlContentMessage(List.of("a@example.com>\r\nBcc: x"), "s", "h"))
+        .isFalse();
+    Mockito.verify(mailSender, Mockito.never()).send(Mockito.any(MimeMessage.class));
+  }
+
+  @Test
+  void batchLeavesOutTheFailedMessages() {
+    Mockito.doAnswer(
+            invocation -> {
+              MimeMessage rejected = ((MimeMessage[]) invocation.getRawArguments()[0])[1];
+              Exception spam =
+                  new SMTPSendFailedException("DATA", 554, "554 spam", null, null, null, null);
+              throw new MailSendException(Map.of(rejected, spam));
+            })
+        .when(mailSender)
+        .send(Mockito.any(MimeMessage[].class));
+    List<CheckInRequestDto> requests =
+        List.of(request("a@example.com"), request("b@example.com"), request("c@example.com"));
+
+    List<CheckInRequestDto> accepted = transport.sendCheckInBatch(requests);
+
+    Assertions.assertThat(accepted).containsExactly(requests.get(0), requests.get(2));
+  }
+
+  private SmtpMailTransport newTransport() {
+    Mockito.when(mailSender.createMimeMessage())
+        .thenAnswer(invocation -> new MimeMessage(Session.getInstance(new Properties())));
+    AppConfig appConfig = new AppConfig();
+    ReflectionTestUtils.setField(appConfig, "mailgunSender", "no-reply@example.com");
+    ReflectionTestUtils.setField(appConfig, "targetEnv", "development");
+    // one session, so a batch goes out in one send
+    ReflectionTestUtils.setField(appConfig, "smtpConnections", 1);
+    Clock clock = Clock.fixed(Instant.parse("2026-10-17T12:00:00Z"), ZoneOffset.UTC);
+    return new SmtpMailTransport(mailSender, appConfig, clock);
+  }
+
+  private void failWith(Exception error) {
+    Mockito.doAnswer(
+            invocation -> {
+              throw new MailSendException(Map.of(invocation.getArgument(0), error));
+            })
+        .when(mailSender)
+        .send(Mockito.any(MimeMessage.class));
+  }
+
+  private static CheckInRequestDto request(String recipient) {
+    return new CheckInRequestDto(recipient, "confirmation-" + recipient, Duration.ofHours(1));
+  }
+
+  private static InternetAddress address(String address) throws MessagingException {
+    return new InternetAddress(address);
+  }
+
+  private static List<String> addresses(MimeMessage message, Message.RecipientType type)
+      throws MessagingException {
+    return Arrays.stream(message.getRecipients(type)).map(Address::toString).toList();
+  }
+}
@@ -0,0 +1,83 @@
+package br.dev.ricardocampos.silentguardapi.scheduler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ReminderDescriptorStoreTest {
+
+  private final ReminderDescriptorStore store = new ReminderDescriptorStore();
+
+  @Test
+  void putReplacesTheDescriptorOfTheSameMessage() {
+    store.put(descriptor(7, 1));
+    store.put(descriptor(7, 2));
+
+    Assertions.assertThat(store.size()).isEqualTo(1);
+    Assertions.assertThat(store.get(7)).isEqualTo(descriptor(7, 2));
+    Assertions.assertThat(store.get(8)).isNull();
+  }
+
+  @Test
+  void removeShiftsBackTheProbeRunAcrossTheEndOfTheTable() {
+    // all four ids hash to the last slot, so their probe run wraps to the start of the table
+    List<Long> ids = idsWithHome(1023, 4);
+    ids.forEach(id -> store.put(descriptor(id, id)));
+
+    Assertions.assertThat(store.remove(ids.get(0))).isTrue();
+    Assertions.assertThat(store.remove(ids.get(2))).isTrue();
+    Assertions.assertThat(store.remove(ids.get(2))).isFalse();
+
+    Assertions.assertThat(store.size()).isEqualTo(2);
+    Assertions.assertThat(store.get(ids.get(0))).isNull();
+    Assertions.assertThat(store.get(ids.get(1))).isEqualTo(descriptor(ids.get(1), ids.get(1)));
+    Assertions.assertThat(store.get(ids.get(2))).isNull();
+    Assertions.assertThat(store.get(ids.get(3))).isEqualTo(descriptor(ids.get(3), ids.get(3)));
+  }
+
+  @Test
+  void matchesAMapThroughPutsRemovesAndResizes() {
+    Map<Long, ReminderDescriptor> expected = new HashMap<>();
+    Random random = new Random(42);
+    for (int i = 0; i < 20_000; i++) {
+      long id = 1 + random.nextInt(3000);
+      if (random.nextInt(3) == 0) {
+        Assertions.assertThat(store.remove(id)).isEqualTo(expected.remove(id) != null);
+      } else {
+        ReminderDescriptor descriptor = descriptor(id, i);
+        store.put(descriptor);
+        expected.put(id, descriptor);
+      }
+    }
+
+    Assertions.assertThat(store.size()).isEqualTo(expected.size());
+    for (long id = 1; id <= 3000; id++) {
+      Assertions.assertThat(store.get(id)).isEqualTo(expected.get(id));
+    }
+  }
+
+  @Test
+  void rejectsNonPositiveMessageIds() {
+    Assertions.assertThatThrownBy(() -> store.put(descriptor(0, 1)))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static ReminderDescriptor descriptor(long messageId, long userId) {
+    return new ReminderDescriptor(messageId, userId, messageId << 32, 5);
+  }
+
+  // same Fibonacci hash as the store at its initial capacity of 1024 slots
+  private static List<Long> idsWithHome(int home, int count) {
+    List<Long> ids = new ArrayList<>();
+    for (long id = 1; ids.size() < count; id++) {
+      if ((int) ((id * 0x9E3779B97F4A7C15L) >>> 54) == home) {
+        ids.add(id);
+      }
+    }
+    return ids;
+  }
+}
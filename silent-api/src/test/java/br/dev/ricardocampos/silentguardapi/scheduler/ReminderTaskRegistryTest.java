@@ -0,0 +1,132 @@
+package br.dev.ricardocampos.silentguardapi.scheduler;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ReminderTaskRegistryTest {
+
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private final ReminderTaskRegistry registry = new ReminderTaskRegistry(meterRegistry);
+
+  @Test
+  void registeringOverAnArmedReminderCancelsIt() {
+    FakeHandle first = new FakeHandle();
+    FakeHandle second = new FakeHandle();
+
+    registry.register("reminder-1", first);
+    registry.register("reminder-1", second);
+
+    Assertions.assertThat(first.isCancelled()).isTrue();
+    Assertions.assertThat(second.isCancelled()).isFalse();
+    Assertions.assertThat(registry.isArmed("reminder-1")).isTrue();
+    Assertions.assertThat(registry.scheduleIds()).containsExactly("reminder-1");
+    Assertions.assertThat(meterRegistry.get("reminder.registry.replaced").counter().count())
+        .isEqualTo(1);
+  }
+
+  @Test
+  void registeringTheSameHandleAgainKeepsItArmed() {
+    FakeHandle handle = new FakeHandle();
+
+    registry.register("reminder-1", handle);
+    registry.register("reminder-1", handle);
+
+    Assertions.assertThat(handle.isCancelled()).isFalse();
+    Assertions.assertThat(meterRegistry.get("reminder.registry.replaced").counter().count())
+        .isZero();
+  }
+
+  @Test
+  void replacingAFiredReminderIsNotCountedAsReplaced() {
+    FakeHandle fired = new FakeHandle();
+    fired.done = true;
+
+    registry.register("reminder-1", fired);
+    registry.register("reminder-1", new FakeHandle());
+
+    Assertions.assertThat(meterRegistry.get("reminder.registry.replaced").counter().count())
+        .isZero();
+  }
+
+  @Test
+  void cancelRemovesTheReminder() {
+    FakeHandle handle = new FakeHandle();
+    registry.register("reminder-1", handle);
+
+    Assertions.assertThat(registry.cancel("reminder-1")).isTrue();
+    Assertions.assertThat(registry.cancel("reminder-1")).isFalse();
+    Assertions.assertThat(handle.isCancelled()).isTrue();
+    Assertions.assertThat(registry.scheduleIds()).isEmpty();
+  }
+
+  @Test
+  void purgeDropsOnlyDoneReminders() {
+    FakeHandle fired = new FakeHandle();
+    fired.done = true;
+    registry.register("reminder-1", fired);
+    registry.register("reminder-2", new FakeHandle());
+
+    Assertions.assertThat(registry.countDone()).isEqualTo(1);
+    registry.purge();
+
+    Assertions.assertThat(registry.scheduleIds()).containsExactly("reminder-2");
+    Assertions.assertThat(registry.countLive(id -> true)).isEqualTo(1);
+    Assertions.assertThat(registry.countDone()).isZero();
+  }
+
+  @Test
+  void heldRemindersAreCountedPerKindAsTheyComeAndGo() {
+    FakeHandle fired = new FakeHandle();
+    fired.done = true;
+    registry.register("1-check-in", new FakeHandle());
+    registry.register("1-check-in", new FakeHandle());
+    registry.register("1-content", fired);
+    registry.register("2-content", new FakeHandle());
+
+    Assertions.assertThat(registry.countHeld("check-in")).isEqualTo(1);
+    Assertions.assertThat(registry.countHeld("content")).isEqualTo(2);
+    Assertions.assertThat(meterRegistry.get("reminder.registry.tasks").gauge().value())
+        .isEqualTo(3);
+
+    registry.cancel("1-check-in");
+    registry.cancel("1-check-in");
+    registry.purge();
+
+    Assertions.assertThat(registry.countHeld("check-in")).isZero();
+    Assertions.assertThat(registry.countHeld("content")).isEqualTo(1);
+    Assertions.assertThat(meterRegistry.get("reminder.registry.tasks").gauge().value())
+        .isEqualTo(1);
+    Assertions.assertThat(meterRegistry.get("reminder.registry.purged").counter().count())
+        .isEqualTo(1);
+  }
+
+  private static class FakeHandle implements ReminderHandle {
+
+    private boolean cancelled;
+
+    private boolean done;
+
+    @Override
+    public boolean cancel() {
+      if (done) {
+        return false;
+      }
+      cancelled = true;
+      done = true;
+      return true;
+    }
+
+    @Override
+    public boolean isCancelled() {
+      return cancelled;
+    }
+
+    @Override
+    public boolean isDone() {
+      return done;
+    }
+  }
+}
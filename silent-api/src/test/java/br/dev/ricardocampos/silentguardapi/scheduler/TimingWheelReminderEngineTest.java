@@ -0,0 +1,127 @@
+package br.dev.ricardocampos.silentguardapi.scheduler;
+
+import br.dev.ricardocampos.silentguardapi.config.SchedulerConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.assertj.core.api.Assertions;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class TimingWheelReminderEngineTest {
+
+  private ReminderDispatcher dispatcher;
+
+  private TimingWheelReminderEngine engine;
+
+  @BeforeEach
+  void setUp() {
+    SchedulerConfig schedulerConfig = new SchedulerConfig();
+    ReflectionTestUtils.setField(schedulerConfig, "dispatchType", "platform");
+    ReflectionTestUtils.setField(schedulerConfig, "dispatchConcurrency", 1);
+    ReflectionTestUtils.setField(schedulerConfig, "dispatchQueueCapacity", 1);
+    dispatcher = new ReminderDispatcher(schedulerConfig, new SimpleMeterRegistry());
+    engine = new TimingWheelReminderEngine(5, 8, dispatcher);
+  }
+
+  @AfterEach
+  void tearDown() {
+    engine.shutdown();
+    dispatcher.shutdown();
+  }
+
+  @Test
+  void fullDispatchQueueWithReArmingHandlersKeepsFiring() {
+    AtomicInteger runs = new AtomicInteger();
+    Instant start = Instant.now().plusMillis(20);
+    for (int i = 0; i < 50; i++) {
+      engine.scheduleAtFixedRate(
+          () -> {
+            runs.incrementAndGet();
+            sleep(1);
+          },
+          start,
+          Duration.ofMillis(10));
+    }
+
+    Awaitility.await().atMost(Duration.ofSeconds(10)).until(() -> runs.get() >= 500);
+  }
+
+  @Test
+  void fullDispatchQueueWithHandlersArmingOneShotsKeepsFiring() {
+    AtomicInteger followUps = new AtomicInteger();
+    Instant start = Instant.now().plusMillis(20);
+    for (int i = 0; i < 50; i++) {
+      engine.schedule(
+          () -> {
+            sleep(1);
+            engine.schedule(followUps::incrementAndGet, Instant.now().plusMillis(15));
+          },
+          start);
+    }
+
+    Awaitility.await().atMost(Duration.ofSeconds(10)).until(() -> followUps.get() == 50);
+  }
+
+  @Test
+  void periodicReminderKeepsItsRateWhateverTheHandlerTakes() {
+    List<Long> runs = new CopyOnWriteArrayList<>();
+    Instant start = Instant.now().plusMillis(20);
+    engine.scheduleAtFixedRate(
+        () -> {
+          runs.add(System.currentTimeMillis());
+          sleep(40);
+        },
+        start,
+        Duration.ofMillis(60));
+
+    Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> runs.size() >= 8);
+    // on time the eighth run starts 7 * 60 ms after the start, drifting it would take 7 * 100 ms
+    Assertions.assertThat(runs.get(7) - start.toEpochMilli()).isBetween(7 * 60L - 10, 7 * 80L);
+  }
+
+  @Test
+  void periodicReminderSkipsTheRunsItMissed() {
+    List<Long> runs = new CopyOnWriteArrayList<>();
+    engine.scheduleAtFixedRate(
+        () -> {
+          runs.add(System.currentTimeMillis());
+          sleep(runs.size() == 1 ? 130 : 0);
+        },
+        Instant.now().plusMillis(20),
+        Duration.ofMillis(50));
+
+    Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> runs.size() >= 3);
+    // the runs due at +50 and +100 are skipped, the next one is due at +150
+    Assertions.assertThat(runs.get(1) - runs.get(0)).isGreaterThanOrEqualTo(140);
+    Assertions.assertThat(runs.get(2) - runs.get(1)).isGreaterThanOrEqualTo(40);
+  }
+
+  @Test
+  void cancelledReminderDoesNotFire() {
+    AtomicInteger runs = new AtomicInteger();
+    ReminderHandle cancelled = engine.schedule(runs::incrementAndGet, Instant.now().plusMillis(30));
+    engine.schedule(runs::incrementAndGet, Instant.now().plusMillis(30));
+
+    Assertions.assertThat(cancelled.cancel()).isTrue();
+    Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> runs.get() == 1);
+    sleep(100);
+    Assertions.assertThat(runs).hasValue(1);
+    Assertions.assertThat(cancelled.isDone()).isTrue();
+    Assertions.assertThat(engine.size()).isZero();
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
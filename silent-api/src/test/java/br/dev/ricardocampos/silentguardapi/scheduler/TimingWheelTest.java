@@ -0,0 +1,98 @@
+package br.dev.ricardocampos.silentguardapi.scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class TimingWheelTest {
+
+  private final AtomicInteger taskCounter = new AtomicInteger();
+
+  private final DelayQueue<TimerTaskList> queue = new DelayQueue<>();
+
+  // ten buckets of 10 ms each, so the first level spans 1000 to 1100
+  private final TimingWheel wheel = new TimingWheel(10, 10, 1000, taskCounter, queue);
+
+  @Test
+  void entryWithinTheSpanIsQueuedInItsBucket() {
+    Assertions.assertThat(wheel.add(entry(1015))).isTrue();
+    Assertions.assertThat(wheel.add(entry(1017))).isTrue();
+
+    Assertions.assertThat(taskCounter).hasValue(2);
+    Assertions.assertThat(queue).hasSize(1);
+    Assertions.assertThat(queue.peek().getExpiration()).isEqualTo(1010);
+  }
+
+  @Test
+  void dueOrCancelledEntryIsHandedBack() {
+    TimerTaskEntry cancelled = entry(1050);
+    cancelled.cancelled = true;
+
+    Assertions.assertThat(wheel.add(entry(1009))).isFalse();
+    Assertions.assertThat(wheel.add(cancelled)).isFalse();
+    Assertions.assertThat(taskCounter).hasValue(0);
+    Assertions.assertThat(queue).isEmpty();
+  }
+
+  @Test
+  void removedEntryIsUnlinkedFromItsBucket() {
+    TimerTaskEntry kept = entry(1015);
+    TimerTaskEntry removed = entry(1015);
+    wheel.add(kept);
+    wheel.add(removed);
+
+    removed.remove();
+
+    Assertions.assertThat(taskCounter).hasValue(1);
+    Assertions.assertThat(removed.list).isNull();
+    Assertions.assertThat(flush(queue.peek())).containsExactly(kept);
+  }
+
+  @Test
+  void bucketIsReusedAndRequeuedOnTheNextRound() {
+    wheel.add(entry(1015));
+    TimerTaskList bucket = queue.poll();
+    flush(bucket);
+    wheel.advanceClock(1100);
+
+    // same slot one round later
+    TimerTaskEntry nextRound = entry(1115);
+    Assertions.assertThat(wheel.add(nextRound)).isTrue();
+
+    Assertions.assertThat(queue.peek()).isSameAs(bucket);
+    Assertions.assertThat(bucket.getExpiration()).isEqualTo(1110);
+    Assertions.assertThat(flush(bucket)).containsExactly(nextRound);
+  }
+
+  @Test
+  void entryBeyondTheSpanCascadesFromTheOverflowWheel() {
+    TimerTaskEntry far = entry(1234);
+    Assertions.assertThat(wheel.add(far)).isTrue();
+
+    // the overflow wheel has buckets of 100 ms
+    TimerTaskList overflowBucket = queue.poll();
+    Assertions.assertThat(overflowBucket.getExpiration()).isEqualTo(1200);
+
+    wheel.advanceClock(1200);
+    List<TimerTaskEntry> reinserted = flush(overflowBucket);
+    reinserted.forEach(wheel::add);
+
+    Assertions.assertThat(reinserted).containsExactly(far);
+    Assertions.assertThat(queue).hasSize(1);
+    Assertions.assertThat(queue.peek().getExpiration()).isEqualTo(1230);
+    Assertions.assertThat(taskCounter).hasValue(1);
+  }
+
+  private static TimerTaskEntry entry(long expirationMs) {
+    return new TimerTaskEntry(() -> {}, expirationMs);
+  }
+
+  private static List<TimerTaskEntry> flush(TimerTaskList bucket) {
+    List<TimerTaskEntry> entries = new ArrayList<>();
+    bucket.flush(entries::add);
+    return entries;
+  }
+}
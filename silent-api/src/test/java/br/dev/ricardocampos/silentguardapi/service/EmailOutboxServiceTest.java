@@ -0,0 +1,186 @@
+package br.dev.ricardocampos.silentguardapi.service;
+
+import br.dev.ricardocampos.silentguardapi.config.SchedulerConfig;
+import br.dev.ricardocampos.silentguardapi.entity.MessageEntity;
+import br.dev.ricardocampos.silentguardapi.entity.OutboxEntity;
+import br.dev.ricardocampos.silentguardapi.enums.OutboxKindEnum;
+import br.dev.ricardocampos.silentguardapi.mail.MailTransport;
+import br.dev.ricardocampos.silentguardapi.repository.DeadLetterRepository;
+import br.dev.ricardocampos.silentguardapi.repository.MessageRepository;
+import br.dev.ricardocampos.silentguardapi.repository.OutboxRepository;
+import br.dev.ricardocampos.silentguardapi.scheduler.ReminderMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class EmailOutboxServiceTest {
+
+  private static final Clock CLOCK =
+      Clock.fixed(Instant.parse("2026-10-17T12:00:00Z"), ZoneOffset.UTC);
+
+  private static final LocalDateTime NOW = LocalDateTime.now(CLOCK);
+
+  private final OutboxRepository outboxRepository = Mockito.mock(OutboxRepository.class);
+
+  private final DeadLetterRepository deadLetterRepository =
+      Mockito.mock(DeadLetterRepository.class);
+
+  private final MessageRepository messageRepository = Mockito.mock(MessageRepository.class);
+
+  private final MessageContentService messageContentService =
+      Mockito.mock(MessageContentService.class);
+
+  private final MailTransport mailTransport = Mockito.mock(MailTransport.class);
+
+  private final TransactionTemplate transactionTemplate = Mockito.mock(TransactionTemplate.class);
+
+  private final AtomicBoolean inTransaction = new AtomicBoolean();
+
+  @Test
+  void purgeSentDeletesInBatchesUntilOneIsNotFull() {
+    EmailOutboxService service = newService(168, 1000);
+    LocalDateTime sentBefore = LocalDateTime.of(2026, 10, 10, 12, 0);
+    Mockito.when(outboxRepository.deleteSentBefore(sentBefore, 1000)).thenReturn(1000, 1000, 3);
+
+    service.purgeSent();
+
+    Mockito.verify(outboxRepository, Mockito.times(3)).deleteSentBefore(sentBefore, 1000);
+  }
+
+  @Test
+  void purgeSentStopsAtTheFirstEmptyBatch() {
+    EmailOutboxService service = newService(24, 500);
+
+    service.purgeSent();
+
+    Mockito.verify(outboxRepository).deleteSentBefore(LocalDateTime.of(2026, 10, 16, 12, 0), 500);
+    Mockito.verifyNoMoreInteractions(outboxRepository);
+  }
+
+  @Test
+  void dispatchSendsLeasedEmailsOutsideTheClaimTransaction() {
+    EmailOutboxService service = newService(168, 1000);
+    OutboxEntity claimed = newContentOutbox();
+    stubContentClaim(claimed);
+    AtomicReference<LocalDateTime> leasedUntil = new AtomicReference<>();
+    Mockito.when(
+            mailTransport.sendHtmlContentMessageAsync(
+                Mockito.any(), Mockito.any(), Mockito.any()))
+        .thenAnswer(
+            invocation -> {
+              leasedUntil.set(claimed.getNextAttemptAt());
+              return CompletableFuture.completedFuture(!inTransaction.get());
+            });
+    OutboxEntity row = newContentOutbox();
+    Mockito.when(outboxRepository.findAllById(Mockito.any())).thenReturn(List.of(row));
+
+    service.dispatchPending();
+
+    Assertions.assertThat(leasedUntil.get()).isEqualTo(NOW.plusSeconds(300));
+    Assertions.assertThat(row.getAttempts()).isEqualTo(1);
+    Assertions.assertThat(row.getSentAt()).isEqualTo(NOW);
+  }
+
+  @Test
+  void dispatchSkipsEmailsDeletedWhileSending() {
+    EmailOutboxService service = newService(168, 1000);
+    stubContentClaim(newContentOutbox());
+    Mockito.when(
+            mailTransport.sendHtmlContentMessageAsync(
+                Mockito.any(), Mockito.any(), Mockito.any()))
+        .thenReturn(CompletableFuture.completedFuture(true));
+    Mockito.when(outboxRepository.findAllById(Mockito.any())).thenReturn(List.of());
+
+    service.dispatchPending();
+
+    Mockito.verify(outboxRepository).findAllById(Set.of(5L));
+    Mockito.verify(outboxRepository, Mockito.never()).deleteAll(Mockito.any());
+    Mockito.verifyNoInteractions(deadLetterRepository);
+  }
+
+  private void stubContentClaim(OutboxEntity claimed) {
+    Mockito.when(
+            outboxRepository.claimPending(
+                Mockito.eq(OutboxKindEnum.CONTENT.name()), Mockito.any(), Mockito.anyInt()))
+        .thenReturn(List.of(claimed));
+    MessageEntity message = new MessageEntity();
+    message.setId(claimed.getMessageId());
+    message.setSubject("Subject");
+    message.setContentId(11L);
+    Mockito.when(messageRepository.findById(claimed.getMessageId()))
+        .thenReturn(Optional.of(message));
+    Mockito.when(messageContentService.load(11L)).thenReturn(Optional.of("content"));
+  }
+
+  private static OutboxEntity newContentOutbox() {
+    OutboxEntity outbox = new OutboxEntity();
+    outbox.setId(5L);
+    outbox.setMessageId(7L);
+    outbox.setKind(OutboxKindEnum.CONTENT.name());
+    outbox.setRecipients("target@example.com");
+    outbox.setAttempts(0);
+    outbox.setNextAttemptAt(NOW);
+    outbox.setCreatedAt(NOW);
+    return outbox;
+  }
+
+  private EmailOutboxService newService(long retentionHours, int batchSize) {
+    SchedulerConfig schedulerConfig = new SchedulerConfig();
+    ReflectionTestUtils.setField(schedulerConfig, "outboxRetentionHours", retentionHours);
+    ReflectionTestUtils.setField(schedulerConfig, "outboxRetentionBatchSize", batchSize);
+    ReflectionTestUtils.setField(schedulerConfig, "outboxBatchSize", 50);
+    ReflectionTestUtils.setField(schedulerConfig, "outboxCheckInBatchSize", 1000);
+    ReflectionTestUtils.setField(schedulerConfig, "outboxMaxAttempts", 8);
+    ReflectionTestUtils.setField(schedulerConfig, "outboxLeaseSeconds", 300L);
+    Mockito.when(mailTransport.isAvailable()).thenReturn(true);
+    Mockito.when(mailTransport.maxBatchSize()).thenReturn(1000);
+    Mockito.when(transactionTemplate.execute(Mockito.any()))
+        .thenAnswer(
+            invocation -> {
+              inTransaction.set(true);
+              try {
+                return invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null);
+              } finally {
+                inTransaction.set(false);
+              }
+            });
+    Mockito.doAnswer(
+            invocation -> {
+              inTransaction.set(true);
+              try {
+                invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+                return null;
+              } finally {
+                inTransaction.set(false);
+              }
+            })
+        .when(transactionTemplate)
+        .executeWithoutResult(Mockito.any());
+    return new EmailOutboxService(
+        outboxRepository,
+        deadLetterRepository,
+        messageRepository,
+        messageContentService,
+        mailTransport,
+        schedulerConfig,
+        transactionTemplate,
+        new ReminderMetrics(new SimpleMeterRegistry(), CLOCK),
+        CLOCK);
+  }
+}
@@ -0,0 +1,82 @@
+package br.dev.ricardocampos.silentguardapi.service;
+
+import br.dev.ricardocampos.silentguardapi.config.SchedulerConfig;
+import br.dev.ricardocampos.silentguardapi.repository.NodeRepository;
+import br.dev.ricardocampos.silentguardapi.scheduler.ShardAssignmentChangedEvent;
+import java.util.List;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class NodeMembershipServiceTest {
+
+  private final NodeRepository nodeRepository = Mockito.mock(NodeRepository.class);
+
+  private final ApplicationEventPublisher eventPublisher =
+      Mockito.mock(ApplicationEventPublisher.class);
+
+  private NodeMembershipService service;
+
+  @AfterEach
+  void tearDown() {
+    service.leave();
+  }
+
+  @Test
+  void freshHeartbeatFiresAndKeepsTheSlots() {
+    service = join(30);
+
+    service.heartbeat();
+
+    Assertions.assertThat(service.isHeartbeatFresh()).isTrue();
+    Assertions.assertThat(service.getOwnedSlots()).hasSize(16);
+    Mockito.verifyNoInteractions(eventPublisher);
+  }
+
+  @Test
+  void lateHeartbeatStopsFiringThenReloadsTheSlots() {
+    service = join(0);
+
+    Assertions.assertThat(service.isHeartbeatFresh()).isFalse();
+    service.heartbeat();
+
+    ArgumentCaptor<ShardAssignmentChangedEvent> events =
+        ArgumentCaptor.forClass(ShardAssignmentChangedEvent.class);
+    Mockito.verify(eventPublisher, Mockito.times(2)).publishEvent(events.capture());
+    Assertions.assertThat(events.getAllValues().get(0).lostSlots()).hasSize(16);
+    Assertions.assertThat(events.getAllValues().get(0).gainedSlots()).isEmpty();
+    Assertions.assertThat(events.getAllValues().get(1).lostSlots()).isEmpty();
+    Assertions.assertThat(events.getAllValues().get(1).gainedSlots()).hasSize(16);
+    Assertions.assertThat(service.getOwnedSlots()).hasSize(16);
+  }
+
+  @Test
+  void failedHeartbeatPastTheTimeToLiveReleasesTheSlots() {
+    service = join(0);
+    Mockito.when(nodeRepository.heartbeat("node-a")).thenThrow(new IllegalStateException("down"));
+
+    service.heartbeat();
+
+    Assertions.assertThat(service.getOwnedSlots()).isEmpty();
+    Mockito.verify(eventPublisher).publishEvent(Mockito.any(ShardAssignmentChangedEvent.class));
+  }
+
+  private NodeMembershipService join(int ttlSeconds) {
+    SchedulerConfig schedulerConfig = new SchedulerConfig();
+    ReflectionTestUtils.setField(schedulerConfig, "shardingNodeId", "node-a");
+    ReflectionTestUtils.setField(schedulerConfig, "shardingNodeTtlSeconds", ttlSeconds);
+    ReflectionTestUtils.setField(schedulerConfig, "shardingHeartbeatIntervalMillis", 3_600_000L);
+    ReflectionTestUtils.setField(schedulerConfig, "shardingVirtualNodes", 8);
+    ReflectionTestUtils.setField(schedulerConfig, "shardingSlotCount", 16);
+    Mockito.when(nodeRepository.findLiveNodeIds(ttlSeconds)).thenReturn(List.of("node-a"));
+
+    NodeMembershipService membership =
+        new NodeMembershipService(nodeRepository, schedulerConfig, eventPublisher);
+    membership.join();
+    return membership;
+  }
+}
@@ -0,0 +1,251 @@
+package br.dev.ricardocampos.silentguardapi.service;
+
+import br.dev.ricardocampos.silentguardapi.config.SchedulerConfig;
+import br.dev.ricardocampos.silentguardapi.dto.ActiveReminderDto;
+import br.dev.ricardocampos.silentguardapi.entity.MessageEntity;
+import br.dev.ricardocampos.silentguardapi.mail.MailTransport;
+import br.dev.ricardocampos.silentguardapi.repository.MessageRepository;
+import br.dev.ricardocampos.silentguardapi.scheduler.ReminderCatchUpQueue;
+import br.dev.ricardocampos.silentguardapi.scheduler.ReminderDescriptorStore;
+import br.dev.ricardocampos.silentguardapi.scheduler.ReminderEngine;
+import br.dev.ricardocampos.silentguardapi.scheduler.ReminderHandle;
+import br.dev.ricardocampos.silentguardapi.scheduler.ReminderMetrics;
+import br.dev.ricardocampos.silentguardapi.scheduler.ReminderTaskRegistry;
+import br.dev.ricardocampos.silentguardapi.scheduler.ShardAssignmentChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.assertj.core.api.Assertions;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class PersistentReminderServiceTest {
+
+  private static final Clock CLOCK =
+      Clock.fixed(Instant.parse("2026-10-17T12:00:00Z"), ZoneOffset.UTC);
+
+  private static final Duration HOUR = Duration.ofHours(1);
+
+  private static final UUID REMINDER_UUID =
+      UUID.fromString("6f1c2d3e-4b5a-4c6d-8e7f-9a0b1c2d3e4f");
+
+  private static final LocalDateTime NOW = LocalDateTime.now(CLOCK);
+
+  private static final long MESSAGE_ID = 7L;
+
+  private final MessageRepository messageRepository = Mockito.mock(MessageRepository.class);
+
+  private final ReminderEngine reminderEngine = Mockito.mock(ReminderEngine.class);
+
+  private final MailTransport mailTransport = Mockito.mock(MailTransport.class);
+
+  private final TransactionTemplate transactionTemplate = Mockito.mock(TransactionTemplate.class);
+
+  private final SchedulerConfig schedulerConfig = new SchedulerConfig();
+
+  private final PersistentReminderService service = newService();
+
+  @AfterEach
+  void tearDown() {
+    service.shutdown();
+  }
+
+  @Test
+  void shardHandoffDoesNotHoldThePublishingThread() throws InterruptedException {
+    CountDownLatch reloading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Mockito.when(messageRepository.findMaxActiveId())
+        .thenAnswer(
+            invocation -> {
+              reloading.countDown();
+              release.await();
+              return 10L;
+            });
+
+    long startNanos = System.nanoTime();
+    service.onShardAssignmentChanged(new ShardAssignmentChangedEvent(Set.of(), Set.of(1L), 16));
+
+    Assertions.assertThat(Duration.ofNanos(System.nanoTime() - startNanos))
+        .isLessThan(Duration.ofSeconds(1));
+    Assertions.assertThat(reloading.await(5, TimeUnit.SECONDS)).isTrue();
+    release.countDown();
+    Awaitility.await()
+        .atMost(Duration.ofSeconds(5))
+        .untilAsserted(
+            () ->
+                Mockito.verify(messageRepository)
+                    .findActiveReminderPageInSlots(
+                        Mockito.eq(0L),
+                        Mockito.eq(10L),
+                        Mockito.anyLong(),
+                        Mockito.eq(Set.of(1L)),
+                        Mockito.any()));
+  }
+
+  @Test
+  void checkInIsSentThenCompletedOnceClaimed() {
+    Runnable checkIn = armCheckIn(NOW);
+    Mockito.when(messageRepository.claimCheckIn(MESSAGE_ID, NOW, NOW.plusHours(1))).thenReturn(1);
+    Mockito.when(
+            mailTransport.sendCheckInRequest(Mockito.any(), Mockito.any(), Mockito.any()))
+        .thenReturn(true);
+    Mockito.when(
+            messageRepository.completeCheckIn(
+                Mockito.eq(MESSAGE_ID), Mockito.eq(NOW.plusHours(1)), Mockito.any()))
+        .thenReturn(1);
+
+    checkIn.run();
+
+    Mockito.verify(mailTransport)
+        .sendCheckInRequest(List.of("owner@example.com"), REMINDER_UUID.toString(), HOUR);
+    Mockito.verify(messageRepository)
+        .completeCheckIn(Mockito.eq(MESSAGE_ID), Mockito.eq(NOW.plusHours(1)), Mockito.any());
+  }
+
+  @Test
+  void checkInClaimedByAnotherNodeIsNotSent() {
+    Runnable checkIn = armCheckIn(NOW);
+    Mockito.when(messageRepository.claimCheckIn(MESSAGE_ID, NOW, NOW.plusHours(1))).thenReturn(0);
+
+    checkIn.run();
+
+    Mockito.verifyNoInteractions(mailTransport);
+    Mockito.verify(messageRepository, Mockito.never())
+        .completeCheckIn(Mockito.anyLong(), Mockito.any(), Mockito.any());
+  }
+
+  @Test
+  void checkInAlreadySentIsNotClaimedAgain() {
+    Runnable checkIn = armCheckIn(NOW.plusHours(1));
+
+    checkIn.run();
+
+    Mockito.verifyNoInteractions(mailTransport);
+    Mockito.verify(messageRepository, Mockito.never())
+        .claimCheckIn(Mockito.anyLong(), Mockito.any(), Mockito.any());
+  }
+
+  @Test
+  void rejectedCheckInIsReleasedToItsDueTime() {
+    Runnable checkIn = armCheckIn(NOW);
+    Mockito.when(messageRepository.claimCheckIn(MESSAGE_ID, NOW, NOW.plusHours(1))).thenReturn(1);
+    Mockito.when(
+            mailTransport.sendCheckInRequest(Mockito.any(), Mockito.any(), Mockito.any()))
+        .thenReturn(false);
+
+    checkIn.run();
+
+    Mockito.verify(messageRepository).releaseCheckIn(MESSAGE_ID, NOW.plusHours(1), NOW, NOW);
+    Mockito.verify(messageRepository, Mockito.never())
+        .completeCheckIn(Mockito.anyLong(), Mockito.any(), Mockito.any());
+  }
+
+  @Test
+  void contentClaimedByAnotherNodeIsNotSent() {
+    MessageEntity message = newMessage(NOW.plusHours(1));
+    message.setContentDue(NOW);
+    Mockito.when(messageRepository.findById(MESSAGE_ID)).thenReturn(Optional.of(message));
+    Mockito.when(messageRepository.claimContent(MESSAGE_ID, NOW, NOW)).thenReturn(0);
+    ArgumentCaptor<Runnable> content = ArgumentCaptor.forClass(Runnable.class);
+    Mockito.when(reminderEngine.schedule(content.capture(), Mockito.any()))
+        .thenReturn(Mockito.mock(ReminderHandle.class));
+    Runnable checkIn = armCheckIn(NOW);
+    Mockito.when(messageRepository.claimCheckIn(MESSAGE_ID, NOW, NOW.plusHours(1))).thenReturn(1);
+    Mockito.when(
+            mailTransport.sendCheckInRequest(Mockito.any(), Mockito.any(), Mockito.any()))
+        .thenReturn(true);
+    Mockito.when(
+            messageRepository.completeCheckIn(
+                Mockito.eq(MESSAGE_ID), Mockito.eq(NOW.plusHours(1)), Mockito.any()))
+        .thenReturn(1);
+    checkIn.run();
+
+    content.getValue().run();
+
+    Mockito.verify(messageRepository).claimContent(MESSAGE_ID, NOW, NOW);
+    Mockito.verify(mailTransport, Mockito.never())
+        .sendHtmlContentMessage(Mockito.any(), Mockito.any(), Mockito.any());
+  }
+
+  /** Arm an hourly check-in due at the given time, and return the task the engine would run. */
+  private Runnable armCheckIn(LocalDateTime nextReminderDue) {
+    Mockito.when(messageRepository.findActiveReminder(MESSAGE_ID))
+        .thenReturn(
+            Optional.of(
+                new ActiveReminderDto(
+                    MESSAGE_ID,
+                    3L,
+                    "owner@example.com",
+                    REMINDER_UUID,
+                    nextReminderDue,
+                    1,
+                    "hours",
+                    null)));
+    ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+    Mockito.when(
+            reminderEngine.scheduleAtFixedRate(task.capture(), Mockito.any(), Mockito.any()))
+        .thenReturn(Mockito.mock(ReminderHandle.class));
+    service.scheduleCheckingMessage(newMessage(NOW));
+    return task.getValue();
+  }
+
+  private static MessageEntity newMessage(LocalDateTime nextReminderDue) {
+    MessageEntity message = new MessageEntity();
+    message.setId(MESSAGE_ID);
+    message.setUserId(3L);
+    message.setNextReminderDue(nextReminderDue);
+    message.setNumberToTrigger(1);
+    message.setTypeToTrigger("hours");
+    message.setTargets("target@example.com");
+    message.setSubject("Subject");
+    return message;
+  }
+
+  @SuppressWarnings("unchecked")
+  private PersistentReminderService newService() {
+    ReflectionTestUtils.setField(schedulerConfig, "restorePageSize", 100);
+    ReflectionTestUtils.setField(schedulerConfig, "shardingSlotCount", 16);
+    Mockito.when(
+            messageRepository.findActiveReminderPageInSlots(
+                Mockito.anyLong(),
+                Mockito.anyLong(),
+                Mockito.anyLong(),
+                Mockito.any(),
+                Mockito.any()))
+        .thenReturn(List.of());
+    Mockito.when(transactionTemplate.execute(Mockito.any()))
+        .thenAnswer(
+            invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    return new PersistentReminderService(
+        reminderEngine,
+        messageRepository,
+        Mockito.mock(MessageContentService.class),
+        mailTransport,
+        schedulerConfig,
+        Mockito.mock(ReminderCatchUpQueue.class),
+        Mockito.mock(EmailOutboxService.class),
+        transactionTemplate,
+        Mockito.mock(ObjectProvider.class),
+        new ReminderDescriptorStore(),
+        new ReminderMetrics(new SimpleMeterRegistry(), CLOCK),
+        new ReminderTaskRegistry(new SimpleMeterRegistry()),
+        CLOCK);
+  }
+}
@@ -0,0 +1,159 @@
+package br.dev.ricardocampos.silentguardapi.service;
+
+import br.dev.ricardocampos.silentguardapi.config.SchedulerConfig;
+import br.dev.ricardocampos.silentguardapi.entity.MessageEntity;
+import br.dev.ricardocampos.silentguardapi.entity.UserEntity;
+import br.dev.ricardocampos.silentguardapi.mail.MailTransport;
+import br.dev.ricardocampos.silentguardapi.repository.MessageRepository;
+import br.dev.ricardocampos.silentguardapi.repository.UserRepository;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class ReminderPollingServiceTest {
+
+  private static final Clock CLOCK =
+      Clock.fixed(Instant.parse("2026-10-17T12:00:00Z"), ZoneOffset.UTC);
+
+  private static final LocalDateTime NOW = LocalDateTime.now(CLOCK);
+
+  private static final long MESSAGE_ID = 7L;
+
+  private final MessageRepository messageRepository = Mockito.mock(MessageRepository.class);
+
+  private final UserRepository userRepository = Mockito.mock(UserRepository.class);
+
+  private final MessageContentService messageContentService =
+      Mockito.mock(MessageContentService.class);
+
+  private final MailTransport mailTransport = Mockito.mock(MailTransport.class);
+
+  private final TransactionTemplate transactionTemplate = Mockito.mock(TransactionTemplate.class);
+
+  private final SchedulerConfig schedulerConfig = new SchedulerConfig();
+
+  private final AtomicBoolean inTransaction = new AtomicBoolean();
+
+  private ReminderPollingService service;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    ReflectionTestUtils.setField(schedulerConfig, "pollingBatchSize", 10);
+    ReflectionTestUtils.setField(schedulerConfig, "pollingRetryDelaySeconds", 60);
+    Mockito.when(transactionTemplate.execute(Mockito.any()))
+        .thenAnswer(
+            invocation -> {
+              inTransaction.set(true);
+              try {
+                return invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null);
+              } finally {
+                inTransaction.set(false);
+              }
+            });
+    Mockito.doAnswer(
+            invocation -> {
+              invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+              return null;
+            })
+        .when(transactionTemplate)
+        .executeWithoutResult(Mockito.any());
+
+    UserEntity user = new UserEntity();
+    user.setId(3L);
+    user.setEmail("owner@example.com");
+    Mockito.when(userRepository.findAllById(Mockito.any())).thenReturn(List.of(user));
+    Mockito.when(messageRepository.claimDueCheckIns(Mockito.any(), Mockito.anyInt()))
+        .thenReturn(List.of(newMessage()))
+        .thenReturn(List.of());
+    Mockito.when(messageRepository.claimDueContents(Mockito.any(), Mockito.anyInt()))
+        .thenReturn(List.of());
+
+    service =
+        new ReminderPollingService(
+            messageRepository,
+            userRepository,
+            messageContentService,
+            mailTransport,
+            Mockito.mock(EmailOutboxService.class),
+            schedulerConfig,
+            transactionTemplate,
+            CLOCK);
+  }
+
+  @Test
+  void checkInIsSentAfterTheClaimCommits() {
+    Mockito.when(mailTransport.sendCheckInRequest(Mockito.any(), Mockito.any(), Mockito.any()))
+        .thenAnswer(invocation -> !inTransaction.get());
+
+    service.pollDueReminders();
+
+    Mockito.verify(mailTransport)
+        .sendCheckInRequest(
+            Mockito.eq(List.of("owner@example.com")), Mockito.any(), Mockito.any());
+    Mockito.verify(messageRepository)
+        .completeCheckIn(Mockito.eq(MESSAGE_ID), Mockito.eq(NOW.plusHours(1)), Mockito.any());
+    Mockito.verify(messageRepository, Mockito.never())
+        .releaseCheckIn(Mockito.anyLong(), Mockito.any(), Mockito.any(), Mockito.any());
+  }
+
+  @Test
+  void rejectedCheckInIsReleasedWithoutMovingItsContent() {
+    Mockito.when(mailTransport.sendCheckInRequest(Mockito.any(), Mockito.any(), Mockito.any()))
+        .thenReturn(false);
+
+    service.pollDueReminders();
+
+    Mockito.verify(messageRepository)
+        .releaseCheckIn(MESSAGE_ID, NOW.plusHours(1), NOW.plusSeconds(60), NOW);
+    Mockito.verify(messageRepository, Mockito.never())
+        .completeCheckIn(Mockito.anyLong(), Mockito.any(), Mockito.any());
+  }
+
+  @Test
+  void rejectedContentIsReleased() {
+    MessageEntity message = newMessage();
+    message.setContentDue(NOW);
+    Mockito.when(messageRepository.claimDueContents(Mockito.any(), Mockito.anyInt()))
+        .thenReturn(List.of(message))
+        .thenReturn(List.of());
+    Mockito.when(messageContentService.load(Mockito.any())).thenReturn(Optional.of("content"));
+    Mockito.when(
+            mailTransport.sendHtmlContentMessage(Mockito.any(), Mockito.any(), Mockito.any()))
+        .thenReturn(false);
+
+    service.pollDueReminders();
+
+    Assertions.assertThat(message.getDisabledAt()).isEqualTo(NOW);
+    Mockito.verify(messageRepository).releaseContent(MESSAGE_ID, NOW, NOW.plusSeconds(60), NOW);
+  }
+
+  private static MessageEntity newMessage() {
+    MessageEntity message = new MessageEntity();
+    message.setId(MESSAGE_ID);
+    message.setUserId(3L);
+    message.setReminderUuid(UUID.randomUUID());
+    message.setNextReminderDue(NOW.minus(Duration.ofMinutes(1)));
+    message.setNumberToTrigger(1);
+    message.setTypeToTrigger("hours");
+    message.setTargets("target@example.com");
+    message.setSubject("Subject");
+    message.setContentId(11L);
+    return message;
+  }
+}
@@ -0,0 +1,65 @@
+package br.dev.ricardocampos.silentguardapi.service;
+
+import br.dev.ricardocampos.silentguardapi.auth.BearerTokenHolder;
+import br.dev.ricardocampos.silentguardapi.dto.UserInfoDto;
+import br.dev.ricardocampos.silentguardapi.entity.UserEntity;
+import br.dev.ricardocampos.silentguardapi.repository.UserRepository;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+class UserServiceTest {
+
+  private static final LocalDateTime NOW = LocalDateTime.of(2030, 1, 2, 3, 4, 5);
+
+  private final UserRepository userRepository = Mockito.mock(UserRepository.class);
+
+  private final AuthService authService = Mockito.mock(AuthService.class);
+
+  private final BearerTokenHolder bearerTokenHolder = Mockito.mock(BearerTokenHolder.class);
+
+  private final UserService userService =
+      new UserService(
+          userRepository,
+          authService,
+          bearerTokenHolder,
+          Clock.fixed(Instant.parse("2030-01-02T03:04:05Z"), ZoneOffset.UTC));
+
+  @Test
+  void signUpStampsTheNewUserWithTheClock() {
+    givenUser("new@example.com");
+    Mockito.when(userRepository.findByEmail("new@example.com")).thenReturn(Optional.empty());
+
+    userService.signUpOrSignUser();
+
+    ArgumentCaptor<UserEntity> saved = ArgumentCaptor.forClass(UserEntity.class);
+    Mockito.verify(userRepository).save(saved.capture());
+    Assertions.assertThat(saved.getValue().getCreatedAt()).isEqualTo(NOW);
+    Assertions.assertThat(saved.getValue().getLastCheckIn()).isEqualTo(NOW);
+  }
+
+  @Test
+  void signInStampsTheCheckInWithTheClock() {
+    givenUser("known@example.com");
+    UserEntity known = new UserEntity();
+    known.setEmail("known@example.com");
+    Mockito.when(userRepository.findByEmail("known@example.com")).thenReturn(Optional.of(known));
+
+    userService.signUpOrSignUser();
+
+    Assertions.assertThat(known.getLastCheckIn()).isEqualTo(NOW);
+    Mockito.verify(userRepository).save(known);
+  }
+
+  private void givenUser(String email) {
+    Mockito.when(bearerTokenHolder.getToken()).thenReturn("token");
+    Mockito.when(authService.getUserInfo("token"))
+        .thenReturn(Optional.of(new UserInfoDto("auth0|1", null, null, null, null, email, null)));
+  }
+}
@@ -0,0 +1,106 @@
+package br.dev.ricardocampos.silentguardapi.template;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class MailgunFormEncoderTest {
+
+  private static final List<String> VALUES =
+      List.of(
+          "",
+          "plain",
+          "John Doe <john@example.com>",
+          "a&b=c+d %25 /?#~!'()*._-",
+          "Olá, ação é café",
+          "€ 100 – ünïcödé",
+          "emoji 😀 and 𝄞",
+          "lone \uD800 surrogate",
+          "quotes \" back\\slash\nnew\rline\ttab \u0001 ctrl");
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  void fieldsMatchUrlEncoder() {
+    MailgunFormEncoder encoder = new MailgunFormEncoder();
+    StringBuilder expected = new StringBuilder();
+    for (int i = 0; i < VALUES.size(); i++) {
+      encoder.field("field " + i, VALUES.get(i));
+      expected.append(i == 0 ? "" : "&").append(encode("field " + i)).append('=');
+      expected.append(encode(VALUES.get(i)));
+    }
+
+    Assertions.assertThat(encoder.toByteArray()).isEqualTo(bytes(expected.toString()));
+  }
+
+  @Test
+  void jsonFieldMatchesJacksonThenUrlEncoder() throws JsonProcessingException {
+    Map<String, String> variables = new LinkedHashMap<>();
+    for (int i = 0; i < VALUES.size(); i++) {
+      if (!VALUES.get(i).contains("\uD800")) {
+        variables.put("key \"" + i + "\"", VALUES.get(i));
+      }
+    }
+
+    byte[] encoded =
+        new MailgunFormEncoder().jsonField("h:X-Mailgun-Variables", variables).toByteArray();
+
+    String expected =
+        encode("h:X-Mailgun-Variables") + "=" + encode(objectMapper.writeValueAsString(variables));
+    Assertions.assertThat(encoded).isEqualTo(bytes(expected));
+  }
+
+  @Test
+  void nestedJsonObjectsMatchJackson() throws JsonProcessingException {
+    MailgunFormEncoder encoder =
+        new MailgunFormEncoder()
+            .beginJsonField("v")
+            .jsonMember("name", "Zé")
+            .beginJsonObject("items")
+            .jsonMember("a", "1")
+            .jsonMember("b", "2")
+            .endJsonObject()
+            .beginJsonObject("empty")
+            .endJsonObject()
+            .jsonMember("last", "x")
+            .endJsonField();
+
+    Map<String, Object> items = new LinkedHashMap<>();
+    items.put("a", "1");
+    items.put("b", "2");
+    Map<String, Object> value = new LinkedHashMap<>();
+    value.put("name", "Zé");
+    value.put("items", items);
+    value.put("empty", Map.of());
+    value.put("last", "x");
+    String expected = "v=" + encode(objectMapper.writeValueAsString(value));
+    Assertions.assertThat(encoder.toByteArray()).isEqualTo(bytes(expected));
+  }
+
+  @Test
+  void resetStartsANewBodyAfterAPreEncodedPart() {
+    byte[] from = new MailgunFormEncoder().field("from", "Me <me@example.com>").toByteArray();
+    MailgunFormEncoder encoder = new MailgunFormEncoder();
+    encoder.field("to", "old@example.com").field("text", "x".repeat(300_000));
+
+    encoder.reset().append(from).field("to", "new@example.com");
+
+    String expected = "from=" + encode("Me <me@example.com>") + "&to=" + encode("new@example.com");
+    Assertions.assertThat(encoder.toByteArray()).isEqualTo(bytes(expected));
+    Assertions.assertThat(encoder.size()).isEqualTo(expected.length());
+  }
+
+  private static String encode(String value) {
+    return URLEncoder.encode(value, StandardCharsets.UTF_8);
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.US_ASCII);
+  }
+}
@@ -0,0 +1,120 @@
+package br.dev.ricardocampos.silentguardapi.util;
+
+import br.dev.ricardocampos.silentguardapi.util.CircuitBreaker.State;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+
+  private final List<String> transitions = new ArrayList<>();
+
+  @Test
+  void opensOnceTheFailureRateReachesTheThreshold() {
+    CircuitBreaker breaker = breaker(Duration.ofMinutes(1));
+
+    succeed(breaker);
+    succeed(breaker);
+    fail(breaker);
+    Assertions.assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+    fail(breaker);
+
+    Assertions.assertThat(breaker.getState()).isEqualTo(State.OPEN);
+    Assertions.assertThat(breaker.isRefusing()).isTrue();
+    Assertions.assertThat(breaker.tryAcquire()).isEqualTo(-1);
+    Assertions.assertThat(transitions).containsExactly("CLOSED->OPEN");
+  }
+
+  @Test
+  void halfOpenLetsOnlyTheProbesThroughAndClosesWhenAllSucceed() {
+    CircuitBreaker breaker = openBreaker();
+
+    long firstProbe = breaker.tryAcquire();
+    long secondProbe = breaker.tryAcquire();
+
+    Assertions.assertThat(breaker.getState()).isEqualTo(State.HALF_OPEN);
+    Assertions.assertThat(breaker.tryAcquire()).isEqualTo(-1);
+
+    breaker.onSuccess(firstProbe);
+    Assertions.assertThat(breaker.getState()).isEqualTo(State.HALF_OPEN);
+    breaker.onSuccess(secondProbe);
+
+    Assertions.assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+    Assertions.assertThat(breaker.getRecordedCalls()).isZero();
+    Assertions.assertThat(transitions)
+        .containsExactly("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->CLOSED");
+  }
+
+  @Test
+  void failedProbeOpensTheBreakerAgain() {
+    CircuitBreaker breaker = openBreaker();
+
+    long firstProbe = breaker.tryAcquire();
+    long secondProbe = breaker.tryAcquire();
+    breaker.onFailure(firstProbe);
+    // the other probe ends after the breaker opened again and no longer counts
+    breaker.onSuccess(secondProbe);
+
+    Assertions.assertThat(breaker.getState()).isEqualTo(State.OPEN);
+    Assertions.assertThat(transitions)
+        .containsExactly("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->OPEN");
+  }
+
+  @Test
+  void callStartedBeforeOpeningDoesNotCountAsAProbe() {
+    CircuitBreaker breaker = breaker(Duration.ZERO);
+    long staleCall = breaker.tryAcquire();
+    for (int i = 0; i < 4; i++) {
+      fail(breaker);
+    }
+
+    long probe = breaker.tryAcquire();
+    breaker.onFailure(staleCall);
+    Assertions.assertThat(breaker.getState()).isEqualTo(State.HALF_OPEN);
+    breaker.onSuccess(staleCall);
+    breaker.onSuccess(probe);
+    Assertions.assertThat(breaker.getState()).isEqualTo(State.HALF_OPEN);
+
+    // the stale outcomes neither reopened nor closed it, one more probe success closes it
+    breaker.onSuccess(breaker.tryAcquire());
+    Assertions.assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+  }
+
+  @Test
+  void failuresBeyondTheWindowAreForgotten() {
+    CircuitBreaker breaker = breaker(Duration.ofMinutes(1));
+
+    fail(breaker);
+    for (int i = 0; i < 4; i++) {
+      succeed(breaker);
+    }
+
+    Assertions.assertThat(breaker.getRecordedCalls()).isEqualTo(4);
+    Assertions.assertThat(breaker.getFailureRate()).isZero();
+  }
+
+  // window of 4 calls, opens at half of them failed, 2 probes
+  private CircuitBreaker breaker(Duration openDuration) {
+    return new CircuitBreaker(
+        4, 4, 0.5, openDuration, 2, (from, to) -> transitions.add(from + "->" + to));
+  }
+
+  private CircuitBreaker openBreaker() {
+    CircuitBreaker breaker = breaker(Duration.ZERO);
+    for (int i = 0; i < 4; i++) {
+      fail(breaker);
+    }
+    Assertions.assertThat(breaker.getState()).isEqualTo(State.OPEN);
+    return breaker;
+  }
+
+  private static void succeed(CircuitBreaker breaker) {
+    breaker.onSuccess(breaker.tryAcquire());
+  }
+
+  private static void fail(CircuitBreaker breaker) {
+    breaker.onFailure(breaker.tryAcquire());
+  }
+}
@@ -0,0 +1,58 @@
+package br.dev.ricardocampos.silentguardapi.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class CompressionUtilTest {
+
+  @Test
+  void roundTripsEmptySmallAndLargeInputs() {
+    byte[] random = new byte[20_000];
+    new Random(7).nextBytes(random);
+    byte[] text = "Check in with me, please. ".repeat(1000).getBytes(StandardCharsets.UTF_8);
+
+    byte[] small = "ok".getBytes(StandardCharsets.UTF_8);
+
+    for (byte[] data : List.of(new byte[0], small, text, random)) {
+      byte[] compressed = CompressionUtil.deflate(data);
+
+      Assertions.assertThat(CompressionUtil.inflate(compressed, data.length)).isEqualTo(data);
+    }
+  }
+
+  @Test
+  void compressesRepetitiveText() {
+    byte[] text = "Check in with me, please. ".repeat(1000).getBytes(StandardCharsets.UTF_8);
+
+    Assertions.assertThat(CompressionUtil.deflate(text).length).isLessThan(text.length / 10);
+  }
+
+  @Test
+  void rejectsAWrongOriginalSize() {
+    byte[] data = "Check in with me, please.".getBytes(StandardCharsets.UTF_8);
+    byte[] compressed = CompressionUtil.deflate(data);
+
+    Assertions.assertThatThrownBy(() -> CompressionUtil.inflate(compressed, data.length - 1))
+        .isInstanceOf(IllegalStateException.class);
+    Assertions.assertThatThrownBy(() -> CompressionUtil.inflate(compressed, data.length + 1))
+        .isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  void rejectsCorruptOrTruncatedData() {
+    byte[] data = "Check in with me, please.".getBytes(StandardCharsets.UTF_8);
+    byte[] compressed = CompressionUtil.deflate(data);
+    byte[] truncated = Arrays.copyOf(compressed, compressed.length / 2);
+    byte[] corrupt = compressed.clone();
+    corrupt[0] = 0;
+
+    Assertions.assertThatThrownBy(() -> CompressionUtil.inflate(truncated, data.length))
+        .isInstanceOf(IllegalStateException.class);
+    Assertions.assertThatThrownBy(() -> CompressionUtil.inflate(corrupt, data.length))
+        .isInstanceOf(IllegalStateException.class);
+  }
+}
@@ -0,0 +1,49 @@
+package br.dev.ricardocampos.silentguardapi.util;
+
+import java.util.concurrent.TimeUnit;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTest {
+
+  private static final long ONE_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  @Test
+  void fullBucketServesTheBurstRightAway() {
+    TokenBucket bucket = new TokenBucket(1, 3);
+
+    Assertions.assertThat(bucket.reserve()).isZero();
+    Assertions.assertThat(bucket.reserve()).isZero();
+    Assertions.assertThat(bucket.reserve()).isZero();
+  }
+
+  @Test
+  void emptyBucketLinesCallersUpOneRefillApart() {
+    TokenBucket bucket = new TokenBucket(1, 1);
+    bucket.reserve();
+
+    long first = bucket.reserve();
+    long second = bucket.reserve();
+
+    Assertions.assertThat(first).isBetween(ONE_SECOND * 9 / 10, ONE_SECOND);
+    Assertions.assertThat(second - first).isBetween(ONE_SECOND * 9 / 10, ONE_SECOND);
+  }
+
+  @Test
+  void bucketRefillsAtItsRate() throws InterruptedException {
+    TokenBucket bucket = new TokenBucket(100, 1);
+    bucket.reserve();
+
+    Thread.sleep(30);
+
+    Assertions.assertThat(bucket.reserve()).isZero();
+  }
+
+  @Test
+  void burstBelowOneStillHoldsOneToken() {
+    TokenBucket bucket = new TokenBucket(1, 0);
+
+    Assertions.assertThat(bucket.reserve()).isZero();
+    Assertions.assertThat(bucket.reserve()).isPositive();
+  }
+}
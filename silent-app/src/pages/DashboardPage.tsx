@@ -3,7 +3,7 @@ import React, { Fragment, useCallback, useEffect, useState } from 'react';
 import type { Message } from '../types/Message';
 import { useAuth0 } from '@auth0/auth0-react';
 import AccountModal from '../components/AccountModal';
-import { createMessage, deleteMessage, getMessages, signInOrSignUpUser, updateMessage } from '../services/apiService';
+import { createMessage, deleteMessage, getMessage, getMessages, signInOrSignUpUser, updateMessage } from '../services/apiService';
 import { useToken } from '../context/TokenContext';
 import { handleAndDisplayError } from '../utils/Utils';
 import swal from 'sweetalert';
@@ -106,6 +106,22 @@ const DashboardPage: React.FC<Props> = (props) => {
     }
   }, [userValidated, accessToken]);
 
+  /**
+   * Fetches a message with its content and opens it for editing.
+   * The message list doesn't carry the content, so it is loaded only when needed.
+   *
+   * @param id - The ID of the message to edit
+   */
+  const openMessageEditor = async (id: number) => {
+    try {
+      const messageFetched: Message = await getMessage(accessToken, id);
+      setEditingMessage(messageFetched);
+    }
+    catch (e: unknown) {
+      handleAndDisplayError(e);
+    }
+  };
+
   /**
    * Toggles the active status of a message by its ID.
    * If the message is currently active, it will be deactivated and vice versa.
@@ -251,7 +267,7 @@ const DashboardPage: React.FC<Props> = (props) => {
               <textarea
                 placeholder="Message content"
                 rows={6}
-                value={newMessage.content}
+                value={newMessage.content ?? ''}
                 onChange={(e) => setNewMessage({ ...newMessage, content: e.target.value })}
                 className="w-full px-4 py-3 border border-slate-600 bg-slate-700 text-white rounded-lg focus:ring-2 focus:ring-blue-500 focus:border-blue-500 outline-none transition-colors placeholder:text-slate-400 text-base"
               />
@@ -309,7 +325,7 @@ const DashboardPage: React.FC<Props> = (props) => {
                     />
                     <textarea
                       rows={6}
-                      value={editingMessage.content}
+                      value={editingMessage.content ?? ''}
                       onChange={(e) => setEditingMessage({ ...editingMessage, content: e.target.value })}
                       className="w-full px-4 py-3 border border-slate-600 bg-slate-700 text-white rounded-lg focus:ring-2 focus:ring-blue-500 focus:border-blue-500 outline-none transition-colors placeholder:text-slate-400 text-base"
                     />
@@ -368,7 +384,6 @@ const DashboardPage: React.FC<Props> = (props) => {
                         </span>
                       </div>
                     </div>
-                    <p className="text-base text-slate-300 mb-6 leading-relaxed">{message.content}</p>
                     <div className="flex justify-between items-center">
                       <span className="text-base text-slate-300">
                         {createFooterMessage(message)}
@@ -385,7 +400,7 @@ const DashboardPage: React.FC<Props> = (props) => {
                           {message.active ? 'Deactivate' : 'Activate'}
                         </button>
                         <button
-                          onClick={() => setEditingMessage(message)}
+                          onClick={() => openMessageEditor(message.id)}
                           className="flex items-center space-x-2 bg-blue-600 text-white hover:bg-blue-700 px-4 py-2 rounded-lg transition-colors text-base font-medium"
                         >
                           <Edit className="w-4 h-4" />
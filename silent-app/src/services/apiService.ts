@@ -75,6 +75,36 @@ export const getMessages = async (token: string | null) => {
   throw new Error('Something went wrong!');
 };
 
+/**
+ * getMessage fetches a single message from the API, with its content.
+ * The message list leaves the content out, so this is used to open a message for editing.
+ *
+ * @param token - Access token for authorization
+ * @param id - ID of the message to fetch
+ * @returns The message object
+ * @throws Error if the request fails or returns an error message
+ */
+export const getMessage = async (token: string | null, id: number) => {
+  const response = await fetch(`${apiUrl}/messages/${id}`, {
+    method: 'GET',
+    mode: 'cors',
+    headers: getHeaders(token)
+  });
+
+  if (response.ok) {
+    const json = await response.json();
+    return json;
+  }
+
+  const contentType = response.headers.get('content-type');
+  if (contentType && contentType.includes('application/json')) {
+    const data = await response.json();
+    throw new Error(data.message);
+  }
+
+  throw new Error('Something went wrong!');
+};
+
 /**
  * createMessage sends a request to the API to create a new message.
  * It requires an access token for authorization and the message details in the payload.
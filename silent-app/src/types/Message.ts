@@ -1,7 +1,7 @@
 export type Message = {
   id: number;
   subject: string;
-  content: string;
+  content: string | null;
   numberToTrigger: number;
   typeToTrigger: 'DAYS' | 'HOURS' | 'MINUTES';
   recipients: string[];
@@ -0,0 +1,276 @@
+package br.dev.ricardocampos.silentguardapi.bench;
+
+import br.dev.ricardocampos.silentguardapi.config.SchedulerConfig;
+import br.dev.ricardocampos.silentguardapi.config.TimeZoneConfig;
+import br.dev.ricardocampos.silentguardapi.entity.MessageEntity;
+import br.dev.ricardocampos.silentguardapi.enums.TypeToTriggerEnum;
+import br.dev.ricardocampos.silentguardapi.scheduler.ReminderCatchUpQueue;
+import br.dev.ricardocampos.silentguardapi.scheduler.ReminderDescriptorStore;
+import br.dev.ricardocampos.silentguardapi.scheduler.ReminderDispatcher;
+import br.dev.ricardocampos.silentguardapi.scheduler.ReminderEngine;
+import br.dev.ricardocampos.silentguardapi.scheduler.ReminderMetrics;
+import br.dev.ricardocampos.silentguardapi.scheduler.ReminderTaskRegistry;
+import br.dev.ricardocampos.silentguardapi.scheduler.TimingWheelReminderEngine;
+import br.dev.ricardocampos.silentguardapi.service.MessageContentService;
+import br.dev.ricardocampos.silentguardapi.service.NodeMembershipService;
+import br.dev.ricardocampos.silentguardapi.service.PersistentReminderService;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Objects;
+import java.util.UUID;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Wires a {@link PersistentReminderService} the way Spring does in memory mode, with the real
+ * timing wheel engine and dispatcher, an in-memory message store, a no-op transaction manager and
+ * a stubbed Mailgun service. The outbox, catch-up queue and sharding are off, so a fired reminder
+ * goes straight to the Mailgun stub. The simulation replaces the engine and the clock with virtual
+ * ones.
+ */
+public class BenchFixture {
+
+  private static final String CONTENT = "<p>" + "benchmark content ".repeat(200) + "</p>";
+
+  private final SchedulerConfig schedulerConfig = new SchedulerConfig();
+
+  private final InMemoryMessageStore messageStore = new InMemoryMessageStore();
+
+  private final ReminderDescriptorStore reminderDescriptorStore = new ReminderDescriptorStore();
+
+  private final MessageContentService messageContentService =
+      new MessageContentService(
+          messageStore.asContentRepository(), Caffeine.newBuilder().maximumSize(1000).build());
+
+  private final Long contentId = messageContentService.acquire(CONTENT);
+
+  private final StubMailTransport mailTransport;
+
+  private final Clock clock;
+
+  private final ReminderDispatcher reminderDispatcher;
+
+  private final ReminderEngine reminderEngine;
+
+  private final ReminderCatchUpQueue reminderCatchUpQueue;
+
+  private final ReminderTaskRegistry reminderTaskRegistry;
+
+  private final PersistentReminderService service;
+
+  private final MethodHandle fireCheckIn;
+
+  private final MethodHandle fireContent;
+
+  /** Builds the service with the timing wheel engine and the system clock. */
+  public BenchFixture() {
+    this(
+        Clock.system(ZoneId.of(TimeZoneConfig.DEFAULT_TIMEZONE)),
+        null,
+        new StubMailTransport());
+  }
+
+  /**
+   * Builds the service and its collaborators.
+   *
+   * @param clock the clock the service reads the time from
+   * @param reminderEngine the engine, or null for the timing wheel engine
+   * @param mailTransport the mail transport stub
+   */
+  public BenchFixture(
+      Clock clock, ReminderEngine reminderEngine, StubMailTransport mailTransport) {
+    this.clock = clock;
+    this.mailTransport = mailTransport;
+    set("mode", SchedulerConfig.MODE_MEMORY);
+    set("dispatchType", "platform");
+    set("dispatchConcurrency", 4);
+    set("dispatchQueueCapacity", 10000);
+    set("catchUpEnabled", false);
+    set("catchUpRatePerSecond", 10);
+    set("outboxEnabled", false);
+    set("shardingSlotCount", 1024);
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    reminderDispatcher = new ReminderDispatcher(schedulerConfig, meterRegistry);
+    this.reminderEngine =
+        Objects.requireNonNullElseGet(
+            reminderEngine, () -> new TimingWheelReminderEngine(1000L, 60, reminderDispatcher));
+    reminderCatchUpQueue = new ReminderCatchUpQueue(schedulerConfig, meterRegistry);
+    reminderTaskRegistry = new ReminderTaskRegistry(meterRegistry);
+
+    service =
+        new PersistentReminderService(
+            this.reminderEngine,
+            messageStore.asRepository(),
+            messageContentService,
+            mailTransport,
+            schedulerConfig,
+            reminderCatchUpQueue,
+            null,
+            new TransactionTemplate(new NoOpTransactionManager()),
+            new StaticListableBeanFactory().getBeanProvider(NodeMembershipService.class),
+            reminderDescriptorStore,
+            new ReminderMetrics(meterRegistry, clock),
+            reminderTaskRegistry,
+            clock);
+
+    try {
+      MethodHandles.Lookup lookup =
+          MethodHandles.privateLookupIn(PersistentReminderService.class, MethodHandles.lookup());
+      MethodType handlerType = MethodType.methodType(void.class, long.class);
+      fireCheckIn =
+          lookup.findVirtual(
+              PersistentReminderService.class, "handleReminderAndUpdateDb", handlerType);
+      fireContent =
+          lookup.findVirtual(
+              PersistentReminderService.class, "handleContentReminderAndUpdateDb", handlerType);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Reminder handlers not found", e);
+    }
+  }
+
+  /**
+   * Create a message due in one to thirty days and arm its check-in reminder.
+   *
+   * @param id the message id
+   */
+  public void createAndArm(long id) {
+    MessageEntity message = new MessageEntity();
+    message.setId(id);
+    message.setUserId(id % 10_000 + 1);
+    message.setNumberToTrigger((int) (id % 30) + 1);
+    message.setTypeToTrigger(TypeToTriggerEnum.DAYS.name());
+    message.setSubject("Benchmark message " + id);
+    message.setTargets("target@silentguard.local");
+    message.setContentId(contentId);
+    message.setReminderUuid(UUID.randomUUID());
+    message.setNextReminderDue(LocalDateTime.now(clock).plusDays(message.getNumberToTrigger()));
+    message.setCreatedAt(LocalDateTime.now(clock));
+    messageStore.save(message);
+    service.scheduleCheckingMessage(message);
+  }
+
+  /**
+   * Enable a message again after its content was sent and arm its check-in reminder.
+   *
+   * @param id the message id
+   */
+  public void reactivate(long id) {
+    MessageEntity message = messageStore.get(id);
+    message.setDisabledAt(null);
+    message.setContentDue(null);
+    message.setNextReminderDue(LocalDateTime.now(clock).plusDays(message.getNumberToTrigger()));
+    service.scheduleCheckingMessage(message);
+  }
+
+  /**
+   * Run the check-in handler of a message right away, as the engine does when it is due.
+   *
+   * @param id the message id
+   */
+  public void fireCheckIn(long id) {
+    invoke(fireCheckIn, id);
+  }
+
+  /**
+   * Run the content handler of a message right away, as the engine does when it is due.
+   *
+   * @param id the message id
+   */
+  public void fireContent(long id) {
+    invoke(fireContent, id);
+  }
+
+  public PersistentReminderService getService() {
+    return service;
+  }
+
+  public InMemoryMessageStore getMessageStore() {
+    return messageStore;
+  }
+
+  public MessageContentService getMessageContentService() {
+    return messageContentService;
+  }
+
+  public StubMailTransport getMailTransport() {
+    return mailTransport;
+  }
+
+  public ReminderEngine getReminderEngine() {
+    return reminderEngine;
+  }
+
+  public ReminderDescriptorStore getReminderDescriptorStore() {
+    return reminderDescriptorStore;
+  }
+
+  public ReminderTaskRegistry getReminderTaskRegistry() {
+    return reminderTaskRegistry;
+  }
+
+  /**
+   * Cancel the reminders of the given messages and stop the engine threads.
+   *
+   * @param reminderCount the number of messages created, with ids from 1
+   */
+  public void close(long reminderCount) {
+    for (long id = 1; id <= reminderCount; id++) {
+      service.cancelExistingTask(id, false);
+      service.cancelExistingTask(id, true);
+    }
+    if (reminderEngine instanceof TimingWheelReminderEngine timingWheel) {
+      timingWheel.shutdown();
+    }
+    reminderDispatcher.shutdown();
+    reminderCatchUpQueue.shutdown();
+  }
+
+  private void invoke(MethodHandle handler, long id) {
+    try {
+      handler.invoke(service, id);
+    } catch (Throwable e) {
+      throw new IllegalStateException("Reminder handler failed", e);
+    }
+  }
+
+  private void set(String name, Object value) {
+    try {
+      Field field = SchedulerConfig.class.getDeclaredField(name);
+      field.setAccessible(true);
+      field.set(schedulerConfig, value);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Unknown scheduler setting " + name, e);
+    }
+  }
+
+  /** Transaction manager that only hands out a status, the message store isn't transactional. */
+  private static final class NoOpTransactionManager implements PlatformTransactionManager {
+
+    @Override
+    public TransactionStatus getTransaction(TransactionDefinition definition) {
+      return new SimpleTransactionStatus();
+    }
+
+    @Override
+    public void commit(TransactionStatus status) {
+      // nothing to commit
+    }
+
+    @Override
+    public void rollback(TransactionStatus status) {
+      // nothing to roll back
+    }
+  }
+}
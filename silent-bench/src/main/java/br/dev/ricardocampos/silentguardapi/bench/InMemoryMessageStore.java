@@ -0,0 +1,289 @@
+package br.dev.ricardocampos.silentguardapi.bench;
+
+import br.dev.ricardocampos.silentguardapi.dto.ActiveReminderDto;
+import br.dev.ricardocampos.silentguardapi.entity.MessageContentEntity;
+import br.dev.ricardocampos.silentguardapi.entity.MessageEntity;
+import br.dev.ricardocampos.silentguardapi.enums.TypeToTriggerEnum;
+import br.dev.ricardocampos.silentguardapi.repository.MessageContentRepository;
+import br.dev.ricardocampos.silentguardapi.repository.MessageRepository;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory stand-in for the messages and message contents tables. It exposes the few {@link
+ * MessageRepository} and {@link MessageContentRepository} methods used by the reminder handlers
+ * through dynamic proxies; any other method fails, so a benchmark never measures a repository call
+ * it didn't stub on purpose.
+ */
+public class InMemoryMessageStore {
+
+  private static final String USER_EMAIL = "bench@silentguard.local";
+
+  private final Map<Long, MessageEntity> messages = new ConcurrentHashMap<>();
+
+  private final Map<UUID, Long> idsByReminderUuid = new ConcurrentHashMap<>();
+
+  private final Map<Long, MessageContentEntity> contents = new ConcurrentHashMap<>();
+
+  private final Map<ByteBuffer, Long> contentIdsByDigest = new ConcurrentHashMap<>();
+
+  private final AtomicLong contentIds = new AtomicLong();
+
+  /**
+   * Add or replace a message.
+   *
+   * @param message the message, with its id set
+   */
+  public void save(MessageEntity message) {
+    messages.put(message.getId(), message);
+    if (Objects.nonNull(message.getReminderUuid())) {
+      idsByReminderUuid.put(message.getReminderUuid(), message.getId());
+    }
+  }
+
+  /**
+   * Find a message.
+   *
+   * @param id the message id
+   * @return the message, or null
+   */
+  public MessageEntity get(long id) {
+    return messages.get(id);
+  }
+
+  /**
+   * Build a repository backed by this store.
+   *
+   * @return the repository proxy
+   */
+  @SuppressWarnings("unchecked")
+  public MessageRepository asRepository() {
+    return (MessageRepository)
+        Proxy.newProxyInstance(
+            MessageRepository.class.getClassLoader(),
+            new Class<?>[] {MessageRepository.class},
+            (proxy, method, args) ->
+                switch (method.getName()) {
+                  case "findById" -> Optional.ofNullable(messages.get((Long) args[0]));
+                  case "findActiveReminder" -> findActiveReminder((Long) args[0]);
+                  case "findByReminderUuid" ->
+                      Optional.ofNullable(idsByReminderUuid.get((UUID) args[0]))
+                          .map(messages::get);
+                  case "save", "saveAndFlush" -> {
+                    save((MessageEntity) args[0]);
+                    yield args[0];
+                  }
+                  case "findMaxActiveId" -> (long) messages.size();
+                  case "findActiveByUserIdDueBy" ->
+                      findActiveByUserIdDueBy((Long) args[0], (LocalDateTime) args[1]);
+                  case "advanceReminders" ->
+                      advanceReminders(
+                          (Collection<Long>) args[0],
+                          (LocalDateTime) args[1],
+                          (LocalDateTime) args[2]);
+                  case "claimCheckIn" ->
+                      claimCheckIn(
+                          (Long) args[0], (LocalDateTime) args[1], (LocalDateTime) args[2]);
+                  case "completeCheckIn" ->
+                      completeCheckIn(
+                          (Long) args[0], (LocalDateTime) args[1], (LocalDateTime) args[2]);
+                  case "releaseCheckIn" ->
+                      releaseCheckIn(
+                          (Long) args[0], (LocalDateTime) args[1], (LocalDateTime) args[2]);
+                  case "claimContent" ->
+                      claimContent(
+                          (Long) args[0], (LocalDateTime) args[1], (LocalDateTime) args[2]);
+                  case "releaseContent" ->
+                      releaseContent(
+                          (Long) args[0], (LocalDateTime) args[1], (LocalDateTime) args[2]);
+                  case "hashCode" -> System.identityHashCode(proxy);
+                  case "equals" -> proxy == args[0];
+                  case "toString" -> "InMemoryMessageRepository";
+                  default ->
+                      throw new UnsupportedOperationException(
+                          "Not stubbed for benchmarks: " + method.getName());
+                });
+  }
+
+  /**
+   * Build a message content repository backed by this store.
+   *
+   * @return the repository proxy
+   */
+  public MessageContentRepository asContentRepository() {
+    return (MessageContentRepository)
+        Proxy.newProxyInstance(
+            MessageContentRepository.class.getClassLoader(),
+            new Class<?>[] {MessageContentRepository.class},
+            (proxy, method, args) ->
+                switch (method.getName()) {
+                  case "findById" -> Optional.ofNullable(contents.get((Long) args[0]));
+                  case "findIdByDigest" ->
+                      contentIdsByDigest.get(ByteBuffer.wrap((byte[]) args[0]));
+                  case "incrementRefCount" -> {
+                    Long id = contentIdsByDigest.get(ByteBuffer.wrap((byte[]) args[0]));
+                    if (Objects.isNull(id)) {
+                      yield 0;
+                    }
+                    contents.get(id).setRefCount(contents.get(id).getRefCount() + 1);
+                    yield 1;
+                  }
+                  case "insertOrIncrementRefCount" -> {
+                    MessageContentEntity content = new MessageContentEntity();
+                    content.setId(contentIds.incrementAndGet());
+                    content.setDigest((byte[]) args[0]);
+                    content.setData((byte[]) args[1]);
+                    content.setOriginalSize((Integer) args[2]);
+                    content.setRefCount(1);
+                    contents.put(content.getId(), content);
+                    contentIdsByDigest.put(ByteBuffer.wrap(content.getDigest()), content.getId());
+                    yield content.getId();
+                  }
+                  case "hashCode" -> System.identityHashCode(proxy);
+                  case "equals" -> proxy == args[0];
+                  case "toString" -> "InMemoryMessageContentRepository";
+                  default ->
+                      throw new UnsupportedOperationException(
+                          "Not stubbed for benchmarks: " + method.getName());
+                });
+  }
+
+  private List<MessageEntity> findActiveByUserIdDueBy(Long userId, LocalDateTime dueBy) {
+    return messages.values().stream()
+        .filter(message -> message.getUserId().equals(userId))
+        .filter(message -> Objects.isNull(message.getDisabledAt()))
+        .filter(message -> !message.getNextReminderDue().isAfter(dueBy))
+        .sorted(
+            Comparator.comparing(MessageEntity::getNextReminderDue)
+                .thenComparing(MessageEntity::getId))
+        .toList();
+  }
+
+  private List<Long> advanceReminders(
+      Collection<Long> ids, LocalDateTime dueBy, LocalDateTime sentAt) {
+    List<Long> advanced = new ArrayList<>();
+    for (Long id : ids) {
+      MessageEntity message = messages.get(id);
+      if (Objects.isNull(message)
+          || Objects.nonNull(message.getDisabledAt())
+          || message.getNextReminderDue().isAfter(dueBy)) {
+        continue;
+      }
+      LocalDateTime nextDue =
+          sentAt.plus(
+              TypeToTriggerEnum.valueOf(message.getTypeToTrigger())
+                  .toDuration(message.getNumberToTrigger()));
+      message.setLastReminderSent(sentAt);
+      message.setNextReminderDue(nextDue);
+      message.setContentDue(nextDue);
+      message.setUpdatedAt(sentAt);
+      advanced.add(id);
+    }
+    return advanced;
+  }
+
+  private int claimCheckIn(Long id, LocalDateTime expectedDue, LocalDateTime claimedDue) {
+    MessageEntity message = messages.get(id);
+    if (Objects.isNull(message)) {
+      return 0;
+    }
+    synchronized (message) {
+      if (Objects.nonNull(message.getDisabledAt())
+          || !expectedDue.equals(message.getNextReminderDue())) {
+        return 0;
+      }
+      message.setNextReminderDue(claimedDue);
+      return 1;
+    }
+  }
+
+  private int completeCheckIn(Long id, LocalDateTime claimedDue, LocalDateTime sentAt) {
+    MessageEntity message = messages.get(id);
+    if (Objects.isNull(message)) {
+      return 0;
+    }
+    synchronized (message) {
+      if (!claimedDue.equals(message.getNextReminderDue())) {
+        return 0;
+      }
+      message.setLastReminderSent(sentAt);
+      message.setContentDue(claimedDue);
+      message.setUpdatedAt(sentAt);
+      return 1;
+    }
+  }
+
+  private int releaseCheckIn(Long id, LocalDateTime claimedDue, LocalDateTime retryDue) {
+    MessageEntity message = messages.get(id);
+    if (Objects.isNull(message)) {
+      return 0;
+    }
+    synchronized (message) {
+      if (!claimedDue.equals(message.getNextReminderDue())) {
+        return 0;
+      }
+      message.setNextReminderDue(retryDue);
+      return 1;
+    }
+  }
+
+  private int claimContent(Long id, LocalDateTime expectedDue, LocalDateTime claimedAt) {
+    MessageEntity message = messages.get(id);
+    if (Objects.isNull(message)) {
+      return 0;
+    }
+    synchronized (message) {
+      if (Objects.nonNull(message.getDisabledAt())
+          || !expectedDue.equals(message.getContentDue())) {
+        return 0;
+      }
+      message.setDisabledAt(claimedAt);
+      message.setContentDue(null);
+      message.setUpdatedAt(claimedAt);
+      return 1;
+    }
+  }
+
+  private int releaseContent(Long id, LocalDateTime claimedAt, LocalDateTime retryDue) {
+    MessageEntity message = messages.get(id);
+    if (Objects.isNull(message)) {
+      return 0;
+    }
+    synchronized (message) {
+      if (!claimedAt.equals(message.getDisabledAt())) {
+        return 0;
+      }
+      message.setDisabledAt(null);
+      message.setContentDue(retryDue);
+      return 1;
+    }
+  }
+
+  private Optional<ActiveReminderDto> findActiveReminder(Long id) {
+    MessageEntity message = messages.get(id);
+    if (Objects.isNull(message) || Objects.nonNull(message.getDisabledAt())) {
+      return Optional.empty();
+    }
+    return Optional.of(
+        new ActiveReminderDto(
+            message.getId(),
+            message.getUserId(),
+            USER_EMAIL,
+            message.getReminderUuid(),
+            message.getNextReminderDue(),
+            message.getNumberToTrigger(),
+            message.getTypeToTrigger(),
+            message.getContentDue()));
+  }
+}
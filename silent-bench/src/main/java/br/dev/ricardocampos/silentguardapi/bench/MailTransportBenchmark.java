@@ -0,0 +1,104 @@
+package br.dev.ricardocampos.silentguardapi.bench;
+
+import br.dev.ricardocampos.silentguardapi.config.AppConfig;
+import br.dev.ricardocampos.silentguardapi.mail.FakeMailgunServer;
+import br.dev.ricardocampos.silentguardapi.service.MailgunEmailService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the Mailgun transport against the embedded {@link FakeMailgunServer}: each
+ * operation sends a burst of {@link #BURST} content emails asynchronously and waits for all of
+ * them, so the score shows how well {@code maxInFlight} concurrent requests hide the server
+ * {@code latencyMillis}. The rate limiter is opened wide so it doesn't pace the burst.
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar MailTransportBenchmark -p latencyMillis=50
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MailTransportBenchmark {
+
+  private static final int BURST = 100;
+
+  private static final List<String> RECIPIENTS = List.of("recipient@example.com");
+
+  private static final String CONTENT = "<p>" + "benchmark content ".repeat(200) + "</p>";
+
+  @Param({"0", "50"})
+  public long latencyMillis;
+
+  @Param({"8", "64"})
+  public int maxInFlight;
+
+  private FakeMailgunServer server;
+
+  private MailgunEmailService transport;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    server = new FakeMailgunServer(Duration.ofMillis(latencyMillis), 0, 0).start();
+
+    AppConfig appConfig = new AppConfig();
+    set(appConfig, "mailgunApiKey", "key-bench");
+    set(appConfig, "mailgunDomain", "bench.example.com");
+    set(appConfig, "mailgunSender", "no-reply@bench.example.com");
+    set(appConfig, "mailgunReadTimeoutMillis", 10000L);
+    set(appConfig, "mailgunMaxInFlight", maxInFlight);
+    set(appConfig, "mailgunRatePerSecond", 1_000_000d);
+    set(appConfig, "mailgunBurst", 1_000_000);
+
+    transport =
+        new MailgunEmailService(
+            HttpClient.newHttpClient(), appConfig, new SimpleMeterRegistry(), server.getBaseUrl());
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    server.close();
+  }
+
+  @Benchmark
+  public long sendBurst() {
+    CompletableFuture<?>[] sends = new CompletableFuture<?>[BURST];
+    for (int i = 0; i < BURST; i++) {
+      sends[i] = transport.sendHtmlContentMessageAsync(RECIPIENTS, "Benchmark " + i, CONTENT);
+    }
+    CompletableFuture.allOf(sends).join();
+    return server.getAccepted();
+  }
+
+  private static void set(AppConfig appConfig, String name, Object value) {
+    try {
+      Field field = AppConfig.class.getDeclaredField(name);
+      field.setAccessible(true);
+      field.set(appConfig, value);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Unknown application setting " + name, e);
+    }
+  }
+}
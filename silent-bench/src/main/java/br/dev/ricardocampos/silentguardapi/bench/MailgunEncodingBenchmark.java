@@ -0,0 +1,257 @@
+package br.dev.ricardocampos.silentguardapi.bench;
+
+import br.dev.ricardocampos.silentguardapi.template.MailgunFormEncoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+/**
+ * Benchmarks of building a Mailgun request body: the {@code legacy*} methods rebuild the previous
+ * path of {@code MailgunEmailService} (a {@code LinkedMultiValueMap} per send, {@code HttpHeaders}
+ * with a freshly encoded Basic auth header, a formatted debug line per field, the quadratic
+ * variables JSON and {@code URLEncoder} over every value), the {@code encoder*} methods build the
+ * same body the way the service does now, with {@link MailgunFormEncoder} and constant parts
+ * encoded once. Run with {@code -prof gc} to compare the allocation per body.
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar MailgunEncodingBenchmark -prof gc
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MailgunEncodingBenchmark {
+
+  private static final String FROM = "Silent Guard <no-reply@ricardocampos.dev.br>";
+
+  private static final String SUBJECT = "Silent Guard hasn't heard from you in a while!";
+
+  private static final String TEMPLATE = "check-in request";
+
+  private static final String LINK_PREFIX =
+      "https://silentguard.ricardocampos.dev.br/?confirmation=";
+
+  private static final String BATCH_VARIABLES =
+      "{\"CHECK_IN_LINK\":\"%recipient.CHECK_IN_LINK%\","
+          + "\"TIME_TO_RESPOND\":\"%recipient.TIME_TO_RESPOND%\"}";
+
+  private static final String API_KEY = "key-0123456789abcdef0123456789abcdef";
+
+  /** Check-in requests of one batch, with the constant parts encoded once as the service does. */
+  @State(Scope.Thread)
+  public static class Requests {
+
+    @Param({"1", "100", "1000"})
+    public int recipients;
+
+    List<String> emails;
+
+    List<String> links;
+
+    MailgunFormEncoder encoder;
+
+    byte[] fromField;
+
+    byte[] batchFields;
+
+    /** Generate the recipients and encode the constant parts. */
+    @Setup(Level.Trial)
+    public void setUp() {
+      emails = new ArrayList<>();
+      links = new ArrayList<>();
+      for (int i = 0; i < recipients; i++) {
+        emails.add("user" + i + "@example.org");
+        links.add(LINK_PREFIX + UUID.randomUUID());
+      }
+      encoder = new MailgunFormEncoder();
+      fromField = new MailgunFormEncoder().field("from", FROM).toByteArray();
+      batchFields =
+          new MailgunFormEncoder()
+              .field("subject", SUBJECT)
+              .field("template", TEMPLATE)
+              .field("h:X-Mailgun-Variables", BATCH_VARIABLES)
+              .toByteArray();
+    }
+  }
+
+  /**
+   * Single check-in email with its variables, built as before.
+   *
+   * @param requests the check-in requests, only the first is sent
+   * @return the body and headers
+   */
+  @Benchmark
+  public Object legacyCheckIn(Requests requests) {
+    Map<String, Object> variables = new LinkedHashMap<>();
+    variables.put("CHECK_IN_LINK", requests.links.getFirst());
+    variables.put("TIME_TO_RESPOND", "2 days");
+
+    MultiValueMap<String, String> mailData = new LinkedMultiValueMap<>();
+    mailData.add("from", FROM);
+    mailData.add("to", requests.emails.getFirst());
+    mailData.add("subject", SUBJECT);
+    mailData.add("template", TEMPLATE);
+    mailData.add("h:X-Mailgun-Variables", legacyVariablesJson(variables));
+    for (Map.Entry<String, List<String>> entry : mailData.entrySet()) {
+      String message = String.format("%s: %s", entry.getKey(), entry.getValue().getFirst());
+      legacyLog(message);
+    }
+    return legacyRequest(mailData);
+  }
+
+  /**
+   * Single check-in email with its variables, built with the encoder.
+   *
+   * @param requests the check-in requests, only the first is sent
+   * @return the body
+   */
+  @Benchmark
+  public byte[] encoderCheckIn(Requests requests) {
+    Map<String, Object> variables = new LinkedHashMap<>();
+    variables.put("CHECK_IN_LINK", requests.links.getFirst());
+    variables.put("TIME_TO_RESPOND", "2 days");
+
+    return requests
+        .encoder
+        .reset()
+        .append(requests.fromField)
+        .field("to", requests.emails.getFirst())
+        .field("subject", SUBJECT)
+        .field("template", TEMPLATE)
+        .jsonField("h:X-Mailgun-Variables", variables)
+        .toByteArray();
+  }
+
+  /**
+   * Batch send with recipient variables, built as before.
+   *
+   * @param requests the check-in requests
+   * @return the body and headers
+   */
+  @Benchmark
+  public Object legacyBatch(Requests requests) {
+    StringBuilder recipientVariables = new StringBuilder("{");
+    MultiValueMap<String, String> mailData = new LinkedMultiValueMap<>();
+    mailData.add("from", FROM);
+    for (int i = 0; i < requests.recipients; i++) {
+      mailData.add("to", requests.emails.get(i));
+      if (recipientVariables.length() > 1) {
+        recipientVariables.append(',');
+      }
+      legacyJsonString(recipientVariables, requests.emails.get(i));
+      recipientVariables.append(":{\"CHECK_IN_LINK\":");
+      legacyJsonString(recipientVariables, requests.links.get(i));
+      recipientVariables.append(",\"TIME_TO_RESPOND\":");
+      legacyJsonString(recipientVariables, "2 days");
+      recipientVariables.append('}');
+    }
+    recipientVariables.append('}');
+    mailData.add("subject", SUBJECT);
+    mailData.add("template", TEMPLATE);
+    mailData.add("h:X-Mailgun-Variables", BATCH_VARIABLES);
+    mailData.add("recipient-variables", recipientVariables.toString());
+    return legacyRequest(mailData);
+  }
+
+  /**
+   * Batch send with recipient variables, built with the encoder.
+   *
+   * @param requests the check-in requests
+   * @return the body
+   */
+  @Benchmark
+  public byte[] encoderBatch(Requests requests) {
+    MailgunFormEncoder form = requests.encoder.reset().append(requests.fromField);
+    for (int i = 0; i < requests.recipients; i++) {
+      form.field("to", requests.emails.get(i));
+    }
+    form.append(requests.batchFields).beginJsonField("recipient-variables");
+    for (int i = 0; i < requests.recipients; i++) {
+      form.beginJsonObject(requests.emails.get(i))
+          .jsonMember("CHECK_IN_LINK", requests.links.get(i))
+          .jsonMember("TIME_TO_RESPOND", "2 days")
+          .endJsonObject();
+    }
+    return form.endJsonField().toByteArray();
+  }
+
+  private static Object[] legacyRequest(MultiValueMap<String, String> mailData) {
+    HttpHeaders headers = new HttpHeaders();
+    headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+    String auth = "api" + ":" + API_KEY;
+    headers.set(
+        HttpHeaders.AUTHORIZATION,
+        "Basic " + Base64.getEncoder().encodeToString(auth.getBytes(StandardCharsets.UTF_8)));
+
+    StringBuilder form = new StringBuilder();
+    for (Map.Entry<String, List<String>> entry : mailData.entrySet()) {
+      for (String value : entry.getValue()) {
+        if (!form.isEmpty()) {
+          form.append('&');
+        }
+        form.append(URLEncoder.encode(entry.getKey(), StandardCharsets.UTF_8));
+        form.append('=');
+        form.append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+      }
+    }
+    return new Object[] {headers, form.toString().getBytes(StandardCharsets.UTF_8)};
+  }
+
+  private static String legacyVariablesJson(Map<String, Object> variables) {
+    StringBuilder sb = new StringBuilder("{");
+    for (Map.Entry<String, Object> entry : variables.entrySet()) {
+      if (sb.toString().length() > 1) {
+        sb.append(",");
+      }
+      sb.append("\"").append(entry.getKey()).append("\"");
+      sb.append(":");
+      sb.append("\"").append(entry.getValue().toString()).append("\"");
+    }
+    sb.append("}");
+    return sb.toString();
+  }
+
+  private static void legacyJsonString(StringBuilder sb, String value) {
+    sb.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '"' -> sb.append("\\\"");
+        case '\\' -> sb.append("\\\\");
+        default -> sb.append(c);
+      }
+    }
+    sb.append('"');
+  }
+
+  // the debug line was formatted even with debug logging off
+  private static void legacyLog(String message) {
+    if (message.isEmpty()) {
+      throw new IllegalStateException();
+    }
+  }
+}
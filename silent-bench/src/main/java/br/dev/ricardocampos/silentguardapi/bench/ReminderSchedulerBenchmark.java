@@ -0,0 +1,118 @@
+package br.dev.ricardocampos.silentguardapi.bench;
+
+import br.dev.ricardocampos.silentguardapi.entity.MessageEntity;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the reminder schedule, cancel and fire paths of {@code PersistentReminderService}
+ * with a given number of armed reminders. Throughput mode reports ops/s and sample time mode
+ * reports the latency percentiles, p99 included; run with {@code -prof gc} to get the allocation
+ * per operation ({@code gc.alloc.rate.norm}).
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar -prof gc
+ * java -jar target/benchmarks.jar mixedLifecycle -p reminderCount=100000 -p checkInRate=0.9
+ * </pre>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ReminderSchedulerBenchmark {
+
+  /** Armed reminders, created once per trial with ids from 1 to the reminder count. */
+  @State(Scope.Benchmark)
+  public static class Reminders {
+
+    @Param({"10000", "100000", "1000000"})
+    public int reminderCount;
+
+    BenchFixture fixture;
+
+    /** Create and arm every reminder. */
+    @Setup(Level.Trial)
+    public void setUp() {
+      fixture = new BenchFixture();
+      for (long id = 1; id <= reminderCount; id++) {
+        fixture.createAndArm(id);
+      }
+    }
+
+    /** Cancel every reminder and stop the engine. */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+      fixture.close(reminderCount);
+    }
+
+    long randomId() {
+      return ThreadLocalRandom.current().nextLong(reminderCount) + 1;
+    }
+  }
+
+  /** Armed reminders plus the share of check-in requests the users answer in time. */
+  @State(Scope.Benchmark)
+  public static class Lifecycle extends Reminders {
+
+    @Param({"0.5", "0.9", "0.99"})
+    public double checkInRate;
+  }
+
+  /**
+   * Cancel and arm again the check-in reminder of a message, as editing it does.
+   *
+   * @param reminders the armed reminders
+   */
+  @Benchmark
+  public void rearmCheckIn(Reminders reminders) {
+    long id = reminders.randomId();
+    MessageEntity message = reminders.fixture.getMessageStore().get(id);
+    reminders.fixture.getService().cancelExistingTask(id, false);
+    reminders.fixture.getService().scheduleCheckingMessage(message);
+  }
+
+  /**
+   * Fire a check-in reminder, which sends the request, advances the message and arms its content,
+   * then check in, which cancels the content.
+   *
+   * @param reminders the armed reminders
+   */
+  @Benchmark
+  public void fireCheckIn(Reminders reminders) {
+    long id = reminders.randomId();
+    reminders.fixture.fireCheckIn(id);
+    reminders.fixture.getService().cancelExistingTask(id, true);
+  }
+
+  /**
+   * Fire a check-in reminder; the user then either checks in, cancelling the content, or doesn't,
+   * so the content fires, disables the message and the message is enabled again.
+   *
+   * @param lifecycle the armed reminders and check-in rate
+   */
+  @Benchmark
+  public void mixedLifecycle(Lifecycle lifecycle) {
+    long id = lifecycle.randomId();
+    lifecycle.fixture.fireCheckIn(id);
+    if (ThreadLocalRandom.current().nextDouble() < lifecycle.checkInRate) {
+      lifecycle.fixture.getService().cancelExistingTask(id, true);
+    } else {
+      lifecycle.fixture.fireContent(id);
+      lifecycle.fixture.reactivate(id);
+    }
+  }
+}
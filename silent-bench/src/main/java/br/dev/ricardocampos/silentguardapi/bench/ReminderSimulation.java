@@ -0,0 +1,335 @@
+package br.dev.ricardocampos.silentguardapi.bench;
+
+import br.dev.ricardocampos.silentguardapi.config.TimeZoneConfig;
+import br.dev.ricardocampos.silentguardapi.entity.MessageEntity;
+import br.dev.ricardocampos.silentguardapi.enums.TypeToTriggerEnum;
+import br.dev.ricardocampos.silentguardapi.scheduler.ReminderTaskRegistry;
+import br.dev.ricardocampos.silentguardapi.service.MessageService;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Replays months of reminders in minutes: {@code PersistentReminderService} and {@code
+ * MessageService} run on a {@link VirtualClock} and a {@link VirtualReminderEngine}, with the
+ * in-memory message store and a mail sink that checks every email against a model of when it is
+ * due. Messages mix DAYS, HOURS and MINUTES triggers; after each check-in request the user checks
+ * in through {@link MessageService#registerUserCheckIn(String)} with the given probability,
+ * otherwise the content is sent and the message is enabled again one day later.
+ *
+ * <p>The report gives the simulated and wall time, the throughput in fired reminders per second,
+ * the heap growth and the emails sent early or twice (duplicates), late or never (missed).
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar br.dev.ricardocampos.silentguardapi.bench.ReminderSimulation \
+ *     messages=10000 days=365 checkInRate=0.9 seed=42
+ * </pre>
+ */
+public class ReminderSimulation {
+
+  private static final Instant START = Instant.parse("2026-01-01T03:00:00Z");
+
+  private static final Duration TOLERANCE = Duration.ofSeconds(1);
+
+  private static final Duration REACTIVATE_AFTER = Duration.ofDays(1);
+
+  private static final int REPORT_EVERY_DAYS = 30;
+
+  private final int messageCount;
+
+  private final int days;
+
+  private final double checkInRate;
+
+  private final Random random;
+
+  private final VirtualClock clock;
+
+  private final VirtualReminderEngine engine;
+
+  private final BenchFixture fixture;
+
+  private final MessageService messageService;
+
+  private final Map<String, Long> idsByConfirmation = new HashMap<>();
+
+  private final long[] periods;
+
+  private final long[] checkInDue;
+
+  private final long[] contentDue;
+
+  private final boolean[] disabled;
+
+  private long checkInsSent;
+
+  private long contentsSent;
+
+  private long userCheckIns;
+
+  private long duplicates;
+
+  private long late;
+
+  private long missed;
+
+  private Duration maxLateness = Duration.ZERO;
+
+  ReminderSimulation(int messageCount, int days, double checkInRate, long seed) {
+    this.messageCount = messageCount;
+    this.days = days;
+    this.checkInRate = checkInRate;
+    this.random = new Random(seed);
+    this.clock = new VirtualClock(START, ZoneId.of(TimeZoneConfig.DEFAULT_TIMEZONE));
+    this.engine = new VirtualReminderEngine(clock);
+    this.fixture = new BenchFixture(clock, engine, new MailSink());
+    this.messageService =
+        new MessageService(
+            null,
+            fixture.getMessageStore().asRepository(),
+            null,
+            null,
+            fixture.getMessageContentService(),
+            fixture.getService(),
+            clock);
+    this.periods = new long[messageCount + 1];
+    this.checkInDue = new long[messageCount + 1];
+    this.contentDue = new long[messageCount + 1];
+    this.disabled = new boolean[messageCount + 1];
+  }
+
+  /**
+   * Run the simulation and print its report.
+   *
+   * @param args {@code key=value} pairs for {@code messages}, {@code days}, {@code checkInRate}
+   *     and {@code seed}
+   */
+  public static void main(String[] args) {
+    Map<String, String> options = new HashMap<>();
+    for (String arg : args) {
+      String[] pair = arg.split("=", 2);
+      if (pair.length != 2) {
+        throw new IllegalArgumentException("Expected key=value, got " + arg);
+      }
+      options.put(pair[0], pair[1]);
+    }
+
+    ReminderSimulation simulation =
+        new ReminderSimulation(
+            Integer.parseInt(options.getOrDefault("messages", "10000")),
+            Integer.parseInt(options.getOrDefault("days", "365")),
+            Double.parseDouble(options.getOrDefault("checkInRate", "0.9")),
+            Long.parseLong(options.getOrDefault("seed", "42")));
+    boolean clean = simulation.run();
+    System.exit(clean ? 0 : 1);
+  }
+
+  boolean run() {
+    long heapBefore = usedHeap();
+    for (long id = 1; id <= messageCount; id++) {
+      createAndArm(id);
+    }
+    long heapArmed = usedHeap();
+    System.out.printf(
+        "Armed %d messages, heap %s (+%s)%n",
+        messageCount, megabytes(heapArmed), megabytes(heapArmed - heapBefore));
+
+    long wallStart = System.nanoTime();
+    for (int day = 1; day <= days; day++) {
+      engine.advanceTo(START.plus(Duration.ofDays(day)));
+      ReminderTaskRegistry registry = fixture.getReminderTaskRegistry();
+      if (day % REPORT_EVERY_DAYS == 0 || day == days) {
+        System.out.printf(
+            "Day %3d: %,d reminders fired, %,d armed, %,d queued, %,d descriptors,"
+                + " registry %,d live / %,d done, heap %s%n",
+            day,
+            engine.getFired(),
+            engine.size(),
+            engine.getQueued(),
+            fixture.getReminderDescriptorStore().size(),
+            registry.countLive(scheduleId -> true),
+            registry.countDone(),
+            megabytes(usedHeap()));
+      }
+      registry.purge();
+    }
+    double wallSeconds = (System.nanoTime() - wallStart) / 1e9;
+    long heapAfter = usedHeap();
+    countMissed();
+
+    System.out.printf("%nSimulated %d days in %.1f s%n", days, wallSeconds);
+    System.out.printf(
+        "Throughput: %,.0f reminders/s (%,d fired)%n",
+        engine.getFired() / wallSeconds,
+        engine.getFired());
+    System.out.printf(
+        "Emails: %,d check-in requests, %,d contents, %,d user check-ins%n",
+        checkInsSent, contentsSent, userCheckIns);
+    System.out.printf(
+        "Heap growth while running: %s (%s -> %s)%n",
+        megabytes(heapAfter - heapArmed), megabytes(heapArmed), megabytes(heapAfter));
+    System.out.printf(
+        "Duplicate sends: %,d, late sends: %,d (max %s), missed sends: %,d%n",
+        duplicates, late, maxLateness, missed);
+
+    fixture.close(messageCount);
+    return duplicates == 0 && late == 0 && missed == 0;
+  }
+
+  private void createAndArm(long id) {
+    TypeToTriggerEnum type;
+    int number;
+    double kind = random.nextDouble();
+    if (kind < 0.70) {
+      type = TypeToTriggerEnum.DAYS;
+      number = 1 + random.nextInt(30);
+    } else if (kind < 0.95) {
+      type = TypeToTriggerEnum.HOURS;
+      number = 6 + random.nextInt(67);
+    } else {
+      type = TypeToTriggerEnum.MINUTES;
+      number = 60 + random.nextInt(661);
+    }
+
+    LocalDateTime now = LocalDateTime.now(clock);
+    MessageEntity message = new MessageEntity();
+    message.setId(id);
+    message.setUserId(id);
+    message.setNumberToTrigger(number);
+    message.setTypeToTrigger(type.name());
+    message.setSubject("Simulated message " + id);
+    message.setTargets("target-" + id + "@silentguard.local");
+    message.setContentId(
+        fixture.getMessageContentService().acquire("<p>Simulated content " + id + "</p>"));
+    message.setReminderUuid(UUID.randomUUID());
+    message.setNextReminderDue(now.plus(type.toDuration(number)));
+    message.setCreatedAt(now);
+    fixture.getMessageStore().save(message);
+    idsByConfirmation.put(message.getReminderUuid().toString(), id);
+
+    int index = (int) id;
+    periods[index] = type.toDuration(number).toMillis();
+    checkInDue[index] = clock.millis() + periods[index];
+    contentDue[index] = -1;
+    fixture.getService().scheduleCheckingMessage(message);
+  }
+
+  private void onCheckInSent(long id) {
+    int index = (int) id;
+    long now = clock.millis();
+    checkInsSent++;
+    if (disabled[index] || now < checkInDue[index] - TOLERANCE.toMillis()) {
+      duplicates++;
+      return;
+    }
+    checkLateness(now, checkInDue[index]);
+
+    checkInDue[index] = now + periods[index];
+    contentDue[index] = now + periods[index];
+    if (random.nextDouble() < checkInRate) {
+      long respondAfter = (long) (periods[index] * (0.05 + random.nextDouble() * 0.85));
+      engine.schedule(() -> checkIn(id), clock.instant().plusMillis(respondAfter));
+    }
+  }
+
+  private void checkIn(long id) {
+    int index = (int) id;
+    if (disabled[index]) {
+      return;
+    }
+    MessageEntity message = fixture.getMessageStore().get(id);
+    messageService.registerUserCheckIn(message.getReminderUuid().toString());
+    userCheckIns++;
+    contentDue[index] = -1;
+  }
+
+  private void onContentSent(long id) {
+    int index = (int) id;
+    long now = clock.millis();
+    contentsSent++;
+    if (disabled[index]
+        || contentDue[index] < 0
+        || now < contentDue[index] - TOLERANCE.toMillis()) {
+      duplicates++;
+      return;
+    }
+    checkLateness(now, contentDue[index]);
+
+    disabled[index] = true;
+    contentDue[index] = -1;
+    engine.schedule(() -> reactivate(id), clock.instant().plus(REACTIVATE_AFTER));
+  }
+
+  private void reactivate(long id) {
+    int index = (int) id;
+    MessageEntity message = fixture.getMessageStore().get(id);
+    LocalDateTime now = LocalDateTime.now(clock);
+    message.setDisabledAt(null);
+    message.setContentDue(null);
+    message.setNextReminderDue(now.plus(Duration.ofMillis(periods[index])));
+    message.setUpdatedAt(now);
+    fixture.getMessageStore().save(message);
+
+    disabled[index] = false;
+    checkInDue[index] = clock.millis() + periods[index];
+    fixture.getService().scheduleCheckingMessage(message);
+  }
+
+  private void checkLateness(long now, long dueAt) {
+    Duration lateness = Duration.ofMillis(now - dueAt);
+    if (lateness.compareTo(TOLERANCE) > 0) {
+      late++;
+      if (lateness.compareTo(maxLateness) > 0) {
+        maxLateness = lateness;
+      }
+    }
+  }
+
+  // anything still expected before the end of the run never fired
+  private void countMissed() {
+    long deadline = clock.millis() - TOLERANCE.toMillis();
+    for (int index = 1; index <= messageCount; index++) {
+      if (!disabled[index] && checkInDue[index] < deadline) {
+        missed++;
+      }
+      if (contentDue[index] >= 0 && contentDue[index] < deadline) {
+        missed++;
+      }
+    }
+  }
+
+  private static long usedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    System.gc();
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  private static String megabytes(long bytes) {
+    return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+  }
+
+  /** Mail stub that reports every email to the simulation model. */
+  private final class MailSink extends StubMailTransport {
+
+    @Override
+    public boolean sendCheckInRequest(
+        List<String> recipients, String confirmationId, Duration hoursToRespond) {
+      onCheckInSent(idsByConfirmation.get(confirmationId));
+      return super.sendCheckInRequest(recipients, confirmationId, hoursToRespond);
+    }
+
+    @Override
+    public boolean sendHtmlContentMessage(
+        List<String> recipients, String subject, String htmlContent) {
+      String[] words = subject.split(" ");
+      onContentSent(Long.parseLong(words[words.length - 1]));
+      return super.sendHtmlContentMessage(recipients, subject, htmlContent);
+    }
+  }
+}
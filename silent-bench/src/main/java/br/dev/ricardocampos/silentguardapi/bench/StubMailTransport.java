@@ -0,0 +1,79 @@
+package br.dev.ricardocampos.silentguardapi.bench;
+
+import br.dev.ricardocampos.silentguardapi.dto.CheckInDigestItemDto;
+import br.dev.ricardocampos.silentguardapi.dto.CheckInRequestDto;
+import br.dev.ricardocampos.silentguardapi.mail.MailTransport;
+import br.dev.ricardocampos.silentguardapi.service.MailgunEmailService;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Mail transport that accepts every email without any network call and counts them. */
+public class StubMailTransport implements MailTransport {
+
+  private final LongAdder checkIns = new LongAdder();
+
+  private final LongAdder contents = new LongAdder();
+
+  @Override
+  public boolean sendCheckInRequest(
+      List<String> recipients, String confirmationId, Duration hoursToRespond) {
+    checkIns.increment();
+    return true;
+  }
+
+  @Override
+  public boolean sendHtmlContentMessage(
+      List<String> recipients, String subject, String htmlContent) {
+    contents.increment();
+    return true;
+  }
+
+  @Override
+  public CompletableFuture<Boolean> sendCheckInRequestAsync(
+      List<String> recipients, String confirmationId, Duration hoursToRespond) {
+    return CompletableFuture.completedFuture(
+        sendCheckInRequest(recipients, confirmationId, hoursToRespond));
+  }
+
+  @Override
+  public CompletableFuture<List<CheckInRequestDto>> sendCheckInBatchAsync(
+      List<CheckInRequestDto> requests) {
+    for (CheckInRequestDto request : requests) {
+      sendCheckInRequest(
+          List.of(request.recipient()), request.confirmationId(), request.timeToRespond());
+    }
+    return CompletableFuture.completedFuture(requests);
+  }
+
+  @Override
+  public CompletableFuture<Boolean> sendCheckInDigestAsync(
+      String recipient, List<CheckInDigestItemDto> items) {
+    // counted per message, so the check-in totals compare with and without digests
+    for (CheckInDigestItemDto item : items) {
+      sendCheckInRequest(List.of(recipient), item.confirmationId(), item.timeToRespond());
+    }
+    return CompletableFuture.completedFuture(true);
+  }
+
+  @Override
+  public CompletableFuture<Boolean> sendHtmlContentMessageAsync(
+      List<String> recipients, String subject, String htmlContent) {
+    return CompletableFuture.completedFuture(
+        sendHtmlContentMessage(recipients, subject, htmlContent));
+  }
+
+  @Override
+  public int maxBatchSize() {
+    return MailgunEmailService.MAX_BATCH_RECIPIENTS;
+  }
+
+  public long getCheckIns() {
+    return checkIns.sum();
+  }
+
+  public long getContents() {
+    return contents.sum();
+  }
+}
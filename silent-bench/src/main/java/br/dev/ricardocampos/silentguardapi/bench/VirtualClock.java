@@ -0,0 +1,61 @@
+package br.dev.ricardocampos.silentguardapi.bench;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Clock that only moves when it is told to. The {@link VirtualReminderEngine} advances it to the
+ * due time of each reminder before running it, so a year of reminders runs as fast as the handlers
+ * do.
+ */
+public class VirtualClock extends Clock {
+
+  private final AtomicReference<Instant> now;
+
+  private final ZoneId zone;
+
+  /**
+   * Constructs a clock stopped at the given instant.
+   *
+   * @param start the initial instant
+   * @param zone the time zone of the local date times read from this clock
+   */
+  public VirtualClock(Instant start, ZoneId zone) {
+    this(new AtomicReference<>(start), zone);
+  }
+
+  private VirtualClock(AtomicReference<Instant> now, ZoneId zone) {
+    this.now = now;
+    this.zone = zone;
+  }
+
+  /**
+   * Move the clock forward.
+   *
+   * @param instant the new instant, not before the current one
+   */
+  public void advanceTo(Instant instant) {
+    Instant current = now.get();
+    if (instant.isBefore(current)) {
+      throw new IllegalArgumentException("Virtual time can't go back from " + current);
+    }
+    now.set(instant);
+  }
+
+  @Override
+  public ZoneId getZone() {
+    return zone;
+  }
+
+  @Override
+  public Clock withZone(ZoneId zone) {
+    return new VirtualClock(now, zone);
+  }
+
+  @Override
+  public Instant instant() {
+    return now.get();
+  }
+}
@@ -0,0 +1,150 @@
+package br.dev.ricardocampos.silentguardapi.bench;
+
+import br.dev.ricardocampos.silentguardapi.scheduler.ReminderEngine;
+import br.dev.ricardocampos.silentguardapi.scheduler.ReminderHandle;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * Reminder engine driven by a {@link VirtualClock}. Reminders wait in a priority queue ordered by
+ * due time, then by arming order, and run on the calling thread of {@link #advanceTo(Instant)}
+ * with the clock set to their due time, so every reminder fires exactly on time. Cancelled
+ * reminders stay in the queue until their due time and are dropped then.
+ */
+public class VirtualReminderEngine implements ReminderEngine {
+
+  private final VirtualClock clock;
+
+  private final PriorityQueue<Entry> queue =
+      new PriorityQueue<>(
+          Comparator.comparing((Entry entry) -> entry.dueAt).thenComparingLong(e -> e.sequence));
+
+  private long sequence;
+
+  private int armed;
+
+  private long fired;
+
+  /**
+   * Constructs the engine.
+   *
+   * @param clock the clock advanced to the due time of each reminder
+   */
+  public VirtualReminderEngine(VirtualClock clock) {
+    this.clock = clock;
+  }
+
+  @Override
+  public ReminderHandle schedule(Runnable task, Instant startTime) {
+    return arm(new Entry(task, null), startTime);
+  }
+
+  @Override
+  public ReminderHandle scheduleAtFixedRate(Runnable task, Instant startTime, Duration period) {
+    return arm(new Entry(task, period), startTime);
+  }
+
+  @Override
+  public int size() {
+    return armed;
+  }
+
+  /**
+   * Run every reminder due up to the given instant, in due time order, then leave the clock there.
+   *
+   * @param end the instant to advance to
+   */
+  public void advanceTo(Instant end) {
+    while (!queue.isEmpty() && !queue.peek().dueAt.isAfter(end)) {
+      Entry entry = queue.poll();
+      if (entry.cancelled) {
+        continue;
+      }
+
+      clock.advanceTo(entry.dueAt);
+      if (entry.period == null) {
+        entry.done = true;
+        armed--;
+      }
+      fired++;
+      entry.task.run();
+
+      // fixed rate: the next run is measured from the due time of this one
+      if (entry.period != null && !entry.cancelled) {
+        entry.dueAt = entry.dueAt.plus(entry.period);
+        entry.sequence = sequence++;
+        queue.add(entry);
+      }
+    }
+    clock.advanceTo(end);
+  }
+
+  /**
+   * How many reminders ran so far.
+   *
+   * @return the fired reminder count
+   */
+  public long getFired() {
+    return fired;
+  }
+
+  /**
+   * How many entries are queued, cancelled ones not yet dropped included.
+   *
+   * @return the queue size
+   */
+  public int getQueued() {
+    return queue.size();
+  }
+
+  private Entry arm(Entry entry, Instant startTime) {
+    Instant now = clock.instant();
+    entry.dueAt = startTime.isBefore(now) ? now : startTime;
+    entry.sequence = sequence++;
+    queue.add(entry);
+    armed++;
+    return entry;
+  }
+
+  private final class Entry implements ReminderHandle {
+
+    private final Runnable task;
+
+    private final Duration period;
+
+    private Instant dueAt;
+
+    private long sequence;
+
+    private boolean cancelled;
+
+    private boolean done;
+
+    private Entry(Runnable task, Duration period) {
+      this.task = task;
+      this.period = period;
+    }
+
+    @Override
+    public boolean cancel() {
+      if (cancelled || done) {
+        return false;
+      }
+      cancelled = true;
+      armed--;
+      return true;
+    }
+
+    @Override
+    public boolean isCancelled() {
+      return cancelled;
+    }
+
+    @Override
+    public boolean isDone() {
+      return cancelled || done;
+    }
+  }
+}